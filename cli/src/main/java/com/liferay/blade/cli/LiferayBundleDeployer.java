@@ -23,7 +23,10 @@ import java.io.IOException;
 import java.net.URI;
 
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 
+import org.osgi.framework.Bundle;
 import org.osgi.framework.dto.BundleDTO;
 
 /**
@@ -47,6 +50,12 @@ public interface LiferayBundleDeployer extends AutoCloseable {
 
 	public long install(URI uri) throws Exception;
 
+	public default void refresh(Collection<Long> ids) throws Exception {
+		for (long id : ids) {
+			refresh(id);
+		}
+	}
+
 	public void refresh(long id) throws Exception;
 
 	public default void reloadBundle(long id, URI uri) throws Exception {
@@ -71,4 +80,39 @@ public interface LiferayBundleDeployer extends AutoCloseable {
 
 	public void update(long id, URI uri) throws Exception;
 
+	public default void update(Map<Long, URI> bundles) throws Exception {
+		for (Map.Entry<Long, URI> entry : bundles.entrySet()) {
+			update(entry.getKey(), entry.getValue());
+		}
+	}
+
+	/**
+	 * Waits until the bundles are ACTIVE or the timeout has elapsed, listing
+	 * all bundles once a second.
+	 *
+	 * @return the time each bundle was first seen ACTIVE, without the bundles
+	 *         that did not become ACTIVE in time
+	 */
+	public default Map<Long, Long> waitForActive(Collection<Long> ids, long timeout) throws Exception {
+		Map<Long, Long> activeTimes = new HashMap<>();
+
+		long deadline = System.currentTimeMillis() + timeout;
+
+		while (true) {
+			for (BundleDTO bundle : getBundles()) {
+				if (ids.contains(bundle.id) && (bundle.state == Bundle.ACTIVE)) {
+					activeTimes.putIfAbsent(bundle.id, System.currentTimeMillis());
+				}
+			}
+
+			long remaining = deadline - System.currentTimeMillis();
+
+			if ((activeTimes.size() == ids.size()) || (remaining <= 0)) {
+				return activeTimes;
+			}
+
+			Thread.sleep(Math.min(remaining, 1000));
+		}
+	}
+
 }
\ No newline at end of file
@@ -29,10 +29,30 @@ public class DeployArgs extends BaseArgs {
 		return CommandType.WORKSPACE_ONLY;
 	}
 
+	public boolean isCopy() {
+		return _copy;
+	}
+
+	public boolean isForce() {
+		return _force;
+	}
+
 	public boolean isWatch() {
 		return _watch;
 	}
 
+	@Parameter(
+		description = "Copies built artifacts into the Liferay deploy directory instead of running Gradle.",
+		names = "--copy"
+	)
+	private boolean _copy;
+
+	@Parameter(
+		description = "Deploys all projects, even those whose artifacts have not changed since the last deploy.",
+		names = "--force"
+	)
+	private boolean _force;
+
 	@Parameter(
 		description = "Watches the deployed file for changes and will automatically redeploy", names = {"-w", "--watch"}
 	)
@@ -19,11 +19,27 @@ package com.liferay.blade.cli.command;
 import com.liferay.blade.cli.BladeCLI;
 import com.liferay.blade.cli.WorkspaceProvider;
 import com.liferay.blade.cli.gradle.GradleExec;
+import com.liferay.blade.cli.gradle.GradleTooling;
 import com.liferay.blade.cli.gradle.ProcessResult;
+import com.liferay.blade.cli.util.DeployLedger;
+import com.liferay.blade.cli.util.FileUtil;
+import com.liferay.blade.gradle.tooling.ProjectInfo;
 
 import java.io.File;
+import java.io.IOException;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.gradle.tooling.GradleConnectionException;
 
 /**
  * @author Gregory Amerson
@@ -45,7 +61,13 @@ public class DeployCommand extends BaseCommand<DeployArgs> {
 
 		WorkspaceProvider workspaceProvider = bladeCLI.getWorkspaceProvider(baseDir);
 
-		if (workspaceProvider != null) {
+		if ((workspaceProvider != null) && deployArgs.isCopy()) {
+			_copyOutputFiles(workspaceProvider.getWorkspaceDir(baseDir));
+		}
+		else if ((workspaceProvider != null) && !deployArgs.isForce()) {
+			_deployChanged(gradleExec, workspaceProvider.getWorkspaceDir(baseDir));
+		}
+		else if (workspaceProvider != null) {
 			_deploy(gradleExec, "deploy");
 		}
 		else {
@@ -58,13 +80,137 @@ public class DeployCommand extends BaseCommand<DeployArgs> {
 		return DeployArgs.class;
 	}
 
+	private static String _getDeployTask(String projectPath) {
+		if (projectPath.equals(":")) {
+			return ":deploy";
+		}
+
+		return projectPath + ":deploy";
+	}
+
+	private static String _getLedgerKey(File outputFile) throws IOException {
+		String bsn = FileUtil.getManifestProperty(outputFile, "Bundle-SymbolicName");
+
+		if (bsn == null) {
+			return outputFile.getName();
+		}
+
+		int index = bsn.indexOf(';');
+
+		if (index != -1) {
+			bsn = bsn.substring(0, index);
+		}
+
+		return bsn.trim();
+	}
+
+	/**
+	 * Returns whether the artifact is still in the Liferay server, either
+	 * waiting in the deploy directory or moved to osgi/modules or osgi/war by
+	 * auto deploy, so that the ledger is not trusted once the server is reset.
+	 */
+	private static boolean _isInstalled(String deployDir, File outputFile) {
+		Path deployPath = Paths.get(deployDir);
+
+		String name = outputFile.getName();
+
+		if (Files.exists(deployPath.resolve(name))) {
+			return true;
+		}
+
+		Path liferayHomePath = deployPath.getParent();
+
+		if (liferayHomePath == null) {
+			return false;
+		}
+
+		Path osgiPath = liferayHomePath.resolve("osgi");
+
+		if (Files.exists(osgiPath.resolve("modules/" + name)) || Files.exists(osgiPath.resolve("war/" + name))) {
+			return true;
+		}
+
+		return false;
+	}
+
 	private void _addError(String msg) {
 		BladeCLI bladeCLI = getBladeCLI();
 
 		bladeCLI.addErrors("deploy", Collections.singleton(msg));
 	}
 
-	private void _deploy(GradleExec gradle, String command) throws Exception {
+	/**
+	 * Copies the artifacts that were already built straight into the deploy
+	 * directory of the local Liferay server, skipping Gradle entirely.
+	 */
+	private void _copyOutputFiles(File workspaceDir) throws Exception {
+		long start = System.currentTimeMillis();
+
+		DeployArgs deployArgs = getArgs();
+
+		File baseDir = deployArgs.getBase();
+
+		ProjectInfo projectInfo = GradleTooling.loadProjectInfo(baseDir.toPath());
+
+		String deployDir = projectInfo.getDeployDir();
+
+		if ((deployDir == null) || !Files.isDirectory(Paths.get(deployDir))) {
+			_addError("Unable to find the Liferay deploy directory " + deployDir);
+
+			return;
+		}
+
+		Path deployPath = Paths.get(deployDir);
+
+		DeployLedger deployLedger = new DeployLedger(workspaceDir.toPath());
+
+		Map<String, Set<File>> projectOutputFiles = projectInfo.getProjectOutputFiles();
+
+		BladeCLI bladeCLI = getBladeCLI();
+
+		int copied = 0;
+
+		for (Set<File> outputFiles : projectOutputFiles.values()) {
+			for (File outputFile : outputFiles) {
+				if (!outputFile.exists()) {
+					bladeCLI.trace("Skipping %s because it has not been built", outputFile);
+
+					continue;
+				}
+
+				Path outputPath = outputFile.toPath();
+
+				String digest = DeployLedger.digest(outputPath);
+				String ledgerKey = _getLedgerKey(outputFile);
+
+				if (!deployArgs.isForce() && deployLedger.isDeployed(deployDir, ledgerKey, digest) &&
+					_isInstalled(deployDir, outputFile)) {
+
+					continue;
+				}
+
+				FileUtil.copyAtomically(outputPath, deployPath.resolve(outputFile.getName()));
+
+				deployLedger.record(deployDir, ledgerKey, digest);
+
+				copied++;
+
+				if (!deployArgs.isQuiet()) {
+					bladeCLI.out("Copied " + outputFile.getName() + " to " + deployDir);
+				}
+			}
+		}
+
+		deployLedger.save();
+
+		if ((copied == 0) && !deployArgs.isQuiet()) {
+			bladeCLI.out("No changes since the last deploy. Use --force to deploy anyway.");
+		}
+
+		bladeCLI.trace("Copied %d files in %dms", copied, System.currentTimeMillis() - start);
+	}
+
+	private boolean _deploy(GradleExec gradle, String command) throws Exception {
 		DeployArgs deployArgs = getArgs();
 
 		File baseDir = deployArgs.getBase();
@@ -76,7 +222,7 @@ public class DeployCommand extends BaseCommand<DeployArgs> {
 		if (resultCode > 0) {
 			_addError("Gradle \"" + command + "\" task failed.");
 
-			return;
+			return false;
 		}
 
 		BladeCLI bladeCLI = getBladeCLI();
@@ -86,6 +232,134 @@ public class DeployCommand extends BaseCommand<DeployArgs> {
 
 			bladeCLI.out(output);
 		}
+
+		return true;
+	}
+
+	/**
+	 * Builds the projects and loads their outputs in a single Gradle build,
+	 * then runs the deploy task only for projects with at least one artifact
+	 * whose digest differs from the deploy ledger, or that is no longer in the
+	 * Liferay server. A project whose artifacts are missing or cannot be read,
+	 * or that reports no artifacts at all, is always deployed. Without a known
+	 * deploy directory the ledger is not used and every project is deployed.
+	 */
+	private void _deployChanged(GradleExec gradle, File workspaceDir) throws Exception {
+		BladeCLI bladeCLI = getBladeCLI();
+
+		DeployArgs deployArgs = getArgs();
+
+		File baseDir = deployArgs.getBase();
+
+		ProjectInfo projectInfo;
+
+		try {
+			projectInfo = GradleTooling.loadProjectInfo(baseDir.toPath(), bladeCLI.out(), bladeCLI.error(), "assemble");
+		}
+		catch (GradleConnectionException gce) {
+			_addError("Gradle \"assemble\" task failed.");
+
+			bladeCLI.trace("%s", gce.getMessage());
+
+			return;
+		}
+
+		String deployDir = projectInfo.getDeployDir();
+
+		if (deployDir == null) {
+			bladeCLI.trace("Deploying all projects because the Liferay deploy directory is unknown");
+
+			_deploy(gradle, "deploy");
+
+			return;
+		}
+
+		DeployLedger deployLedger = new DeployLedger(workspaceDir.toPath());
+
+		Map<String, Set<File>> projectOutputFiles = projectInfo.getProjectOutputFiles();
+
+		List<String> deployTasks = new ArrayList<>();
+		Map<String, String> digests = new HashMap<>();
+
+		for (Map.Entry<String, Set<File>> entry : projectOutputFiles.entrySet()) {
+			String projectPath = entry.getKey();
+			Set<File> outputFiles = entry.getValue();
+
+			boolean changed = false;
+
+			if (outputFiles.isEmpty()) {
+
+				// The root of a multi-project build has nothing to deploy itself
+
+				if (projectPath.equals(":") && (projectOutputFiles.size() > 1)) {
+					continue;
+				}
+
+				bladeCLI.trace("Deploying %s because it does not report any artifacts", projectPath);
+
+				changed = true;
+			}
+
+			for (File outputFile : outputFiles) {
+				if (!outputFile.exists()) {
+					bladeCLI.trace("Deploying %s because %s was not built", projectPath, outputFile);
+
+					changed = true;
+
+					continue;
+				}
+
+				try {
+					String digest = DeployLedger.digest(outputFile.toPath());
+					String ledgerKey = _getLedgerKey(outputFile);
+
+					if (!_isInstalled(deployDir, outputFile)) {
+						bladeCLI.trace(
+							"Deploying %s because %s is not in the Liferay server", projectPath, outputFile.getName());
+
+						changed = true;
+
+						digests.put(ledgerKey, digest);
+					}
+					else if (!deployLedger.isDeployed(deployDir, ledgerKey, digest)) {
+						changed = true;
+
+						digests.put(ledgerKey, digest);
+					}
+				}
+				catch (IOException ioe) {
+					bladeCLI.trace("Deploying %s because %s could not be read: %s", projectPath, outputFile, ioe);
+
+					changed = true;
+				}
+			}
+
+			if (changed) {
+				deployTasks.add(_getDeployTask(projectPath));
+			}
+		}
+
+		if (deployTasks.isEmpty()) {
+			if (!deployArgs.isQuiet()) {
+				bladeCLI.out("No changes since the last deploy. Use --force to deploy anyway.");
+			}
+
+			return;
+		}
+
+		bladeCLI.trace(
+			"Deploying %d of %d projects that changed since the last deploy", deployTasks.size(),
+			projectOutputFiles.size());
+
+		if (!_deploy(gradle, String.join(" ", deployTasks))) {
+			return;
+		}
+
+		for (Map.Entry<String, String> entry : digests.entrySet()) {
+			deployLedger.record(deployDir, entry.getKey(), entry.getValue());
+		}
+
+		deployLedger.save();
 	}
 
 }
\ No newline at end of file
@@ -0,0 +1,271 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.liferay.blade.cli.command;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.Collectors;
+
+/**
+ * Finds the project directories below a base directory. A directory is a
+ * project when it directly contains one of the project marker names, and its
+ * subtree is not scanned any further. Directories are listed in parallel and
+ * the result is cached in the base directory's <code>.blade</code> folder,
+ * keyed by the modification time of every directory that was listed.
+ *
+ * @author Gregory Amerson
+ */
+public class ProjectPathScanner {
+
+	public ProjectPathScanner(Path basePath, Collection<String> projectNames, Collection<String> ignorePaths) {
+		_basePath = basePath;
+		_projectNames = new HashSet<>(projectNames);
+		_ignorePaths = new ArrayList<>(ignorePaths);
+
+		_watchPathClassifier = new WatchPathClassifier(basePath, _ignorePaths, Collections.emptyList());
+
+		_cachePath = basePath.resolve(_CACHE_FILE_NAME);
+	}
+
+	public Set<Path> scan() throws IOException {
+		Set<Path> projectPaths = _readCache();
+
+		if (projectPaths != null) {
+			return projectPaths;
+		}
+
+		Map<Path, Long> directoryModifiedTimes = new ConcurrentHashMap<>();
+
+		projectPaths = ConcurrentHashMap.newKeySet();
+
+		if (!_isIgnored(_basePath)) {
+			ForkJoinPool forkJoinPool = ForkJoinPool.commonPool();
+
+			try {
+				forkJoinPool.invoke(new ScanDirectoryAction(_basePath, projectPaths, directoryModifiedTimes));
+			}
+			catch (UncheckedIOException uioe) {
+				throw uioe.getCause();
+			}
+		}
+
+		_writeCache(projectPaths, directoryModifiedTimes);
+
+		return projectPaths;
+	}
+
+	private boolean _isIgnored(Path path) {
+		if (path.equals(_cachePath.getParent())) {
+			return true;
+		}
+
+		return _watchPathClassifier.isIgnored(path);
+	}
+
+	private Set<Path> _readCache() {
+		if (!Files.exists(_cachePath)) {
+			return null;
+		}
+
+		Properties properties = new Properties();
+
+		try (InputStream inputStream = Files.newInputStream(_cachePath)) {
+			properties.load(inputStream);
+		}
+		catch (IOException ioe) {
+			return null;
+		}
+
+		if (!Objects.equals(properties.getProperty(_IGNORE_PATHS_KEY), String.join(",", _ignorePaths)) ||
+			!Objects.equals(properties.getProperty(_PROJECT_NAMES_KEY), String.join(",", _sortedProjectNames()))) {
+
+			return null;
+		}
+
+		Map<Path, Long> directoryModifiedTimes = new HashMap<>();
+		Set<Path> projectPaths = new HashSet<>();
+
+		for (String key : properties.stringPropertyNames()) {
+			if (key.startsWith(_DIRECTORY_KEY_PREFIX)) {
+				Path path = _basePath.resolve(key.substring(_DIRECTORY_KEY_PREFIX.length()));
+
+				directoryModifiedTimes.put(path, Long.valueOf(properties.getProperty(key)));
+			}
+			else if (key.startsWith(_PROJECT_KEY_PREFIX)) {
+				projectPaths.add(_basePath.resolve(key.substring(_PROJECT_KEY_PREFIX.length())));
+			}
+		}
+
+		if (directoryModifiedTimes.isEmpty()) {
+			return null;
+		}
+
+		Set<Map.Entry<Path, Long>> entries = directoryModifiedTimes.entrySet();
+
+		boolean unchanged = entries.parallelStream(
+		).allMatch(
+			entry -> {
+				try {
+					FileTime fileTime = Files.getLastModifiedTime(entry.getKey(), LinkOption.NOFOLLOW_LINKS);
+
+					return fileTime.toMillis() == entry.getValue();
+				}
+				catch (IOException ioe) {
+					return false;
+				}
+			}
+		);
+
+		if (unchanged) {
+			return projectPaths;
+		}
+
+		return null;
+	}
+
+	private List<String> _sortedProjectNames() {
+		return _projectNames.stream(
+		).sorted(
+		).collect(
+			Collectors.toList()
+		);
+	}
+
+	private void _writeCache(Set<Path> projectPaths, Map<Path, Long> directoryModifiedTimes) {
+		Properties properties = new Properties();
+
+		properties.setProperty(_IGNORE_PATHS_KEY, String.join(",", _ignorePaths));
+		properties.setProperty(_PROJECT_NAMES_KEY, String.join(",", _sortedProjectNames()));
+
+		for (Map.Entry<Path, Long> entry : directoryModifiedTimes.entrySet()) {
+			Path relativePath = _basePath.relativize(entry.getKey());
+
+			properties.setProperty(_DIRECTORY_KEY_PREFIX + relativePath, String.valueOf(entry.getValue()));
+		}
+
+		for (Path projectPath : projectPaths) {
+			Path relativePath = _basePath.relativize(projectPath);
+
+			properties.setProperty(_PROJECT_KEY_PREFIX + relativePath, "");
+		}
+
+		try {
+			Files.createDirectories(_cachePath.getParent());
+
+			try (OutputStream outputStream = Files.newOutputStream(_cachePath)) {
+				properties.store(outputStream, null);
+			}
+		}
+		catch (IOException ioe) {
+
+			// The cache is only an optimization, the next scan will rebuild it
+
+		}
+	}
+
+	private static final String _CACHE_FILE_NAME = ".blade/watch-projects.properties";
+
+	private static final String _DIRECTORY_KEY_PREFIX = "directory.";
+
+	private static final String _IGNORE_PATHS_KEY = "scan.ignore.paths";
+
+	private static final String _PROJECT_KEY_PREFIX = "project.";
+
+	private static final String _PROJECT_NAMES_KEY = "scan.project.names";
+
+	private final Path _basePath;
+	private final Path _cachePath;
+	private final List<String> _ignorePaths;
+	private final Set<String> _projectNames;
+	private final WatchPathClassifier _watchPathClassifier;
+
+	private class ScanDirectoryAction extends RecursiveAction {
+
+		public ScanDirectoryAction(Path path, Set<Path> projectPaths, Map<Path, Long> directoryModifiedTimes) {
+			_path = path;
+			_projectPaths = projectPaths;
+			_directoryModifiedTimes = directoryModifiedTimes;
+		}
+
+		@Override
+		protected void compute() {
+			List<ScanDirectoryAction> scanDirectoryActions = new ArrayList<>();
+
+			try {
+				FileTime fileTime = Files.getLastModifiedTime(_path, LinkOption.NOFOLLOW_LINKS);
+
+				_directoryModifiedTimes.put(_path, fileTime.toMillis());
+
+				try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(_path)) {
+					for (Path child : directoryStream) {
+						if (_isIgnored(child)) {
+							continue;
+						}
+
+						Path fileName = child.getFileName();
+
+						if (_projectNames.contains(fileName.toString())) {
+							_projectPaths.add(_path);
+
+							return;
+						}
+
+						if (Files.isDirectory(child, LinkOption.NOFOLLOW_LINKS)) {
+							scanDirectoryActions.add(
+								new ScanDirectoryAction(child, _projectPaths, _directoryModifiedTimes));
+						}
+					}
+				}
+			}
+			catch (IOException ioe) {
+				throw new UncheckedIOException(ioe);
+			}
+
+			invokeAll(scanDirectoryActions);
+		}
+
+		private static final long serialVersionUID = 1L;
+
+		private final Map<Path, Long> _directoryModifiedTimes;
+		private final Path _path;
+		private final Set<Path> _projectPaths;
+
+	}
+
+}
\ No newline at end of file
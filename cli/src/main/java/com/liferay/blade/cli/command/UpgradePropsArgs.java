@@ -19,8 +19,13 @@ package com.liferay.blade.cli.command;
 import com.beust.jcommander.Parameter;
 import com.beust.jcommander.Parameters;
 
+import com.liferay.properties.locator.ReportFormat;
+
 import java.io.File;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * @author Gregory Amerson
  */
@@ -38,26 +43,36 @@ public class UpgradePropsArgs extends BaseArgs {
 		return CommandType.WORKSPACE_ONLY;
 	}
 
+	public ReportFormat getFormat() {
+		return _format;
+	}
+
 	public File getOutputFile() {
 		return _outputFile;
 	}
 
-	public File getPropertiesFile() {
-		return _propertiesFile;
+	public List<File> getPropertiesFiles() {
+		return _propertiesFiles;
 	}
 
 	@Parameter(description = "Liferay server bundle directory.", names = {"-d", "--bundle-dir"})
 	private File _bundleDir;
 
 	@Parameter(
-		description = "If specified, write out report to this file, otherwise uses stdout.",
+		description = "The format of the report: text, json (one problem per line) or csv.", names = {"-f", "--format"}
+	)
+	private ReportFormat _format = ReportFormat.TEXT;
+
+	@Parameter(
+		description = "If specified, write out report to this file, otherwise uses stdout. For several properties files, the directory for their reports.",
 		names = {"-o", "--output-file"}
 	)
 	private File _outputFile;
 
 	@Parameter(
-		description = "Specify existing Liferay 6.x portal-ext.properties file.", names = {"-p", "--properties-file"}
+		description = "Specify existing Liferay 6.x portal-ext.properties file or a directory of them. Repeat to analyze several files.",
+		names = {"-p", "--properties-file"}
 	)
-	private File _propertiesFile;
+	private List<File> _propertiesFiles = new ArrayList<>();
 
 }
\ No newline at end of file
@@ -23,6 +23,7 @@ import com.liferay.properties.locator.PropertiesLocatorArgs;
 import java.io.File;
 
 import java.util.Collections;
+import java.util.List;
 
 /**
  * @author Gregory Amerson
@@ -39,9 +40,9 @@ public class UpgradePropsCommand extends BaseCommand<UpgradePropsArgs> {
 		UpgradePropsArgs upgradePropsArgs = getArgs();
 
 		File bundleDir = upgradePropsArgs.getBundleDir();
-		File propertiesFile = upgradePropsArgs.getPropertiesFile();
+		List<File> propertiesFiles = upgradePropsArgs.getPropertiesFiles();
 
-		if ((bundleDir == null) || (propertiesFile == null)) {
+		if ((bundleDir == null) || propertiesFiles.isEmpty()) {
 			bladeCLI.addErrors(
 				"upgradeProps", Collections.singleton("bundleDir and propertiesFile options both required."));
 
@@ -51,8 +52,9 @@ public class UpgradePropsCommand extends BaseCommand<UpgradePropsArgs> {
 		PropertiesLocatorArgs args = new PropertiesLocatorArgs();
 
 		args.setBundleDir(upgradePropsArgs.getBundleDir());
+		args.setFormat(upgradePropsArgs.getFormat());
 		args.setOutputFile(upgradePropsArgs.getOutputFile());
-		args.setPropertiesFile(upgradePropsArgs.getPropertiesFile());
+		args.setPropertiesFiles(propertiesFiles);
 
 		new PropertiesLocator(args);
 	}
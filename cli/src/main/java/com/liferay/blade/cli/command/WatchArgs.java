@@ -47,6 +47,10 @@ public class WatchArgs extends BaseArgs {
 		);
 	}
 
+	public String getHost() {
+		return _host;
+	}
+
 	public List<String> getIgnorePaths() {
 		return Stream.concat(
 			_defaultIgnorePaths.stream(), _ignorePaths.stream()
@@ -55,6 +59,10 @@ public class WatchArgs extends BaseArgs {
 		);
 	}
 
+	public int getPort() {
+		return _port;
+	}
+
 	public List<String> getProjectPaths() {
 		return Stream.concat(
 			_defaultProjectPaths.stream(), _projectPaths.stream()
@@ -63,6 +71,10 @@ public class WatchArgs extends BaseArgs {
 		);
 	}
 
+	public boolean isPatch() {
+		return _patch;
+	}
+
 	public boolean isSkipInit() {
 		return _skipInit;
 	}
@@ -71,10 +83,22 @@ public class WatchArgs extends BaseArgs {
 		_fastPaths.addAll(fastPaths);
 	}
 
+	public void setHost(String host) {
+		_host = host;
+	}
+
 	public void setIgnorePaths(List<String> ignorePaths) {
 		_ignorePaths.addAll(ignorePaths);
 	}
 
+	public void setPatch(boolean patch) {
+		_patch = patch;
+	}
+
+	public void setPort(int port) {
+		_port = port;
+	}
+
 	public void setProjectPaths(List<String> projectPaths) {
 		_projectPaths.addAll(projectPaths);
 	}
@@ -94,9 +118,23 @@ public class WatchArgs extends BaseArgs {
 	@Parameter(description = "File paths that will use deployFast instead of deploy.", names = {"-f", "--fast-paths"})
 	private List<String> _fastPaths = new ArrayList<>();
 
+	@Parameter(description = "The host of the gogo shell to update bundles through with --patch.", names = "--host")
+	private String _host = "localhost";
+
 	@Parameter(description = "Ignored watch paths.", names = {"-i", "--ignore-paths"})
 	private List<String> _ignorePaths = new ArrayList<>();
 
+	@Parameter(
+		description = "Patch changed fast path resources into a copy of the last built bundle under " +
+			"build/blade-patch and update it directly through the gogo shell at --host and --port instead of " +
+				"running deployFast.",
+		names = "--patch"
+	)
+	private boolean _patch = false;
+
+	@Parameter(description = "The port of the gogo shell to update bundles through with --patch.", names = "--port")
+	private int _port = 11311;
+
 	@Parameter(description = "File paths to use to identify a project path.", names = {"-p", "--project-paths"})
 	private List<String> _projectPaths = new ArrayList<>();
 
@@ -18,41 +18,33 @@ package com.liferay.blade.cli.command;
 
 import com.liferay.blade.cli.BladeCLI;
 import com.liferay.blade.cli.gradle.GradleExec;
-
-import com.sun.nio.file.SensitivityWatchEventModifier;
+import com.liferay.blade.cli.gradle.GradleTooling;
+import com.liferay.blade.cli.gradle.LiferayBundleDeployerImpl;
+import com.liferay.blade.cli.util.BladeUtil;
+import com.liferay.blade.cli.util.FileUtil;
+import com.liferay.blade.cli.util.FileWatchService;
+import com.liferay.blade.cli.util.JarPatcher;
+import com.liferay.blade.gradle.tooling.ProjectInfo;
 
 import java.io.File;
 import java.io.IOException;
 import java.io.PrintStream;
 
-import java.nio.file.FileSystem;
-import java.nio.file.FileSystems;
-import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.PathMatcher;
 import java.nio.file.Paths;
-import java.nio.file.SimpleFileVisitor;
-import java.nio.file.StandardWatchEventKinds;
-import java.nio.file.WatchEvent;
-import java.nio.file.WatchKey;
-import java.nio.file.WatchService;
-import java.nio.file.attribute.BasicFileAttributes;
-
-import java.util.ArrayList;
+import java.nio.file.attribute.FileTime;
+
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 /**
  * @author Gregory Amerson
  * @author David Truong
  */
-@SuppressWarnings("restriction")
 public class WatchCommand extends BaseCommand<WatchArgs> {
 
 	public WatchCommand() {
@@ -88,7 +80,13 @@ public class WatchCommand extends BaseCommand<WatchArgs> {
 			bladeCLI::out
 		);
 
-		_watch(watchPath, projectPaths, watchArgs.getFastPaths(), ignorePaths, !watchArgs.isSkipInit());
+		ProjectInfo projectInfo = null;
+
+		if (watchArgs.isPatch()) {
+			projectInfo = GradleTooling.loadProjectInfo(watchPath);
+		}
+
+		_watch(watchPath, projectPaths, watchArgs.getFastPaths(), ignorePaths, !watchArgs.isSkipInit(), projectInfo);
 	}
 
 	@Override
@@ -100,12 +98,30 @@ public class WatchCommand extends BaseCommand<WatchArgs> {
 		getBladeCLI().addErrors(prefix, Collections.singleton(msg));
 	}
 
-	private void _addPathMatcher(List<PathMatcher> pathMatchers, FileSystem fileSystem, String pattern) {
-		if (File.separatorChar == '\\') {
-			pattern = pattern.replace("/", "\\\\");
+	private Path _getBundleOutputPath(ProjectInfo projectInfo, String gradlePath) {
+		Map<String, Set<File>> projectOutputFiles = projectInfo.getProjectOutputFiles();
+
+		Set<File> outputFiles = projectOutputFiles.get(gradlePath);
+
+		if (outputFiles == null) {
+			return null;
 		}
 
-		pathMatchers.add(fileSystem.getPathMatcher("glob:" + pattern));
+		return outputFiles.stream(
+		).filter(
+			File::isFile
+		).filter(
+			file -> {
+				String fileName = file.getName();
+
+				return fileName.endsWith(".jar");
+			}
+		).map(
+			File::toPath
+		).findFirst(
+		).orElse(
+			null
+		);
 	}
 
 	private String _getGradlePath(Path path, Path basePath) {
@@ -130,291 +146,238 @@ public class WatchCommand extends BaseCommand<WatchArgs> {
 		return basePath;
 	}
 
-	private List<PathMatcher> _getPathMatchers(Path baseDirPath, String... patterns) {
-		FileSystem fileSystem = FileSystems.getDefault();
-
-		List<PathMatcher> pathMatchers = new ArrayList<>(patterns.length);
-
-		String patternPrefix = baseDirPath.toAbsolutePath() + File.separator;
-
-		if (File.separatorChar != '/') {
-			patternPrefix = patternPrefix.replace(File.separatorChar, '/');
+	/**
+	 * Returns the jar to apply the next patch to. The patched copy keeps the
+	 * earlier patches until Gradle builds the bundle again, so that Gradle's
+	 * own output is never rewritten.
+	 */
+	private Path _getPatchSourcePath(Path outputPath, Path patchedPath) throws IOException {
+		if (Files.notExists(patchedPath)) {
+			return outputPath;
 		}
 
-		for (String pattern : patterns) {
-			if (pattern.startsWith("**/")) {
-				String absolutePattern = patternPrefix + pattern.substring(3);
+		FileTime outputTime = Files.getLastModifiedTime(outputPath);
+		FileTime patchedTime = Files.getLastModifiedTime(patchedPath);
 
-				_addPathMatcher(pathMatchers, fileSystem, absolutePattern);
-			}
-
-			String absolutePattern = patternPrefix + pattern;
-
-			_addPathMatcher(pathMatchers, fileSystem, absolutePattern);
+		if (patchedTime.compareTo(outputTime) < 0) {
+			return outputPath;
 		}
 
-		return pathMatchers;
+		return patchedPath;
 	}
 
 	private Map<String, Path> _getProjectPaths(
 			final Path watchPath, List<String> projectPaths, List<String> ignorePaths)
 		throws Exception {
 
-		final Map<String, Path> foundProjectPaths = new HashMap<>();
+		ProjectPathScanner projectPathScanner = new ProjectPathScanner(watchPath, projectPaths, ignorePaths);
 
-		FileSystem fileSystem = FileSystems.getDefault();
+		Set<Path> foundProjectPaths = projectPathScanner.scan();
 
-		List<PathMatcher> ignorePathMatchers = ignorePaths.stream(
-		).map(
-			ignorePath -> fileSystem.getPathMatcher("glob:" + ignorePath)
+		return foundProjectPaths.stream(
 		).collect(
-			Collectors.toList()
+			Collectors.toMap(path -> _getGradlePath(path, watchPath), path -> path)
 		);
+	}
 
-		Files.walkFileTree(
-			watchPath,
-			new SimpleFileVisitor<Path>() {
+	private boolean _patchBundle(ProjectInfo projectInfo, Path basePath, Path projectPath, Path path) {
+		Path resourcesPath = projectPath.resolve(_RESOURCES_DIR_NAME);
 
-				@Override
-				public FileVisitResult preVisitDirectory(Path path, BasicFileAttributes basicFileAttributes)
-					throws IOException {
+		if (!path.startsWith(resourcesPath) || Files.exists(projectPath.resolve("package.json"))) {
+			return false;
+		}
 
-					boolean shouldIgnorePath = ignorePathMatchers.stream(
-					).anyMatch(
-						pathMatcher -> pathMatcher.matches(path)
-					);
+		String fileName = String.valueOf(path.getFileName());
 
-					if (shouldIgnorePath) {
-						return FileVisitResult.SKIP_SUBTREE;
-					}
+		if (fileName.endsWith(".scss")) {
+			return false;
+		}
 
-					try (Stream<Path> files = Files.list(path)) {
-						boolean projectPathFound = files.map(
-							p -> p.getFileName()
-						).filter(
-							p -> !ignorePathMatchers.stream(
-							).anyMatch(
-								pathMatcher -> pathMatcher.matches(path.resolve(p))
-							)
-						).anyMatch(
-							p -> projectPaths.stream(
-							).anyMatch(
-								pp -> Objects.equals(pp, p.toString())
-							)
-						);
-
-						if (projectPathFound) {
-							foundProjectPaths.put(_getGradlePath(path, watchPath), path);
-
-							return FileVisitResult.SKIP_SUBTREE;
-						}
-					}
+		Path outputPath = _getBundleOutputPath(projectInfo, _getGradlePath(projectPath, basePath));
 
-					return FileVisitResult.CONTINUE;
-				}
+		WatchArgs watchArgs = getArgs();
 
-			});
+		String host = watchArgs.getHost();
+		int port = watchArgs.getPort();
 
-		return foundProjectPaths;
-	}
+		if ((outputPath == null) || !BladeUtil.canConnect(host, port)) {
+			return false;
+		}
 
-	private void _registerDirectory(WatchService watcher, Map<WatchKey, Path> keys, Path dir) throws IOException {
-		WatchKey watchKey = dir.register(
-			watcher,
-			new WatchEvent.Kind[] {
-				StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_DELETE,
-				StandardWatchEventKinds.ENTRY_MODIFY
-			},
-			SensitivityWatchEventModifier.HIGH);
+		Path relativePath = resourcesPath.relativize(path);
 
-		keys.put(watchKey, dir);
-	}
+		String entryName = relativePath.toString();
 
-	private void _walkAndRegisterDirectories(
-			final WatchService watchService, final Map<WatchKey, Path> watchKeys, final Path basePath,
-			final List<PathMatcher> ignorePathMatchers)
-		throws IOException {
+		entryName = entryName.replace(File.separatorChar, '/');
 
-		Files.walkFileTree(
-			basePath,
-			new SimpleFileVisitor<Path>() {
+		BladeCLI bladeCLI = getBladeCLI();
 
-				@Override
-				public FileVisitResult preVisitDirectory(Path path, BasicFileAttributes basicFileAttributes)
-					throws IOException {
+		long start = System.currentTimeMillis();
 
-					for (PathMatcher pathMatcher : ignorePathMatchers) {
-						if (pathMatcher.matches(path)) {
-							return FileVisitResult.SKIP_SUBTREE;
-						}
-					}
+		try (LiferayBundleDeployerImpl liferayBundleDeployer = new LiferayBundleDeployerImpl(host, port)) {
+			String bsn = FileUtil.getManifestProperty(outputPath.toFile(), "Bundle-SymbolicName");
 
-					_registerDirectory(watchService, watchKeys, path);
+			if (bsn == null) {
+				return false;
+			}
 
-					return FileVisitResult.CONTINUE;
-				}
+			int index = bsn.indexOf(';');
 
-			});
-	}
+			if (index != -1) {
+				bsn = bsn.substring(0, index);
+			}
 
-	private void _watch(
-			Path watchPath, Map<String, Path> projectPaths, List<String> fastPaths, List<String> ignorePaths,
-			boolean deploy)
-		throws InterruptedException {
+			long bundleId = liferayBundleDeployer.getBundleId(bsn.trim());
 
-		Thread watchThread = new Thread() {
+			if (bundleId < 1) {
+				return false;
+			}
 
-			@Override
-			public void run() {
-				BladeCLI bladeCLI = getBladeCLI();
+			Path patchedPath = projectPath.resolve(_PATCH_DIR_NAME);
 
-				BaseArgs baseArgs = bladeCLI.getArgs();
+			patchedPath = patchedPath.resolve(outputPath.getFileName());
 
-				try (final FileSystem fileSystem = FileSystems.getDefault();
-					final WatchService watchService = fileSystem.newWatchService()) {
+			Path sourcePath = _getPatchSourcePath(outputPath, patchedPath);
 
-					final Map<WatchKey, Path> watchKeys = new HashMap<>();
+			JarPatcher.patch(sourcePath, patchedPath, Collections.singletonMap(entryName, path));
 
-					final List<PathMatcher> ignorePathMatchers = _getPathMatchers(
-						watchPath, ignorePaths.toArray(new String[0]));
+			liferayBundleDeployer.update(bundleId, patchedPath.toUri());
 
-					final List<PathMatcher> fastPathMatchers = _getPathMatchers(
-						watchPath, fastPaths.toArray(new String[0]));
+			BaseArgs baseArgs = bladeCLI.getArgs();
 
-					_walkAndRegisterDirectories(watchService, watchKeys, watchPath, ignorePathMatchers);
+			if (!baseArgs.isQuiet()) {
+				long elapsed = System.currentTimeMillis() - start;
 
-					final GradleExec gradleExec = new GradleExec(bladeCLI);
+				bladeCLI.out("Patched " + entryName + " into bundle " + bundleId + " in " + elapsed + "ms");
+			}
 
-					if (deploy) {
-						if (!baseArgs.isQuiet()) {
-							bladeCLI.out("Deploying...  To skip initial deployment, use `blade watch -s`");
-						}
+			return true;
+		}
+		catch (Exception e) {
+			bladeCLI.error("Unable to patch " + entryName + " into " + outputPath + ": " + e.getMessage());
 
-						gradleExec.executeTask("deploy", false);
-					}
+			return false;
+		}
+	}
 
-					while (true) {
-						WatchKey watchKey;
+	private void _handleFileEvent(
+			FileWatchService.FileEvent fileEvent, Path watchPath, Map<String, Path> projectPaths,
+			WatchPathClassifier watchPathClassifier, GradleExec gradleExec, ProjectInfo projectInfo)
+		throws Exception {
 
-						try {
-							watchKey = watchService.take();
-						}
-						catch (InterruptedException ie) {
-							continue;
-						}
+		BladeCLI bladeCLI = getBladeCLI();
 
-						Path dir = watchKeys.get(watchKey);
+		BaseArgs baseArgs = bladeCLI.getArgs();
 
-						if (dir == null) {
-							bladeCLI.error("WatchKey not recognized!!");
+		Path resolvedPath = fileEvent.getPath();
 
-							continue;
-						}
+		WatchPathClassifier.PathType pathType = watchPathClassifier.classify(resolvedPath);
 
-						for (WatchEvent<?> event : watchKey.pollEvents()) {
-							WatchEvent.Kind<?> kind = event.kind();
+		if (pathType == WatchPathClassifier.PathType.IGNORED) {
+			return;
+		}
 
-							Path path = (Path)event.context();
+		boolean directory = Files.isDirectory(resolvedPath);
 
-							Path resolvedPath = dir.resolve(path);
+		Path projectPath = _getGradleProjectPath(watchPath, resolvedPath, projectPaths);
 
-							boolean ignoredPath = false;
+		FileWatchService.FileEvent.Kind kind = fileEvent.getKind();
 
-							for (PathMatcher pathMatcher : ignorePathMatchers) {
-								if (pathMatcher.matches(resolvedPath)) {
-									ignoredPath = true;
+		if (kind == FileWatchService.FileEvent.Kind.CREATE) {
+			if (!baseArgs.isQuiet()) {
+				bladeCLI.out(resolvedPath + " has been created, deploying...");
+			}
 
-									break;
-								}
-							}
+			gradleExec.executeTask("deploy", projectPath.toFile(), false);
+		}
+		else if (kind == FileWatchService.FileEvent.Kind.DELETE) {
+			if (!baseArgs.isQuiet()) {
+				bladeCLI.out(resolvedPath + " has been deleted, redeploying...");
+			}
 
-							if (ignoredPath) {
-								continue;
-							}
+			gradleExec.executeTask("clean deploy", projectPath.toFile(), false);
+		}
+		else if (!directory) {
+			if (pathType == WatchPathClassifier.PathType.FAST) {
+				if (!baseArgs.isQuiet()) {
+					bladeCLI.out(resolvedPath + " has changed, fast deploying...");
+				}
 
-							boolean directory = Files.isDirectory(resolvedPath);
+				if ((projectInfo == null) || !_patchBundle(projectInfo, watchPath, projectPath, resolvedPath)) {
+					gradleExec.executeTask("deployFast -a", projectPath.toFile(), false);
+				}
+			}
+			else {
+				System.out.println(resolvedPath + " has changed, deploying...");
 
-							Path projectPath = _getGradleProjectPath(watchPath, resolvedPath, projectPaths);
+				gradleExec.executeTask("deploy -a", projectPath.toFile(), false);
+			}
+		}
 
-							if (kind == StandardWatchEventKinds.ENTRY_CREATE) {
-								if (directory) {
-									try {
-										_walkAndRegisterDirectories(
-											watchService, watchKeys, resolvedPath, ignorePathMatchers);
-									}
-									catch (IOException ioe) {
-										bladeCLI.error("Could not register directory:" + resolvedPath);
-									}
-								}
+		if (!baseArgs.isQuiet()) {
+			bladeCLI.out("Watching files in " + watchPath + ". Press Crtl + C to stop.");
+		}
+	}
 
-								if (!baseArgs.isQuiet()) {
-									bladeCLI.out(resolvedPath + " has been created, deploying...");
-								}
+	private void _watch(
+			Path watchPath, Map<String, Path> projectPaths, List<String> fastPaths, List<String> ignorePaths,
+			boolean deploy, ProjectInfo projectInfo) {
 
-								gradleExec.executeTask("deploy", projectPath.toFile(), false);
-							}
-							else if (kind == StandardWatchEventKinds.ENTRY_DELETE) {
-								if (!baseArgs.isQuiet()) {
-									bladeCLI.out(resolvedPath + " has been deleted, redeploying...");
-								}
+		BladeCLI bladeCLI = getBladeCLI();
 
-								gradleExec.executeTask("clean deploy", projectPath.toFile(), false);
-							}
-							else if (!directory) {
-								boolean fastExtension = false;
+		BaseArgs baseArgs = bladeCLI.getArgs();
 
-								for (PathMatcher pathMatcher : fastPathMatchers) {
-									if (pathMatcher.matches(resolvedPath)) {
-										fastExtension = true;
+		WatchPathClassifier watchPathClassifier = new WatchPathClassifier(watchPath, ignorePaths, fastPaths);
 
-										break;
-									}
-								}
+		try (FileWatchService fileWatchService = new FileWatchService(
+				watchPath, true, path -> !watchPathClassifier.isIgnored(path), _QUEUE_CAPACITY,
+				FileWatchService.BackpressurePolicy.BLOCK)) {
 
-								if (fastExtension) {
-									if (!baseArgs.isQuiet()) {
-										bladeCLI.out(resolvedPath + " has changed, fast deploying...");
-									}
+			GradleExec gradleExec = new GradleExec(bladeCLI);
 
-									gradleExec.executeTask("deployFast -a", projectPath.toFile(), false);
-								}
-								else {
-									System.out.println(resolvedPath + " has changed, deploying...");
+			fileWatchService.subscribe(
+				path -> true,
+				fileEvent -> {
+					try {
+						_handleFileEvent(
+							fileEvent, watchPath, projectPaths, watchPathClassifier, gradleExec, projectInfo);
+					}
+					catch (Exception e) {
+						_addError("watch", e.getMessage());
 
-									gradleExec.executeTask("deploy -a", projectPath.toFile(), false);
-								}
-							}
+						PrintStream error = bladeCLI.error();
 
-							if (!baseArgs.isQuiet()) {
-								bladeCLI.out("Watching files in " + watchPath + ". Press Crtl + C to stop.");
-							}
-						}
+						e.printStackTrace(error);
+					}
 
-						boolean valid = watchKey.reset();
+					bladeCLI.trace("watch: %s", fileWatchService.getMetrics());
+				});
 
-						if (!valid) {
-							watchKeys.remove(watchKey);
+			fileWatchService.start();
 
-							if (watchKeys.isEmpty()) {
-								break;
-							}
-						}
-					}
+			if (deploy) {
+				if (!baseArgs.isQuiet()) {
+					bladeCLI.out("Deploying...  To skip initial deployment, use `blade watch -s`");
 				}
-				catch (Exception e) {
-					_addError("watch", e.getMessage());
-
-					PrintStream error = bladeCLI.error();
 
-					e.printStackTrace(error);
-				}
+				gradleExec.executeTask("deploy", false);
 			}
 
-		};
+			fileWatchService.awaitTermination();
+		}
+		catch (Exception e) {
+			_addError("watch", e.getMessage());
 
-		watchThread.start();
+			PrintStream error = bladeCLI.error();
 
-		watchThread.join();
+			e.printStackTrace(error);
+		}
 	}
 
+	private static final String _PATCH_DIR_NAME = "build/blade-patch";
+
+	private static final int _QUEUE_CAPACITY = 1024;
+
+	private static final String _RESOURCES_DIR_NAME = "src/main/resources";
+
 }
\ No newline at end of file
@@ -0,0 +1,317 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.liferay.blade.cli.command;
+
+import java.io.File;
+
+import java.nio.file.Path;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Classifies paths below a base directory against the watch ignore and fast
+ * path globs. The globs are compiled once into hash sets for literal names,
+ * literal paths and file name suffixes, plus one combined regular expression
+ * for the remaining patterns, so the cost of classifying a path depends on
+ * its depth rather than on the number of patterns.
+ *
+ * <p>
+ * A leading <code>**&#47;</code> matches at any depth, including directly
+ * below the base directory. A path is ignored when it or any of its parents
+ * matches an ignore glob.
+ * </p>
+ *
+ * @author Gregory Amerson
+ */
+public class WatchPathClassifier {
+
+	public WatchPathClassifier(Path basePath, Collection<String> ignorePaths, Collection<String> fastPaths) {
+		_basePath = basePath;
+		_ignoreGlobs = new CompiledGlobs(ignorePaths, true);
+		_fastGlobs = new CompiledGlobs(fastPaths, false);
+	}
+
+	public PathType classify(Path path) {
+		String relativePath = _getRelativePath(path);
+
+		if (relativePath == null) {
+			return PathType.NORMAL;
+		}
+
+		if (_ignoreGlobs.matches(relativePath)) {
+			return PathType.IGNORED;
+		}
+
+		if (_fastGlobs.matches(relativePath)) {
+			return PathType.FAST;
+		}
+
+		return PathType.NORMAL;
+	}
+
+	public boolean isIgnored(Path path) {
+		String relativePath = _getRelativePath(path);
+
+		if (relativePath == null) {
+			return false;
+		}
+
+		return _ignoreGlobs.matches(relativePath);
+	}
+
+	public enum PathType {
+
+		FAST, IGNORED, NORMAL
+
+	}
+
+	private static String _toRegex(String glob) {
+		StringBuilder sb = new StringBuilder();
+
+		boolean inGroup = false;
+
+		for (int i = 0; i < glob.length(); i++) {
+			char c = glob.charAt(i);
+
+			if (c == '*') {
+				if (((i + 1) < glob.length()) && (glob.charAt(i + 1) == '*')) {
+					sb.append(".*");
+
+					i++;
+				}
+				else {
+					sb.append("[^/]*");
+				}
+			}
+			else if (c == '?') {
+				sb.append("[^/]");
+			}
+			else if (c == '[') {
+				int end = glob.indexOf(']', i);
+
+				if (end == -1) {
+					sb.append("\\[");
+
+					continue;
+				}
+
+				String characterClass = glob.substring(i + 1, end);
+
+				if (characterClass.startsWith("!")) {
+					characterClass = "^" + characterClass.substring(1);
+				}
+
+				sb.append('[');
+				sb.append(characterClass.replace("\\", "\\\\"));
+				sb.append(']');
+
+				i = end;
+			}
+			else if ((c == '{') && !inGroup) {
+				sb.append("(?:");
+
+				inGroup = true;
+			}
+			else if ((c == '}') && inGroup) {
+				sb.append(')');
+
+				inGroup = false;
+			}
+			else if ((c == ',') && inGroup) {
+				sb.append('|');
+			}
+			else if ("\\.^$+()|{}".indexOf(c) != -1) {
+				sb.append('\\');
+				sb.append(c);
+			}
+			else {
+				sb.append(c);
+			}
+		}
+
+		return sb.toString();
+	}
+
+	private String _getRelativePath(Path path) {
+		if (!path.startsWith(_basePath)) {
+			return null;
+		}
+
+		Path relativePath = _basePath.relativize(path);
+
+		String relativePathString = relativePath.toString();
+
+		if (File.separatorChar != '/') {
+			relativePathString = relativePathString.replace(File.separatorChar, '/');
+		}
+
+		return relativePathString;
+	}
+
+	private static final String _ANY_DEPTH_PREFIX = "**/";
+
+	private static final String _GLOB_CHARACTERS = "*?[]{}";
+
+	private final Path _basePath;
+	private final CompiledGlobs _fastGlobs;
+	private final CompiledGlobs _ignoreGlobs;
+
+	private static class CompiledGlobs {
+
+		public CompiledGlobs(Collection<String> globs, boolean matchParents) {
+			_matchParents = matchParents;
+
+			List<String> regexes = new ArrayList<>();
+
+			for (String glob : globs) {
+				if (File.separatorChar != '/') {
+					glob = glob.replace(File.separatorChar, '/');
+				}
+
+				boolean anyDepth = glob.startsWith(_ANY_DEPTH_PREFIX);
+
+				String rest = anyDepth ? glob.substring(_ANY_DEPTH_PREFIX.length()) : glob;
+
+				if (_isLiteral(rest)) {
+					if (!anyDepth) {
+						_paths.add(rest);
+
+						continue;
+					}
+					else if (rest.indexOf('/') == -1) {
+						_names.add(rest);
+
+						continue;
+					}
+				}
+				else if (anyDepth && rest.startsWith("*") && _isLiteral(rest.substring(1)) &&
+						 (rest.indexOf('/') == -1)) {
+
+					String suffix = rest.substring(1);
+
+					_nameSuffixes.add(suffix);
+					_nameSuffixLengths.add(suffix.length());
+
+					continue;
+				}
+
+				String regex = _toRegex(rest);
+
+				if (anyDepth) {
+					regex = "(?:.*/)?" + regex;
+				}
+
+				regexes.add(regex);
+			}
+
+			if (regexes.isEmpty()) {
+				_pattern = null;
+			}
+			else {
+				String regex = "(?:" + String.join("|", regexes) + ")";
+
+				if (matchParents) {
+					regex = regex + "(?:/.*)?";
+				}
+
+				_pattern = Pattern.compile(regex);
+			}
+		}
+
+		public boolean matches(String relativePath) {
+			if (_paths.contains(relativePath)) {
+				return true;
+			}
+
+			int start = 0;
+
+			while (start <= relativePath.length()) {
+				int end = relativePath.indexOf('/', start);
+
+				boolean last = false;
+
+				if (end == -1) {
+					end = relativePath.length();
+
+					last = true;
+				}
+
+				if (_matchParents || last) {
+					String name = relativePath.substring(start, end);
+
+					if (_names.contains(name) || _matchesNameSuffix(name)) {
+						return true;
+					}
+
+					if (_matchParents && !last && _paths.contains(relativePath.substring(0, end))) {
+						return true;
+					}
+				}
+
+				if (last) {
+					break;
+				}
+
+				start = end + 1;
+			}
+
+			if (_pattern == null) {
+				return false;
+			}
+
+			Matcher matcher = _pattern.matcher(relativePath);
+
+			return matcher.matches();
+		}
+
+		private static boolean _isLiteral(String glob) {
+			for (int i = 0; i < glob.length(); i++) {
+				if (_GLOB_CHARACTERS.indexOf(glob.charAt(i)) != -1) {
+					return false;
+				}
+			}
+
+			return true;
+		}
+
+		private boolean _matchesNameSuffix(String name) {
+			for (int length : _nameSuffixLengths) {
+				if ((length <= name.length()) && _nameSuffixes.contains(name.substring(name.length() - length))) {
+					return true;
+				}
+			}
+
+			return false;
+		}
+
+		private final boolean _matchParents;
+		private final Set<Integer> _nameSuffixLengths = new TreeSet<>();
+		private final Set<String> _nameSuffixes = new HashSet<>();
+		private final Set<String> _names = new HashSet<>();
+		private final Pattern _pattern;
+		private final Set<String> _paths = new HashSet<>();
+
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,256 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.liferay.blade.cli.gradle;
+
+import com.liferay.gogo.shell.client.GogoShellClient;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+
+import java.net.SocketTimeoutException;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A long-lived Gogo shell connection to one host and port. The connection is
+ * opened on first use, probed before reuse once it has been idle for a while,
+ * and reopened after a failure, so callers can keep one session for a whole
+ * deploy or watch run. Connecting and the idle health check are bounded by
+ * a timeout. Commands are not bounded unless a command timeout is given,
+ * because <code>install</code>, <code>start</code> or <code>refresh</code>
+ * keep running in the portal for as long as the bundles need.
+ *
+ * <p>
+ * A command that fails is not retried, because Gogo commands such as
+ * <code>install</code> are not idempotent; the next command reconnects.
+ * </p>
+ *
+ * @author Gregory Amerson
+ */
+public class GogoShellSession implements AutoCloseable {
+
+	public static final long DEFAULT_CONNECT_TIMEOUT = 30000;
+
+	public GogoShellSession(String host, int port) {
+		this(host, port, DEFAULT_CONNECT_TIMEOUT, 0);
+	}
+
+	/**
+	 * @param host the Gogo shell host
+	 * @param port the Gogo shell port
+	 * @param connectTimeout the maximum number of milliseconds to wait for a
+	 *        connection
+	 * @param commandTimeout the maximum number of milliseconds to wait for the
+	 *        response to a command, or <code>0</code> to wait until the
+	 *        command is done
+	 */
+	public GogoShellSession(String host, int port, long connectTimeout, long commandTimeout) {
+		_host = host;
+		_port = port;
+		_connectTimeout = connectTimeout;
+		_commandTimeout = commandTimeout;
+
+		_executorService = Executors.newSingleThreadExecutor(
+			runnable -> {
+				Thread thread = new Thread(runnable, "blade-gogo-" + host + ":" + port);
+
+				thread.setDaemon(true);
+
+				return thread;
+			});
+	}
+
+	@Override
+	public synchronized void close() {
+		_disconnect();
+
+		_executorService.shutdownNow();
+
+		_closed = true;
+	}
+
+	public String getHost() {
+		return _host;
+	}
+
+	public int getPort() {
+		return _port;
+	}
+
+	public synchronized boolean isConnected() {
+		if (_client != null) {
+			return true;
+		}
+
+		return false;
+	}
+
+	public synchronized String send(String command) throws IOException {
+		if (_closed) {
+			throw new IOException("Gogo shell session to " + _host + ":" + _port + " is closed");
+		}
+
+		GogoShellClient client = _getClient();
+
+		String response = _call(() -> client.send(command), "response to \"" + command + "\"", _commandTimeout);
+
+		_lastUsed = System.currentTimeMillis();
+
+		return response;
+	}
+
+	@Override
+	public String toString() {
+		return _host + ":" + _port;
+	}
+
+	private <T> T _call(Callable<T> callable, String description, long timeout) throws IOException {
+		Future<T> future = _executorService.submit(callable);
+
+		try {
+			if (timeout <= 0) {
+				return future.get();
+			}
+
+			return future.get(timeout, TimeUnit.MILLISECONDS);
+		}
+		catch (ExecutionException ee) {
+			_disconnect();
+
+			Throwable cause = ee.getCause();
+
+			if (cause instanceof IOException) {
+				throw (IOException)cause;
+			}
+
+			throw new IOException("Unable to get " + description + " from " + this, cause);
+		}
+		catch (InterruptedException ie) {
+			future.cancel(true);
+
+			_disconnect();
+
+			Thread currentThread = Thread.currentThread();
+
+			currentThread.interrupt();
+
+			throw new InterruptedIOException("Interrupted waiting for " + description + " from " + this);
+		}
+		catch (TimeoutException te) {
+			future.cancel(true);
+
+			_disconnect();
+
+			throw new SocketTimeoutException(
+				"Timed out after " + timeout + "ms waiting for " + description + " from " + this);
+		}
+	}
+
+	/**
+	 * Opens a new connection. A connection that is only established after
+	 * the connect timeout, or after the caller was interrupted, is closed
+	 * instead of being left open by the abandoned task.
+	 */
+	private GogoShellClient _connect() throws IOException {
+		AtomicReference<Object> connection = new AtomicReference<>();
+
+		try {
+			return _call(
+				() -> {
+					GogoShellClient client = new GogoShellClient(_host, _port);
+
+					if (!connection.compareAndSet(null, client)) {
+						client.close();
+					}
+
+					return client;
+				},
+				"connection", _connectTimeout);
+		}
+		catch (IOException ioe) {
+			Object client = connection.getAndSet(_ABANDONED_CONNECTION);
+
+			if (client instanceof GogoShellClient) {
+				GogoShellClient gogoShellClient = (GogoShellClient)client;
+
+				gogoShellClient.close();
+			}
+
+			throw ioe;
+		}
+	}
+
+	private void _disconnect() {
+		GogoShellClient client = _client;
+
+		_client = null;
+
+		if (client != null) {
+			try {
+				client.close();
+			}
+			catch (Exception e) {
+			}
+		}
+	}
+
+	private GogoShellClient _getClient() throws IOException {
+		if ((_client != null) && ((System.currentTimeMillis() - _lastUsed) > _HEALTH_CHECK_INTERVAL)) {
+			GogoShellClient client = _client;
+
+			try {
+				_call(() -> client.send(_HEALTH_CHECK_COMMAND), "health check", _HEALTH_CHECK_TIMEOUT);
+			}
+			catch (IOException ioe) {
+				_disconnect();
+			}
+		}
+
+		if (_client == null) {
+			_client = _connect();
+
+			_lastUsed = System.currentTimeMillis();
+		}
+
+		return _client;
+	}
+
+	private static final Object _ABANDONED_CONNECTION = new Object();
+
+	private static final String _HEALTH_CHECK_COMMAND = "echo";
+
+	private static final long _HEALTH_CHECK_INTERVAL = 10000;
+
+	private static final long _HEALTH_CHECK_TIMEOUT = 5000;
+
+	private GogoShellClient _client;
+	private boolean _closed;
+	private final long _commandTimeout;
+	private final long _connectTimeout;
+	private final ExecutorService _executorService;
+	private final String _host;
+	private long _lastUsed;
+	private final int _port;
+
+}
@@ -0,0 +1,72 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.liferay.blade.cli.gradle;
+
+import com.liferay.blade.cli.LiferayBundleDeployer;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hands out one shared {@link GogoShellSession} per host and port for the
+ * lifetime of a command, and closes them all when the command is done.
+ *
+ * @author Gregory Amerson
+ */
+public class GogoShellSessionManager implements AutoCloseable {
+
+	public GogoShellSessionManager() {
+		this(0);
+	}
+
+	/**
+	 * @param commandTimeout the maximum number of milliseconds that the
+	 *        sessions wait for the response to a command, or <code>0</code>
+	 *        to wait until the command is done
+	 */
+	public GogoShellSessionManager(long commandTimeout) {
+		_commandTimeout = commandTimeout;
+	}
+
+	@Override
+	public void close() {
+		Collection<GogoShellSession> sessions = _sessions.values();
+
+		sessions.forEach(GogoShellSession::close);
+
+		_sessions.clear();
+	}
+
+	/**
+	 * Returns a bundle deployer backed by the shared session for the host and
+	 * port. Closing the returned deployer leaves the session open.
+	 */
+	public LiferayBundleDeployer getBundleDeployer(String host, int port) {
+		return new LiferayBundleDeployerImpl(getSession(host, port));
+	}
+
+	public GogoShellSession getSession(String host, int port) {
+		return _sessions.computeIfAbsent(
+			host + ":" + port,
+			key -> new GogoShellSession(host, port, GogoShellSession.DEFAULT_CONNECT_TIMEOUT, _commandTimeout));
+	}
+
+	private final long _commandTimeout;
+	private final Map<String, GogoShellSession> _sessions = new ConcurrentHashMap<>();
+
+}
@@ -20,6 +20,7 @@ import com.liferay.blade.cli.util.FileUtil;
 import com.liferay.blade.gradle.tooling.ProjectInfo;
 
 import java.io.InputStream;
+import java.io.OutputStream;
 
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -37,6 +38,17 @@ import org.gradle.tooling.ProjectConnection;
 public class GradleTooling {
 
 	public static ProjectInfo loadProjectInfo(Path projectPath) throws Exception {
+		return loadProjectInfo(projectPath, null, null);
+	}
+
+	/**
+	 * Runs the given tasks and loads the project info in the same Gradle
+	 * build, so callers that need both only pay for one build invocation.
+	 */
+	public static ProjectInfo loadProjectInfo(
+			Path projectPath, OutputStream outputStream, OutputStream errorStream, String... tasks)
+		throws Exception {
+
 		ProjectInfo projectInfo = null;
 
 		GradleConnector connector = GradleConnector.newConnector();
@@ -77,6 +89,18 @@ public class GradleTooling {
 
 				modelBuilder.withArguments("--init-script", initPath.toString(), "--stacktrace");
 
+				if (tasks.length > 0) {
+					modelBuilder.forTasks(tasks);
+				}
+
+				if (outputStream != null) {
+					modelBuilder.setStandardOutput(outputStream);
+				}
+
+				if (errorStream != null) {
+					modelBuilder.setStandardError(errorStream);
+				}
+
 				projectInfo = modelBuilder.get();
 			}
 		}
@@ -17,7 +17,7 @@
 package com.liferay.blade.cli.gradle;
 
 import com.liferay.blade.cli.LiferayBundleDeployer;
-import com.liferay.gogo.shell.client.GogoShellClient;
+import com.liferay.blade.cli.util.FileUtil;
 
 import java.io.IOException;
 
@@ -30,9 +30,15 @@ import java.nio.file.PathMatcher;
 import java.nio.file.Paths;
 
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -42,25 +48,63 @@ import org.osgi.framework.Bundle;
 import org.osgi.framework.dto.BundleDTO;
 
 /**
+ * Deploys bundles through the Gogo shell.
+ *
+ * <p>
+ * Bundle lookups by symbolic name are answered from an index that is filled
+ * by the first full <code>lb</code> listing and then kept current from the
+ * install, update, start, stop and uninstall commands sent through this
+ * deployer. The index is dropped and rebuilt from a new listing whenever a
+ * command fails or the shell reports an error.
+ * </p>
+ *
  * @author Christopher Bryan Boyd
  * @author Gregory Amerson
  */
 public class LiferayBundleDeployerImpl implements LiferayBundleDeployer {
 
+	/**
+	 * Returns the <code>webbundle:</code> URL that installs the WAR file as a
+	 * web application bundle.
+	 */
+	public static String getWebBundleURL(Path path) throws IllegalArgumentException {
+		if (!_WAR_FILE_GLOB.matches(path)) {
+			throw new IllegalArgumentException("Must provide a valid WAR file");
+		}
+
+		String fileNameString = _getWarFileName(path);
+
+		URI uri = path.toUri();
+
+		return String.format(_WAR_STRING_TEMPLATE, uri.toASCIIString(), fileNameString, fileNameString);
+	}
+
 	public LiferayBundleDeployerImpl(final String host, final int port) throws IOException {
-		_client = new GogoShellClient(host, port);
+		_session = new GogoShellSession(host, port);
+
+		_ownsSession = true;
+	}
+
+	/**
+	 * Creates a deployer that sends its commands through a shared session.
+	 * The session is not closed when the deployer is closed.
+	 */
+	public LiferayBundleDeployerImpl(GogoShellSession session) {
+		_session = session;
+
+		_ownsSession = false;
 	}
 
 	@Override
-	public void close() throws Exception {
-		if (_client != null) {
-			_client.close();
+	public void close() {
+		if (_ownsSession) {
+			_session.close();
 		}
 	}
 
 	@Override
 	public BundleDTO getBundle(long id) throws Exception {
-		String response = _client.send("lb -s -u | grep '" + id + "\\|'");
+		String response = _session.send("lb -s -u | grep '" + id + "\\|'");
 
 		String[] lines = _parseGogoResponse(response);
 
@@ -74,6 +118,8 @@ public class LiferayBundleDeployerImpl implements LiferayBundleDeployer {
 			LiferayBundleDeployerImpl::_parseGogoLine
 		).filter(
 			x -> x.id == id
+		).peek(
+			this::_indexBundle
 		).findAny(
 		).orElseThrow(
 			() -> new NoSuchElementException("No bundle matching the specified ID " + id)
@@ -105,9 +151,30 @@ public class LiferayBundleDeployerImpl implements LiferayBundleDeployer {
 		return bundleId;
 	}
 
+	@Override
+	public long getBundleId(String bsn) throws Exception {
+		if (bsn == null) {
+			return -1L;
+		}
+
+		Map<String, BundleDTO> bundleIndex = _getBundleIndex();
+
+		BundleDTO bundle = bundleIndex.get(bsn);
+
+		if (bundle == null) {
+			return -1L;
+		}
+
+		return bundle.id;
+	}
+
 	@Override
 	public Collection<BundleDTO> getBundles() throws Exception {
-		return _getBundles(_client);
+		List<BundleDTO> bundles = _getBundles(_session);
+
+		_rebuildBundleIndex(bundles);
+
+		return bundles;
 	}
 
 	@Override
@@ -117,7 +184,7 @@ public class LiferayBundleDeployerImpl implements LiferayBundleDeployer {
 		Path uriPath = Paths.get(uri);
 
 		if (_WAR_FILE_GLOB.matches(uriPath)) {
-			installString = "install " + _getWarString(uriPath);
+			installString = "install " + getWebBundleURL(uriPath);
 		}
 		else {
 			installString = "install " + uri.toASCIIString();
@@ -125,16 +192,45 @@ public class LiferayBundleDeployerImpl implements LiferayBundleDeployer {
 
 		String response = _sendGogo(installString);
 
+		long id;
+
 		try {
 			Matcher matcher = _installResponse.matcher(response);
 
 			matcher.matches();
 
-			return Integer.parseInt(matcher.group(1));
+			id = Integer.parseInt(matcher.group(1));
 		}
 		catch (Exception e) {
+			_invalidateBundleIndex();
+
 			throw new Exception("Unable to install bundle.  Unexpected response: \n" + response, e);
 		}
+
+		BundleDTO bundle = _bundlesById.get(id);
+
+		int state = (bundle == null) ? Bundle.INSTALLED : bundle.state;
+
+		_indexBundle(id, state, _getSymbolicName(uriPath));
+
+		return id;
+	}
+
+	@Override
+	public void refresh(Collection<Long> ids) throws Exception {
+		if (ids.isEmpty()) {
+			return;
+		}
+
+		Stream<Long> stream = ids.stream();
+
+		String command = stream.map(
+			String::valueOf
+		).collect(
+			Collectors.joining(" ", "refresh ", "")
+		);
+
+		_sendGogo(command);
 	}
 
 	@Override
@@ -148,17 +244,34 @@ public class LiferayBundleDeployerImpl implements LiferayBundleDeployer {
 
 		String response = _sendGogo(request);
 
-		_verify(request, response);
+		try {
+			_verify(request, response);
+		}
+		catch (Exception e) {
+			_invalidateBundleIndex();
+
+			throw e;
+		}
+
+		_setBundleState(id, Bundle.ACTIVE);
 	}
 
 	@Override
 	public void stop(long id) throws Exception {
 		_sendGogo(String.format("stop %s", id));
+
+		_setBundleState(id, Bundle.RESOLVED);
 	}
 
 	@Override
 	public void uninstall(long id) throws Exception {
 		_sendGogo(String.format("uninstall %s", id));
+
+		BundleDTO bundle = _bundlesById.remove(id);
+
+		if (bundle != null) {
+			_bundlesBySymbolicName.remove(bundle.symbolicName, bundle);
+		}
 	}
 
 	@Override
@@ -168,17 +281,58 @@ public class LiferayBundleDeployerImpl implements LiferayBundleDeployer {
 		Path uriPath = Paths.get(uri);
 
 		if (_WAR_FILE_GLOB.matches(uriPath)) {
-			installString = "update " + _getWarString(uriPath);
+			installString = "update " + getWebBundleURL(uriPath);
 		}
 		else {
-			installString = _sendGogo(String.format("update %s %s", id, uri.toASCIIString()));
+			installString = String.format("update %s %s", id, uri.toASCIIString());
 		}
 
 		_sendGogo(installString);
+
+		BundleDTO bundle = _bundlesById.get(id);
+
+		if (bundle != null) {
+			_indexBundle(id, bundle.state, _getSymbolicName(uriPath));
+		}
 	}
 
-	private static List<BundleDTO> _getBundles(GogoShellClient client) throws IOException {
-		String response = client.send("lb -s -u");
+	/**
+	 * Waits until the bundles are ACTIVE or the timeout has elapsed. Only the
+	 * bundles that are not ACTIVE yet are listed, and the interval between
+	 * listings doubles up to a second, so a deploy that starts quickly is not
+	 * held up and a slow one does not flood the shell.
+	 */
+	@Override
+	public Map<Long, Long> waitForActive(Collection<Long> ids, long timeout) throws Exception {
+		Map<Long, Long> activeTimes = new HashMap<>();
+
+		Set<Long> pendingIds = new LinkedHashSet<>(ids);
+
+		long deadline = System.currentTimeMillis() + timeout;
+
+		long delay = _WAIT_ACTIVE_MIN_DELAY;
+
+		while (true) {
+			for (BundleDTO bundle : _listBundles(pendingIds)) {
+				if ((bundle.state == Bundle.ACTIVE) && pendingIds.remove(bundle.id)) {
+					activeTimes.put(bundle.id, System.currentTimeMillis());
+				}
+			}
+
+			long remaining = deadline - System.currentTimeMillis();
+
+			if (pendingIds.isEmpty() || (remaining <= 0)) {
+				return activeTimes;
+			}
+
+			Thread.sleep(Math.min(remaining, delay));
+
+			delay = Math.min(delay * 2, _WAIT_ACTIVE_MAX_DELAY);
+		}
+	}
+
+	private static List<BundleDTO> _getBundles(GogoShellSession session) throws IOException {
+		String response = session.send("lb -s -u");
 
 		String[] lines = _parseGogoResponse(response);
 
@@ -218,11 +372,32 @@ public class LiferayBundleDeployerImpl implements LiferayBundleDeployer {
 		return 0;
 	}
 
-	private static String _getWarString(Path path) throws IllegalArgumentException {
-		if (!_WAR_FILE_GLOB.matches(path)) {
-			throw new IllegalArgumentException("Must provide a valid WAR file");
+	private static String _getSymbolicName(Path path) {
+		if (_WAR_FILE_GLOB.matches(path)) {
+			return _getWarFileName(path);
+		}
+
+		try {
+			String bsn = FileUtil.getManifestProperty(path.toFile(), "Bundle-SymbolicName");
+
+			if (bsn == null) {
+				return null;
+			}
+
+			int index = bsn.indexOf(';');
+
+			if (index != -1) {
+				bsn = bsn.substring(0, index);
+			}
+
+			return bsn.trim();
+		}
+		catch (IOException ioe) {
+			return null;
 		}
+	}
 
+	private static String _getWarFileName(Path path) {
 		Path fileName = path.getFileName();
 
 		String fileNameString = fileName.toString();
@@ -233,9 +408,7 @@ public class LiferayBundleDeployerImpl implements LiferayBundleDeployer {
 			fileNameString = matcher.replaceFirst(".war");
 		}
 
-		URI uri = path.toUri();
-
-		return String.format(_WAR_STRING_TEMPLATE, uri.toASCIIString(), fileNameString, fileNameString);
+		return fileNameString;
 	}
 
 	private static final BundleDTO _newBundleDTO(Long id, int state, String symbolicName) {
@@ -306,20 +479,145 @@ public class LiferayBundleDeployerImpl implements LiferayBundleDeployer {
 		}
 	}
 
+	private Map<String, BundleDTO> _getBundleIndex() throws Exception {
+		if (!_bundleIndexValid) {
+			getBundles();
+		}
+
+		return _bundlesBySymbolicName;
+	}
+
+	private void _indexBundle(BundleDTO bundle) {
+		if (!_bundleIndexValid || (bundle.symbolicName == null)) {
+			return;
+		}
+
+		BundleDTO previousBundle = _bundlesById.put(bundle.id, bundle);
+
+		if (previousBundle != null) {
+			_bundlesBySymbolicName.remove(previousBundle.symbolicName, previousBundle);
+		}
+
+		_bundlesBySymbolicName.put(bundle.symbolicName, bundle);
+	}
+
+	private void _indexBundle(long id, int state, String symbolicName) {
+		if (symbolicName == null) {
+			_invalidateBundleIndex();
+
+			return;
+		}
+
+		_indexBundle(_newBundleDTO(id, state, symbolicName));
+	}
+
+	private void _invalidateBundleIndex() {
+		_bundleIndexValid = false;
+
+		_bundlesById.clear();
+		_bundlesBySymbolicName.clear();
+	}
+
+	/**
+	 * Lists only the bundles with the given ids, by filtering the bundle
+	 * listing in the shell.
+	 */
+	private List<BundleDTO> _listBundles(Collection<Long> ids) throws IOException {
+		if (ids.isEmpty()) {
+			return Collections.emptyList();
+		}
+
+		Stream<Long> idsStream = ids.stream();
+
+		String command = idsStream.map(
+			String::valueOf
+		).collect(
+			Collectors.joining("|", "lb -s -u | grep '^ *(", ")\\|'")
+		);
+
+		String response = _session.send(command);
+
+		String[] lines = _parseGogoResponse(response);
+
+		return Stream.of(
+			lines
+		).filter(
+			line -> {
+				Matcher matcher = _bundleLine.matcher(line);
+
+				return matcher.find();
+			}
+		).map(
+			LiferayBundleDeployerImpl::_parseGogoLine
+		).filter(
+			bundle -> ids.contains(bundle.id)
+		).peek(
+			this::_indexBundle
+		).collect(
+			Collectors.toList()
+		);
+	}
+
+	private void _rebuildBundleIndex(Collection<BundleDTO> bundles) {
+		_bundlesById.clear();
+		_bundlesBySymbolicName.clear();
+
+		_bundleIndexValid = true;
+
+		bundles.forEach(this::_indexBundle);
+	}
+
 	private String _sendGogo(String data) throws Exception {
-		return _client.send(data);
+		String response;
+
+		try {
+			response = _session.send(data);
+		}
+		catch (IOException ioe) {
+			_invalidateBundleIndex();
+
+			throw ioe;
+		}
+
+		if (response != null) {
+			Matcher matcher = _errorResponse.matcher(response);
+
+			if (matcher.find()) {
+				_invalidateBundleIndex();
+			}
+		}
+
+		return response;
+	}
+
+	private void _setBundleState(long id, int state) {
+		BundleDTO bundle = _bundlesById.get(id);
+
+		if (bundle != null) {
+			bundle.state = state;
+		}
 	}
 
 	private static final FileSystem _FILE_SYSTEM = FileSystems.getDefault();
 
+	private static final long _WAIT_ACTIVE_MAX_DELAY = 1000;
+
+	private static final long _WAIT_ACTIVE_MIN_DELAY = 100;
+
 	private static final PathMatcher _WAR_FILE_GLOB = _FILE_SYSTEM.getPathMatcher("glob:**.war");
 
 	private static final String _WAR_STRING_TEMPLATE = "webbundle:%s?Bundle-SymbolicName=%s&Web-ContextPath=/%s";
 
+	private static final Pattern _bundleLine = Pattern.compile("^\\s*\\d+\\|");
+	private static final Pattern _errorResponse = Pattern.compile("Exception|Cannot |Unable |not found");
 	private static final Pattern _installResponse = Pattern.compile(
 		".*Bundle ID: (.*$).*", Pattern.DOTALL | Pattern.MULTILINE);
 	private static final Pattern _versionPattern = Pattern.compile("-[\\d]+((\\.[\\d]+)+(-.+)*)\\.war$");
 
-	private GogoShellClient _client;
+	private volatile boolean _bundleIndexValid;
+	private final Map<Long, BundleDTO> _bundlesById = new ConcurrentHashMap<>();
+	private final Map<String, BundleDTO> _bundlesBySymbolicName = new ConcurrentHashMap<>();
+	private final boolean _ownsSession;
+	private final GogoShellSession _session;
 
 }
\ No newline at end of file
@@ -16,24 +16,44 @@
 
 package com.liferay.blade.cli.jmx;
 
+import com.liferay.blade.cli.LiferayBundleDeployer;
+import com.liferay.blade.cli.gradle.LiferayBundleDeployerImpl;
+
 import java.io.IOException;
 
 import java.net.MalformedURLException;
+import java.net.URI;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 
+import javax.management.InstanceNotFoundException;
+import javax.management.ListenerNotFoundException;
 import javax.management.MBeanServerConnection;
 import javax.management.MalformedObjectNameException;
+import javax.management.Notification;
+import javax.management.NotificationListener;
 import javax.management.ObjectName;
+import javax.management.RuntimeOperationsException;
 import javax.management.openmbean.CompositeData;
 import javax.management.openmbean.TabularData;
+import javax.management.remote.JMXServiceURL;
 
 import org.osgi.framework.Bundle;
+import org.osgi.framework.BundleEvent;
 import org.osgi.framework.dto.BundleDTO;
 
 /**
@@ -45,9 +65,19 @@ import org.osgi.framework.dto.BundleDTO;
  * framework JMX beans. For the JDK attach API, beware, assumptions about the
  * Oracle JDK directory layout have been made.
  *
+ * <p>
+ * As a {@link LiferayBundleDeployer} it works directly on the typed results of
+ * the framework and bundleState MBeans, and batches updates and refreshes
+ * through <code>updateBundlesFromURL</code> and <code>refreshBundles</code>.
+ * The bundles are listed once and indexed by symbolic name, and the index is
+ * kept up to date with the bundles this deployer installs and uninstalls, so
+ * that looking up bundle IDs during a deploy does not list every bundle again.
+ * The index is listed again after an operation fails.
+ * </p>
+ *
  * @author Gregory Amerson
  */
-public class JMXBundleDeployer extends JMXLocalConnector {
+public class JMXBundleDeployer extends JMXLocalConnector implements LiferayBundleDeployer {
 
 	public JMXBundleDeployer(Consumer<String> logger) throws MalformedURLException {
 		super(_NAME + ":type=" + _TYPE + ",*", logger);
@@ -57,6 +87,17 @@ public class JMXBundleDeployer extends JMXLocalConnector {
 		super(port);
 	}
 
+	public JMXBundleDeployer(JMXServiceURL serviceUrl) {
+		super(serviceUrl);
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (jmxConnector != null) {
+			jmxConnector.close();
+		}
+	}
+
 	/**
 	 * Gets the current list of installed bsns, compares it to the bsn provided.
 	 * If bsn doesn't exist, then install it. If it does exist then update it.
@@ -99,6 +140,8 @@ public class JMXBundleDeployer extends JMXLocalConnector {
 			Object installed = mBeanServerConnection.invoke(framework, "installBundleFromURL", params, signature);
 
 			bundleId = Long.parseLong(installed.toString());
+
+			_invalidateBundleIndex();
 		}
 
 		mBeanServerConnection.invoke(framework, "startBundle", new Object[] {bundleId}, new String[] {"long"});
@@ -106,6 +149,114 @@ public class JMXBundleDeployer extends JMXLocalConnector {
 		return bundleId;
 	}
 
+	@Override
+	public BundleDTO getBundle(long id) throws Exception {
+		ObjectName bundleState = _getBundleState();
+
+		Object[] params = {id};
+
+		String[] signature = {"long"};
+
+		String symbolicName = (String)mBeanServerConnection.invoke(bundleState, "getSymbolicName", params, signature);
+
+		if (symbolicName == null) {
+			throw new NoSuchElementException("No bundle matching the specified ID " + id);
+		}
+
+		BundleDTO bundleDTO = new BundleDTO();
+
+		bundleDTO.id = id;
+		bundleDTO.state = _getState(mBeanServerConnection.invoke(bundleState, "getState", params, signature));
+		bundleDTO.symbolicName = symbolicName;
+		bundleDTO.version = (String)mBeanServerConnection.invoke(bundleState, "getVersion", params, signature);
+
+		return bundleDTO;
+	}
+
+	@Override
+	public long getBundleId(Collection<BundleDTO> bundles, String bsn) throws Exception {
+		if (bsn == null) {
+			return -1L;
+		}
+
+		for (BundleDTO bundle : bundles) {
+			if (Objects.equals(bundle.symbolicName, bsn)) {
+				return bundle.id;
+			}
+		}
+
+		return -1L;
+	}
+
+	@Override
+	public long getBundleId(String bsn) throws Exception {
+		if (bsn == null) {
+			return -1L;
+		}
+
+		Map<String, Long> bundleIndex = _getBundleIndex();
+
+		Long id = bundleIndex.get(bsn);
+
+		if (id == null) {
+			return -1L;
+		}
+
+		return id;
+	}
+
+	@Override
+	public Collection<BundleDTO> getBundles() throws Exception {
+		TabularData tabularData = _listBundles();
+
+		List<BundleDTO> bundles = new ArrayList<>();
+
+		for (Object value : tabularData.values()) {
+			bundles.add(_newFromData((CompositeData)value));
+		}
+
+		_rebuildBundleIndex(bundles);
+
+		return bundles;
+	}
+
+	@Override
+	public long install(URI uri) throws Exception {
+		String url = _getURL(uri);
+
+		Object[] params = {url, url};
+
+		String[] signature = {String.class.getName(), String.class.getName()};
+
+		long id;
+
+		try {
+			Object installed = mBeanServerConnection.invoke(
+				_getFramework(), "installBundleFromURL", params, signature);
+
+			id = Long.parseLong(installed.toString());
+
+			if (_bundleIndexValid) {
+				Object symbolicName = mBeanServerConnection.invoke(
+					_getBundleState(), "getSymbolicName", new Object[] {id}, new String[] {"long"});
+
+				if (symbolicName == null) {
+					_invalidateBundleIndex();
+				}
+				else {
+					_bundleIndex.put(symbolicName.toString(), id);
+				}
+			}
+		}
+		catch (Exception e) {
+			_invalidateBundleIndex();
+
+			throw e;
+		}
+
+		return id;
+	}
+
 	/**
 	 * Calls osgi.core bundleState MBean listBundles operation
 	 *
@@ -115,14 +266,7 @@ public class JMXBundleDeployer extends JMXLocalConnector {
 		final List<BundleDTO> retval = new ArrayList<>();
 
 		try {
-			final ObjectName bundleState = _getBundleState();
-
-			final Object[] params = {new String[] {"Identifier", "SymbolicName", "State", "Version"}};
-
-			final String[] signature = {String[].class.getName()};
-
-			final TabularData data = (TabularData)mBeanServerConnection.invoke(
-				bundleState, "listBundles", params, signature);
+			final TabularData data = _listBundles();
 
 			for (Object value : data.values()) {
 				final CompositeData cd = (CompositeData)value;
@@ -142,6 +286,34 @@ public class JMXBundleDeployer extends JMXLocalConnector {
 		return retval.toArray(new BundleDTO[0]);
 	}
 
+	@Override
+	public void refresh(Collection<Long> ids) throws Exception {
+		if (ids.isEmpty()) {
+			return;
+		}
+
+		Object[] params = {_toLongArray(ids)};
+
+		String[] signature = {long[].class.getName()};
+
+		mBeanServerConnection.invoke(_getFramework(), "refreshBundles", params, signature);
+	}
+
+	@Override
+	public void refresh(long id) throws Exception {
+		mBeanServerConnection.invoke(_getFramework(), "refreshBundle", new Object[] {id}, new String[] {"long"});
+	}
+
+	@Override
+	public void start(long id) throws Exception {
+		mBeanServerConnection.invoke(_getFramework(), "startBundle", new Object[] {id}, new String[] {"long"});
+	}
+
+	@Override
+	public void stop(long id) throws Exception {
+		mBeanServerConnection.invoke(_getFramework(), "stopBundle", new Object[] {id}, new String[] {"long"});
+	}
+
 	/**
 	 * Calls through directly to the OSGi frameworks MBean uninstallBundle
 	 * operation
@@ -150,6 +322,7 @@ public class JMXBundleDeployer extends JMXLocalConnector {
 	 *            id of bundle to uninstall
 	 * @throws Exception
 	 */
+	@Override
 	public void uninstall(long id) throws Exception {
 		final ObjectName framework = _getFramework(mBeanServerConnection);
 
@@ -157,7 +330,12 @@ public class JMXBundleDeployer extends JMXLocalConnector {
 
 		String[] params = {"long"};
 
-		mBeanServerConnection.invoke(framework, "uninstallBundle", objects, params);
+		try {
+			mBeanServerConnection.invoke(framework, "uninstallBundle", objects, params);
+		}
+		finally {
+			_invalidateBundleIndex();
+		}
 	}
 
 	/**
@@ -180,6 +358,157 @@ public class JMXBundleDeployer extends JMXLocalConnector {
 		throw new IllegalStateException("Unable to uninstall " + bsn);
 	}
 
+	@Override
+	public void update(long id, URI uri) throws Exception {
+		Object[] params = {id, _getURL(uri)};
+
+		String[] signature = {"long", String.class.getName()};
+
+		mBeanServerConnection.invoke(_getFramework(), "updateBundleFromURL", params, signature);
+	}
+
+	/**
+	 * Updates all bundles with a single call to the framework MBean
+	 * updateBundlesFromURL operation.
+	 *
+	 * @throws IllegalStateException if the framework reports that the batch
+	 *         failed, with the bundle in error and the bundles that were not
+	 *         updated
+	 */
+	@Override
+	public void update(Map<Long, URI> bundles) throws Exception {
+		if (bundles.isEmpty()) {
+			return;
+		}
+
+		long[] ids = _toLongArray(bundles.keySet());
+
+		String[] urls = new String[ids.length];
+
+		for (int i = 0; i < ids.length; i++) {
+			urls[i] = _getURL(bundles.get(ids[i]));
+		}
+
+		Object[] params = {ids, urls};
+
+		String[] signature = {long[].class.getName(), String[].class.getName()};
+
+		try {
+			Object result = mBeanServerConnection.invoke(_getFramework(), "updateBundlesFromURL", params, signature);
+
+			_checkBatchActionResult(result, ids);
+		}
+		catch (Exception e) {
+			_invalidateBundleIndex();
+
+			throw e;
+		}
+	}
+
+	/**
+	 * Waits for the bundles to become ACTIVE by listening to the bundle events
+	 * that the bundleState MBean emits. The state of each bundle is read once
+	 * after subscribing, to catch bundles that started before. Falls back to
+	 * polling if the MBean does not emit notifications.
+	 */
+	@Override
+	public Map<Long, Long> waitForActive(Collection<Long> ids, long timeout) throws Exception {
+		Map<Long, Long> activeTimes = new ConcurrentHashMap<>();
+
+		NotificationListener notificationListener = (notification, handback) -> _onBundleEvent(
+			notification, ids, activeTimes);
+
+		ObjectName bundleState = _getBundleState();
+
+		try {
+			mBeanServerConnection.addNotificationListener(bundleState, notificationListener, null, null);
+		}
+		catch (IllegalArgumentException | RuntimeOperationsException e) {
+			return LiferayBundleDeployer.super.waitForActive(ids, timeout);
+		}
+
+		try {
+			for (long id : ids) {
+				Object state = mBeanServerConnection.invoke(
+					bundleState, "getState", new Object[] {id}, new String[] {"long"});
+
+				if (_getState(state) == Bundle.ACTIVE) {
+					activeTimes.putIfAbsent(id, System.currentTimeMillis());
+				}
+			}
+
+			long deadline = System.currentTimeMillis() + timeout;
+
+			synchronized (activeTimes) {
+				long remaining = deadline - System.currentTimeMillis();
+
+				while ((activeTimes.size() < ids.size()) && (remaining > 0)) {
+					activeTimes.wait(remaining);
+
+					remaining = deadline - System.currentTimeMillis();
+				}
+			}
+		}
+		finally {
+			try {
+				mBeanServerConnection.removeNotificationListener(bundleState, notificationListener);
+			}
+			catch (InstanceNotFoundException | ListenerNotFoundException e) {
+			}
+		}
+
+		return activeTimes;
+	}
+
+	/**
+	 * Checks the BatchActionResult composite that the framework MBean returns
+	 * for batch operations, which stops at the first bundle that fails.
+	 */
+	private static void _checkBatchActionResult(Object result, long[] ids) {
+		if (!(result instanceof CompositeData)) {
+			return;
+		}
+
+		CompositeData compositeData = (CompositeData)result;
+
+		if (!compositeData.containsKey("Success") || Boolean.TRUE.equals(compositeData.get("Success"))) {
+			return;
+		}
+
+		Set<Long> completedIds = new HashSet<>();
+
+		if (compositeData.containsKey("Completed")) {
+			Long[] completed = (Long[])compositeData.get("Completed");
+
+			if (completed != null) {
+				Collections.addAll(completedIds, completed);
+			}
+		}
+
+		List<Long> notCompletedIds = new ArrayList<>();
+
+		for (long id : ids) {
+			if (!completedIds.contains(id)) {
+				notCompletedIds.add(id);
+			}
+		}
+
+		Object bundleInError = null;
+
+		if (compositeData.containsKey("BundleInError")) {
+			bundleInError = compositeData.get("BundleInError");
+		}
+
+		Object error = null;
+
+		if (compositeData.containsKey("Error")) {
+			error = compositeData.get("Error");
+		}
+
+		throw new IllegalStateException(
+			"Unable to update bundle " + bundleInError + ": " + error + ". Bundles not updated: " + notCompletedIds);
+	}
+
 	private static ObjectName _getFramework(MBeanServerConnection mBeanServerConnection)
 		throws IOException, MalformedObjectNameException {
 
@@ -196,6 +525,43 @@ public class JMXBundleDeployer extends JMXLocalConnector {
 		return null;
 	}
 
+	private static int _getState(Object state) {
+		if (Objects.equals("UNINSTALLED", state)) {
+			return Bundle.UNINSTALLED;
+		}
+		else if (Objects.equals("INSTALLED", state)) {
+			return Bundle.INSTALLED;
+		}
+		else if (Objects.equals("RESOLVED", state)) {
+			return Bundle.RESOLVED;
+		}
+		else if (Objects.equals("STARTING", state)) {
+			return Bundle.STARTING;
+		}
+		else if (Objects.equals("STOPPING", state)) {
+			return Bundle.STOPPING;
+		}
+		else if (Objects.equals("ACTIVE", state)) {
+			return Bundle.ACTIVE;
+		}
+
+		return 0;
+	}
+
+	private static String _getURL(URI uri) {
+		Path path = Paths.get(uri);
+
+		Path fileName = path.getFileName();
+
+		String fileNameString = fileName.toString();
+
+		if (fileNameString.endsWith(".war")) {
+			return LiferayBundleDeployerImpl.getWebBundleURL(path);
+		}
+
+		return uri.toASCIIString();
+	}
+
 	private static BundleDTO _newFromData(CompositeData cd) {
 		final BundleDTO dto = new BundleDTO();
 
@@ -207,46 +573,115 @@ public class JMXBundleDeployer extends JMXLocalConnector {
 
 		dto.symbolicName = symbolicName.toString();
 
-		Object state = cd.get("State");
+		dto.state = _getState(cd.get("State"));
 
-		if (Objects.equals("UNINSTALLED", state)) {
-			dto.state = Bundle.UNINSTALLED;
+		Object version = cd.get("Version");
+
+		dto.version = version.toString();
+
+		return dto;
+	}
+
+	private static void _onBundleEvent(Notification notification, Collection<Long> ids, Map<Long, Long> activeTimes) {
+		Object userData = notification.getUserData();
+
+		if (!(userData instanceof CompositeData)) {
+			return;
 		}
-		else if (Objects.equals("INSTALLED", state)) {
-			dto.state = Bundle.INSTALLED;
+
+		CompositeData compositeData = (CompositeData)userData;
+
+		if (!compositeData.containsKey("Identifier") || !compositeData.containsKey("EventType")) {
+			return;
 		}
-		else if (Objects.equals("RESOLVED", state)) {
-			dto.state = Bundle.RESOLVED;
+
+		Object identifier = compositeData.get("Identifier");
+		Object eventType = compositeData.get("EventType");
+
+		long id = Long.parseLong(identifier.toString());
+
+		if (ids.contains(id) && Objects.equals(eventType, BundleEvent.STARTED)) {
+			activeTimes.putIfAbsent(id, System.currentTimeMillis());
+
+			synchronized (activeTimes) {
+				activeTimes.notifyAll();
+			}
 		}
-		else if (Objects.equals("STARTING", state)) {
-			dto.state = Bundle.STARTING;
+	}
+
+	private static long[] _toLongArray(Collection<Long> values) {
+		long[] longs = new long[values.size()];
+
+		int i = 0;
+
+		for (long value : values) {
+			longs[i++] = value;
 		}
-		else if (Objects.equals("STOPPING", state)) {
-			dto.state = Bundle.STOPPING;
+
+		return longs;
+	}
+
+	private Map<String, Long> _getBundleIndex() throws Exception {
+		if (!_bundleIndexValid) {
+			getBundles();
 		}
-		else if (Objects.equals("ACTIVE", state)) {
-			dto.state = Bundle.ACTIVE;
+
+		return _bundleIndex;
+	}
+
+	private ObjectName _getBundleState() throws IOException, MalformedObjectNameException {
+		if (_bundleState == null) {
+			ObjectName objectName = new ObjectName(_NAME + ":type=bundleState,*");
+
+			Set<ObjectName> queryNames = mBeanServerConnection.queryNames(objectName, null);
+
+			Iterator<ObjectName> iterator = queryNames.iterator();
+
+			_bundleState = iterator.next();
 		}
 
-		Object version = cd.get("Version");
+		return _bundleState;
+	}
 
-		dto.version = version.toString();
+	private ObjectName _getFramework() throws IOException, MalformedObjectNameException {
+		if (_framework == null) {
+			_framework = _getFramework(mBeanServerConnection);
+		}
 
-		return dto;
+		return _framework;
 	}
 
-	private ObjectName _getBundleState() throws IOException, MalformedObjectNameException {
-		ObjectName objectName = new ObjectName(_NAME + ":type=bundleState,*");
+	private void _invalidateBundleIndex() {
+		_bundleIndexValid = false;
+
+		_bundleIndex.clear();
+	}
 
-		Set<ObjectName> queryNames = mBeanServerConnection.queryNames(objectName, null);
+	private TabularData _listBundles() throws Exception {
+		Object[] params = {new String[] {"Identifier", "SymbolicName", "State", "Version"}};
 
-		Iterator<ObjectName> iterator = queryNames.iterator();
+		String[] signature = {String[].class.getName()};
 
-		return iterator.next();
+		return (TabularData)mBeanServerConnection.invoke(_getBundleState(), "listBundles", params, signature);
+	}
+
+	private void _rebuildBundleIndex(Collection<BundleDTO> bundles) {
+		_bundleIndex.clear();
+
+		for (BundleDTO bundle : bundles) {
+			_bundleIndex.put(bundle.symbolicName, bundle.id);
+		}
+
+		_bundleIndexValid = true;
 	}
 
 	private static final String _NAME = "osgi.core";
 
 	private static final String _TYPE = "framework";
 
+	private final Map<String, Long> _bundleIndex = new ConcurrentHashMap<>();
+	private volatile boolean _bundleIndexValid;
+	private ObjectName _bundleState;
+	private ObjectName _framework;
+
 }
\ No newline at end of file
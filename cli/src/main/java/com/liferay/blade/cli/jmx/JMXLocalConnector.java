@@ -16,8 +16,12 @@
 
 package com.liferay.blade.cli.jmx;
 
+import com.liferay.blade.cli.util.BladeUtil;
+
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
@@ -27,11 +31,30 @@ import java.net.URI;
 import java.net.URL;
 import java.net.URLClassLoader;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 import java.util.Vector;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 
 import javax.management.MBeanServerConnection;
@@ -51,6 +74,14 @@ public class JMXLocalConnector {
 	 * for the osgi.core MBeans. This will stop searching for VMs once the
 	 * MBeans are found. Beware if you have multiple JVMs with osgi.core MBeans
 	 * published.
+	 *
+	 * <p>
+	 * Results are cached in the blade cache by process id and process start
+	 * time. A cached connector address is checked with a plain JMX connection
+	 * before it is used, and a VM known not to publish the MBeans is skipped
+	 * until the cached miss expires. The remaining VMs are attached to in
+	 * parallel, each with a timeout, and the first match wins.
+	 * </p>
 	 * @param logger
 	 *
 	 * @return
@@ -79,17 +110,16 @@ public class JMXLocalConnector {
 
 				logger.accept("Found " + vmds.size() + " vms on this machine.");
 
-				for (Object vmd : vmds) {
-					String localConnectorAddress = _attach(toolsClassloader, vmClass, vmd, objName, logger);
+				String localConnectorAddress = _findLocalConnectorAddress(
+					toolsClassloader, vmClass, vmds, objName, logger);
 
-					if (localConnectorAddress != null) {
-						logger.accept("Using localConnectorAddress=" + localConnectorAddress);
-
-						return localConnectorAddress;
-					}
+				if (localConnectorAddress != null) {
+					logger.accept("Using localConnectorAddress=" + localConnectorAddress);
 
-					logger.accept("Could not find " + objName + " in this vm.");
+					return localConnectorAddress;
 				}
+
+				logger.accept("Could not find " + objName + " in any vm.");
 			}
 		}
 		catch (Exception e) {
@@ -101,7 +131,10 @@ public class JMXLocalConnector {
 			// try to get custom classloader to unload native libs
 
 			try {
-				if (toolsClassloader != null) {
+				if ((toolsClassloader != null) && (_attachThreadCount.get() > 0)) {
+					logger.accept("Keeping the attach library loaded while attach threads are still running.");
+				}
+				else if (toolsClassloader != null) {
 					Field nl = ClassLoader.class.getDeclaredField("nativeLibraries");
 
 					nl.setAccessible(true);
@@ -144,7 +177,7 @@ public class JMXLocalConnector {
 
 	public JMXLocalConnector(JMXServiceURL serviceUrl) {
 		try {
-			final JMXConnector jmxConnector = JMXConnectorFactory.connect(serviceUrl, null);
+			jmxConnector = JMXConnectorFactory.connect(serviceUrl, null);
 
 			mBeanServerConnection = jmxConnector.getMBeanServerConnection();
 		}
@@ -157,100 +190,83 @@ public class JMXLocalConnector {
 		this(new JMXServiceURL(getLocalConnectorAddress(objectName, logger)));
 	}
 
+	protected JMXConnector jmxConnector;
 	protected MBeanServerConnection mBeanServerConnection;
 
+	/**
+	 * Returns the connector address of the VM if it publishes the object name
+	 * or <code>null</code> if it does not. Throws if the VM could not be
+	 * attached to or queried, so that failure is not mistaken for a miss.
+	 */
 	private static String _attach(
-		ClassLoader toolsClassloader, Class<?> vmClass, Object vmd, String name, Consumer<String> logger) {
+			ClassLoader toolsClassloader, Class<?> vmClass, Object vmd, String name, Consumer<String> logger)
+		throws Exception {
 
-		try {
-			Class<?> vmdClass = toolsClassloader.loadClass("com.sun.tools.attach.VirtualMachineDescriptor");
+		Class<?> vmdClass = toolsClassloader.loadClass("com.sun.tools.attach.VirtualMachineDescriptor");
 
-			Method idMethod = vmdClass.getMethod("id");
+		Method idMethod = vmdClass.getMethod("id");
 
-			String id = (String)idMethod.invoke(vmd);
+		String id = (String)idMethod.invoke(vmd);
 
-			logger.accept("Found vm id of " + id + ". Trying to attach...");
+		logger.accept("Found vm id of " + id + ". Trying to attach...");
 
-			Method attachMethod = vmClass.getMethod("attach", String.class);
+		Method attachMethod = vmClass.getMethod("attach", String.class);
 
-			Object vm = attachMethod.invoke(null, id);
+		Object vm = attachMethod.invoke(null, id);
 
-			logger.accept("Attached to vm = " + vm);
+		logger.accept("Attached to vm = " + vm);
 
-			try {
-				Method getAgentProperties = vmClass.getMethod("getAgentProperties");
+		try {
+			Method getAgentProperties = vmClass.getMethod("getAgentProperties");
 
-				Properties agentProperties = (Properties)getAgentProperties.invoke(vm);
+			Properties agentProperties = (Properties)getAgentProperties.invoke(vm);
 
-				String localConnectorAddress = agentProperties.getProperty(
-					"com.sun.management.jmxremote.localConnectorAddress");
+			String localConnectorAddress = agentProperties.getProperty(
+				"com.sun.management.jmxremote.localConnectorAddress");
 
-				logger.accept("Trying to get localConnectorAddress=" + localConnectorAddress);
+			logger.accept("Trying to get localConnectorAddress=" + localConnectorAddress);
 
-				if (localConnectorAddress == null) {
-					logger.accept("localConnectorAdress is null, trying to load management-agent.jar.");
+			if (localConnectorAddress == null) {
+				logger.accept("localConnectorAdress is null, trying to load management-agent.jar.");
 
-					File agentJar = _findJdkJar("management-agent.jar");
+				File agentJar = _findJdkJar("management-agent.jar");
 
-					if (agentJar != null) {
-						logger.accept("Found agent jar = " + agentJar);
+				if (agentJar != null) {
+					logger.accept("Found agent jar = " + agentJar);
 
-						Method loadAgent = vmClass.getMethod("loadAgent", String.class);
+					Method loadAgent = vmClass.getMethod("loadAgent", String.class);
 
-						logger.accept("Invoking loadAgent...");
+					logger.accept("Invoking loadAgent...");
 
-						loadAgent.invoke(vm, agentJar.getCanonicalPath());
+					loadAgent.invoke(vm, agentJar.getCanonicalPath());
 
-						logger.accept("Managemet agent loaded, trying to find localConnectorAddress");
+					logger.accept("Managemet agent loaded, trying to find localConnectorAddress");
 
-						agentProperties = (Properties)getAgentProperties.invoke(vm);
+					agentProperties = (Properties)getAgentProperties.invoke(vm);
 
-						localConnectorAddress = agentProperties.getProperty(
-							"com.sun.management.jmxremote.localConnectorAddress");
-					}
-					else {
-						logger.accept("Could not find management-agent.jar at location " + agentJar);
-					}
+					localConnectorAddress = agentProperties.getProperty(
+						"com.sun.management.jmxremote.localConnectorAddress");
 				}
+				else {
+					logger.accept("Could not find management-agent.jar at location " + agentJar);
+				}
+			}
 
-				if (localConnectorAddress != null) {
-					logger.accept("Found localConnectorAddress=" + localConnectorAddress);
-
-					final JMXServiceURL jmxServiceURL = new JMXServiceURL(localConnectorAddress);
-
-					final JMXConnector jmxConnector = JMXConnectorFactory.connect(jmxServiceURL, null);
-
-					logger.accept("Getting mbean server connection...");
-
-					final MBeanServerConnection mBeanServerConnection = jmxConnector.getMBeanServerConnection();
-
-					if (mBeanServerConnection != null) {
-						logger.accept("querying for objectname " + name);
-
-						final ObjectName objectName = _getObjectName(name, mBeanServerConnection);
-
-						logger.accept("found objectName = " + objectName);
+			if (localConnectorAddress != null) {
+				logger.accept("Found localConnectorAddress=" + localConnectorAddress);
 
-						if (objectName != null) {
-							return localConnectorAddress;
-						}
-					}
+				if (_hasObjectName(localConnectorAddress, name, logger)) {
+					return localConnectorAddress;
 				}
 			}
-			catch (Exception e) {
-				e.printStackTrace();
-			}
-			finally {
-				Method detachMethod = vmClass.getMethod("detach");
 
-				detachMethod.invoke(vm);
-			}
-		}
-		catch (Exception e) {
-			e.printStackTrace();
+			return null;
 		}
+		finally {
+			Method detachMethod = vmClass.getMethod("detach");
 
-		return null;
+			detachMethod.invoke(vm);
+		}
 	}
 
 	private static File _findJdkJar(String jar) throws IOException {
@@ -275,6 +291,95 @@ public class JMXLocalConnector {
 		return retval;
 	}
 
+	private static String _findLocalConnectorAddress(
+			ClassLoader toolsClassloader, Class<?> vmClass, List<Object> vmds, String objName,
+			Consumer<String> logger)
+		throws Exception {
+
+		Class<?> vmdClass = toolsClassloader.loadClass("com.sun.tools.attach.VirtualMachineDescriptor");
+
+		Method idMethod = vmdClass.getMethod("id");
+
+		Path cachePath = _getCachePath();
+
+		Properties cache = _loadCache(cachePath);
+
+		Properties updatedCache = new Properties();
+
+		List<String> cachedAddresses = new ArrayList<>();
+		Map<String, Object> candidates = new LinkedHashMap<>();
+
+		long now = System.currentTimeMillis();
+
+		for (Object vmd : vmds) {
+			String id = (String)idMethod.invoke(vmd);
+
+			String cacheKey = objName + "@" + id + "@" + _getStartTime(id);
+
+			String cachedValue = cache.getProperty(cacheKey);
+
+			if (cachedValue == null) {
+				candidates.put(cacheKey, vmd);
+			}
+			else if (cachedValue.startsWith(_CACHE_MISS_PREFIX)) {
+				if ((now - _getMissTime(cachedValue)) < _CACHE_MISS_TIMEOUT) {
+					logger.accept("Skipping vm id " + id + " which did not have " + objName + " when last checked.");
+
+					updatedCache.setProperty(cacheKey, cachedValue);
+				}
+				else {
+					candidates.put(cacheKey, vmd);
+				}
+			}
+			else {
+				cachedAddresses.add(cachedValue);
+
+				updatedCache.setProperty(cacheKey, cachedValue);
+
+				candidates.put(cacheKey, vmd);
+			}
+		}
+
+		String localConnectorAddress = null;
+
+		for (String cachedAddress : cachedAddresses) {
+			logger.accept("Trying cached localConnectorAddress=" + cachedAddress);
+
+			if (_hasObjectName(cachedAddress, objName, logger)) {
+				localConnectorAddress = cachedAddress;
+
+				break;
+			}
+		}
+
+		if (localConnectorAddress == null) {
+			for (String cacheKey : candidates.keySet()) {
+				updatedCache.remove(cacheKey);
+			}
+
+			localConnectorAddress = _probe(toolsClassloader, vmClass, candidates, objName, logger, updatedCache);
+		}
+
+		_storeCache(cachePath, updatedCache, logger);
+
+		return localConnectorAddress;
+	}
+
+	private static Path _getCachePath() {
+		Path bladeCachePath = BladeUtil.getBladeCachePath();
+
+		return bladeCachePath.resolve(_CACHE_FILE_NAME);
+	}
+
+	private static long _getMissTime(String cachedValue) {
+		try {
+			return Long.parseLong(cachedValue.substring(_CACHE_MISS_PREFIX.length()));
+		}
+		catch (NumberFormatException nfe) {
+			return 0;
+		}
+	}
+
 	private static ObjectName _getObjectName(String objectNameValue, MBeanServerConnection mBeanServerConnection)
 		throws IOException, MalformedObjectNameException {
 
@@ -291,6 +396,40 @@ public class JMXLocalConnector {
 		return null;
 	}
 
+	/**
+	 * Returns when the process was started, so a cache entry cannot outlive
+	 * its process even if the process id is reused. Linux exposes this as the
+	 * time of the process directory in /proc, other systems as the creation
+	 * time of the JVM performance data file.
+	 */
+	private static String _getStartTime(String id) {
+		try {
+			Path procPath = Paths.get("/proc", id);
+
+			if (Files.isDirectory(procPath)) {
+				FileTime fileTime = Files.getLastModifiedTime(procPath);
+
+				return String.valueOf(fileTime.toMillis());
+			}
+
+			Path perfDataPath = Paths.get(
+				System.getProperty("java.io.tmpdir"), "hsperfdata_" + System.getProperty("user.name"), id);
+
+			if (Files.exists(perfDataPath)) {
+				BasicFileAttributes basicFileAttributes = Files.readAttributes(
+					perfDataPath, BasicFileAttributes.class);
+
+				FileTime fileTime = basicFileAttributes.creationTime();
+
+				return String.valueOf(fileTime.toMillis());
+			}
+		}
+		catch (Exception e) {
+		}
+
+		return "unknown";
+	}
+
 	private static ClassLoader _getToolsClassLoader(ClassLoader parent) throws IOException {
 		File toolsJar = _findJdkJar("tools.jar");
 
@@ -314,4 +453,186 @@ public class JMXLocalConnector {
 		throw new IOException("Could not find tools.jar in JDK at this location: " + toolsJar);
 	}
 
+	private static boolean _hasObjectName(String localConnectorAddress, String name, Consumer<String> logger) {
+		try (JMXConnector jmxConnector = JMXConnectorFactory.connect(new JMXServiceURL(localConnectorAddress), null)) {
+			logger.accept("Getting mbean server connection...");
+
+			final MBeanServerConnection mBeanServerConnection = jmxConnector.getMBeanServerConnection();
+
+			if (mBeanServerConnection != null) {
+				logger.accept("querying for objectname " + name);
+
+				final ObjectName objectName = _getObjectName(name, mBeanServerConnection);
+
+				logger.accept("found objectName = " + objectName);
+
+				if (objectName != null) {
+					return true;
+				}
+			}
+		}
+		catch (Exception e) {
+			logger.accept("Unable to query " + localConnectorAddress + ": " + e.getMessage());
+		}
+
+		return false;
+	}
+
+	private static Properties _loadCache(Path cachePath) {
+		Properties properties = new Properties();
+
+		if (Files.exists(cachePath)) {
+			try (InputStream inputStream = Files.newInputStream(cachePath)) {
+				properties.load(inputStream);
+			}
+			catch (IOException ioe) {
+			}
+		}
+
+		return properties;
+	}
+
+	/**
+	 * Attaches to all candidate VMs at once and returns the first connector
+	 * address that publishes the object name. Each VM has its own attach
+	 * timeout, counted from when its attach started. Only VMs that were
+	 * attached to and did not publish the object name are cached as misses; a
+	 * VM that timed out or failed is tried again on the next run.
+	 */
+	private static String _probe(
+			ClassLoader toolsClassloader, Class<?> vmClass, Map<String, Object> candidates, String objName,
+			Consumer<String> logger, Properties cache)
+		throws InterruptedException {
+
+		if (candidates.isEmpty()) {
+			return null;
+		}
+
+		ExecutorService executorService = Executors.newFixedThreadPool(
+			candidates.size(),
+			runnable -> {
+				_attachThreadCount.incrementAndGet();
+
+				Thread thread = new Thread(
+					() -> {
+						try {
+							runnable.run();
+						}
+						finally {
+							_attachThreadCount.decrementAndGet();
+						}
+					},
+					"blade-jmx-attach");
+
+				thread.setContextClassLoader(toolsClassloader);
+				thread.setDaemon(true);
+
+				return thread;
+			});
+
+		CompletionService<String> completionService = new ExecutorCompletionService<>(executorService);
+
+		Map<String, Long> attachStartTimes = new ConcurrentHashMap<>();
+		Map<Future<String>, String> pendingCacheKeys = new HashMap<>();
+
+		for (Map.Entry<String, Object> candidate : candidates.entrySet()) {
+			String cacheKey = candidate.getKey();
+
+			Future<String> future = completionService.submit(
+				() -> {
+					attachStartTimes.put(cacheKey, System.currentTimeMillis());
+
+					return _attach(toolsClassloader, vmClass, candidate.getValue(), objName, logger);
+				});
+
+			pendingCacheKeys.put(future, cacheKey);
+		}
+
+		try {
+			while (!pendingCacheKeys.isEmpty()) {
+				long now = System.currentTimeMillis();
+
+				long deadline = Long.MAX_VALUE;
+
+				Iterator<String> iterator = pendingCacheKeys.values().iterator();
+
+				while (iterator.hasNext()) {
+					String cacheKey = iterator.next();
+
+					long attachDeadline = attachStartTimes.getOrDefault(cacheKey, now) + _ATTACH_TIMEOUT;
+
+					if (attachDeadline <= now) {
+						logger.accept("Timed out attaching to " + cacheKey);
+
+						iterator.remove();
+					}
+					else {
+						deadline = Math.min(deadline, attachDeadline);
+					}
+				}
+
+				if (pendingCacheKeys.isEmpty()) {
+					break;
+				}
+
+				Future<String> future = completionService.poll(deadline - now, TimeUnit.MILLISECONDS);
+
+				if (future == null) {
+					continue;
+				}
+
+				String cacheKey = pendingCacheKeys.remove(future);
+
+				if (cacheKey == null) {
+					continue;
+				}
+
+				try {
+					String localConnectorAddress = future.get();
+
+					if (localConnectorAddress != null) {
+						cache.setProperty(cacheKey, localConnectorAddress);
+
+						return localConnectorAddress;
+					}
+
+					cache.setProperty(cacheKey, _CACHE_MISS_PREFIX + System.currentTimeMillis());
+				}
+				catch (ExecutionException ee) {
+					Throwable cause = ee.getCause();
+
+					logger.accept("Unable to attach to " + cacheKey + ": " + cause);
+				}
+			}
+
+			return null;
+		}
+		finally {
+			executorService.shutdownNow();
+		}
+	}
+
+	private static void _storeCache(Path cachePath, Properties properties, Consumer<String> logger) {
+		try {
+			Files.createDirectories(cachePath.getParent());
+
+			try (OutputStream outputStream = Files.newOutputStream(cachePath)) {
+				properties.store(outputStream, null);
+			}
+		}
+		catch (IOException ioe) {
+			logger.accept("Unable to write " + cachePath + ": " + ioe.getMessage());
+		}
+	}
+
+	private static final long _ATTACH_TIMEOUT = 5000;
+
+	private static final String _CACHE_FILE_NAME = "jmx-local-connectors.properties";
+
+	private static final String _CACHE_MISS_PREFIX = "miss:";
+
+	private static final long _CACHE_MISS_TIMEOUT = 10 * 60 * 1000;
+
+	private static final AtomicInteger _attachThreadCount = new AtomicInteger();
+
 }
\ No newline at end of file
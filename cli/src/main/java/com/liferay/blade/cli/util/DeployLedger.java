@@ -0,0 +1,219 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.liferay.blade.cli.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.jar.Attributes;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
+
+/**
+ * Remembers the content digest of every artifact deployed from a workspace to
+ * each target, so that a deploy can skip artifacts that have not changed since
+ * they were last deployed there. A target identifies where artifacts are
+ * deployed to, for example <code>localhost:11311</code>, so that deploying to
+ * one target does not hide changes from another. The ledger is kept in the
+ * base directory's <code>.blade</code> folder.
+ *
+ * <p>
+ * The digest covers the names and contents of all archive entries, in name
+ * order, but not their timestamps, and it leaves out manifest headers that
+ * change on every build, such as <code>Bnd-LastModified</code>. Rebuilding a
+ * module without changing it therefore yields the same digest.
+ * </p>
+ *
+ * @author Gregory Amerson
+ */
+public class DeployLedger {
+
+	public static String digest(Path path) throws IOException {
+		MessageDigest messageDigest = _newMessageDigest();
+
+		try (ZipFile zipFile = new ZipFile(path.toFile())) {
+			List<ZipEntry> zipEntries = new ArrayList<>();
+
+			Enumeration<? extends ZipEntry> enumeration = zipFile.entries();
+
+			while (enumeration.hasMoreElements()) {
+				ZipEntry zipEntry = enumeration.nextElement();
+
+				if (!zipEntry.isDirectory()) {
+					zipEntries.add(zipEntry);
+				}
+			}
+
+			zipEntries.sort(Comparator.comparing(ZipEntry::getName));
+
+			byte[] buffer = new byte[8192];
+
+			for (ZipEntry zipEntry : zipEntries) {
+				String name = zipEntry.getName();
+
+				messageDigest.update(name.getBytes(StandardCharsets.UTF_8));
+				messageDigest.update((byte)0);
+
+				try (InputStream inputStream = zipFile.getInputStream(zipEntry)) {
+					if (name.equals(JarFile.MANIFEST_NAME)) {
+						_updateManifest(messageDigest, new Manifest(inputStream));
+
+						continue;
+					}
+
+					int read;
+
+					while ((read = inputStream.read(buffer)) != -1) {
+						messageDigest.update(buffer, 0, read);
+					}
+				}
+			}
+		}
+		catch (ZipException ze) {
+			messageDigest.reset();
+
+			messageDigest.update(Files.readAllBytes(path));
+		}
+
+		return _toHex(messageDigest.digest());
+	}
+
+	/**
+	 * @param basePath the workspace or project directory to keep the ledger in
+	 */
+	public DeployLedger(Path basePath) {
+		_ledgerPath = basePath.resolve(_LEDGER_FILE_NAME);
+
+		if (Files.exists(_ledgerPath)) {
+			try (InputStream inputStream = Files.newInputStream(_ledgerPath)) {
+				_properties.load(inputStream);
+			}
+			catch (IOException ioe) {
+
+				// A missing or unreadable ledger only means everything is deployed again
+
+			}
+		}
+	}
+
+	public synchronized boolean isDeployed(String target, String bsn, String digest) {
+		String deployedDigest = _properties.getProperty(_getKey(target, bsn));
+
+		return digest.equals(deployedDigest);
+	}
+
+	public synchronized void record(String target, String bsn, String digest) {
+		_properties.setProperty(_getKey(target, bsn), digest);
+	}
+
+	public synchronized void remove(String target, String bsn) {
+		_properties.remove(_getKey(target, bsn));
+	}
+
+	public synchronized void save() throws IOException {
+		Files.createDirectories(_ledgerPath.getParent());
+
+		try (OutputStream outputStream = Files.newOutputStream(_ledgerPath)) {
+			_properties.store(outputStream, null);
+		}
+	}
+
+	private static String _getKey(String target, String bsn) {
+		return bsn + "@" + target;
+	}
+
+	private static MessageDigest _newMessageDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		}
+		catch (NoSuchAlgorithmException nsae) {
+			throw new IllegalStateException(nsae);
+		}
+	}
+
+	private static String _toHex(byte[] bytes) {
+		StringBuilder sb = new StringBuilder(bytes.length * 2);
+
+		for (byte b : bytes) {
+			sb.append(Character.forDigit((b >> 4) & 0xf, 16));
+			sb.append(Character.forDigit(b & 0xf, 16));
+		}
+
+		return sb.toString();
+	}
+
+	private static void _updateAttributes(MessageDigest messageDigest, Attributes attributes) {
+		Map<String, String> sortedAttributes = new TreeMap<>();
+
+		for (Map.Entry<Object, Object> entry : attributes.entrySet()) {
+			String name = String.valueOf(entry.getKey());
+
+			if (!_volatileHeaders.contains(name)) {
+				sortedAttributes.put(name, String.valueOf(entry.getValue()));
+			}
+		}
+
+		for (Map.Entry<String, String> entry : sortedAttributes.entrySet()) {
+			String line = entry.getKey() + ": " + entry.getValue() + "\n";
+
+			messageDigest.update(line.getBytes(StandardCharsets.UTF_8));
+		}
+	}
+
+	private static void _updateManifest(MessageDigest messageDigest, Manifest manifest) {
+		_updateAttributes(messageDigest, manifest.getMainAttributes());
+
+		Map<String, Attributes> entries = new TreeMap<>(manifest.getEntries());
+
+		for (Map.Entry<String, Attributes> entry : entries.entrySet()) {
+			String name = "Name: " + entry.getKey() + "\n";
+
+			messageDigest.update(name.getBytes(StandardCharsets.UTF_8));
+
+			_updateAttributes(messageDigest, entry.getValue());
+		}
+	}
+
+	private static final String _LEDGER_FILE_NAME = ".blade/deploy-ledger.properties";
+
+	private static final List<String> _volatileHeaders = Collections.unmodifiableList(
+		Arrays.asList("Bnd-LastModified", "Build-Date", "Built-By", "Created-By", "Tool"));
+
+	private final Path _ledgerPath;
+	private final Properties _properties = new Properties();
+
+}
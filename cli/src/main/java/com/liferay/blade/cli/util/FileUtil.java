@@ -32,6 +32,7 @@ import java.nio.channels.FileChannel;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.WritableByteChannel;
 import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -72,6 +73,42 @@ public class FileUtil {
 		return file;
 	}
 
+	/**
+	 * Copies the source file to the target path through a temporary file in
+	 * the target directory that is renamed into place, so that directory
+	 * watchers never see a partially written file. The temporary file is
+	 * deleted if the copy fails.
+	 */
+	public static void copyAtomically(Path source, Path target) throws IOException {
+		Path fileName = target.getFileName();
+
+		Path tempPath = target.resolveSibling("." + fileName + ".tmp");
+
+		try {
+			try (FileChannel in = _readChannel(source);
+				FileChannel out = _writeChannel(tempPath)) {
+
+				long size = in.size();
+
+				long position = 0;
+
+				while (position < size) {
+					position += in.transferTo(position, size - position, out);
+				}
+			}
+
+			try {
+				Files.move(tempPath, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			}
+			catch (AtomicMoveNotSupportedException amnse) {
+				Files.move(tempPath, target, StandardCopyOption.REPLACE_EXISTING);
+			}
+		}
+		finally {
+			Files.deleteIfExists(tempPath);
+		}
+	}
+
 	public static void copyDir(Path source, Path target) throws IOException {
 		if (!Files.exists(target)) {
 			Files.createDirectories(target);
@@ -0,0 +1,694 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.liferay.blade.cli.util;
+
+import java.io.IOException;
+
+import java.lang.reflect.Field;
+
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Watches one or more directories (or trees) with a single OS watch service
+ * and dispatches the resulting events to any number of subscribers. Events
+ * wait in a bounded queue between the watcher thread and the dispatcher
+ * thread; a new event for a path that is already queued is merged into the
+ * queued one.
+ *
+ * @author Gregory Amerson
+ */
+public class FileWatchService implements AutoCloseable {
+
+	public FileWatchService(Collection<Path> baseDirs, boolean recursive) {
+		this(baseDirs, recursive, path -> true, _DEFAULT_QUEUE_CAPACITY, BackpressurePolicy.BLOCK);
+	}
+
+	/**
+	 * @param baseDirs the directories to watch
+	 * @param recursive whether sub-directories are watched as well
+	 * @param directoryFilter decides which sub-directories are registered
+	 * @param queueCapacity the maximum number of distinct paths queued for
+	 *        dispatch
+	 * @param backpressurePolicy what the watcher thread does when the queue
+	 *        is full
+	 */
+	public FileWatchService(
+		Collection<Path> baseDirs, boolean recursive, Predicate<Path> directoryFilter, int queueCapacity,
+		BackpressurePolicy backpressurePolicy) {
+
+		_baseDirs = new LinkedHashSet<>(baseDirs);
+		_recursive = recursive;
+		_directoryFilter = directoryFilter;
+		_queueCapacity = queueCapacity;
+		_backpressurePolicy = backpressurePolicy;
+	}
+
+	public FileWatchService(Path baseDir, boolean recursive) {
+		this(Collections.singleton(baseDir), recursive);
+	}
+
+	public FileWatchService(
+		Path baseDir, boolean recursive, Predicate<Path> directoryFilter, int queueCapacity,
+		BackpressurePolicy backpressurePolicy) {
+
+		this(Collections.singleton(baseDir), recursive, directoryFilter, queueCapacity, backpressurePolicy);
+	}
+
+	/**
+	 * Blocks until the service is stopped, either by {@link #stop()} or
+	 * because every watched directory became inaccessible. Returns at once if
+	 * the service was stopped before it was started.
+	 *
+	 * @throws IllegalStateException if the service has not been started
+	 */
+	public void awaitTermination() throws InterruptedException {
+		synchronized (this) {
+			if ((_dispatcherThread == null) && (_terminated.getCount() > 0)) {
+				throw new IllegalStateException("The file watch service has not been started");
+			}
+		}
+
+		_terminated.await();
+	}
+
+	@Override
+	public void close() {
+		stop();
+	}
+
+	public Metrics getMetrics() {
+		long elapsedNanos = 0;
+
+		if (_startNanos > 0) {
+			elapsedNanos = System.nanoTime() - _startNanos;
+		}
+
+		int queueDepth;
+
+		_lock.lock();
+
+		try {
+			queueDepth = _queue.size();
+		}
+		finally {
+			_lock.unlock();
+		}
+
+		return new Metrics(
+			_receivedEvents.get(), _dispatchedEvents.get(), _coalescedEvents.get(), _droppedEvents.get(),
+			queueDepth, elapsedNanos, _handlerNanos.get(), _maxHandlerNanos.get());
+	}
+
+	public boolean isRunning() {
+		return _running;
+	}
+
+	/**
+	 * Sets what is called, on the dispatcher thread, when a subscriber throws
+	 * an exception. By default the exception is printed to standard error.
+	 */
+	public void setErrorHandler(BiConsumer<FileEvent, Exception> errorHandler) {
+		_errorHandler = errorHandler;
+	}
+
+	/**
+	 * Registers the watched directories and starts the watcher and dispatcher
+	 * threads. Returns without waiting for any event.
+	 */
+	public synchronized void start() throws IOException {
+		if (_running) {
+			return;
+		}
+
+		if (_terminated.getCount() == 0) {
+			throw new IllegalStateException("The file watch service has been stopped");
+		}
+
+		FileSystem fileSystem = FileSystems.getDefault();
+
+		_watchService = fileSystem.newWatchService();
+
+		try {
+			for (Path baseDir : _baseDirs) {
+				if (_recursive) {
+					_registerAll(baseDir);
+				}
+				else {
+					_register(baseDir);
+				}
+			}
+		}
+		catch (IOException ioe) {
+			_watchService.close();
+
+			_watchKeys.clear();
+
+			throw ioe;
+		}
+
+		_running = true;
+		_startNanos = System.nanoTime();
+
+		_watcherThread = new Thread(this::_watch, "blade-file-watcher");
+
+		_watcherThread.setDaemon(true);
+
+		_dispatcherThread = new Thread(this::_dispatch, "blade-file-event-dispatcher");
+
+		_dispatcherThread.setDaemon(true);
+
+		_watcherThread.start();
+		_dispatcherThread.start();
+	}
+
+	public synchronized void stop() {
+		if (!_running) {
+			if (_dispatcherThread == null) {
+
+				// There is no dispatcher thread to release the waiting threads
+
+				_terminated.countDown();
+			}
+
+			return;
+		}
+
+		_running = false;
+
+		try {
+			_watchService.close();
+		}
+		catch (IOException ioe) {
+		}
+
+		_lock.lock();
+
+		try {
+			_notEmpty.signalAll();
+			_notFull.signalAll();
+		}
+		finally {
+			_lock.unlock();
+		}
+
+		if (Thread.currentThread() != _dispatcherThread) {
+			_dispatcherThread.interrupt();
+		}
+	}
+
+	/**
+	 * Adds a subscriber for the events of every path accepted by the filter.
+	 * Subscribers are called on the dispatcher thread, one event at a time.
+	 */
+	public Subscription subscribe(Predicate<Path> pathFilter, Consumer<FileEvent> consumer) {
+		Subscription subscription = new Subscription(pathFilter, consumer);
+
+		_subscriptions.add(subscription);
+
+		return subscription;
+	}
+
+	public enum BackpressurePolicy {
+
+		BLOCK, DROP_NEWEST, DROP_OLDEST
+
+	}
+
+	public static class FileEvent {
+
+		public FileEvent(Kind kind, Path path) {
+			_kind = kind;
+			_path = path;
+		}
+
+		public Kind getKind() {
+			return _kind;
+		}
+
+		public Path getPath() {
+			return _path;
+		}
+
+		@Override
+		public String toString() {
+			return _kind + " " + _path;
+		}
+
+		public enum Kind {
+
+			CREATE, DELETE, MODIFY
+
+		}
+
+		private final Kind _kind;
+		private final Path _path;
+
+	}
+
+	public static class Metrics {
+
+		public long getCoalescedEvents() {
+			return _coalescedEvents;
+		}
+
+		public long getDispatchedEvents() {
+			return _dispatchedEvents;
+		}
+
+		public long getDroppedEvents() {
+			return _droppedEvents;
+		}
+
+		public double getEventsPerSecond() {
+			if (_elapsedNanos <= 0) {
+				return 0;
+			}
+
+			return _receivedEvents / (_elapsedNanos / (double)TimeUnit.SECONDS.toNanos(1));
+		}
+
+		public double getHandlerLatencyAverage() {
+			if (_dispatchedEvents == 0) {
+				return 0;
+			}
+
+			return _toMillis(_handlerNanos) / _dispatchedEvents;
+		}
+
+		public double getHandlerLatencyMax() {
+			return _toMillis(_maxHandlerNanos);
+		}
+
+		public int getQueueDepth() {
+			return _queueDepth;
+		}
+
+		public long getReceivedEvents() {
+			return _receivedEvents;
+		}
+
+		@Override
+		public String toString() {
+			return String.format(
+				"received=%d (%.2f/s) dispatched=%d coalesced=%d dropped=%d queueDepth=%d " +
+					"handlerLatency(avg=%.1fms max=%.1fms)",
+				_receivedEvents, getEventsPerSecond(), _dispatchedEvents, _coalescedEvents, _droppedEvents, _queueDepth,
+				getHandlerLatencyAverage(), getHandlerLatencyMax());
+		}
+
+		private static double _toMillis(long nanos) {
+			return nanos / (double)TimeUnit.MILLISECONDS.toNanos(1);
+		}
+
+		private Metrics(
+			long receivedEvents, long dispatchedEvents, long coalescedEvents, long droppedEvents, int queueDepth,
+			long elapsedNanos, long handlerNanos, long maxHandlerNanos) {
+
+			_receivedEvents = receivedEvents;
+			_dispatchedEvents = dispatchedEvents;
+			_coalescedEvents = coalescedEvents;
+			_droppedEvents = droppedEvents;
+			_queueDepth = queueDepth;
+			_elapsedNanos = elapsedNanos;
+			_handlerNanos = handlerNanos;
+			_maxHandlerNanos = maxHandlerNanos;
+		}
+
+		private final long _coalescedEvents;
+		private final long _dispatchedEvents;
+		private final long _droppedEvents;
+		private final long _elapsedNanos;
+		private final long _handlerNanos;
+		private final long _maxHandlerNanos;
+		private final int _queueDepth;
+		private final long _receivedEvents;
+
+	}
+
+	public class Subscription implements AutoCloseable {
+
+		@Override
+		public void close() {
+			_subscriptions.remove(this);
+		}
+
+		private Subscription(Predicate<Path> pathFilter, Consumer<FileEvent> consumer) {
+			_pathFilter = pathFilter;
+			_consumer = consumer;
+		}
+
+		private final Consumer<FileEvent> _consumer;
+		private final Predicate<Path> _pathFilter;
+
+	}
+
+	private static FileEvent _coalesce(FileEvent queuedFileEvent, FileEvent fileEvent) {
+		FileEvent.Kind queuedKind = queuedFileEvent.getKind();
+		FileEvent.Kind kind = fileEvent.getKind();
+
+		if (kind == FileEvent.Kind.DELETE) {
+			return fileEvent;
+		}
+
+		if (queuedKind == FileEvent.Kind.CREATE) {
+			return queuedFileEvent;
+		}
+
+		if (queuedKind == FileEvent.Kind.DELETE) {
+			return new FileEvent(FileEvent.Kind.MODIFY, fileEvent.getPath());
+		}
+
+		return fileEvent;
+	}
+
+	private static WatchEvent.Modifier _getSensitivityModifier() {
+		try {
+			Class<?> clazz = Class.forName("com.sun.nio.file.SensitivityWatchEventModifier");
+
+			Field field = clazz.getField("HIGH");
+
+			return (WatchEvent.Modifier)field.get(clazz);
+		}
+		catch (Exception e) {
+			return null;
+		}
+	}
+
+	private static void _printError(FileEvent fileEvent, Exception e) {
+		System.err.println("Unable to handle " + fileEvent);
+
+		e.printStackTrace();
+	}
+
+	private static FileEvent.Kind _toKind(WatchEvent.Kind<?> kind) {
+		if (kind == StandardWatchEventKinds.ENTRY_CREATE) {
+			return FileEvent.Kind.CREATE;
+		}
+		else if (kind == StandardWatchEventKinds.ENTRY_DELETE) {
+			return FileEvent.Kind.DELETE;
+		}
+
+		return FileEvent.Kind.MODIFY;
+	}
+
+	private void _dispatch() {
+		try {
+			while (_running) {
+				FileEvent fileEvent = _take();
+
+				if (fileEvent == null) {
+					continue;
+				}
+
+				Path path = fileEvent.getPath();
+
+				for (Subscription subscription : _subscriptions) {
+					if (!subscription._pathFilter.test(path)) {
+						continue;
+					}
+
+					long start = System.nanoTime();
+
+					try {
+						subscription._consumer.accept(fileEvent);
+					}
+					catch (Exception e) {
+
+						// A failing subscriber must not stop the others
+
+						_errorHandler.accept(fileEvent, e);
+					}
+
+					long handlerNanos = System.nanoTime() - start;
+
+					_handlerNanos.addAndGet(handlerNanos);
+
+					_maxHandlerNanos.accumulateAndGet(handlerNanos, Math::max);
+				}
+
+				_dispatchedEvents.incrementAndGet();
+			}
+		}
+		catch (InterruptedException ie) {
+		}
+		finally {
+
+			// Stop watching as well when an error ends the dispatcher thread
+
+			stop();
+
+			_terminated.countDown();
+		}
+	}
+
+	private void _offer(FileEvent fileEvent) throws InterruptedException {
+		_receivedEvents.incrementAndGet();
+
+		Path path = fileEvent.getPath();
+
+		_lock.lock();
+
+		try {
+			FileEvent queuedFileEvent = _queue.get(path);
+
+			if (queuedFileEvent != null) {
+				_queue.put(path, _coalesce(queuedFileEvent, fileEvent));
+
+				_coalescedEvents.incrementAndGet();
+
+				return;
+			}
+
+			while (_queue.size() >= _queueCapacity) {
+				if (_backpressurePolicy == BackpressurePolicy.DROP_NEWEST) {
+					_droppedEvents.incrementAndGet();
+
+					return;
+				}
+				else if (_backpressurePolicy == BackpressurePolicy.DROP_OLDEST) {
+					Set<Path> queuedPaths = _queue.keySet();
+
+					Iterator<Path> iterator = queuedPaths.iterator();
+
+					iterator.next();
+
+					iterator.remove();
+
+					_droppedEvents.incrementAndGet();
+				}
+				else {
+					_notFull.await();
+
+					if (!_running) {
+						return;
+					}
+				}
+			}
+
+			_queue.put(path, fileEvent);
+
+			_notEmpty.signal();
+		}
+		finally {
+			_lock.unlock();
+		}
+	}
+
+	private void _register(Path dir) throws IOException {
+		WatchKey watchKey;
+
+		if (_SENSITIVITY_MODIFIER != null) {
+			watchKey = dir.register(_watchService, _WATCH_KINDS, _SENSITIVITY_MODIFIER);
+		}
+		else {
+			watchKey = dir.register(_watchService, _WATCH_KINDS);
+		}
+
+		_watchKeys.put(watchKey, dir);
+	}
+
+	private void _registerAll(Path start) throws IOException {
+		Files.walkFileTree(
+			start,
+			new SimpleFileVisitor<Path>() {
+
+				@Override
+				public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes basicFileAttributes)
+					throws IOException {
+
+					if (!_baseDirs.contains(dir) && !_directoryFilter.test(dir)) {
+						return FileVisitResult.SKIP_SUBTREE;
+					}
+
+					_register(dir);
+
+					return FileVisitResult.CONTINUE;
+				}
+
+			});
+	}
+
+	private FileEvent _take() throws InterruptedException {
+		_lock.lock();
+
+		try {
+			while (_queue.isEmpty()) {
+				if (!_running) {
+					return null;
+				}
+
+				_notEmpty.await();
+			}
+
+			Collection<FileEvent> queuedFileEvents = _queue.values();
+
+			Iterator<FileEvent> iterator = queuedFileEvents.iterator();
+
+			FileEvent fileEvent = iterator.next();
+
+			iterator.remove();
+
+			_notFull.signal();
+
+			return fileEvent;
+		}
+		finally {
+			_lock.unlock();
+		}
+	}
+
+	private void _watch() {
+		try {
+			while (_running) {
+				WatchKey watchKey = _watchService.take();
+
+				Path dir = _watchKeys.get(watchKey);
+
+				if (dir == null) {
+					continue;
+				}
+
+				for (WatchEvent<?> watchEvent : watchKey.pollEvents()) {
+					WatchEvent.Kind<?> kind = watchEvent.kind();
+
+					if (kind == StandardWatchEventKinds.OVERFLOW) {
+						_droppedEvents.incrementAndGet();
+
+						continue;
+					}
+
+					Path child = dir.resolve((Path)watchEvent.context());
+
+					if (_recursive && (kind == StandardWatchEventKinds.ENTRY_CREATE) &&
+						Files.isDirectory(child, LinkOption.NOFOLLOW_LINKS) && _directoryFilter.test(child)) {
+
+						try {
+							_registerAll(child);
+						}
+						catch (IOException ioe) {
+
+							// The directory may already be gone again
+
+						}
+					}
+
+					_offer(new FileEvent(_toKind(kind), child));
+				}
+
+				if (!watchKey.reset()) {
+					_watchKeys.remove(watchKey);
+
+					if (_watchKeys.isEmpty()) {
+						break;
+					}
+				}
+			}
+		}
+		catch (ClosedWatchServiceException | InterruptedException e) {
+		}
+		finally {
+			stop();
+		}
+	}
+
+	private static final int _DEFAULT_QUEUE_CAPACITY = 1024;
+
+	private static final WatchEvent.Modifier _SENSITIVITY_MODIFIER = _getSensitivityModifier();
+
+	@SuppressWarnings("rawtypes")
+	private static final WatchEvent.Kind[] _WATCH_KINDS = {
+		StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_DELETE,
+		StandardWatchEventKinds.ENTRY_MODIFY
+	};
+
+	private final BackpressurePolicy _backpressurePolicy;
+	private final Set<Path> _baseDirs;
+	private final AtomicLong _coalescedEvents = new AtomicLong();
+	private final Predicate<Path> _directoryFilter;
+	private Thread _dispatcherThread;
+	private final AtomicLong _dispatchedEvents = new AtomicLong();
+	private final AtomicLong _droppedEvents = new AtomicLong();
+	private volatile BiConsumer<FileEvent, Exception> _errorHandler = FileWatchService::_printError;
+	private final AtomicLong _handlerNanos = new AtomicLong();
+	private final ReentrantLock _lock = new ReentrantLock();
+	private final AtomicLong _maxHandlerNanos = new AtomicLong();
+	private final Condition _notEmpty = _lock.newCondition();
+	private final Condition _notFull = _lock.newCondition();
+	private final Map<Path, FileEvent> _queue = new LinkedHashMap<>();
+	private final int _queueCapacity;
+	private final AtomicLong _receivedEvents = new AtomicLong();
+	private final boolean _recursive;
+	private volatile boolean _running;
+	private volatile long _startNanos;
+	private final List<Subscription> _subscriptions = new CopyOnWriteArrayList<>();
+	private final CountDownLatch _terminated = new CountDownLatch(1);
+	private final Map<WatchKey, Path> _watchKeys = new ConcurrentHashMap<>();
+	private WatchService _watchService;
+	private Thread _watcherThread;
+
+}
\ No newline at end of file
@@ -33,25 +33,10 @@ package com.liferay.blade.cli.util;
 
 import java.io.IOException;
 
-import java.lang.reflect.Field;
-
-import java.nio.file.FileSystem;
-import java.nio.file.FileSystems;
-import java.nio.file.FileVisitResult;
-import java.nio.file.Files;
-import java.nio.file.LinkOption;
 import java.nio.file.Path;
-import java.nio.file.SimpleFileVisitor;
-import java.nio.file.StandardWatchEventKinds;
 import java.nio.file.WatchEvent;
-import java.nio.file.WatchKey;
-import java.nio.file.WatchService;
-import java.nio.file.attribute.BasicFileAttributes;
 
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Set;
+import java.util.Objects;
 
 /**
  * Example to watch a directory (or tree) for changes to files.
@@ -70,187 +55,58 @@ public class FileWatcher {
 	}
 
 	/**
-	 * Creates a WatchService and registers the given directory
+	 * Creates a FileWatchService for the given directory and blocks while
+	 * processing its events
 	 * @param runnable
 	 */
 	public FileWatcher(Path baseDir, Path fileToWatch, boolean recursive, Consumer<Path> consumer) throws IOException {
-		FileSystem fileSystem = FileSystems.getDefault();
-
-		_watcher = fileSystem.newWatchService();
-
-		_keys = new HashMap<>();
-		_recursive = recursive;
+		_fileWatchService = new FileWatchService(baseDir, recursive);
 
 		System.out.format("Scanning %s\n", baseDir);
 
-		if (recursive) {
-			_registerAll(baseDir);
-		}
-		else {
-			_register(baseDir);
-		}
-
 		processEvents(fileToWatch, consumer);
 	}
 
 	/**
-	 * Process all events for keys queued to the watcher
+	 * Process all events for keys queued to the watcher. Only created files
+	 * are reported, and exceptions thrown by the consumer are ignored.
 	 * @param fileToWatch
 	 * @param runnable
 	 */
-	public void processEvents(Path fileToWatch, Consumer<Path> consumer) {
-		while (true) {
-
-			// wait for key to be signalled
-
-			WatchKey key;
-
-			try {
-				key = _watcher.take();
-			}
-			catch (InterruptedException ie) {
-				return;
-			}
-
-			Path dir = _keys.get(key);
-
-			if (dir == null) {
-				System.err.println("WatchKey not recognized!!");
-
-				continue;
-			}
-
-			final Set<Path> reportModified = new HashSet<>();
-
-			for (WatchEvent<?> event : key.pollEvents()) {
-				WatchEvent.Kind<?> kind = event.kind();
-
-				// TBD - provide example of how OVERFLOW event is handled
-
-				if (kind == StandardWatchEventKinds.OVERFLOW) {
-					continue;
+	public void processEvents(Path fileToWatch, Consumer<Path> consumer) throws IOException {
+		_fileWatchService.subscribe(
+			path -> (fileToWatch == null) || Objects.equals(path, fileToWatch),
+			fileEvent -> {
+				if (fileEvent.getKind() != FileWatchService.FileEvent.Kind.CREATE) {
+					return;
 				}
 
-				// Context for directory entry event is the file name of entry
-
-				WatchEvent<Path> ev = cast(event);
-
-				Path name = ev.context();
-
-				Path child = dir.resolve(name);
-
-				if ((child.equals(fileToWatch) || (fileToWatch == null)) &&
-					((kind == StandardWatchEventKinds.ENTRY_CREATE) ||
-					 (kind == StandardWatchEventKinds.ENTRY_MODIFY))) {
-
-					reportModified.add(child);
+				try {
+					consumer.consume(fileEvent.getPath());
 				}
+				catch (Throwable t) {
 
-				// if directory is created, and watching recursively, then
-				// register it and its sub-directories
-
-				if (_recursive && (kind == StandardWatchEventKinds.ENTRY_CREATE)) {
-					try {
-						if (Files.isDirectory(child, LinkOption.NOFOLLOW_LINKS)) {
-							_registerAll(child);
-						}
-					}
-					catch (IOException ioe) {
-
-						// ignore to keep sample readbale
+					// ignore
 
-					}
 				}
-			}
-
-			if (!reportModified.isEmpty()) {
-				for (Path modified : reportModified) {
-					try {
-						consumer.consume(modified);
-					}
-					catch (Throwable t) {
-						//ignore
-					}
-				}
-			}
-
-			// reset key and remove from set if directory no longer accessible
-
-			boolean valid = key.reset();
-
-			if (!valid) {
-				_keys.remove(key);
-
-				// all directories are inaccessible
-
-				if (_keys.isEmpty()) {
-					break;
-				}
-			}
-		}
-	}
-
-	public interface Consumer<E> {
-
-		public void consume(E reference);
-
-	}
+			});
 
-	/**
-	 * Register the given directory with the WatchService
-	 */
-	private void _register(Path dir) throws IOException {
-		WatchEvent.Modifier modifier = null;
+		_fileWatchService.start();
 
 		try {
-			Class<?> c = Class.forName("com.sun.nio.file.SensitivityWatchEventModifier");
-
-			Field f = c.getField("HIGH");
-
-			modifier = (WatchEvent.Modifier)f.get(c);
+			_fileWatchService.awaitTermination();
 		}
-		catch (Exception e) {
+		catch (InterruptedException ie) {
+			_fileWatchService.stop();
 		}
-
-		WatchKey key;
-
-		if (modifier != null) {
-			key = dir.register(_watcher, _WATCH_KINDS, modifier);
-		}
-		else {
-			key = dir.register(_watcher, _WATCH_KINDS);
-		}
-
-		_keys.put(key, dir);
 	}
 
-	/**
-	 * Register the given directory, and all its sub-directories, with the
-	 * WatchService.
-	 */
-	private void _registerAll(final Path start) throws IOException {
-
-		// register directory and sub-directories
-
-		Files.walkFileTree(
-			start,
-			new SimpleFileVisitor<Path>() {
-
-				@Override
-				public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
-					_register(dir);
+	public interface Consumer<E> {
 
-					return FileVisitResult.CONTINUE;
-				}
+		public void consume(E reference);
 
-			});
 	}
 
-	@SuppressWarnings("rawtypes")
-	private static final WatchEvent.Kind[] _WATCH_KINDS = {StandardWatchEventKinds.ENTRY_CREATE};
-
-	private final Map<WatchKey, Path> _keys;
-	private final boolean _recursive;
-	private final WatchService _watcher;
+	private final FileWatchService _fileWatchService;
 
 }
\ No newline at end of file
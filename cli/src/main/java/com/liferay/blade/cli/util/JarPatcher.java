@@ -0,0 +1,134 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.liferay.blade.cli.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+
+/**
+ * Rewrites a subset of the entries of an existing jar. Unchanged entries are
+ * copied as raw compressed data so only the replaced entries are deflated.
+ *
+ * @author Gregory Amerson
+ */
+public class JarPatcher {
+
+	/**
+	 * Replaces (or adds) the given entries in the jar. The patched jar is
+	 * written next to the original and moved over it once complete.
+	 *
+	 * @param jarPath the jar to patch
+	 * @param entries jar entry names mapped to the files holding their new
+	 *        content
+	 */
+	public static void patch(Path jarPath, Map<String, Path> entries) throws IOException {
+		patch(jarPath, jarPath, entries);
+	}
+
+	/**
+	 * Writes a copy of the jar with the given entries replaced (or added) to
+	 * another path, leaving the original jar untouched. The patched jar may be
+	 * the original jar itself.
+	 *
+	 * @param jarPath the jar to patch
+	 * @param patchedJarPath the path to write the patched jar to
+	 * @param entries jar entry names mapped to the files holding their new
+	 *        content
+	 */
+	public static void patch(Path jarPath, Path patchedJarPath, Map<String, Path> entries) throws IOException {
+		Path parentPath = patchedJarPath.getParent();
+
+		Files.createDirectories(parentPath);
+
+		Path fileName = patchedJarPath.getFileName();
+
+		Path tempPath = Files.createTempFile(parentPath, fileName.toString(), ".tmp");
+
+		try {
+			Map<String, Path> pendingEntries = new HashMap<>(entries);
+
+			try (ZipFile zipFile = new ZipFile(jarPath.toFile());
+				ZipArchiveOutputStream zipArchiveOutputStream = new ZipArchiveOutputStream(tempPath.toFile())) {
+
+				Enumeration<ZipArchiveEntry> zipArchiveEntries = zipFile.getEntriesInPhysicalOrder();
+
+				while (zipArchiveEntries.hasMoreElements()) {
+					ZipArchiveEntry zipArchiveEntry = zipArchiveEntries.nextElement();
+
+					Path entryPath = pendingEntries.remove(zipArchiveEntry.getName());
+
+					if (entryPath == null) {
+						try (InputStream inputStream = zipFile.getRawInputStream(zipArchiveEntry)) {
+							zipArchiveOutputStream.addRawArchiveEntry(zipArchiveEntry, inputStream);
+						}
+					}
+					else {
+						_putEntry(zipArchiveOutputStream, zipArchiveEntry.getName(), entryPath);
+					}
+				}
+
+				for (Map.Entry<String, Path> pendingEntry : pendingEntries.entrySet()) {
+					_putEntry(zipArchiveOutputStream, pendingEntry.getKey(), pendingEntry.getValue());
+				}
+			}
+
+			try {
+				Files.move(
+					tempPath, patchedJarPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			}
+			catch (AtomicMoveNotSupportedException amnse) {
+				Files.move(tempPath, patchedJarPath, StandardCopyOption.REPLACE_EXISTING);
+			}
+		}
+		finally {
+			Files.deleteIfExists(tempPath);
+		}
+	}
+
+	private static void _putEntry(ZipArchiveOutputStream zipArchiveOutputStream, String name, Path path)
+		throws IOException {
+
+		ZipArchiveEntry zipArchiveEntry = new ZipArchiveEntry(name);
+
+		FileTime fileTime = Files.getLastModifiedTime(path);
+
+		zipArchiveEntry.setMethod(ZipEntry.DEFLATED);
+		zipArchiveEntry.setTime(fileTime.toMillis());
+
+		zipArchiveOutputStream.putArchiveEntry(zipArchiveEntry);
+
+		Files.copy(path, zipArchiveOutputStream);
+
+		zipArchiveOutputStream.closeArchiveEntry();
+	}
+
+}
\ No newline at end of file
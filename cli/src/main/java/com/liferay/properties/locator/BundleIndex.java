@@ -0,0 +1,556 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.liferay.properties.locator;
+
+import com.liferay.blade.cli.util.ArrayUtil;
+import com.liferay.blade.cli.util.Pair;
+import com.liferay.blade.cli.util.StringPool;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
+
+/**
+ * Indexes everything the property checks need from a Liferay bundle in a
+ * single walk: the keys of the portal's <code>portal.properties</code>, the
+ * keys of every module's <code>portlet.properties</code> under
+ * <code>osgi</code>, and the metadata of every <code>*Configuration</code>
+ * class in a Liferay jar. The <code>data</code>, <code>logs</code>,
+ * <code>work</code> and <code>osgi/state</code> folders are not walked.
+ *
+ * <p>
+ * The archives found by the walk are read in parallel, one fork/join task per
+ * jar or lpkg, and their results are merged in the order of the walk so that
+ * the index does not depend on which task finishes first. With a
+ * {@link BundleIndexCache}, archives that have not changed since the last run
+ * are not read at all.
+ * </p>
+ *
+ * @author Gregory Amerson
+ */
+public class BundleIndex {
+
+	public BundleIndex(Path bundlePath) throws IOException {
+		this(bundlePath, null);
+	}
+
+	/**
+	 * @param bundleIndexCache the cache to read unchanged archives from and to
+	 *        save the archives read to, or <code>null</code> to read every
+	 *        archive
+	 */
+	public BundleIndex(Path bundlePath, BundleIndexCache bundleIndexCache) throws IOException {
+		_bundlePath = bundlePath;
+
+		_osgiPath = bundlePath.resolve("osgi");
+
+		_skippedPaths = Arrays.asList(
+			bundlePath.resolve("data"), bundlePath.resolve("logs"), bundlePath.resolve("work"),
+			_osgiPath.resolve("state"));
+
+		List<IndexArchiveAction> indexArchiveActions = new ArrayList<>();
+
+		Files.walkFileTree(bundlePath, new IndexFileVisitor(indexArchiveActions));
+
+		ForkJoinPool forkJoinPool = ForkJoinPool.commonPool();
+
+		for (IndexArchiveAction indexArchiveAction : indexArchiveActions) {
+			if ((bundleIndexCache == null) || !indexArchiveAction.readCache(bundleIndexCache)) {
+				forkJoinPool.execute(indexArchiveAction);
+			}
+		}
+
+		for (IndexArchiveAction indexArchiveAction : indexArchiveActions) {
+			if (!indexArchiveAction.isCached()) {
+				indexArchiveAction.join();
+			}
+
+			_merge(indexArchiveAction);
+
+			if (bundleIndexCache != null) {
+				indexArchiveAction.writeCache(bundleIndexCache);
+			}
+		}
+
+		if (_portalImplPath != null) {
+			String portalImplPath = _portalImplPath.toString();
+
+			if ((bundleIndexCache == null) ||
+				!bundleIndexCache.readPortalProperties(portalImplPath, _portalImplStamp, _portalProperties)) {
+
+				_indexPortalImpl(portalImplPath);
+			}
+
+			if (bundleIndexCache != null) {
+				bundleIndexCache.writePortalProperties(portalImplPath, _portalImplStamp, _portalProperties);
+			}
+		}
+
+		if (bundleIndexCache != null) {
+			bundleIndexCache.save();
+		}
+	}
+
+	public Path getBundlePath() {
+		return _bundlePath;
+	}
+
+	/**
+	 * @return the configuration classes by internal class name, without the
+	 *         <code>.class</code> extension
+	 */
+	public Map<String, ConfigurationClassData> getConfigurationClasses() {
+		return _configurationClasses;
+	}
+
+	/**
+	 * @return the properties of the first <code>portal-impl.jar</code> found,
+	 *         including the ones that are only present as comments. Only the
+	 *         keys are cached, so the values are empty when the jar has not
+	 *         changed since the last run.
+	 */
+	public Properties getPortalProperties() {
+		return _portalProperties;
+	}
+
+	/**
+	 * @return the <code>portlet.properties</code> keys of every module, with
+	 *         the modules deployed as jars first and then the ones inside lpkgs
+	 */
+	public List<Pair<String, String[]>> getPortletProperties() {
+		List<Pair<String, String[]>> portletProperties = new ArrayList<>(_jarPortletProperties);
+
+		portletProperties.addAll(_lpkgPortletProperties);
+
+		return portletProperties;
+	}
+
+	private static Pair<String, String[]> _getPortletProperties(String path, InputStream inputStream)
+		throws IOException {
+
+		Properties properties = new Properties();
+
+		properties.load(inputStream);
+
+		Enumeration<Object> enuKeys = properties.keys();
+
+		String[] propertyKeys = new String[0];
+
+		while (enuKeys.hasMoreElements()) {
+			propertyKeys = ArrayUtil.append(propertyKeys, (String)enuKeys.nextElement());
+		}
+
+		if (propertyKeys.length == 0) {
+			return null;
+		}
+
+		return new Pair<>(path, propertyKeys);
+	}
+
+	private static boolean _isConfigurationClass(String name) {
+		return name.endsWith("Configuration.class");
+	}
+
+	private static boolean _isLiferayJar(String path) {
+		if (!path.endsWith(".jar") || !path.contains("com.liferay")) {
+			return false;
+		}
+
+		return true;
+	}
+
+	private void _indexPortalImpl(String absolutePath) {
+		try (ZipFile zipFile = new ZipFile(absolutePath)) {
+			ZipEntry zipEntry = zipFile.getEntry("portal.properties");
+
+			if (zipEntry == null) {
+				return;
+			}
+
+			try (InputStream inputStream = zipFile.getInputStream(zipEntry)) {
+				_portalProperties.load(inputStream);
+			}
+
+			try (BufferedReader bufferedReader = new BufferedReader(
+					new InputStreamReader(zipFile.getInputStream(zipEntry)))) {
+
+				bufferedReader.lines(
+				).filter(
+					line -> line.matches(".*#[a-zA-Z\\.\\[\\]]+=.*")
+				).map(
+					line -> line.substring(line.indexOf("#") + 1, line.indexOf("="))
+				).forEach(
+					line -> _portalProperties.put(line, "")
+				);
+			}
+		}
+		catch (IOException ioe) {
+			System.out.println("Unable to read properties file " + absolutePath + "!/portal.properties");
+
+			ioe.printStackTrace();
+		}
+	}
+
+	private void _merge(IndexArchiveAction indexArchiveAction) {
+		String errorMessage = indexArchiveAction.getErrorMessage();
+
+		if (errorMessage != null) {
+			System.out.println(errorMessage);
+		}
+
+		IOException ioException = indexArchiveAction.getIOException();
+
+		if (ioException != null) {
+			ioException.printStackTrace();
+		}
+
+		_configurationClasses.putAll(indexArchiveAction.getConfigurationClasses());
+
+		if (indexArchiveAction.isLpkg()) {
+			_lpkgPortletProperties.addAll(indexArchiveAction.getPortletProperties());
+		}
+		else {
+			_jarPortletProperties.addAll(indexArchiveAction.getPortletProperties());
+		}
+	}
+
+	private static final String _PORTAL_IMPL_RELATIVE_PATH =
+		File.separator + "WEB-INF" + File.separator + "lib" + File.separator + "portal-impl.jar";
+
+	private final Path _bundlePath;
+	private final Map<String, ConfigurationClassData> _configurationClasses = new TreeMap<>();
+	private final List<Pair<String, String[]>> _jarPortletProperties = new ArrayList<>();
+	private final List<Pair<String, String[]>> _lpkgPortletProperties = new ArrayList<>();
+	private final Path _osgiPath;
+	private Path _portalImplPath;
+	private String _portalImplStamp;
+	private final Properties _portalProperties = new Properties();
+	private final List<Path> _skippedPaths;
+
+	private static class IndexArchiveAction extends RecursiveAction {
+
+		public IndexArchiveAction(String path, String stamp, boolean lpkg, boolean module) {
+			_path = path;
+			_stamp = stamp;
+			_lpkg = lpkg;
+			_module = module;
+		}
+
+		public Map<String, ConfigurationClassData> getConfigurationClasses() {
+			return _configurationClasses;
+		}
+
+		public String getErrorMessage() {
+			return _errorMessage;
+		}
+
+		public IOException getIOException() {
+			return _ioException;
+		}
+
+		public List<Pair<String, String[]>> getPortletProperties() {
+			return _portletProperties;
+		}
+
+		public boolean isCached() {
+			return _cached;
+		}
+
+		public boolean isLpkg() {
+			return _lpkg;
+		}
+
+		public boolean readCache(BundleIndexCache bundleIndexCache) {
+			_cached = bundleIndexCache.read(_path, _stamp, _configurationClasses, _portletProperties);
+
+			return _cached;
+		}
+
+		/**
+		 * Archives that could not be read are left out, so that the error is
+		 * reported again on the next run.
+		 */
+		public void writeCache(BundleIndexCache bundleIndexCache) {
+			if ((_errorMessage == null) && (_ioException == null)) {
+				bundleIndexCache.write(_path, _stamp, _configurationClasses, _portletProperties);
+			}
+		}
+
+		@Override
+		protected void compute() {
+			if (_lpkg) {
+				_indexLpkg();
+			}
+			else {
+				_indexJar();
+			}
+		}
+
+		private void _addConfigurationClass(
+				Map<String, ConfigurationClassData> configurationClasses, String name, InputStream inputStream)
+			throws IOException {
+
+			configurationClasses.put(
+				name.replace(".class", StringPool.BLANK), new ConfigurationClassData(inputStream));
+		}
+
+		private void _addPortletProperties(
+				List<Pair<String, String[]>> portletProperties, String path, InputStream inputStream)
+			throws IOException {
+
+			Pair<String, String[]> pair = _getPortletProperties(path, inputStream);
+
+			if (pair != null) {
+				portletProperties.add(pair);
+			}
+		}
+
+		private void _indexJar() {
+			try (JarFile jarFile = new JarFile(_path)) {
+				JarEntry portletPropertiesEntry = jarFile.getJarEntry("portlet.properties");
+
+				if (_module && (portletPropertiesEntry != null)) {
+					try (InputStream inputStream = jarFile.getInputStream(portletPropertiesEntry)) {
+						_addPortletProperties(_portletProperties, _path + "/portlet.properties", inputStream);
+					}
+				}
+
+				Enumeration<JarEntry> jarEntries = jarFile.entries();
+
+				while (jarEntries.hasMoreElements()) {
+					JarEntry jarEntry = jarEntries.nextElement();
+
+					String name = jarEntry.getName();
+
+					if (_isConfigurationClass(name)) {
+						try (InputStream inputStream = jarFile.getInputStream(jarEntry)) {
+							_addConfigurationClass(_configurationClasses, name, inputStream);
+						}
+					}
+				}
+			}
+			catch (Exception e) {
+				_errorMessage = "Unable to read the content of " + _path;
+			}
+		}
+
+		/**
+		 * Reads a jar of the lpkg as a stream. Its results are only added once
+		 * the whole jar has been read.
+		 */
+		private void _indexJarStream(String jarName, InputStream inputStream) {
+			Map<String, ConfigurationClassData> configurationClasses = new LinkedHashMap<>();
+			List<Pair<String, String[]>> portletProperties = new ArrayList<>();
+
+			try (JarInputStream jarInputStream = new JarInputStream(inputStream)) {
+				ZipEntry jarEntry = jarInputStream.getNextEntry();
+
+				while (jarEntry != null) {
+					String name = jarEntry.getName();
+
+					if (_module && name.equals("portlet.properties")) {
+						_addPortletProperties(
+							portletProperties, _path + "/" + jarName + "/portlet.properties", jarInputStream);
+					}
+					else if (_isConfigurationClass(name)) {
+						_addConfigurationClass(configurationClasses, name, jarInputStream);
+					}
+
+					jarEntry = jarInputStream.getNextEntry();
+				}
+			}
+			catch (Exception e) {
+				return;
+			}
+
+			_configurationClasses.putAll(configurationClasses);
+			_portletProperties.addAll(portletProperties);
+		}
+
+		/**
+		 * Reads the jars of the lpkg in place. The results of a jar are only
+		 * added once the whole jar has been read, so a jar that has to be read
+		 * again as a stream is not indexed twice.
+		 */
+		private void _indexLpkg() {
+			try (ZipArchive lpkgArchive = ZipArchive.open(Paths.get(_path))) {
+				for (ZipArchive.Entry lpkgEntry : lpkgArchive.getEntries()) {
+					String lpkgEntryName = lpkgEntry.getName();
+
+					if (!_isLiferayJar(lpkgEntryName)) {
+						continue;
+					}
+
+					try {
+						_indexNestedArchive(lpkgEntryName, lpkgArchive.getNestedArchive(lpkgEntry));
+					}
+					catch (ZipException ze) {
+						try {
+							_indexJarStream(lpkgEntryName, lpkgArchive.getInputStream(lpkgEntry));
+						}
+						catch (IOException ioe) {
+						}
+					}
+					catch (Exception e) {
+					}
+				}
+			}
+			catch (ZipException ze) {
+				_indexLpkgStream();
+			}
+			catch (IOException ioe) {
+				_ioException = ioe;
+			}
+		}
+
+		/**
+		 * Reads the lpkg and its jars as streams, for archives that
+		 * {@link ZipArchive} does not support.
+		 */
+		private void _indexLpkgStream() {
+			try (ZipFile zipFile = new ZipFile(_path)) {
+				Enumeration<? extends ZipEntry> zipEntries = zipFile.entries();
+
+				while (zipEntries.hasMoreElements()) {
+					ZipEntry zipEntry = zipEntries.nextElement();
+
+					String zipEntryName = zipEntry.getName();
+
+					if (_isLiferayJar(zipEntryName)) {
+						_indexJarStream(zipEntryName, zipFile.getInputStream(zipEntry));
+					}
+				}
+			}
+			catch (IOException ioe) {
+				_ioException = ioe;
+			}
+		}
+
+		private void _indexNestedArchive(String jarName, ZipArchive jarArchive) throws IOException {
+			Map<String, ConfigurationClassData> configurationClasses = new LinkedHashMap<>();
+			List<Pair<String, String[]>> portletProperties = new ArrayList<>();
+
+			for (ZipArchive.Entry jarEntry : jarArchive.getEntries()) {
+				String name = jarEntry.getName();
+
+				if (_module && name.equals("portlet.properties")) {
+					try (InputStream inputStream = jarArchive.getInputStream(jarEntry)) {
+						_addPortletProperties(
+							portletProperties, _path + "/" + jarName + "/portlet.properties", inputStream);
+					}
+				}
+				else if (_isConfigurationClass(name)) {
+					try (InputStream inputStream = jarArchive.getInputStream(jarEntry)) {
+						_addConfigurationClass(configurationClasses, name, inputStream);
+					}
+				}
+			}
+
+			_configurationClasses.putAll(configurationClasses);
+			_portletProperties.addAll(portletProperties);
+		}
+
+		private static final long serialVersionUID = 1L;
+
+		private boolean _cached;
+		private final Map<String, ConfigurationClassData> _configurationClasses = new LinkedHashMap<>();
+		private String _errorMessage;
+		private IOException _ioException;
+		private final boolean _lpkg;
+		private final boolean _module;
+		private final String _path;
+		private final List<Pair<String, String[]>> _portletProperties = new ArrayList<>();
+		private final String _stamp;
+
+	}
+
+	private class IndexFileVisitor extends SimpleFileVisitor<Path> {
+
+		public IndexFileVisitor(List<IndexArchiveAction> indexArchiveActions) {
+			_indexArchiveActions = indexArchiveActions;
+		}
+
+		@Override
+		public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+			if (_skippedPaths.contains(dir)) {
+				return FileVisitResult.SKIP_SUBTREE;
+			}
+
+			return FileVisitResult.CONTINUE;
+		}
+
+		@Override
+		public FileVisitResult visitFile(Path path, BasicFileAttributes attrs) {
+			Path absolutePath = path.toAbsolutePath();
+
+			String absolutePathString = absolutePath.toString();
+
+			boolean module = path.startsWith(_osgiPath);
+
+			FileTime lastModifiedTime = attrs.lastModifiedTime();
+
+			String stamp = attrs.size() + ":" + lastModifiedTime.toMillis();
+
+			if ((_portalImplPath == null) && attrs.isRegularFile() &&
+				absolutePathString.endsWith(_PORTAL_IMPL_RELATIVE_PATH)) {
+
+				_portalImplPath = absolutePath;
+				_portalImplStamp = stamp;
+			}
+
+			if (absolutePathString.endsWith(".lpkg")) {
+				_indexArchiveActions.add(new IndexArchiveAction(absolutePathString, stamp, true, module));
+			}
+			else if (_isLiferayJar(absolutePathString)) {
+				_indexArchiveActions.add(new IndexArchiveAction(absolutePathString, stamp, false, module));
+			}
+
+			return FileVisitResult.CONTINUE;
+		}
+
+		private final List<IndexArchiveAction> _indexArchiveActions;
+
+	}
+
+}
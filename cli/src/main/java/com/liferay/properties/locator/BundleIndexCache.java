@@ -0,0 +1,240 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.liferay.properties.locator;
+
+import com.liferay.blade.cli.util.Pair;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Keeps the metadata that {@link BundleIndex} reads from each archive of a
+ * bundle between runs, so that archives that have not changed are not read
+ * again. An archive is identified by its absolute path and stamped with its
+ * size and modification time, which the bundle walk gets without opening the
+ * archive. Only the archives of the last run are kept.
+ *
+ * @author Gregory Amerson
+ */
+public class BundleIndexCache {
+
+	public BundleIndexCache(Path cachePath) {
+		_cachePath = cachePath;
+
+		if (Files.exists(cachePath)) {
+			try (InputStream inputStream = Files.newInputStream(cachePath)) {
+				_cachedProperties.load(inputStream);
+			}
+			catch (IOException ioe) {
+				_cachedProperties.clear();
+			}
+		}
+
+		if (!_VERSION.equals(_cachedProperties.getProperty(_VERSION_KEY))) {
+			_cachedProperties.clear();
+		}
+
+		_properties.setProperty(_VERSION_KEY, _VERSION);
+	}
+
+	/**
+	 * Adds the cached metadata of the archive to the given collections.
+	 *
+	 * @return <code>true</code> if the archive was cached with the same stamp,
+	 *         otherwise <code>false</code> and nothing is added
+	 */
+	public boolean read(
+		String archivePath, String stamp, Map<String, ConfigurationClassData> configurationClasses,
+		List<Pair<String, String[]>> portletProperties) {
+
+		if (!stamp.equals(_cachedProperties.getProperty(_getKey(_STAMP_PREFIX, archivePath)))) {
+			return false;
+		}
+
+		for (int i = 0;; i++) {
+			String[] values = _getValues(_CONFIGURATION_PREFIX + i, archivePath);
+
+			if (values == null) {
+				break;
+			}
+
+			String superClass = values[1];
+
+			if (superClass.isEmpty()) {
+				superClass = null;
+			}
+
+			configurationClasses.put(
+				values[0], new ConfigurationClassData(superClass, Arrays.copyOfRange(values, 2, values.length)));
+		}
+
+		for (int i = 0;; i++) {
+			String[] values = _getValues(_PORTLET_PREFIX + i, archivePath);
+
+			if (values == null) {
+				break;
+			}
+
+			portletProperties.add(new Pair<>(values[0], Arrays.copyOfRange(values, 1, values.length)));
+		}
+
+		return true;
+	}
+
+	/**
+	 * Adds the cached <code>portal.properties</code> keys of the portal-impl
+	 * jar to the given properties, each with an empty value.
+	 *
+	 * @return <code>true</code> if the keys were cached with the same stamp,
+	 *         otherwise <code>false</code> and nothing is added
+	 */
+	public boolean readPortalProperties(String archivePath, String stamp, Properties portalProperties) {
+		if (!stamp.equals(_cachedProperties.getProperty(_getKey(_STAMP_PREFIX, archivePath)))) {
+			return false;
+		}
+
+		String[] keys = _getValues(_PORTAL_PREFIX, archivePath);
+
+		if (keys == null) {
+			return false;
+		}
+
+		for (String key : keys) {
+			portalProperties.setProperty(key, "");
+		}
+
+		return true;
+	}
+
+	/**
+	 * Writes the cache if any archive was added, changed or removed since it
+	 * was loaded.
+	 */
+	public void save() {
+		if (_properties.equals(_cachedProperties)) {
+			return;
+		}
+
+		try {
+			Files.createDirectories(_cachePath.getParent());
+
+			try (OutputStream outputStream = Files.newOutputStream(_cachePath)) {
+				_properties.store(outputStream, null);
+			}
+		}
+		catch (IOException ioe) {
+
+			// The cache is only an optimization, the next run will read the archives again
+
+		}
+	}
+
+	public void write(
+		String archivePath, String stamp, Map<String, ConfigurationClassData> configurationClasses,
+		List<Pair<String, String[]>> portletProperties) {
+
+		_properties.setProperty(_getKey(_STAMP_PREFIX, archivePath), stamp);
+
+		int i = 0;
+
+		for (Map.Entry<String, ConfigurationClassData> entry : configurationClasses.entrySet()) {
+			ConfigurationClassData configurationClassData = entry.getValue();
+
+			String superClass = configurationClassData.getSuperClass();
+
+			if (superClass == null) {
+				superClass = "";
+			}
+
+			List<String> values = new ArrayList<>();
+
+			values.add(entry.getKey());
+			values.add(superClass);
+
+			Collections.addAll(values, configurationClassData.getConfigFields());
+
+			_properties.setProperty(
+				_getKey(_CONFIGURATION_PREFIX + i++, archivePath), String.join(_SEPARATOR, values));
+		}
+
+		i = 0;
+
+		for (Pair<String, String[]> pair : portletProperties) {
+			List<String> values = new ArrayList<>();
+
+			values.add(pair.first());
+
+			Collections.addAll(values, pair.second());
+
+			_properties.setProperty(_getKey(_PORTLET_PREFIX + i++, archivePath), String.join(_SEPARATOR, values));
+		}
+	}
+
+	public void writePortalProperties(String archivePath, String stamp, Properties portalProperties) {
+		if (portalProperties.isEmpty()) {
+			return;
+		}
+
+		_properties.setProperty(_getKey(_STAMP_PREFIX, archivePath), stamp);
+		_properties.setProperty(
+			_getKey(_PORTAL_PREFIX, archivePath), String.join(_SEPARATOR, portalProperties.stringPropertyNames()));
+	}
+
+	private static String _getKey(String prefix, String archivePath) {
+		return prefix + "!" + archivePath;
+	}
+
+	private String[] _getValues(String prefix, String archivePath) {
+		String value = _cachedProperties.getProperty(_getKey(prefix, archivePath));
+
+		if (value == null) {
+			return null;
+		}
+
+		return value.split(_SEPARATOR, -1);
+	}
+
+	private static final String _CONFIGURATION_PREFIX = "configuration.";
+
+	private static final String _PORTAL_PREFIX = "portal";
+
+	private static final String _PORTLET_PREFIX = "portlet.";
+
+	private static final String _SEPARATOR = "\n";
+
+	private static final String _STAMP_PREFIX = "stamp";
+
+	private static final String _VERSION = "1";
+
+	private static final String _VERSION_KEY = "version";
+
+	private final Path _cachePath;
+	private final Properties _cachedProperties = new Properties();
+	private final Properties _properties = new Properties();
+
+}
@@ -0,0 +1,122 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.liferay.properties.locator;
+
+import com.liferay.blade.cli.util.Pair;
+
+import java.io.PrintWriter;
+
+import java.util.List;
+
+/**
+ * Writes property problems as CSV, with one row for each replacement of a
+ * problem, or a single row without a source for a problem without
+ * replacements. The header is written with the first row.
+ *
+ * @author Gregory Amerson
+ */
+public class CSVPropertyProblemWriter implements PropertyProblemWriter {
+
+	public CSVPropertyProblemWriter(PrintWriter printWriter) {
+		_printWriter = printWriter;
+	}
+
+	@Override
+	public void close() {
+		_printWriter.flush();
+	}
+
+	@Override
+	public void write(PropertyProblem propertyProblem) {
+		_printHeader("property,type,source,replacement,message");
+
+		PropertyProblemType type = propertyProblem.getType();
+
+		String typeName = type.name();
+
+		String message = propertyProblem.getMessage();
+
+		if (message != null) {
+			message = message.trim();
+		}
+
+		List<Pair<String, String>> replacements = propertyProblem.getReplacements();
+
+		if ((replacements == null) || replacements.isEmpty()) {
+			_writeRow(propertyProblem.getPropertyName(), typeName.toLowerCase(), null, null, message);
+		}
+		else {
+			for (Pair<String, String> replacement : replacements) {
+				_writeRow(
+					propertyProblem.getPropertyName(), typeName.toLowerCase(), replacement.first(),
+					replacement.second(), message);
+			}
+		}
+
+		_printWriter.flush();
+	}
+
+	@Override
+	public void writeAffectedFiles(String propertyName, List<String> propertiesFiles) {
+		_printHeader("property,file");
+
+		for (String propertiesFile : propertiesFiles) {
+			_writeRow(propertyName, propertiesFile);
+		}
+
+		_printWriter.flush();
+	}
+
+	private static String _escape(String value) {
+		if (value == null) {
+			return "";
+		}
+
+		if ((value.indexOf(',') == -1) && (value.indexOf('"') == -1) && (value.indexOf('\n') == -1) &&
+			(value.indexOf('\r') == -1)) {
+
+			return value;
+		}
+
+		return "\"" + value.replace("\"", "\"\"") + "\"";
+	}
+
+	private void _printHeader(String header) {
+		if (!_headerPrinted) {
+			_printWriter.println(header);
+
+			_headerPrinted = true;
+		}
+	}
+
+	private void _writeRow(String... values) {
+		StringBuilder sb = new StringBuilder();
+
+		for (int i = 0; i < values.length; i++) {
+			if (i > 0) {
+				sb.append(',');
+			}
+
+			sb.append(_escape(values[i]));
+		}
+
+		_printWriter.println(sb);
+	}
+
+	private boolean _headerPrinted;
+	private final PrintWriter _printWriter;
+
+}
@@ -16,11 +16,15 @@
 
 package com.liferay.properties.locator;
 
-import com.liferay.blade.cli.util.ArrayUtil;
-
 import java.io.IOException;
 import java.io.InputStream;
 
+import java.nio.charset.StandardCharsets;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 import org.objectweb.asm.AnnotationVisitor;
 import org.objectweb.asm.ClassReader;
 import org.objectweb.asm.ClassVisitor;
@@ -35,49 +39,87 @@ public class ConfigurationClassData {
 	public ConfigurationClassData(InputStream is) throws IOException {
 		ClassReader cr = new ClassReader(is);
 
-		cr.accept(new ConfigClassVisitor(), ClassReader.SKIP_CODE);
+		String superName = cr.getSuperName();
+		String[] interfaces = cr.getInterfaces();
+
+		if (superName.equals("java/lang/Object") && (interfaces.length == 1)) {
+
+			// When it's an interface and extends from another interface
+
+			_superClass = interfaces[0];
+		}
+		else {
+			_superClass = superName;
+		}
+
+		if (_hasMetatypeAnnotations(cr)) {
+			cr.accept(
+				new ConfigClassVisitor(), ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+		}
+	}
+
+	public ConfigurationClassData(String superClass, String[] configFields) {
+		_superClass = superClass;
+
+		Collections.addAll(_configFields, configFields);
 	}
 
 	public String[] getConfigFields() {
-		return _configFields;
+		return _configFields.toArray(new String[0]);
 	}
 
 	public String getSuperClass() {
 		return _superClass;
 	}
 
-	private void _addConfigField(String configField) {
-		_configFields = ArrayUtil.append(_configFields, configField);
-	}
+	/**
+	 * Looks for the descriptor of the metatype annotation in the constant
+	 * pool, so that classes without configuration fields are not visited.
+	 */
+	private static boolean _hasMetatypeAnnotations(ClassReader cr) {
+		byte[] b = cr.b;
 
-	private void _setSuperClass(String superClass) {
-		_superClass = superClass;
-	}
+		for (int i = 1; i < cr.getItemCount(); i++) {
+			int offset = cr.getItem(i);
 
-	private String[] _configFields = new String[0];
-	private String _superClass;
+			if ((offset == 0) || (b[offset - 1] != _CONSTANT_UTF8) ||
+				(cr.readUnsignedShort(offset) != _META_AD_DESCRIPTOR.length)) {
 
-	private class ConfigClassVisitor extends ClassVisitor {
+				continue;
+			}
 
-		public ConfigClassVisitor() {
-			super(Opcodes.ASM5);
+			int start = offset + 2;
+
+			int j = 0;
+
+			while ((j < _META_AD_DESCRIPTOR.length) && (b[start + j] == _META_AD_DESCRIPTOR[j])) {
+				j++;
+			}
+
+			if (j == _META_AD_DESCRIPTOR.length) {
+				return true;
+			}
 		}
 
-		@Override
-		public void visit(
-			int version, int access, String name, String signature, String superName, String[] interfaces) {
+		return false;
+	}
 
-			if (superName.equals("java/lang/Object") && (interfaces.length == 1)) {
+	private void _addConfigField(String configField) {
+		_configFields.add(configField);
+	}
 
-				// When it's an interface and extends from another interface
+	private static final byte _CONSTANT_UTF8 = 1;
 
-				_setSuperClass(interfaces[0]);
-			}
-			else {
-				_setSuperClass(superName);
-			}
+	private static final byte[] _META_AD_DESCRIPTOR = "LaQute/bnd/annotation/metatype/Meta$AD;".getBytes(
+		StandardCharsets.UTF_8);
+
+	private final List<String> _configFields = new ArrayList<>();
+	private final String _superClass;
 
-			super.visit(version, access, name, signature, superName, interfaces);
+	private class ConfigClassVisitor extends ClassVisitor {
+
+		public ConfigClassVisitor() {
+			super(Opcodes.ASM5);
 		}
 
 		@Override
@@ -108,4 +150,4 @@ public class ConfigurationClassData {
 
 	}
 
-}
\ No newline at end of file
+}
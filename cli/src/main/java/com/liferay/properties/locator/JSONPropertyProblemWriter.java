@@ -0,0 +1,136 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.liferay.properties.locator;
+
+import com.liferay.blade.cli.util.Pair;
+
+import java.io.PrintWriter;
+
+import java.util.List;
+
+/**
+ * Writes each property problem as a JSON object on its own line.
+ *
+ * @author Gregory Amerson
+ */
+public class JSONPropertyProblemWriter implements PropertyProblemWriter {
+
+	public JSONPropertyProblemWriter(PrintWriter printWriter) {
+		_printWriter = printWriter;
+	}
+
+	@Override
+	public void close() {
+		_printWriter.flush();
+	}
+
+	@Override
+	public void write(PropertyProblem propertyProblem) {
+		StringBuilder sb = new StringBuilder();
+
+		sb.append("{\"property\":");
+		_append(sb, propertyProblem.getPropertyName());
+
+		PropertyProblemType type = propertyProblem.getType();
+
+		String typeName = type.name();
+
+		sb.append(",\"type\":");
+		_append(sb, typeName.toLowerCase());
+
+		String message = propertyProblem.getMessage();
+
+		if (message != null) {
+			sb.append(",\"message\":");
+			_append(sb, message.trim());
+		}
+
+		List<Pair<String, String>> replacements = propertyProblem.getReplacements();
+
+		if (replacements != null) {
+			sb.append(",\"replacements\":[");
+
+			for (int i = 0; i < replacements.size(); i++) {
+				Pair<String, String> replacement = replacements.get(i);
+
+				if (i > 0) {
+					sb.append(",");
+				}
+
+				sb.append("{\"source\":");
+				_append(sb, replacement.first());
+				sb.append(",\"property\":");
+				_append(sb, replacement.second());
+				sb.append("}");
+			}
+
+			sb.append("]");
+		}
+
+		sb.append("}");
+
+		_printWriter.println(sb);
+
+		_printWriter.flush();
+	}
+
+	@Override
+	public void writeAffectedFiles(String propertyName, List<String> propertiesFiles) {
+		StringBuilder sb = new StringBuilder();
+
+		sb.append("{\"property\":");
+		_append(sb, propertyName);
+		sb.append(",\"files\":[");
+
+		for (int i = 0; i < propertiesFiles.size(); i++) {
+			if (i > 0) {
+				sb.append(",");
+			}
+
+			_append(sb, propertiesFiles.get(i));
+		}
+
+		sb.append("]}");
+
+		_printWriter.println(sb);
+
+		_printWriter.flush();
+	}
+
+	private static void _append(StringBuilder sb, String value) {
+		sb.append('"');
+
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+
+			if ((c == '"') || (c == '\\')) {
+				sb.append('\\');
+				sb.append(c);
+			}
+			else if (c < 0x20) {
+				sb.append(String.format("\\u%04x", (int)c));
+			}
+			else {
+				sb.append(c);
+			}
+		}
+
+		sb.append('"');
+	}
+
+	private final PrintWriter _printWriter;
+
+}
@@ -0,0 +1,524 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.liferay.properties.locator;
+
+import com.liferay.blade.cli.util.ArrayUtil;
+import com.liferay.blade.cli.util.Pair;
+import com.liferay.blade.cli.util.StringPool;
+import com.liferay.blade.cli.util.StringUtil;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Finds what happened to the properties of an old portal-ext.properties file
+ * in the portal of a bundle: whether they still exist in its portal.properties,
+ * were moved to the portlet.properties of a module or to an OSGi
+ * configuration, or are missing.
+ *
+ * <p>
+ * An analyzer only reads the bundle index it is created with, so it can
+ * analyze any number of properties files, from any number of threads. It does
+ * not print anything, see {@link PropertiesReportRenderer} for the text report.
+ * </p>
+ *
+ * @author Alberto Chaparro
+ * @author Gregory Amerson
+ */
+public class PropertiesAnalyzer {
+
+	/**
+	 * Returns the known exception for a property that is not in the new
+	 * portal.properties, or <code>null</code> if there is none.
+	 */
+	public static PropertyProblem getException(String propertyName) {
+		List<PropertyProblem> exceptions = new ArrayList<>();
+
+		_manageException(new PropertyProblem(propertyName), exceptions);
+
+		if (exceptions.isEmpty()) {
+			return null;
+		}
+
+		return exceptions.get(0);
+	}
+
+	public PropertiesAnalyzer(BundleIndex bundleIndex) throws Exception {
+		_bundlePath = bundleIndex.getBundlePath();
+
+		_newProperties = _getCurrentPortalProperties(bundleIndex);
+
+		_portletPropertyKeyIndex = new PropertyKeyIndex(bundleIndex.getPortletProperties());
+
+		_configurationPropertyKeyIndex = new PropertyKeyIndex(
+			_getConfigurationProperties(bundleIndex.getConfigurationClasses()));
+	}
+
+	/**
+	 * Returns a problem for each property of the old properties that is not in
+	 * the new portal.properties.
+	 */
+	public SortedSet<PropertyProblem> analyze(Properties oldProperties) {
+		SortedSet<String> removedProperties = getRemovedProperties(oldProperties);
+
+		Stream<String> stream = removedProperties.stream();
+
+		return stream.map(
+			this::analyzeProperty
+		).collect(
+			Collectors.toCollection(TreeSet::new)
+		);
+	}
+
+	/**
+	 * Returns the problem of a property that is not in the new
+	 * portal.properties. The sources of its replacements are module paths
+	 * relative to the bundle, or configuration class names.
+	 */
+	public PropertyProblem analyzeProperty(String propertyName) {
+		PropertyProblem problem = _manageException(new PropertyProblem(propertyName), new ArrayList<>());
+
+		problem = _checkPortletProperty(problem, _portletPropertyKeyIndex);
+
+		if (problem.getType() == PropertyProblemType.MISSING) {
+			problem = _checkConfigurationProperty(problem, _configurationPropertyKeyIndex);
+		}
+
+		List<Pair<String, String>> replacements = problem.getReplacements();
+
+		if (replacements == null) {
+			return problem;
+		}
+
+		PropertyProblemType type = problem.getType();
+
+		Stream<Pair<String, String>> stream = replacements.stream();
+
+		replacements = stream.map(
+			replacement -> new Pair<>(_getSource(type, replacement.first()), replacement.second())
+		).collect(
+			Collectors.toList()
+		);
+
+		return new PropertyProblem(propertyName, type, problem.getMessage(), replacements);
+	}
+
+	public Path getBundlePath() {
+		return _bundlePath;
+	}
+
+	/**
+	 * Returns the properties of the old properties that still exist in the new
+	 * portal.properties.
+	 */
+	public SortedSet<String> getRemainingProperties(Properties oldProperties) {
+		SortedSet<String> remainingProperties = new TreeSet<>();
+
+		_getRemovedProperties(oldProperties, _newProperties, remainingProperties);
+
+		return remainingProperties;
+	}
+
+	public SortedSet<String> getRemovedProperties(Properties oldProperties) {
+		return _getRemovedProperties(oldProperties, _newProperties, new TreeSet<>());
+	}
+
+	private static String[] _addConfigurationPropertiesByHeritance(
+		String superClass, String[] configFields, Map<String, ConfigurationClassData> configClassesMap) {
+
+		if (!superClass.equals("java/lang/Object")) {
+			ConfigurationClassData superClassData = configClassesMap.get(superClass);
+
+			String[] superConfigFields = new String[0];
+
+			if (superClassData != null) {
+				superConfigFields = _addConfigurationPropertiesByHeritance(
+					superClassData.getSuperClass(), superClassData.getConfigFields(), configClassesMap);
+			}
+
+			return ArrayUtil.append(configFields, superConfigFields);
+		}
+
+		return configFields;
+	}
+
+	private static PropertyProblem _checkConfigurationProperty(
+		PropertyProblem problem, PropertyKeyIndex propertyKeyIndex) {
+
+		String property = problem.getPropertyName();
+
+		List<Pair<String, String>> mostLikelyMatches = _getMostLikelyMatches(
+			property, propertyKeyIndex, _getPortletNames(property));
+
+		if (!mostLikelyMatches.isEmpty()) {
+			return new PropertyProblem(
+				property, PropertyProblemType.OSGI, "This property has been modularized", mostLikelyMatches);
+		}
+
+		return problem;
+	}
+
+	private static PropertyProblem _checkPortletProperty(PropertyProblem problem, PropertyKeyIndex propertyKeyIndex) {
+
+		// We don't need to analyze war files since, they are still like in previous versions so properties
+		// still remain in the same place
+
+		String property = problem.getPropertyName();
+
+		List<Pair<String, String>> mostLikelyMatches = _getMostLikelyMatches(
+			property, propertyKeyIndex, _getPortletNames(property));
+
+		if (!mostLikelyMatches.isEmpty()) {
+			return new PropertyProblem(property, PropertyProblemType.MODULARIZED, null, mostLikelyMatches);
+		}
+
+		return problem;
+	}
+
+	private static List<Pair<String, String>> _filterMostLikelyMatches(
+		String property, String[] portletNames, List<Pair<String, String>> mostLikelyMatches) {
+
+		List<Pair<String, String>> theMostLikelyMatches = new ArrayList<>();
+
+		String[] portletNameAsProperty = new String[1];
+
+		portletNameAsProperty[0] = _getPortletNameAsProperty(portletNames);
+
+		for (Pair<String, String> match : mostLikelyMatches) {
+
+			// Check for containing whole portletName in the path
+
+			if (_pathContainsPortletName(match.first(), portletNameAsProperty)) {
+				theMostLikelyMatches.add(new Pair<>(match.first(), match.second()));
+			}
+		}
+
+		if (!theMostLikelyMatches.isEmpty()) {
+			mostLikelyMatches = theMostLikelyMatches;
+
+			theMostLikelyMatches = new ArrayList<>();
+		}
+
+		for (Pair<String, String> match : mostLikelyMatches) {
+
+			// Check for containing same suffix the original property
+
+			if (_matchSuffix(property, match.second())) {
+				theMostLikelyMatches.add(new Pair<>(match.first(), match.second()));
+			}
+		}
+
+		if (!theMostLikelyMatches.isEmpty()) {
+			return theMostLikelyMatches;
+		}
+
+		return mostLikelyMatches;
+	}
+
+	private static List<Pair<String, String[]>> _getConfigurationProperties(
+		Map<String, ConfigurationClassData> configClassesMap) {
+
+		List<Pair<String, String[]>> configurationProperties = new ArrayList<>();
+
+		for (Map.Entry<String, ConfigurationClassData> configClass : configClassesMap.entrySet()) {
+			String className = configClass.getKey();
+
+			ConfigurationClassData configClassData = configClass.getValue();
+
+			String[] allConfigFields = _addConfigurationPropertiesByHeritance(
+				configClassData.getSuperClass(), configClassData.getConfigFields(), configClassesMap);
+
+			if (allConfigFields.length > 0) {
+				configurationProperties.add(new Pair<>(className, allConfigFields));
+			}
+		}
+
+		return configurationProperties;
+	}
+
+	private static Properties _getCurrentPortalProperties(BundleIndex bundleIndex) throws Exception {
+		Properties properties = new Properties();
+
+		properties.putAll(bundleIndex.getPortalProperties());
+
+		_removeScopedProperties(properties);
+
+		if (properties.isEmpty()) {
+			throw new Exception("File portal.properties does not exist in " + bundleIndex.getBundlePath());
+		}
+
+		return properties;
+	}
+
+	private static String _getEquivalence(String portletName) {
+		String equivalence = _portletNameEquivalences.get(portletName);
+
+		if (equivalence != null) {
+			return equivalence;
+		}
+
+		return portletName;
+	}
+
+	private static List<Pair<String, String>> _getMostLikelyMatches(
+		String property, PropertyKeyIndex propertyKeyIndex, String[] portletNames) {
+
+		List<Pair<String, String>> mostLikelyMatches = new ArrayList<>();
+
+		//Default min occurrences to match
+		int maxOccurrences = 2;
+
+		String[] propertyWords = StringUtil.split(_removeCommonPrefix(property), StringPool.PERIOD);
+
+		Map<String, Boolean> pathMatches = new HashMap<>();
+
+		for (PropertyKeyIndex.Match match : propertyKeyIndex.getMatches(propertyWords)) {
+			int occurrences = match.getOccurrences();
+
+			if (occurrences < maxOccurrences) {
+				continue;
+			}
+
+			boolean pathMatch = pathMatches.computeIfAbsent(
+				match.getPath(), path -> _pathContainsPortletName(path, portletNames));
+
+			if (!pathMatch) {
+				continue;
+			}
+
+			if (occurrences > maxOccurrences) {
+				mostLikelyMatches.clear();
+
+				maxOccurrences = occurrences;
+			}
+
+			mostLikelyMatches.add(new Pair<>(match.getPath(), match.getKey()));
+		}
+
+		if (!mostLikelyMatches.isEmpty()) {
+			mostLikelyMatches = _filterMostLikelyMatches(property, portletNames, mostLikelyMatches);
+		}
+
+		return mostLikelyMatches;
+	}
+
+	/*
+		We get portlet names from first two words in a property
+	 */
+	private static String _getPortletNameAsProperty(String[] portletNames) {
+		String portletNameAsProperty = StringPool.BLANK;
+
+		for (String portletName : portletNames) {
+			if (portletNameAsProperty.length() > 0) {
+				portletNameAsProperty += StringPool.PERIOD;
+			}
+
+			portletNameAsProperty += portletName;
+		}
+
+		return portletNameAsProperty;
+	}
+
+	private static String[] _getPortletNames(String property) {
+		String[] portletNames = new String[0];
+
+		int index = 0;
+
+		while ((portletNames.length < 2) && (index != -1)) {
+			index = property.indexOf(StringPool.PERIOD);
+
+			String portletName;
+
+			if (index == -1) {
+				portletName = property;
+			}
+			else {
+				portletName = property.substring(0, index);
+
+				property = property.substring(index + 1);
+			}
+
+			portletNames = ArrayUtil.append(portletNames, portletName);
+		}
+
+		return portletNames;
+	}
+
+	private static SortedSet<String> _getRemovedProperties(
+		Properties oldProperties, Properties newProperties, SortedSet<String> remainedProperties) {
+
+		SortedSet<String> removedProperties = new TreeSet<>();
+
+		Enumeration<Object> enuKeys = oldProperties.keys();
+
+		while (enuKeys.hasMoreElements()) {
+			Object element = enuKeys.nextElement();
+
+			String key = element.toString();
+
+			if (key.contains("[")) {
+				key = key.substring(0, key.indexOf("["));
+			}
+
+			if (newProperties.getProperty(key) == null) {
+				removedProperties.add(key);
+			}
+			else {
+				remainedProperties.add(key);
+			}
+		}
+
+		return removedProperties;
+	}
+
+	private static PropertyProblem _manageException(
+		PropertyProblem problem, Collection<PropertyProblem> exceptions) {
+
+		String property = problem.getPropertyName();
+
+		if (property.endsWith("display.templates.config") && !property.equals("blogs.display.templates.config") &&
+			!property.equals("dl.display.templates.config")) {
+
+			PropertyProblem updatedProblem = new PropertyProblem(
+				property, PropertyProblemType.REMOVED, "Overwrite the method in the ADT handler. See LPS-67466", null);
+
+			exceptions.add(updatedProblem);
+
+			return updatedProblem;
+		}
+		else if (property.endsWith("breadcrumb.display.style.default")) {
+			PropertyProblem updatedProblem = new PropertyProblem(
+				property, PropertyProblemType.MODULARIZED,
+				" ddmTemplateKeyDefault in com.liferay.site.navigation.breadcrumb.web.configuration." +
+					"SiteNavigationBreadcrumbWebTemplateConfiguration. More information at Breaking Changes for " +
+						"Liferay 7: https://dev.liferay.com/develop/reference/-/knowledge_base/7-0/breaking-changes#replaced-the-breadcrumb-portlets-display-styles-with-adts",
+				null);
+
+			exceptions.add(updatedProblem);
+		}
+		else if (property.endsWith("breadcrumb.display.style.options")) {
+			PropertyProblem updatedProblem = new PropertyProblem(
+				property, PropertyProblemType.REMOVED,
+				"Any DDM template as ddmTemplate_BREADCRUMB-HORIZONTAL-FTL can be used. More information at " +
+					"Breaking Changes for Liferay 7: https://dev.liferay.com/develop/reference/-/knowledge_base/7-0/breaking-changes#replaced-the-breadcrumb-portlets-display-styles-with-adts",
+				null);
+
+			exceptions.add(updatedProblem);
+		}
+
+		return problem;
+	}
+
+	private static boolean _matchSuffix(String originalProperty, String property) {
+		String[] propertyWords = PropertyKeyIndex.getWords(property);
+
+		String propertySuffix =
+			propertyWords[propertyWords.length - 2] + StringPool.PERIOD + propertyWords[propertyWords.length - 1];
+
+		if (originalProperty.endsWith(propertySuffix)) {
+			return true;
+		}
+
+		return false;
+	}
+
+	private static boolean _pathContainsPortletName(String propertyPath, String[] portletNames) {
+		for (String portletName : portletNames) {
+			portletName = _getEquivalence(portletName);
+
+			if ((portletName != null) && propertyPath.contains(portletName)) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	private static String _removeCommonPrefix(String property) {
+		for (String prefix : _COMMON_PREFIXES) {
+			if (property.startsWith(prefix)) {
+				property = property.replace(prefix, StringPool.BLANK);
+
+				if (property.startsWith(StringPool.PERIOD)) {
+					property = property.substring(1);
+				}
+
+				break;
+			}
+		}
+
+		return property;
+	}
+
+	private static void _removeScopedProperties(Properties properties) {
+		Set<String> propertiesSet = properties.stringPropertyNames();
+
+		for (String property : propertiesSet) {
+			if (property.contains("[")) {
+				property = property.substring(0, property.indexOf("["));
+			}
+
+			properties.put(property, "");
+		}
+	}
+
+	private String _getSource(PropertyProblemType type, String path) {
+		if (type == PropertyProblemType.MODULARIZED) {
+			Path absoluteBundlePath = _bundlePath.toAbsolutePath();
+
+			Path relativePath = absoluteBundlePath.relativize(Paths.get(path));
+
+			path = relativePath.toString();
+
+			return path.replaceAll("\\\\", "/");
+		}
+
+		return StringUtil.replace(path, StringPool.FORWARD_SLASH.charAt(0), StringPool.PERIOD.charAt(0));
+	}
+
+	private static final String[] _COMMON_PREFIXES = {
+		"asset", "dynamic.data.lists", "dynamic.data.mapping", "journal", "audit", "auth", "blogs", "bookmarks", "cas",
+		"journal", "wiki"
+	};
+
+	@SuppressWarnings("serial")
+	private static final Map<String, String> _portletNameEquivalences = new TreeMap<String, String>() {
+		{
+			put("dl", "document-library");
+		}
+	};
+
+	private final Path _bundlePath;
+	private final PropertyKeyIndex _configurationPropertyKeyIndex;
+	private final Properties _newProperties;
+	private final PropertyKeyIndex _portletPropertyKeyIndex;
+
+}
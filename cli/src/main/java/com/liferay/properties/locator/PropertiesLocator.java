@@ -19,35 +19,28 @@ package com.liferay.properties.locator;
 import com.beust.jcommander.JCommander;
 import com.beust.jcommander.ParameterException;
 
-import com.liferay.blade.cli.util.ArrayUtil;
-import com.liferay.blade.cli.util.CamelCaseUtil;
-import com.liferay.blade.cli.util.ListUtil;
-import com.liferay.blade.cli.util.Pair;
+import com.liferay.blade.cli.util.BladeUtil;
 import com.liferay.blade.cli.util.StringPool;
-import com.liferay.blade.cli.util.StringUtil;
 
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
-import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.PrintWriter;
 
 import java.net.URL;
 
-import java.nio.file.Files;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.attribute.BasicFileAttributes;
 
 import java.security.CodeSource;
 import java.security.ProtectionDomain;
 
 import java.util.ArrayList;
-import java.util.Enumeration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
@@ -55,17 +48,15 @@ import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeMap;
 import java.util.TreeSet;
-import java.util.function.BiPredicate;
-import java.util.function.Predicate;
-import java.util.jar.JarEntry;
-import java.util.jar.JarFile;
-import java.util.jar.JarInputStream;
+import java.util.UUID;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipFile;
 
 /**
+ * Command line front end of {@link PropertiesAnalyzer} that writes the report
+ * of one or more properties files.
+ *
  * @author Alberto Chaparro
  * @author Gregory Amerson
  */
@@ -103,511 +94,136 @@ public class PropertiesLocator {
 	}
 
 	public PropertiesLocator(PropertiesLocatorArgs propertiesLocatorArgs) throws Exception {
-		_outputFile = _generateOutputFile(propertiesLocatorArgs);
+		List<File> propertiesFiles = _getPropertiesFiles(propertiesLocatorArgs.getPropertiesFiles());
 
-		String title = "Checking the location for old properties in the new version";
+		if (propertiesFiles.isEmpty()) {
+			throw new ParameterException("No properties files found in " + propertiesLocatorArgs.getPropertiesFiles());
+		}
 
-		_outputFile.println(title);
-		_printUnderline(title);
+		boolean batch = _isBatch(propertiesLocatorArgs.getPropertiesFiles());
 
-		try {
-			File propertiesFile = propertiesLocatorArgs.getPropertiesFile();
+		File outputFile = propertiesLocatorArgs.getOutputFile();
 
-			Properties oldProperties = _getProperties(propertiesFile.toPath());
+		if (batch && (outputFile == null) && !propertiesLocatorArgs.isQuiet()) {
+			throw new ParameterException("An output directory is required to analyze more than one properties file");
+		}
 
-			File bundleDir = propertiesLocatorArgs.getBundleDir();
+		File bundleDir = propertiesLocatorArgs.getBundleDir();
 
-			Path bundlePath = bundleDir.toPath();
+		Path bundlePath = bundleDir.toPath();
 
-			Properties newProperties = _getCurrentPortalProperties(bundlePath);
+		BundleIndexCache bundleIndexCache = new BundleIndexCache(_getBundleIndexCachePath(bundlePath));
 
-			SortedSet<String> stilExistsProperties = new TreeSet<>();
+		BundleIndex bundleIndex = new BundleIndex(bundlePath, bundleIndexCache);
 
-			SortedSet<String> missingProperties = _getRemovedProperties(
-				oldProperties, newProperties, stilExistsProperties);
+		_analyzer = new PropertiesAnalyzer(bundleIndex);
 
-			Stream<String> stream = missingProperties.stream();
+		_reportFormat = propertiesLocatorArgs.getFormat();
 
-			SortedSet<PropertyProblem> problems = stream.map(
-				PropertyProblem::new
-			).collect(
-				Collectors.toCollection(TreeSet::new)
-			);
+		if (!batch) {
+			File propertiesFile = propertiesFiles.get(0);
 
-			problems = _manageExceptions(problems);
+			try (PrintWriter printWriter = _generateOutputFile(propertiesLocatorArgs)) {
+				_problems = _analyze(_getProperties(propertiesFile.toPath()), printWriter);
+			}
 
-			_outputFile.println();
+			_problemsByPropertiesFile.put(propertiesFile, _problems);
 
-			problems = _checkPortletProperties(problems, bundlePath);
+			return;
+		}
 
-			_outputFile.println();
+		if (outputFile != null) {
+			outputFile.mkdirs();
+		}
 
-			problems = _checkConfigurationProperties(problems, bundlePath);
+		List<Properties> oldPropertiesList = new ArrayList<>();
+		List<PrintWriter> printWriters = new ArrayList<>();
+
+		try {
+			for (String reportFileName : _getReportFileNames(propertiesFiles)) {
+				printWriters.add(_generateReportFile(outputFile, reportFileName + _reportFormat.getExtension()));
+			}
 
-			_outputFile.println();
-			_outputFile.println(
-				"We have not found a new property for the following old properties (check if you still need them or " +
-					"check the documentation to find a replacement):");
+			for (File propertiesFile : propertiesFiles) {
+				oldPropertiesList.add(_getProperties(propertiesFile.toPath()));
+			}
 
-			Stream<PropertyProblem> problemsStream = problems.stream();
+			IntStream indexes = IntStream.range(0, propertiesFiles.size());
 
-			missingProperties = problemsStream.filter(
-				problem -> problem.getType() == PropertyProblemType.MISSING
-			).map(
-				problem -> problem.getPropertyName()
+			List<SortedSet<PropertyProblem>> problemsList = indexes.parallel(
+			).mapToObj(
+				i -> _analyze(oldPropertiesList.get(i), printWriters.get(i))
 			).collect(
-				Collectors.toCollection(TreeSet::new)
+				Collectors.toList()
 			);
 
-			_printProperties(missingProperties);
+			_problems = new TreeSet<>();
 
-			_outputFile.println();
-			_outputFile.println("The following properties still exist in the new portal.properties:");
+			for (int i = 0; i < propertiesFiles.size(); i++) {
+				SortedSet<PropertyProblem> problems = problemsList.get(i);
 
-			_printProperties(stilExistsProperties);
+				_problems.addAll(problems);
 
-			_problems = problems;
+				_problemsByPropertiesFile.put(propertiesFiles.get(i), problems);
+			}
 		}
 		finally {
-			_outputFile.close();
+			for (PrintWriter printWriter : printWriters) {
+				printWriter.close();
+			}
+		}
+
+		try (PrintWriter printWriter = _generateReportFile(outputFile, _SUMMARY + _reportFormat.getExtension())) {
+			_writeSummary(propertiesFiles, oldPropertiesList, printWriter);
 		}
 	}
 
+	/**
+	 * Returns the problems of the properties that were not moved to the
+	 * portlet.properties of a module or removed. Use a {@link
+	 * PropertiesAnalyzer} to get the problems of all the properties.
+	 */
 	public SortedSet<PropertyProblem> getProblems() {
 		return _problems;
 	}
 
-	private static String[] _addConfigurationPropertiesByHeritance(
-		String superClass, String[] configFields, Map<String, ConfigurationClassData> configClassesMap) {
-
-		if (!superClass.equals("java/lang/Object")) {
-			ConfigurationClassData superClassData = configClassesMap.get(superClass);
-
-			String[] superConfigFields = new String[0];
-
-			if (superClassData != null) {
-				superConfigFields = _addConfigurationPropertiesByHeritance(
-					superClassData.getSuperClass(), superClassData.getConfigFields(), configClassesMap);
-			}
-
-			return ArrayUtil.append(configFields, superConfigFields);
-		}
-
-		return configFields;
+	/**
+	 * Returns the problems of each analyzed properties file, in the order the
+	 * files were given.
+	 */
+	public Map<File, SortedSet<PropertyProblem>> getProblemsByPropertiesFile() {
+		return _problemsByPropertiesFile;
 	}
 
-	private static SortedSet<PropertyProblem> _checkConfigurationProperties(
-			SortedSet<PropertyProblem> problems, Path searchPathRoot)
-		throws IOException {
-
-		Map<String, ConfigurationClassData> configClassesMap = new TreeMap<>();
-
-		try (Stream<Path> paths = Files.walk(searchPathRoot)) {
-			Stream<File> files = paths.map(path -> path.toFile());
+	private static PropertyProblemWriter _createPropertyProblemWriter(
+		ReportFormat reportFormat, PrintWriter printWriter) {
 
-			files.filter(
-				file -> {
-					String absolutePath = file.getAbsolutePath();
-
-					return (absolutePath.endsWith(".jar") || absolutePath.endsWith(".lpkg")) &&
-						   !absolutePath.contains("/osgi/state/");
-				}
-			).forEach(
-				file -> {
-					try {
-						String absolutePath = file.getAbsolutePath();
-
-						if (_isLiferayJar(absolutePath)) {
-							FileInputStream inputStream = new FileInputStream(absolutePath);
-
-							try (JarInputStream jarIs = new JarInputStream(inputStream)) {
-								ZipEntry zipEntryJar = jarIs.getNextEntry();
-
-								while (zipEntryJar != null) {
-									String name = zipEntryJar.getName();
-
-									if (name.endsWith("Configuration.class")) {
-										configClassesMap.put(
-											name.replace(".class", StringPool.BLANK),
-											new ConfigurationClassData(jarIs));
-									}
-
-									zipEntryJar = jarIs.getNextEntry();
-								}
-							}
-							catch (Exception e) {
-								System.out.println("Unable to read the content of " + absolutePath);
-
-								return;
-							}
-						}
-						else if (absolutePath.endsWith(".lpkg")) {
-							try (ZipFile zipFile = new ZipFile(absolutePath)) {
-								Enumeration<?> enu = zipFile.entries();
-
-								while (enu.hasMoreElements()) {
-									ZipEntry zipEntry = (ZipEntry)enu.nextElement();
-
-									if (_isLiferayJar(zipEntry.getName())) {
-										InputStream inputStream = zipFile.getInputStream(zipEntry);
-
-										try (JarInputStream jarIs = new JarInputStream(inputStream)) {
-											ZipEntry zipEntryJar = jarIs.getNextEntry();
-
-											while (zipEntryJar != null) {
-												String name = zipEntryJar.getName();
-
-												if (name.endsWith("Configuration.class")) {
-													configClassesMap.put(
-														name.replace(".class", StringPool.BLANK),
-														new ConfigurationClassData(jarIs));
-												}
-
-												zipEntryJar = jarIs.getNextEntry();
-											}
-										}
-										catch (Exception e) {
-										}
-									}
-								}
-							}
-						}
-					}
-					catch (Exception e) {
-						System.out.println("Unable to get portlet properties");
-
-						e.printStackTrace();
-
-						return;
-					}
-				}
-			);
+		if (reportFormat == ReportFormat.CSV) {
+			return new CSVPropertyProblemWriter(printWriter);
 		}
 
-		List<Pair<String, String[]>> configurationProperties = _getConfigurationProperties(configClassesMap);
-
-		SortedSet<PropertyProblem> updatedProblems = new TreeSet<>();
-
-		Stream<PropertyProblem> problemsStream = problems.stream();
-
-		problemsStream.filter(
-			problem -> problem.getType() == PropertyProblemType.MISSING
-		).forEach(
-			problem -> {
-				String property = problem.getPropertyName();
-
-				List<Pair<String, String>> mostLikelyMatches = _getMostLikelyMatches(
-					property, configurationProperties, _getPortletNames(property));
-
-				if (!mostLikelyMatches.isEmpty()) {
-					updatedProblems.add(
-						new PropertyProblem(
-							property, PropertyProblemType.OSGI, "This property has been modularized",
-							mostLikelyMatches));
-				}
-				else {
-					updatedProblems.add(problem);
-				}
-			}
-		);
-
-		Stream<PropertyProblem> stream = updatedProblems.stream();
-
-		boolean foundOsgiProblems = stream.filter(
-			problem -> problem.getType() == PropertyProblemType.OSGI
-		).findAny(
-		).isPresent();
-
-		if (foundOsgiProblems) {
-			_outputFile.println("Properties moved to OSGI configuration:");
-
-			stream = updatedProblems.stream();
-
-			stream.filter(
-				problem -> problem.getType() == PropertyProblemType.OSGI
-			).peek(
-				problem -> {
-					String property = problem.getPropertyName();
-
-					_outputFile.print("\t");
-					_outputFile.println(property + " can match with the following OSGI properties:");
-				}
-			).map(
-				problem -> problem.getReplacements()
-			).forEach(
-				replacements -> {
-					Stream<Pair<String, String>> replacementsStream = replacements.stream();
-
-					replacementsStream.sorted(
-						(r1, r2) -> {
-							String r1First = r1.first();
-							String r2First = r2.first();
-
-							return r1First.compareTo(r2First);
-						}
-					).forEach(
-						replacement -> {
-							String path = replacement.first();
-
-							String configFileName = StringUtil.replace(
-								path, StringPool.FORWARD_SLASH.charAt(0), StringPool.PERIOD.charAt(0));
-
-							_outputFile.print("\t\t");
-							_outputFile.println(replacement.second() + " from " + configFileName);
-						}
-					);
-				}
-			);
-		}
-
-		return updatedProblems;
+		return new JSONPropertyProblemWriter(printWriter);
 	}
 
-	private static SortedSet<PropertyProblem> _checkPortletProperties(
-			SortedSet<PropertyProblem> problems, Path bundlePath)
-		throws Exception {
-
-		List<Pair<String, String[]>> portletsProperties = new ArrayList<>();
-
-		// We don't need to analyze war files since, they are still like in previous versions so properties
-		// still remain in the same place
-
-		Predicate<Path> ignoreStateFilter = p -> {
-			String path = p.toString();
-
-			return !path.contains("/osgi/state/");
-		};
-
-		Predicate<Path> lpkgFilter = p -> {
-			String path = p.toString();
-
-			return path.endsWith(".lpkg");
-		};
-
-		Path searchPathRoot = bundlePath.resolve("osgi");
-
-		try (Stream<Path> paths = Files.walk(searchPathRoot)) {
-			Stream<Path> filter = paths.filter(ignoreStateFilter);
-
-			filter.map(
-				jarPath -> jarPath.toAbsolutePath()
-			).map(
-				absolutePath -> absolutePath.toString()
-			).filter(
-				PropertiesLocator::_isLiferayJar
-			).forEach(
-				absolutePath -> {
-					try (JarFile jarFile = new JarFile(absolutePath)) {
-						JarEntry portletPropertiesFile = jarFile.getJarEntry("portlet.properties");
-
-						Properties portletProperties = new Properties();
-
-						if (portletPropertiesFile != null) {
-							_getPropertiesFromJar(
-								"jar:file:" + absolutePath + "!/portlet.properties", portletProperties);
-						}
-
-						Enumeration<Object> enuKeys = portletProperties.keys();
-
-						String[] propertyKeys = new String[0];
+	private static PrintWriter _createQuietPrintWriter() {
+		return new PrintWriter(
+			new OutputStream() {
 
-						while (enuKeys.hasMoreElements()) {
-							propertyKeys = ArrayUtil.append(propertyKeys, (String)enuKeys.nextElement());
-						}
-
-						if (propertyKeys.length != 0) {
-							portletsProperties.add(
-								new Pair<String, String[]>(absolutePath + "/portlet.properties", propertyKeys));
-						}
-					}
-					catch (Exception e) {
-						e.printStackTrace();
-					}
-				}
-			);
-		}
-
-		try (Stream<Path> paths = Files.walk(searchPathRoot)) {
-			Stream<Path> filter = paths.filter(ignoreStateFilter);
-
-			Stream<Path> filter2 = filter.filter(lpkgFilter);
-
-			filter2.map(
-				lpkgPath -> lpkgPath.toAbsolutePath()
-			).map(
-				absolutePath -> absolutePath.toString()
-			).forEach(
-				lpkgAbsolutePath -> {
-					try (ZipFile zipFile = new ZipFile(lpkgAbsolutePath)) {
-						Enumeration<?> enu = zipFile.entries();
-
-						while (enu.hasMoreElements()) {
-							ZipEntry zipEntry = (ZipEntry)enu.nextElement();
-
-							if (_isLiferayJar(zipEntry.getName())) {
-								InputStream inputStream = zipFile.getInputStream(zipEntry);
-
-								try (JarInputStream jarIs = new JarInputStream(inputStream)) {
-									ZipEntry zipEntryJar = jarIs.getNextEntry();
-
-									while (zipEntryJar != null) {
-										String zipEntryJarName = zipEntryJar.getName();
-
-										if (zipEntryJarName.equals("portlet.properties")) {
-											Properties portletProperties = new Properties();
-
-											portletProperties.load(jarIs);
-
-											Enumeration<Object> enuKeys = portletProperties.keys();
-
-											String[] propertyKeys = new String[0];
-
-											while (enuKeys.hasMoreElements()) {
-												propertyKeys = ArrayUtil.append(
-													propertyKeys, (String)enuKeys.nextElement());
-											}
-
-											if (propertyKeys.length != 0) {
-												String prop =
-													lpkgAbsolutePath + "/" + zipEntry.getName() + "/portlet.properties";
-
-												portletsProperties.add(new Pair<String, String[]>(prop, propertyKeys));
-											}
-
-											break;
-										}
-
-										zipEntryJar = jarIs.getNextEntry();
-									}
-								}
-								catch (Exception e) {
-								}
-							}
-						}
-					}
-					catch (IOException ioe) {
-						ioe.printStackTrace();
-					}
+				@Override
+				public void write(int b) {
 				}
-			);
-		}
-
-		Stream<PropertyProblem> stream = problems.stream();
-
-		SortedSet<PropertyProblem> updatedProblems = new TreeSet<>();
-
-		stream.forEach(
-			problem -> {
-				String property = problem.getPropertyName();
 
-				List<Pair<String, String>> mostLikelyMatches = _getMostLikelyMatches(
-					property, portletsProperties, _getPortletNames(property));
-
-				if (!mostLikelyMatches.isEmpty()) {
-					PropertyProblem updatedProblem = new PropertyProblem(
-						property, PropertyProblemType.MODULARIZED, null, mostLikelyMatches);
-
-					updatedProblems.add(updatedProblem);
-				}
-				else {
-					updatedProblems.add(problem);
-				}
 			});
-
-		Predicate<? super PropertyProblem> propertyMoved =
-			problem -> problem.getType() == PropertyProblemType.MODULARIZED;
-
-		boolean somePropertiesMoved = false;
-
-		Stream<PropertyProblem> updatedProblemsStream = updatedProblems.stream();
-
-		long count = updatedProblemsStream.filter(
-			propertyMoved
-		).count();
-
-		if (count > 0) {
-			somePropertiesMoved = true;
-		}
-
-		if (somePropertiesMoved) {
-			_outputFile.println("Some properties have been moved to a module portlet.properties:");
-
-			updatedProblemsStream = updatedProblems.stream();
-
-			updatedProblemsStream.filter(
-				propertyMoved
-			).filter(
-				problem -> problem.getReplacements() != null
-			).peek(
-				problem -> {
-					String foundProperty = problem.getPropertyName();
-
-					_outputFile.print("\t");
-					_outputFile.println(foundProperty + " can match with the following portlet properties:");
-				}
-			).flatMap(
-				problem -> {
-					List<Pair<String, String>> replacements = problem.getReplacements();
-
-					return replacements.stream();
-				}
-			).forEach(
-				replacement -> {
-					Path modulePath = Paths.get(replacement.first());
-
-					Path relativePath = bundlePath.relativize(modulePath);
-
-					String path = relativePath.toString();
-
-					path = path.replaceAll("\\\\", "/");
-
-					_outputFile.print("\t\t");
-					_outputFile.println(replacement.second() + " from " + path);
-				}
-			);
-		}
-
-		return updatedProblems;
 	}
 
-	private static List<Pair<String, String>> _filterMostLikelyMatches(
-		String property, String[] portletNames, List<Pair<String, String>> mostLikelyMatches) {
-
-		List<Pair<String, String>> theMostLikelyMatches = new ArrayList<>();
-
-		String[] portletNameAsProperty = new String[1];
-
-		portletNameAsProperty[0] = _getPortletNameAsProperty(portletNames);
-
-		for (Pair<String, String> match : mostLikelyMatches) {
-
-			// Check for containing whole portletName in the path
-
-			if (_pathContainsPortletName(match.first(), portletNameAsProperty)) {
-				theMostLikelyMatches.add(new Pair<>(match.first(), match.second()));
-			}
-		}
-
-		if (!theMostLikelyMatches.isEmpty()) {
-			mostLikelyMatches = theMostLikelyMatches;
-
-			theMostLikelyMatches = new ArrayList<>();
-		}
-
-		for (Pair<String, String> match : mostLikelyMatches) {
-
-			// Check for containing same suffix the original property
-
-			if (_matchSuffix(property, match.second())) {
-				theMostLikelyMatches.add(new Pair<>(match.first(), match.second()));
-			}
-		}
-
-		if (!theMostLikelyMatches.isEmpty()) {
-			return theMostLikelyMatches;
-		}
+	private static SortedSet<PropertyProblem> _filterProblems(SortedSet<PropertyProblem> problems) {
+		Stream<PropertyProblem> stream = problems.stream();
 
-		return mostLikelyMatches;
+		return stream.filter(
+			PropertiesLocator::_isUnresolved
+		).collect(
+			Collectors.toCollection(TreeSet::new)
+		);
 	}
 
 	private static PrintWriter _generateOutputFile(PropertiesLocatorArgs propertiesLocatorArgs)
@@ -619,105 +235,35 @@ public class PropertiesLocator {
 			return new PrintWriter(outputFile);
 		}
 		else if (propertiesLocatorArgs.isQuiet()) {
-			return new PrintWriter(
-				new OutputStream() {
-
-					@Override
-					public void write(int b) {
-					}
-
-				});
+			return _createQuietPrintWriter();
 		}
 		else {
 			return new PrintWriter(System.out);
 		}
 	}
 
-	private static void _getCommentedPropertiesFromJar(String propertiesJarURL, Properties properties)
-		throws Exception {
-
-		URL url = new URL(propertiesJarURL);
-
-		try (BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(url.openStream()))) {
-			bufferedReader.lines(
-			).filter(
-				line -> line.matches(".*#[a-zA-Z\\.\\[\\]]+=.*")
-			).map(
-				line -> line.substring(line.indexOf("#") + 1, line.indexOf("="))
-			).forEach(
-				line -> properties.put(line, "")
-			);
-		}
-		catch (Exception e) {
-			System.err.println("Unable to read properties file from jar " + propertiesJarURL);
-
-			throw e;
-		}
-	}
-
-	private static List<Pair<String, String[]>> _getConfigurationProperties(
-		Map<String, ConfigurationClassData> configClassesMap) {
-
-		List<Pair<String, String[]>> configurationProperties = new ArrayList<>();
-
-		for (Map.Entry<String, ConfigurationClassData> configClass : configClassesMap.entrySet()) {
-			String className = configClass.getKey();
-
-			ConfigurationClassData configClassData = configClass.getValue();
-
-			String[] allConfigFields = _addConfigurationPropertiesByHeritance(
-				configClassData.getSuperClass(), configClassData.getConfigFields(), configClassesMap);
+	private static PrintWriter _generateReportFile(File outputDir, String reportFileName)
+		throws FileNotFoundException {
 
-			if (allConfigFields.length > 0) {
-				configurationProperties.add(new Pair<>(className, allConfigFields));
-			}
+		if (outputDir == null) {
+			return _createQuietPrintWriter();
 		}
 
-		return configurationProperties;
+		return new PrintWriter(new File(outputDir, reportFileName));
 	}
 
-	private static Properties _getCurrentPortalProperties(Path bundlePath) throws Exception {
-		Properties properties = new Properties();
-
-		BiPredicate<Path, BasicFileAttributes> matcher = (path, attrs) -> {
-			String pathString = path.toString();
-
-			return attrs.isRegularFile() && pathString.endsWith(_PORTAL_IMPL_RELATIVE_PATH);
-		};
-
-		try (Stream<Path> paths = Files.find(bundlePath, Integer.MAX_VALUE, matcher)) {
-			Stream<Path> singlePath = paths.limit(1);
-
-			singlePath.forEach(
-				path -> {
-					try {
-						_getPropertiesFromJar("jar:file:" + path.toString() + "!/portal.properties", properties);
-						_getCommentedPropertiesFromJar(
-							"jar:file:" + path.toString() + "!/portal.properties", properties);
-					}
-					catch (Exception e) {
-						e.printStackTrace();
-					}
-				});
-		}
+	private static Path _getBundleIndexCachePath(Path bundlePath) {
+		Path absolutePath = bundlePath.toAbsolutePath();
 
-		_removeScopedProperties(properties);
+		absolutePath = absolutePath.normalize();
 
-		if (properties.isEmpty()) {
-			throw new Exception("File portal.properties does not exist in " + bundlePath);
-		}
+		String absolutePathString = absolutePath.toString();
 
-		return properties;
-	}
+		UUID uuid = UUID.nameUUIDFromBytes(absolutePathString.getBytes(StandardCharsets.UTF_8));
 
-	private static String _getEquivalence(String portletName) {
-		String equivalence = _portletNameEquivalences.get(portletName);
+		Path bladeCachePath = BladeUtil.getBladeCachePath();
 
-		if (equivalence != null) {
-			return equivalence;
-		}
-
-		return portletName;
+		return bladeCachePath.resolve("upgrade-props" + File.separator + uuid + ".properties");
 	}
 
 	private static File _getJarFile() throws Exception {
@@ -730,104 +276,6 @@ public class PropertiesLocator {
 		return new File(url.toURI());
 	}
 
-	private static List<Pair<String, String>> _getMostLikelyMatches(
-		String property, List<Pair<String, String[]>> matches, String[] portletNames) {
-
-		List<Pair<String, String>> mostLikelyMatches = new ArrayList<>();
-
-		//Default min occurrences to match
-		int maxOccurrences = 2;
-
-		for (Pair<String, String[]> match : matches) {
-			for (String matchProperty : match.second()) {
-				if (_match(property, matchProperty, match.first(), maxOccurrences, portletNames)) {
-					int occurrences = _getOccurrences(property, matchProperty);
-
-					if (occurrences > maxOccurrences) {
-						mostLikelyMatches.clear();
-
-						maxOccurrences = occurrences;
-					}
-
-					mostLikelyMatches.add(new Pair<>(match.first(), matchProperty));
-				}
-			}
-		}
-
-		if (!mostLikelyMatches.isEmpty()) {
-			mostLikelyMatches = _filterMostLikelyMatches(property, portletNames, mostLikelyMatches);
-		}
-
-		return mostLikelyMatches;
-	}
-
-	private static int _getOccurrences(String originalProperty, String property) {
-		String originalPropertyWithoutPrefix = _removeCommonPrefix(originalProperty);
-
-		if (!property.contains(StringPool.PERIOD)) {
-			//Camel case property
-			property = CamelCaseUtil.fromCamelCase(property, StringPool.PERIOD.charAt(0));
-		}
-
-		String[] propertyWords = StringUtil.split(property, StringPool.PERIOD);
-
-		String[] originalPropertyWords = StringUtil.split(originalPropertyWithoutPrefix, StringPool.PERIOD);
-
-		List<String> originalPropertyWordsList = ListUtil.fromArray(originalPropertyWords);
-
-		int numOccurrences = 0;
-
-		for (String word : propertyWords) {
-			if (originalPropertyWordsList.contains(word)) {
-				numOccurrences++;
-			}
-		}
-
-		return numOccurrences;
-	}
-
-	/*
-		We get portlet names from first two words in a property
-	 */
-	private static String _getPortletNameAsProperty(String[] portletNames) {
-		String portletNameAsProperty = StringPool.BLANK;
-
-		for (String portletName : portletNames) {
-			if (portletNameAsProperty.length() > 0) {
-				portletNameAsProperty += StringPool.PERIOD;
-			}
-
-			portletNameAsProperty += portletName;
-		}
-
-		return portletNameAsProperty;
-	}
-
-	private static String[] _getPortletNames(String property) {
-		String[] portletNames = new String[0];
-
-		int index = 0;
-
-		while ((portletNames.length < 2) && (index != -1)) {
-			index = property.indexOf(StringPool.PERIOD);
-
-			String portletName;
-
-			if (index == -1) {
-				portletName = property;
-			}
-			else {
-				portletName = property.substring(0, index);
-
-				property = property.substring(index + 1);
-			}
-
-			portletNames = ArrayUtil.append(portletNames, portletName);
-		}
-
-		return portletNames;
-	}
-
 	private static Properties _getProperties(Path propertiesPath) throws Exception {
 		try (FileInputStream fileInput = new FileInputStream(propertiesPath.toFile())) {
 			Properties properties = new Properties();
@@ -845,224 +293,162 @@ public class PropertiesLocator {
 		}
 	}
 
-	private static void _getPropertiesFromJar(String propertiesJarURL, Properties properties) throws Exception {
-		try {
-			URL url = new URL(propertiesJarURL);
+	private static List<File> _getPropertiesFiles(List<File> files) {
+		List<File> propertiesFiles = new ArrayList<>();
 
-			InputStream is = url.openStream();
+		for (File file : files) {
+			if (file.isDirectory()) {
+				File[] directoryFiles = file.listFiles((dir, name) -> name.endsWith(".properties"));
 
-			properties.load(is);
+				if (directoryFiles != null) {
+					Arrays.sort(directoryFiles);
 
-			is.close();
+					Collections.addAll(propertiesFiles, directoryFiles);
+				}
+			}
+			else {
+				propertiesFiles.add(file);
+			}
 		}
-		catch (Exception e) {
-			System.out.println("Unable to read properties file " + propertiesJarURL);
 
-			throw e;
-		}
+		return propertiesFiles;
 	}
 
-	private static SortedSet<String> _getRemovedProperties(
-		Properties oldProperties, Properties newProperties, SortedSet<String> remainedProperties) {
-
-		SortedSet<String> removedProperties = new TreeSet<>();
+	/*
+		Reports are named after their properties file, with a number added to names that are already used
+	 */
+	private static List<String> _getReportFileNames(List<File> propertiesFiles) {
+		Set<String> usedNames = new HashSet<>();
 
-		Enumeration<Object> enuKeys = oldProperties.keys();
+		usedNames.add(_SUMMARY);
 
-		while (enuKeys.hasMoreElements()) {
-			Object element = enuKeys.nextElement();
+		List<String> reportFileNames = new ArrayList<>();
 
-			String key = element.toString();
+		for (File propertiesFile : propertiesFiles) {
+			String name = propertiesFile.getName();
 
-			if (key.contains("[")) {
-				key = key.substring(0, key.indexOf("["));
+			if (name.endsWith(".properties")) {
+				name = name.substring(0, name.length() - ".properties".length());
 			}
 
-			if (newProperties.getProperty(key) == null) {
-				removedProperties.add(key);
-			}
-			else {
-				remainedProperties.add(key);
+			String reportFileName = name;
+
+			for (int i = 1; !usedNames.add(reportFileName); i++) {
+				reportFileName = name + StringPool.DASH + i;
 			}
+
+			reportFileNames.add(reportFileName);
 		}
 
-		return removedProperties;
+		return reportFileNames;
 	}
 
-	private static boolean _isLiferayJar(String path) {
-		if (!path.endsWith(".jar") || !path.contains("com.liferay")) {
-			return false;
+	private static boolean _isBatch(List<File> files) {
+		if (files.size() > 1) {
+			return true;
 		}
 
-		return true;
+		File file = files.get(0);
+
+		return file.isDirectory();
 	}
 
-	private static SortedSet<PropertyProblem> _manageExceptions(SortedSet<PropertyProblem> problems) {
-		SortedSet<PropertyProblem> informationToPrint = new TreeSet<>();
+	private static boolean _isUnresolved(PropertyProblem problem) {
+		PropertyProblemType type = problem.getType();
 
-		SortedSet<PropertyProblem> updatedProblems = new TreeSet<>();
+		if ((type == PropertyProblemType.MISSING) || (type == PropertyProblemType.OSGI)) {
+			return true;
+		}
 
-		for (PropertyProblem problem : problems) {
-			String property = problem.getPropertyName();
+		return false;
+	}
 
-			if (property.endsWith("display.templates.config") && !property.equals("blogs.display.templates.config") &&
-				!property.equals("dl.display.templates.config")) {
+	/*
+		Writes the problem of each property as soon as it is known, after the exception of the property if it has one,
+		and only keeps the unresolved problems that are returned by getProblems
+	 */
+	private static SortedSet<PropertyProblem> _writeProblems(
+		PropertiesAnalyzer propertiesAnalyzer, SortedSet<String> removedProperties,
+		PropertyProblemWriter propertyProblemWriter) {
 
-				PropertyProblem updatedProblem = new PropertyProblem(
-					property, PropertyProblemType.REMOVED, "Overwrite the method in the ADT handler. See LPS-67466",
-					null);
+		SortedSet<PropertyProblem> problems = new TreeSet<>();
 
-				informationToPrint.add(updatedProblem);
+		for (String property : removedProperties) {
+			PropertyProblem exception = PropertiesAnalyzer.getException(property);
 
-				updatedProblems.add(updatedProblem);
+			if (exception != null) {
+				propertyProblemWriter.write(exception);
 			}
-			else if (property.endsWith("breadcrumb.display.style.default")) {
-				PropertyProblem updatedProblem = new PropertyProblem(
-					property, PropertyProblemType.MODULARIZED,
-					" ddmTemplateKeyDefault in com.liferay.site.navigation.breadcrumb.web.configuration." +
-						"SiteNavigationBreadcrumbWebTemplateConfiguration. More information at Breaking Changes for " +
-							"Liferay 7: https://dev.liferay.com/develop/reference/-/knowledge_base/7-0/breaking-changes#replaced-the-breadcrumb-portlets-display-styles-with-adts",
-					null);
 
-				informationToPrint.add(updatedProblem);
+			PropertyProblem problem = propertiesAnalyzer.analyzeProperty(property);
 
-				updatedProblems.add(problem);
+			if ((exception == null) || (problem.getReplacements() != null)) {
+				propertyProblemWriter.write(problem);
 			}
-			else if (property.endsWith("breadcrumb.display.style.options")) {
-				PropertyProblem updatedProblem = new PropertyProblem(
-					property, PropertyProblemType.REMOVED,
-					"Any DDM template as ddmTemplate_BREADCRUMB-HORIZONTAL-FTL can be used. More information at " +
-						"Breaking Changes for Liferay 7: https://dev.liferay.com/develop/reference/-/knowledge_base/7-0/breaking-changes#replaced-the-breadcrumb-portlets-display-styles-with-adts",
-					null);
-
-				informationToPrint.add(updatedProblem);
 
-				updatedProblems.add(problem);
-			}
-			else {
-				updatedProblems.add(problem);
+			if (_isUnresolved(problem)) {
+				problems.add(problem);
 			}
 		}
 
-		if (!informationToPrint.isEmpty()) {
-			_outputFile.println("Following portal properties present an exception:");
-
-			for (PropertyProblem information : informationToPrint) {
-				_outputFile.print("\t");
-				_outputFile.println(information);
-			}
-		}
-
-		return updatedProblems;
+		return problems;
 	}
 
-	private static boolean _match(
-		String originalProperty, String newProperty, String newPropertyPath, int minOccurrences,
-		String[] portletNames) {
-
-		if (!_pathContainsPortletName(newPropertyPath, portletNames)) {
-			return false;
-		}
-
-		int numOccurrences = _getOccurrences(originalProperty, newProperty);
-
-		if ((numOccurrences == 0) || (numOccurrences < minOccurrences)) {
-			return false;
-		}
+	private SortedSet<PropertyProblem> _analyze(Properties oldProperties, PrintWriter printWriter) {
+		if (_reportFormat != ReportFormat.TEXT) {
+			try (PropertyProblemWriter propertyProblemWriter = _createPropertyProblemWriter(
+					_reportFormat, printWriter)) {
 
-		return true;
-	}
-
-	private static boolean _matchSuffix(String originalProperty, String property) {
-		if (!property.contains(StringPool.PERIOD)) {
-			//Camel case property
-			property = CamelCaseUtil.fromCamelCase(property, StringPool.PERIOD.charAt(0));
+				return _writeProblems(_analyzer, _analyzer.getRemovedProperties(oldProperties), propertyProblemWriter);
+			}
 		}
 
-		String[] propertyWords = StringUtil.split(property, StringPool.PERIOD);
+		SortedSet<PropertyProblem> problems = _analyzer.analyze(oldProperties);
 
-		String propertySuffix =
-			propertyWords[propertyWords.length - 2] + StringPool.PERIOD + propertyWords[propertyWords.length - 1];
+		PropertiesReportRenderer propertiesReportRenderer = new PropertiesReportRenderer(printWriter);
 
-		if (originalProperty.endsWith(propertySuffix)) {
-			return true;
-		}
+		propertiesReportRenderer.render(problems, _analyzer.getRemainingProperties(oldProperties));
 
-		return false;
+		return _filterProblems(problems);
 	}
 
-	private static boolean _pathContainsPortletName(String propertyPath, String[] portletNames) {
-		for (String portletName : portletNames) {
-			portletName = _getEquivalence(portletName);
+	private void _writeSummary(
+		List<File> propertiesFiles, List<Properties> oldPropertiesList, PrintWriter printWriter) {
 
-			if ((portletName != null) && propertyPath.contains(portletName)) {
-				return true;
-			}
-		}
+		Map<String, List<String>> propertiesFilesByProperty = new TreeMap<>();
 
-		return false;
-	}
-
-	private static void _printProperties(Set<String> properties) {
-		for (String property : properties) {
-			_outputFile.print("\t");
-			_outputFile.println(property);
-		}
-	}
-
-	private static void _printUnderline(String text) {
-		for (int i = 0; i < text.length(); i++) {
-			_outputFile.print(StringPool.DASH);
-		}
-
-		_outputFile.println(StringPool.BLANK);
-	}
+		for (int i = 0; i < propertiesFiles.size(); i++) {
+			File propertiesFile = propertiesFiles.get(i);
 
-	private static String _removeCommonPrefix(String property) {
-		for (String prefix : _COMMON_PREFIXES) {
-			if (property.startsWith(prefix)) {
-				property = property.replace(prefix, StringPool.BLANK);
+			SortedSet<String> removedProperties = _analyzer.getRemovedProperties(oldPropertiesList.get(i));
 
-				if (property.startsWith(StringPool.PERIOD)) {
-					property = property.substring(1);
-				}
+			for (String property : removedProperties) {
+				List<String> paths = propertiesFilesByProperty.computeIfAbsent(property, key -> new ArrayList<>());
 
-				break;
+				paths.add(propertiesFile.getPath());
 			}
 		}
 
-		return property;
-	}
-
-	private static void _removeScopedProperties(Properties properties) {
-		Set<String> propertiesSet = properties.stringPropertyNames();
+		if (_reportFormat != ReportFormat.TEXT) {
+			try (PropertyProblemWriter propertyProblemWriter = _createPropertyProblemWriter(
+					_reportFormat, printWriter)) {
 
-		for (String property : propertiesSet) {
-			if (property.contains("[")) {
-				property = property.substring(0, property.indexOf("["));
+				propertiesFilesByProperty.forEach(propertyProblemWriter::writeAffectedFiles);
 			}
 
-			properties.put(property, "");
+			return;
 		}
-	}
-
-	private static final String[] _COMMON_PREFIXES = {
-		"asset", "dynamic.data.lists", "dynamic.data.mapping", "journal", "audit", "auth", "blogs", "bookmarks", "cas",
-		"journal", "wiki"
-	};
 
-	private static final String _PORTAL_IMPL_RELATIVE_PATH =
-		File.separator + "WEB-INF" + File.separator + "lib" + File.separator + "portal-impl.jar";
+		PropertiesReportRenderer propertiesReportRenderer = new PropertiesReportRenderer(printWriter);
 
-	private static PrintWriter _outputFile;
+		propertiesReportRenderer.renderSummary(propertiesFilesByProperty);
+	}
 
-	@SuppressWarnings("serial")
-	private static final Map<String, String> _portletNameEquivalences = new TreeMap<String, String>() {
-		{
-			put("dl", "document-library");
-		}
-	};
+	private static final String _SUMMARY = "summary";
 
+	private final PropertiesAnalyzer _analyzer;
 	private SortedSet<PropertyProblem> _problems;
+	private final Map<File, SortedSet<PropertyProblem>> _problemsByPropertiesFile = new LinkedHashMap<>();
+	private final ReportFormat _reportFormat;
 
-}
\ No newline at end of file
+}
@@ -20,6 +20,10 @@ import com.beust.jcommander.Parameter;
 
 import java.io.File;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 /**
  * @author Gregory Amerson
  */
@@ -32,12 +36,16 @@ public class PropertiesLocatorArgs {
 		return _bundleDir;
 	}
 
+	public ReportFormat getFormat() {
+		return _format;
+	}
+
 	public File getOutputFile() {
 		return _outputFile;
 	}
 
-	public File getPropertiesFile() {
-		return _propertiesFile;
+	public List<File> getPropertiesFiles() {
+		return _propertiesFiles;
 	}
 
 	public boolean isHelp() {
@@ -52,12 +60,20 @@ public class PropertiesLocatorArgs {
 		_bundleDir = bundleDir;
 	}
 
+	public void setFormat(ReportFormat format) {
+		_format = format;
+	}
+
 	public void setOutputFile(File outputFile) {
 		_outputFile = outputFile;
 	}
 
 	public void setPropertiesFile(File propertiesFile) {
-		_propertiesFile = propertiesFile;
+		_propertiesFiles = new ArrayList<>(Collections.singletonList(propertiesFile));
+	}
+
+	public void setPropertiesFiles(List<File> propertiesFiles) {
+		_propertiesFiles = propertiesFiles;
 	}
 
 	public void setQuiet(boolean quiet) {
@@ -67,20 +83,25 @@ public class PropertiesLocatorArgs {
 	@Parameter(description = "Path to Liferay server bundle directory.", names = {"-d", "--bundleDir"}, required = true)
 	private File _bundleDir;
 
+	@Parameter(
+		description = "The format of the report: text, json (one problem per line) or csv.", names = {"-f", "--format"}
+	)
+	private ReportFormat _format = ReportFormat.TEXT;
+
 	@Parameter(description = "Print this message.", help = true, names = {"-h", "--help"})
 	private boolean _help;
 
 	@Parameter(
-		description = "If specified, write out report to this file, otherwise uses stdout.",
+		description = "If specified, write out report to this file, otherwise uses stdout. For several properties files, the directory for their reports.",
 		names = {"-o", "--outputFile"}
 	)
 	private File _outputFile;
 
 	@Parameter(
-		description = "Specify existing Liferay 6.x portal-ext.properties file.", names = {"-p", "--propertiesFile"},
-		required = true
+		description = "Specify existing Liferay 6.x portal-ext.properties file or a directory of them. Repeat to analyze several files.",
+		names = {"-p", "--propertiesFile"}, required = true
 	)
-	private File _propertiesFile;
+	private List<File> _propertiesFiles = new ArrayList<>();
 
 	@Parameter(description = "Do not write any output.", names = {"-q", "--quiet"})
 	private boolean _quiet;
@@ -0,0 +1,230 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.liferay.properties.locator;
+
+import com.liferay.blade.cli.util.Pair;
+import com.liferay.blade.cli.util.StringPool;
+
+import java.io.PrintWriter;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Prints the text report of the problems found by a
+ * {@link PropertiesAnalyzer}.
+ *
+ * @author Alberto Chaparro
+ * @author Gregory Amerson
+ */
+public class PropertiesReportRenderer {
+
+	public PropertiesReportRenderer(PrintWriter printWriter) {
+		_printWriter = printWriter;
+	}
+
+	public void render(SortedSet<PropertyProblem> problems, SortedSet<String> remainingProperties) {
+		String title = "Checking the location for old properties in the new version";
+
+		_printWriter.println(title);
+		_printUnderline(title);
+
+		_printExceptions(problems);
+
+		_printWriter.println();
+
+		_printPortletProperties(problems);
+
+		_printWriter.println();
+
+		_printConfigurationProperties(problems);
+
+		_printWriter.println();
+		_printWriter.println(
+			"We have not found a new property for the following old properties (check if you still need them or " +
+				"check the documentation to find a replacement):");
+
+		Stream<PropertyProblem> problemsStream = problems.stream();
+
+		SortedSet<String> missingProperties = problemsStream.filter(
+			problem -> problem.getType() == PropertyProblemType.MISSING
+		).map(
+			problem -> problem.getPropertyName()
+		).collect(
+			Collectors.toCollection(TreeSet::new)
+		);
+
+		_printProperties(missingProperties);
+
+		_printWriter.println();
+		_printWriter.println("The following properties still exist in the new portal.properties:");
+
+		_printProperties(remainingProperties);
+	}
+
+	/**
+	 * Prints the properties files that contain each property, for the summary
+	 * of a batch of properties files.
+	 */
+	public void renderSummary(Map<String, List<String>> propertiesFilesByProperty) {
+		String title = "Old properties not found in the new portal.properties and the properties files that use them";
+
+		_printWriter.println(title);
+		_printUnderline(title);
+
+		for (Map.Entry<String, List<String>> entry : propertiesFilesByProperty.entrySet()) {
+			_printWriter.print("\t");
+			_printWriter.println(entry.getKey());
+
+			for (String path : entry.getValue()) {
+				_printWriter.print("\t\t");
+				_printWriter.println(path);
+			}
+		}
+	}
+
+	private void _printConfigurationProperties(SortedSet<PropertyProblem> problems) {
+		Stream<PropertyProblem> stream = problems.stream();
+
+		boolean foundOsgiProblems = stream.filter(
+			problem -> problem.getType() == PropertyProblemType.OSGI
+		).findAny(
+		).isPresent();
+
+		if (foundOsgiProblems) {
+			_printWriter.println("Properties moved to OSGI configuration:");
+
+			stream = problems.stream();
+
+			stream.filter(
+				problem -> problem.getType() == PropertyProblemType.OSGI
+			).peek(
+				problem -> {
+					String property = problem.getPropertyName();
+
+					_printWriter.print("\t");
+					_printWriter.println(property + " can match with the following OSGI properties:");
+				}
+			).map(
+				problem -> problem.getReplacements()
+			).forEach(
+				replacements -> {
+					Stream<Pair<String, String>> replacementsStream = replacements.stream();
+
+					replacementsStream.sorted(
+						(r1, r2) -> {
+							String r1First = r1.first();
+							String r2First = r2.first();
+
+							return r1First.compareTo(r2First);
+						}
+					).forEach(
+						replacement -> {
+							_printWriter.print("\t\t");
+							_printWriter.println(replacement.second() + " from " + replacement.first());
+						}
+					);
+				}
+			);
+		}
+	}
+
+	private void _printExceptions(SortedSet<PropertyProblem> problems) {
+		SortedSet<PropertyProblem> informationToPrint = new TreeSet<>();
+
+		for (PropertyProblem problem : problems) {
+			PropertyProblem information = PropertiesAnalyzer.getException(problem.getPropertyName());
+
+			if (information != null) {
+				informationToPrint.add(information);
+			}
+		}
+
+		if (!informationToPrint.isEmpty()) {
+			_printWriter.println("Following portal properties present an exception:");
+
+			for (PropertyProblem information : informationToPrint) {
+				_printWriter.print("\t");
+				_printWriter.println(information);
+			}
+		}
+	}
+
+	private void _printPortletProperties(SortedSet<PropertyProblem> problems) {
+		Predicate<? super PropertyProblem> propertyMoved =
+			problem -> problem.getType() == PropertyProblemType.MODULARIZED;
+
+		Stream<PropertyProblem> problemsStream = problems.stream();
+
+		long count = problemsStream.filter(
+			propertyMoved
+		).count();
+
+		if (count > 0) {
+			_printWriter.println("Some properties have been moved to a module portlet.properties:");
+
+			problemsStream = problems.stream();
+
+			problemsStream.filter(
+				propertyMoved
+			).filter(
+				problem -> problem.getReplacements() != null
+			).peek(
+				problem -> {
+					String foundProperty = problem.getPropertyName();
+
+					_printWriter.print("\t");
+					_printWriter.println(foundProperty + " can match with the following portlet properties:");
+				}
+			).flatMap(
+				problem -> {
+					List<Pair<String, String>> replacements = problem.getReplacements();
+
+					return replacements.stream();
+				}
+			).forEach(
+				replacement -> {
+					_printWriter.print("\t\t");
+					_printWriter.println(replacement.second() + " from " + replacement.first());
+				}
+			);
+		}
+	}
+
+	private void _printProperties(Set<String> properties) {
+		for (String property : properties) {
+			_printWriter.print("\t");
+			_printWriter.println(property);
+		}
+	}
+
+	private void _printUnderline(String text) {
+		for (int i = 0; i < text.length(); i++) {
+			_printWriter.print(StringPool.DASH);
+		}
+
+		_printWriter.println(StringPool.BLANK);
+	}
+
+	private final PrintWriter _printWriter;
+
+}
@@ -0,0 +1,157 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.liferay.properties.locator;
+
+import com.liferay.blade.cli.util.CamelCaseUtil;
+import com.liferay.blade.cli.util.Pair;
+import com.liferay.blade.cli.util.StringPool;
+import com.liferay.blade.cli.util.StringUtil;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Inverted index from the words of candidate property keys, such as the
+ * fields of configuration classes or the keys of portlet.properties files, to
+ * the keys that contain them. A property is then only compared with the keys
+ * that share at least one word with it, instead of with every key.
+ *
+ * <p>
+ * The words of a key are its dot separated parts, or the parts of its camel
+ * case name for keys without dots.
+ * </p>
+ *
+ * @author Gregory Amerson
+ */
+public class PropertyKeyIndex {
+
+	public static String[] getWords(String key) {
+		if (!key.contains(StringPool.PERIOD)) {
+			key = CamelCaseUtil.fromCamelCase(key, StringPool.PERIOD.charAt(0));
+		}
+
+		return StringUtil.split(key, StringPool.PERIOD);
+	}
+
+	/**
+	 * @param keys the keys by the path they are defined in
+	 */
+	public PropertyKeyIndex(List<Pair<String, String[]>> keys) {
+		for (Pair<String, String[]> pair : keys) {
+			for (String key : pair.second()) {
+				int id = _candidates.size();
+
+				String[] words = getWords(key);
+
+				_candidates.add(new Candidate(pair.first(), key, words));
+
+				for (String word : words) {
+					BitSet postings = _postings.computeIfAbsent(word, k -> new BitSet());
+
+					postings.set(id);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the keys that contain at least one of the words, in the order
+	 * they were indexed, with the number of their words that are one of the
+	 * given words.
+	 */
+	public List<Match> getMatches(String[] words) {
+		Set<String> wordsSet = new HashSet<>(Arrays.asList(words));
+
+		BitSet ids = new BitSet();
+
+		for (String word : wordsSet) {
+			BitSet postings = _postings.get(word);
+
+			if (postings != null) {
+				ids.or(postings);
+			}
+		}
+
+		List<Match> matches = new ArrayList<>();
+
+		for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1)) {
+			Candidate candidate = _candidates.get(id);
+
+			int occurrences = 0;
+
+			for (String word : candidate._words) {
+				if (wordsSet.contains(word)) {
+					occurrences++;
+				}
+			}
+
+			matches.add(new Match(candidate._path, candidate._key, occurrences));
+		}
+
+		return matches;
+	}
+
+	private final List<Candidate> _candidates = new ArrayList<>();
+	private final Map<String, BitSet> _postings = new HashMap<>();
+
+	public static class Match {
+
+		public Match(String path, String key, int occurrences) {
+			_path = path;
+			_key = key;
+			_occurrences = occurrences;
+		}
+
+		public String getKey() {
+			return _key;
+		}
+
+		public int getOccurrences() {
+			return _occurrences;
+		}
+
+		public String getPath() {
+			return _path;
+		}
+
+		private final String _key;
+		private final int _occurrences;
+		private final String _path;
+
+	}
+
+	private static class Candidate {
+
+		public Candidate(String path, String key, String[] words) {
+			_path = path;
+			_key = key;
+			_words = words;
+		}
+
+		private final String _key;
+		private final String _path;
+		private final String[] _words;
+
+	}
+
+}
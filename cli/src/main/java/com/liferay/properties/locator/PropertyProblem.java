@@ -45,6 +45,10 @@ public class PropertyProblem implements Comparable<PropertyProblem> {
 		return _propertyName.compareTo(o.getPropertyName());
 	}
 
+	public String getMessage() {
+		return _message;
+	}
+
 	public String getPropertyName() {
 		return _propertyName;
 	}
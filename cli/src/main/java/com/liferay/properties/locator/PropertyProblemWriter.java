@@ -0,0 +1,43 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.liferay.properties.locator;
+
+import java.io.Closeable;
+
+import java.util.List;
+
+/**
+ * Writes property problems one at a time as they are found, so that a report
+ * can be read while it is being written instead of being built in memory
+ * first. The names of the removed properties are still sorted up front, and
+ * the unresolved problems are kept for {@link PropertiesLocator#getProblems}.
+ *
+ * @author Gregory Amerson
+ */
+public interface PropertyProblemWriter extends Closeable {
+
+	@Override
+	public void close();
+
+	public void write(PropertyProblem propertyProblem);
+
+	/**
+	 * Writes the properties files that contain a property, for the summary of
+	 * a batch of properties files.
+	 */
+	public void writeAffectedFiles(String propertyName, List<String> propertiesFiles);
+
+}
@@ -0,0 +1,382 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.liferay.properties.locator;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * Reads a zip archive from a buffer through its central directory, so that
+ * only the entries that are asked for are read and inflated. An archive that
+ * is stored, not deflated, inside another archive, like a jar inside an lpkg,
+ * is read in place without being copied.
+ *
+ * <p>
+ * Zip64 archives are not supported and are rejected with a
+ * {@link ZipException}.
+ * </p>
+ *
+ * @author Gregory Amerson
+ */
+public class ZipArchive implements AutoCloseable {
+
+	/**
+	 * Maps the archive into memory. The mapping is released when the archive
+	 * is closed, after which neither the archive nor the archives nested in
+	 * it can be read.
+	 */
+	public static ZipArchive open(Path path) throws IOException {
+		MappedByteBuffer mappedByteBuffer;
+
+		try (FileChannel fileChannel = FileChannel.open(path, StandardOpenOption.READ)) {
+			if (fileChannel.size() > Integer.MAX_VALUE) {
+				throw new ZipException("Archives larger than 2 GB are not supported");
+			}
+
+			mappedByteBuffer = fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, fileChannel.size());
+		}
+
+		try {
+			ZipArchive zipArchive = new ZipArchive(mappedByteBuffer);
+
+			zipArchive._mappedByteBuffer = mappedByteBuffer;
+
+			return zipArchive;
+		}
+		catch (ZipException ze) {
+			_unmap(mappedByteBuffer);
+
+			throw ze;
+		}
+	}
+
+	public ZipArchive(ByteBuffer byteBuffer) throws ZipException {
+		_byteBuffer = byteBuffer.slice();
+
+		_byteBuffer.order(ByteOrder.LITTLE_ENDIAN);
+
+		int endOffset = _findEndOfCentralDirectory();
+
+		int count = _getUnsignedShort(endOffset + 10);
+		long centralDirectoryOffset = _getUnsignedInt(endOffset + 16);
+
+		if ((count == 0xFFFF) || (centralDirectoryOffset == 0xFFFFFFFFL)) {
+			throw new ZipException("Zip64 archives are not supported");
+		}
+
+		if (centralDirectoryOffset > endOffset) {
+			throw new ZipException("Invalid central directory offset");
+		}
+
+		int offset = (int)centralDirectoryOffset;
+
+		for (int i = 0; i < count; i++) {
+			if ((offset + 46 > _byteBuffer.limit()) || (_byteBuffer.getInt(offset) != _CENTRAL_DIRECTORY_SIGNATURE)) {
+				throw new ZipException("Invalid central directory");
+			}
+
+			int method = _getUnsignedShort(offset + 10);
+			long compressedSize = _getUnsignedInt(offset + 20);
+			long size = _getUnsignedInt(offset + 24);
+			int nameLength = _getUnsignedShort(offset + 28);
+			int extraLength = _getUnsignedShort(offset + 30);
+			int commentLength = _getUnsignedShort(offset + 32);
+			long localHeaderOffset = _getUnsignedInt(offset + 42);
+
+			if (offset + 46 + nameLength > _byteBuffer.limit()) {
+				throw new ZipException("Invalid central directory");
+			}
+
+			if ((compressedSize == 0xFFFFFFFFL) || (size == 0xFFFFFFFFL) || (localHeaderOffset == 0xFFFFFFFFL)) {
+				throw new ZipException("Zip64 archives are not supported");
+			}
+
+			String name = _getString(offset + 46, nameLength);
+
+			_entries.add(new Entry(name, method, compressedSize, size, localHeaderOffset));
+
+			offset += 46 + nameLength + extraLength + commentLength;
+		}
+	}
+
+	@Override
+	public void close() {
+		if (_mappedByteBuffer != null) {
+			_unmap(_mappedByteBuffer);
+
+			_mappedByteBuffer = null;
+		}
+	}
+
+	public byte[] getBytes(Entry entry) throws IOException {
+		ByteBuffer data = _getData(entry);
+
+		int method = entry.getMethod();
+
+		if (method == _STORED) {
+			byte[] bytes = new byte[data.remaining()];
+
+			data.get(bytes);
+
+			return bytes;
+		}
+		else if (method == _DEFLATED) {
+			return _inflate(data, entry.getSize());
+		}
+
+		throw new ZipException("Unsupported compression method " + method + " for " + entry.getName());
+	}
+
+	public List<Entry> getEntries() {
+		return Collections.unmodifiableList(_entries);
+	}
+
+	public InputStream getInputStream(Entry entry) throws IOException {
+		return new ByteArrayInputStream(getBytes(entry));
+	}
+
+	/**
+	 * Returns the archive stored in the entry. A stored archive is read in
+	 * place, a deflated one is inflated into memory first.
+	 */
+	public ZipArchive getNestedArchive(Entry entry) throws IOException {
+		if (entry.getMethod() == _STORED) {
+			return new ZipArchive(_getData(entry));
+		}
+
+		return new ZipArchive(ByteBuffer.wrap(getBytes(entry)));
+	}
+
+	private static byte[] _inflate(ByteBuffer data, long size) throws IOException {
+		if (size > Integer.MAX_VALUE) {
+			throw new ZipException("Entry is too large to inflate");
+		}
+
+		// The inflater needs an extra dummy byte when there is no zlib header
+
+		byte[] input = new byte[data.remaining() + 1];
+
+		data.get(input, 0, input.length - 1);
+
+		byte[] output = new byte[(int)size];
+
+		Inflater inflater = new Inflater(true);
+
+		try {
+			inflater.setInput(input);
+
+			int length = 0;
+
+			while (length < output.length) {
+				int inflated = inflater.inflate(output, length, output.length - length);
+
+				if ((inflated == 0) && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+					throw new ZipException("Invalid deflated entry");
+				}
+
+				length += inflated;
+			}
+
+			return output;
+		}
+		catch (DataFormatException dfe) {
+			throw new ZipException(dfe.getMessage());
+		}
+		finally {
+			inflater.end();
+		}
+	}
+
+	/**
+	 * Releases the mapping right away instead of when the buffer is garbage
+	 * collected, so that the file is not kept locked on Windows. Java 9 and
+	 * later release it through <code>Unsafe.invokeCleaner</code>, Java 8
+	 * through the cleaner of the buffer. If neither is available the mapping
+	 * is left to the garbage collector.
+	 */
+	private static void _unmap(MappedByteBuffer mappedByteBuffer) {
+		try {
+			Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+
+			Method invokeCleanerMethod = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+
+			Field theUnsafeField = unsafeClass.getDeclaredField("theUnsafe");
+
+			theUnsafeField.setAccessible(true);
+
+			invokeCleanerMethod.invoke(theUnsafeField.get(null), mappedByteBuffer);
+		}
+		catch (NoSuchMethodException nsme) {
+			try {
+				Class<?> mappedByteBufferClass = mappedByteBuffer.getClass();
+
+				Method cleanerMethod = mappedByteBufferClass.getMethod("cleaner");
+
+				cleanerMethod.setAccessible(true);
+
+				Object cleaner = cleanerMethod.invoke(mappedByteBuffer);
+
+				if (cleaner != null) {
+					Class<?> cleanerClass = cleaner.getClass();
+
+					Method cleanMethod = cleanerClass.getMethod("clean");
+
+					cleanMethod.setAccessible(true);
+
+					cleanMethod.invoke(cleaner);
+				}
+			}
+			catch (Exception e) {
+			}
+		}
+		catch (Exception e) {
+		}
+	}
+
+	private int _findEndOfCentralDirectory() throws ZipException {
+		int limit = _byteBuffer.limit();
+
+		int minOffset = Math.max(0, limit - 22 - 0xFFFF);
+
+		for (int offset = limit - 22; offset >= minOffset; offset--) {
+			if (_byteBuffer.getInt(offset) == _END_OF_CENTRAL_DIRECTORY_SIGNATURE) {
+				return offset;
+			}
+		}
+
+		throw new ZipException("End of central directory not found");
+	}
+
+	private ByteBuffer _getData(Entry entry) throws ZipException {
+		long localHeaderOffset = entry.getLocalHeaderOffset();
+
+		if ((localHeaderOffset + 30 > _byteBuffer.limit()) ||
+			(_byteBuffer.getInt((int)localHeaderOffset) != _LOCAL_HEADER_SIGNATURE)) {
+
+			throw new ZipException("Invalid local header for " + entry.getName());
+		}
+
+		int offset = (int)localHeaderOffset;
+
+		long start = offset + 30 + _getUnsignedShort(offset + 26) + _getUnsignedShort(offset + 28);
+
+		long end = start + entry.getCompressedSize();
+
+		if (end > _byteBuffer.limit()) {
+			throw new ZipException("Truncated entry " + entry.getName());
+		}
+
+		ByteBuffer data = _byteBuffer.duplicate();
+
+		data.position((int)start);
+		data.limit((int)end);
+
+		return data.slice();
+	}
+
+	private String _getString(int offset, int length) {
+		byte[] bytes = new byte[length];
+
+		ByteBuffer byteBuffer = _byteBuffer.duplicate();
+
+		byteBuffer.position(offset);
+
+		byteBuffer.get(bytes);
+
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private long _getUnsignedInt(int offset) {
+		return _byteBuffer.getInt(offset) & 0xFFFFFFFFL;
+	}
+
+	private int _getUnsignedShort(int offset) {
+		return _byteBuffer.getShort(offset) & 0xFFFF;
+	}
+
+	private static final int _CENTRAL_DIRECTORY_SIGNATURE = 0x02014b50;
+
+	private static final int _DEFLATED = 8;
+
+	private static final int _END_OF_CENTRAL_DIRECTORY_SIGNATURE = 0x06054b50;
+
+	private static final int _LOCAL_HEADER_SIGNATURE = 0x04034b50;
+
+	private static final int _STORED = 0;
+
+	private final ByteBuffer _byteBuffer;
+	private final List<Entry> _entries = new ArrayList<>();
+	private MappedByteBuffer _mappedByteBuffer;
+
+	public static class Entry {
+
+		public Entry(String name, int method, long compressedSize, long size, long localHeaderOffset) {
+			_name = name;
+			_method = method;
+			_compressedSize = compressedSize;
+			_size = size;
+			_localHeaderOffset = localHeaderOffset;
+		}
+
+		public long getCompressedSize() {
+			return _compressedSize;
+		}
+
+		public long getLocalHeaderOffset() {
+			return _localHeaderOffset;
+		}
+
+		public int getMethod() {
+			return _method;
+		}
+
+		public String getName() {
+			return _name;
+		}
+
+		public long getSize() {
+			return _size;
+		}
+
+		private final long _compressedSize;
+		private final long _localHeaderOffset;
+		private final int _method;
+		private final String _name;
+		private final long _size;
+
+	}
+
+}
@@ -0,0 +1,108 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.liferay.blade.cli;
+
+import com.liferay.blade.cli.util.DeployLedger;
+
+import java.io.File;
+import java.io.FileOutputStream;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * @author Gregory Amerson
+ */
+public class DeployLedgerTest {
+
+	@Test
+	public void testDigestChangesWithContent() throws Exception {
+		Path first = _createBundle("first.jar", "1", "foo=bar");
+		Path second = _createBundle("second.jar", "1", "foo=baz");
+
+		String digest = DeployLedger.digest(first);
+
+		Assert.assertFalse(digest.equals(DeployLedger.digest(second)));
+	}
+
+	@Test
+	public void testDigestIgnoresVolatileHeaders() throws Exception {
+		Path first = _createBundle("first.jar", "1", "foo=bar");
+		Path second = _createBundle("second.jar", "2", "foo=bar");
+
+		Assert.assertEquals(DeployLedger.digest(first), DeployLedger.digest(second));
+	}
+
+	@Test
+	public void testLedgerIsKeptPerTarget() throws Exception {
+		File workspaceDir = temporaryFolder.getRoot();
+
+		Path workspacePath = workspaceDir.toPath();
+
+		DeployLedger deployLedger = new DeployLedger(workspacePath);
+
+		deployLedger.record("localhost:11311", "com.liferay.foo", "abc");
+
+		deployLedger.save();
+
+		deployLedger = new DeployLedger(workspacePath);
+
+		Assert.assertTrue(deployLedger.isDeployed("localhost:11311", "com.liferay.foo", "abc"));
+		Assert.assertFalse(deployLedger.isDeployed("localhost:11311", "com.liferay.foo", "def"));
+		Assert.assertFalse(deployLedger.isDeployed("jmx:0", "com.liferay.foo", "abc"));
+	}
+
+	@Rule
+	public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private Path _createBundle(String fileName, String lastModified, String content) throws Exception {
+		File file = temporaryFolder.newFile(fileName);
+
+		Manifest manifest = new Manifest();
+
+		Attributes attributes = manifest.getMainAttributes();
+
+		attributes.put(Attributes.Name.MANIFEST_VERSION, "1.0");
+		attributes.putValue("Bnd-LastModified", lastModified);
+		attributes.putValue("Bundle-SymbolicName", "com.liferay.foo");
+
+		try (JarOutputStream jarOutputStream = new JarOutputStream(new FileOutputStream(file), manifest)) {
+			JarEntry jarEntry = new JarEntry("foo.properties");
+
+			jarEntry.setTime(Long.parseLong(lastModified) * 1000000);
+
+			jarOutputStream.putNextEntry(jarEntry);
+
+			jarOutputStream.write(content.getBytes(StandardCharsets.UTF_8));
+
+			jarOutputStream.closeEntry();
+		}
+
+		return file.toPath();
+	}
+
+}
@@ -0,0 +1,213 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.liferay.blade.cli;
+
+import com.liferay.blade.cli.util.FileWatchService;
+
+import java.io.File;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * @author Gregory Amerson
+ */
+public class FileWatchServiceTest {
+
+	@Test
+	public void testAwaitTerminationWithoutStart() throws Exception {
+		File watchDir = temporaryFolder.newFolder("watch");
+
+		FileWatchService fileWatchService = new FileWatchService(watchDir.toPath(), false);
+
+		try {
+			fileWatchService.awaitTermination();
+
+			Assert.fail("Expected an IllegalStateException");
+		}
+		catch (IllegalStateException ise) {
+		}
+
+		fileWatchService.close();
+
+		fileWatchService.awaitTermination();
+	}
+
+	@Test
+	public void testErrorStopsService() throws Exception {
+		File watchDir = temporaryFolder.newFolder("watch");
+
+		Path watchPath = watchDir.toPath();
+
+		FileWatchService fileWatchService = new FileWatchService(watchPath, false);
+
+		fileWatchService.subscribe(
+			path -> true,
+			fileEvent -> {
+				throw new StackOverflowError();
+			});
+
+		Thread.UncaughtExceptionHandler uncaughtExceptionHandler = Thread.getDefaultUncaughtExceptionHandler();
+
+		List<Throwable> uncaughtThrowables = new CopyOnWriteArrayList<>();
+
+		Thread.setDefaultUncaughtExceptionHandler((thread, throwable) -> uncaughtThrowables.add(throwable));
+
+		try {
+			fileWatchService.start();
+
+			Files.write(watchPath.resolve("foo.txt"), "foo".getBytes());
+
+			fileWatchService.awaitTermination();
+		}
+		finally {
+			Thread.setDefaultUncaughtExceptionHandler(uncaughtExceptionHandler);
+		}
+
+		Assert.assertFalse(fileWatchService.isRunning());
+		Assert.assertEquals(1, uncaughtThrowables.size());
+		Assert.assertTrue(uncaughtThrowables.get(0) instanceof StackOverflowError);
+	}
+
+	@Test
+	public void testSubscriberExceptionIsReported() throws Exception {
+		File watchDir = temporaryFolder.newFolder("watch");
+
+		Path watchPath = watchDir.toPath();
+
+		List<Exception> exceptions = new CopyOnWriteArrayList<>();
+		List<Path> paths = new CopyOnWriteArrayList<>();
+
+		CountDownLatch countDownLatch = new CountDownLatch(1);
+
+		try (FileWatchService fileWatchService = new FileWatchService(watchPath, false)) {
+			fileWatchService.setErrorHandler((fileEvent, e) -> exceptions.add(e));
+
+			fileWatchService.subscribe(
+				path -> true,
+				fileEvent -> {
+					throw new IllegalArgumentException(String.valueOf(fileEvent.getPath()));
+				});
+
+			fileWatchService.subscribe(
+				path -> true,
+				fileEvent -> {
+					paths.add(fileEvent.getPath());
+
+					countDownLatch.countDown();
+				});
+
+			fileWatchService.start();
+
+			Files.write(watchPath.resolve("foo.txt"), "foo".getBytes());
+
+			Assert.assertTrue(countDownLatch.await(30, TimeUnit.SECONDS));
+
+			Assert.assertTrue(fileWatchService.isRunning());
+		}
+
+		Assert.assertFalse(exceptions.isEmpty());
+
+		Exception exception = exceptions.get(0);
+
+		Assert.assertEquals(String.valueOf(paths.get(0)), exception.getMessage());
+	}
+
+	@Test
+	public void testSubscribersReceiveFilteredEvents() throws Exception {
+		File watchDir = temporaryFolder.newFolder("watch");
+
+		Path watchPath = watchDir.toPath();
+
+		Path ignoredPath = Files.createDirectories(watchPath.resolve("ignored"));
+
+		List<Path> textPaths = new CopyOnWriteArrayList<>();
+		List<Path> allPaths = new CopyOnWriteArrayList<>();
+
+		CountDownLatch countDownLatch = new CountDownLatch(1);
+
+		try (FileWatchService fileWatchService = new FileWatchService(
+				watchPath, true, path -> !path.equals(ignoredPath), 16, FileWatchService.BackpressurePolicy.BLOCK)) {
+
+			fileWatchService.subscribe(
+				path -> {
+					String pathString = path.toString();
+
+					return pathString.endsWith(".txt");
+				},
+				fileEvent -> {
+					Path path = fileEvent.getPath();
+
+					textPaths.add(path);
+
+					if (path.endsWith("done.txt")) {
+						countDownLatch.countDown();
+					}
+				});
+
+			fileWatchService.subscribe(path -> true, fileEvent -> allPaths.add(fileEvent.getPath()));
+
+			fileWatchService.start();
+
+			Assert.assertTrue(fileWatchService.isRunning());
+
+			Files.write(watchPath.resolve("foo.css"), "foo".getBytes());
+			Files.write(ignoredPath.resolve("ignored.txt"), "ignored".getBytes());
+			Files.write(watchPath.resolve("done.txt"), "done".getBytes());
+
+			Assert.assertTrue(countDownLatch.await(30, TimeUnit.SECONDS));
+
+			Assert.assertFalse(textPaths.contains(watchPath.resolve("foo.css")));
+			Assert.assertFalse(textPaths.contains(ignoredPath.resolve("ignored.txt")));
+			Assert.assertTrue(allPaths.contains(watchPath.resolve("foo.css")));
+
+			FileWatchService.Metrics metrics = fileWatchService.getMetrics();
+
+			Assert.assertTrue(metrics.getReceivedEvents() >= 2);
+			Assert.assertEquals(0, metrics.getDroppedEvents());
+		}
+	}
+
+	@Test
+	public void testStopReleasesAwaitTermination() throws Exception {
+		File watchDir = temporaryFolder.newFolder("watch");
+
+		FileWatchService fileWatchService = new FileWatchService(watchDir.toPath(), false);
+
+		fileWatchService.start();
+
+		fileWatchService.stop();
+
+		fileWatchService.awaitTermination();
+
+		Assert.assertFalse(fileWatchService.isRunning());
+	}
+
+	@Rule
+	public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+}
\ No newline at end of file
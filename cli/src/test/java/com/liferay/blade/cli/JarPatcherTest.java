@@ -0,0 +1,161 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.liferay.blade.cli;
+
+import com.liferay.blade.cli.util.FileUtil;
+import com.liferay.blade.cli.util.JarPatcher;
+
+import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * @author Gregory Amerson
+ */
+public class JarPatcherTest {
+
+	@Test
+	public void testPatchAddsNewEntry() throws Exception {
+		Path jarPath = _createJar();
+
+		Path resourcePath = _createResource("new.css", "new");
+
+		JarPatcher.patch(jarPath, Collections.singletonMap("META-INF/resources/new.css", resourcePath));
+
+		Assert.assertEquals("new", _readEntry(jarPath, "META-INF/resources/new.css"));
+		Assert.assertEquals("view", _readEntry(jarPath, "META-INF/resources/view.jsp"));
+	}
+
+	@Test
+	public void testPatchReplacesEntry() throws Exception {
+		Path jarPath = _createJar();
+
+		Path resourcePath = _createResource("view.jsp", "patched");
+
+		Map<String, Path> entries = new HashMap<>();
+
+		entries.put("META-INF/resources/view.jsp", resourcePath);
+
+		JarPatcher.patch(jarPath, entries);
+
+		Assert.assertEquals("patched", _readEntry(jarPath, "META-INF/resources/view.jsp"));
+		Assert.assertEquals("main", _readEntry(jarPath, "META-INF/resources/css/main.css"));
+
+		try (JarFile jarFile = new JarFile(jarPath.toFile())) {
+			Manifest manifest = jarFile.getManifest();
+
+			Assert.assertNotNull(manifest);
+			Assert.assertEquals("foo", manifest.getMainAttributes().getValue("Bundle-SymbolicName"));
+		}
+
+		File parentDir = temporaryFolder.getRoot();
+
+		Assert.assertEquals(2, parentDir.list().length);
+	}
+
+	@Test
+	public void testPatchToOtherJar() throws Exception {
+		Path jarPath = _createJar();
+
+		Path resourcePath = _createResource("view.jsp", "patched");
+
+		File patchedJarFile = new File(temporaryFolder.getRoot(), "build/blade-patch/foo.jar");
+
+		Path patchedJarPath = patchedJarFile.toPath();
+
+		JarPatcher.patch(
+			jarPath, patchedJarPath, Collections.singletonMap("META-INF/resources/view.jsp", resourcePath));
+
+		Assert.assertEquals("view", _readEntry(jarPath, "META-INF/resources/view.jsp"));
+		Assert.assertEquals("patched", _readEntry(patchedJarPath, "META-INF/resources/view.jsp"));
+		Assert.assertEquals("main", _readEntry(patchedJarPath, "META-INF/resources/css/main.css"));
+
+		File patchedJarDir = patchedJarFile.getParentFile();
+
+		Assert.assertEquals(1, patchedJarDir.list().length);
+	}
+
+	@Rule
+	public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private Path _createJar() throws Exception {
+		File jarFile = temporaryFolder.newFile("foo.jar");
+
+		Manifest manifest = new Manifest();
+
+		manifest.getMainAttributes().putValue("Manifest-Version", "1.0");
+		manifest.getMainAttributes().putValue("Bundle-SymbolicName", "foo");
+
+		try (OutputStream outputStream = Files.newOutputStream(jarFile.toPath());
+			JarOutputStream jarOutputStream = new JarOutputStream(outputStream, manifest)) {
+
+			_putEntry(jarOutputStream, "META-INF/resources/css/main.css", "main");
+			_putEntry(jarOutputStream, "META-INF/resources/view.jsp", "view");
+		}
+
+		return jarFile.toPath();
+	}
+
+	private Path _createResource(String name, String content) throws Exception {
+		File resourcesDir = new File(temporaryFolder.getRoot(), "resources");
+
+		resourcesDir.mkdirs();
+
+		Path resourcePath = new File(resourcesDir, name).toPath();
+
+		Files.write(resourcePath, content.getBytes());
+
+		return resourcePath;
+	}
+
+	private void _putEntry(JarOutputStream jarOutputStream, String name, String content) throws Exception {
+		jarOutputStream.putNextEntry(new JarEntry(name));
+
+		jarOutputStream.write(content.getBytes());
+
+		jarOutputStream.closeEntry();
+	}
+
+	private String _readEntry(Path jarPath, String name) throws Exception {
+		try (JarFile jarFile = new JarFile(jarPath.toFile())) {
+			JarEntry jarEntry = jarFile.getJarEntry(name);
+
+			Assert.assertNotNull(name, jarEntry);
+
+			try (InputStream inputStream = jarFile.getInputStream(jarEntry)) {
+				return FileUtil.collect(inputStream);
+			}
+		}
+	}
+
+}
\ No newline at end of file
@@ -21,6 +21,7 @@ import com.liferay.blade.cli.util.BladeUtil;
 import com.liferay.blade.cli.util.FileUtil;
 
 import java.io.File;
+import java.io.IOException;
 
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -58,6 +59,46 @@ public class UtilTest {
 		Assert.assertTrue(propertiesList.size() == 2);
 	}
 
+	@Test
+	public void testCopyAtomically() throws Exception {
+		File sourceFile = temporaryFolder.newFile("foo.jar");
+
+		Files.write(sourceFile.toPath(), new byte[100000]);
+
+		File deployDir = temporaryFolder.newFolder("deploy");
+
+		Path targetPath = deployDir.toPath();
+
+		targetPath = targetPath.resolve("foo.jar");
+
+		Files.write(targetPath, new byte[10]);
+
+		FileUtil.copyAtomically(sourceFile.toPath(), targetPath);
+
+		Assert.assertEquals(100000, Files.size(targetPath));
+		Assert.assertArrayEquals(new String[] {"foo.jar"}, deployDir.list());
+
+		Path barPath = deployDir.toPath();
+
+		barPath = barPath.resolve("bar.jar");
+
+		Files.createDirectories(barPath.resolve("META-INF"));
+
+		try {
+			FileUtil.copyAtomically(sourceFile.toPath(), barPath);
+
+			Assert.fail("Expected an IOException");
+		}
+		catch (IOException ioe) {
+		}
+
+		String[] names = deployDir.list();
+
+		Arrays.sort(names);
+
+		Assert.assertArrayEquals(new String[] {"bar.jar", "foo.jar"}, names);
+	}
+
 	@Test
 	public void testCopyEntireDirectory() throws Exception {
 		File testDir1 = temporaryFolder.newFolder("dir1");
@@ -0,0 +1,104 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.liferay.blade.cli.command;
+
+import java.io.File;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * @author Gregory Amerson
+ */
+public class ProjectPathScannerTest {
+
+	@Before
+	public void setUp() throws Exception {
+		File workspaceDir = temporaryFolder.newFolder("workspace");
+
+		_workspacePath = workspaceDir.toPath();
+
+		Files.createDirectories(_workspacePath.resolve("modules/foo/src"));
+		Files.createDirectories(_workspacePath.resolve("modules/foo/build/generated/src"));
+		Files.createDirectories(_workspacePath.resolve("modules/bar/src"));
+		Files.createDirectories(_workspacePath.resolve("themes/node_modules/baz/src"));
+	}
+
+	@Test
+	public void testScan() throws Exception {
+		Set<Path> projectPaths = _scan();
+
+		Assert.assertEquals(projectPaths.toString(), 2, projectPaths.size());
+		Assert.assertTrue(projectPaths.contains(_workspacePath.resolve("modules/foo")));
+		Assert.assertTrue(projectPaths.contains(_workspacePath.resolve("modules/bar")));
+		Assert.assertTrue(Files.exists(_workspacePath.resolve(".blade/watch-projects.properties")));
+	}
+
+	@Test
+	public void testScanRefreshesChangedLayout() throws Exception {
+		_scan();
+
+		Path modulesPath = _workspacePath.resolve("modules");
+
+		FileTime fileTime = Files.getLastModifiedTime(modulesPath);
+
+		Files.createDirectories(modulesPath.resolve("qux/src"));
+
+		Files.setLastModifiedTime(modulesPath, FileTime.fromMillis(fileTime.toMillis() + 2000));
+
+		Set<Path> projectPaths = _scan();
+
+		Assert.assertEquals(projectPaths.toString(), 3, projectPaths.size());
+		Assert.assertTrue(projectPaths.contains(modulesPath.resolve("qux")));
+	}
+
+	@Test
+	public void testScanReusesCache() throws Exception {
+		Set<Path> projectPaths = _scan();
+
+		Set<Path> cachedProjectPaths = _scan();
+
+		Assert.assertEquals(projectPaths, cachedProjectPaths);
+	}
+
+	@Rule
+	public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private Set<Path> _scan() throws Exception {
+		List<String> ignorePaths = Arrays.asList("**/build", "**/node_modules");
+
+		ProjectPathScanner projectPathScanner = new ProjectPathScanner(
+			_workspacePath, Collections.singletonList("src"), ignorePaths);
+
+		return projectPathScanner.scan();
+	}
+
+	private Path _workspacePath;
+
+}
\ No newline at end of file
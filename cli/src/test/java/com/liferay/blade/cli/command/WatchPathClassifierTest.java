@@ -0,0 +1,86 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.liferay.blade.cli.command;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author Gregory Amerson
+ */
+public class WatchPathClassifierTest {
+
+	@Test
+	public void testClassifyFastPaths() throws Exception {
+		WatchPathClassifier watchPathClassifier = _newWatchPathClassifier();
+
+		_assertPathType(
+			watchPathClassifier, "modules/foo/src/main/resources/META-INF/resources/view.jsp",
+			WatchPathClassifier.PathType.FAST);
+		_assertPathType(watchPathClassifier, "main.css", WatchPathClassifier.PathType.FAST);
+		_assertPathType(
+			watchPathClassifier, "themes/foo/src/templates/portal_normal.ftl", WatchPathClassifier.PathType.FAST);
+	}
+
+	@Test
+	public void testClassifyIgnoredPaths() throws Exception {
+		WatchPathClassifier watchPathClassifier = _newWatchPathClassifier();
+
+		_assertPathType(watchPathClassifier, ".gradle", WatchPathClassifier.PathType.IGNORED);
+		_assertPathType(watchPathClassifier, "bundles/osgi/modules/foo.jar", WatchPathClassifier.PathType.IGNORED);
+		_assertPathType(watchPathClassifier, "build", WatchPathClassifier.PathType.IGNORED);
+		_assertPathType(watchPathClassifier, "modules/foo/build/libs/foo.jar", WatchPathClassifier.PathType.IGNORED);
+		_assertPathType(watchPathClassifier, "modules/foo/build/tmp/view.jsp", WatchPathClassifier.PathType.IGNORED);
+		_assertPathType(watchPathClassifier, "modules/foo/bar.tmp", WatchPathClassifier.PathType.IGNORED);
+	}
+
+	@Test
+	public void testClassifyNormalPaths() throws Exception {
+		WatchPathClassifier watchPathClassifier = _newWatchPathClassifier();
+
+		_assertPathType(watchPathClassifier, "gradlew", WatchPathClassifier.PathType.NORMAL);
+		_assertPathType(
+			watchPathClassifier, "modules/foo/src/main/java/Foo.java", WatchPathClassifier.PathType.NORMAL);
+		_assertPathType(
+			watchPathClassifier, "modules/foo/src/main/resources/view.jspf", WatchPathClassifier.PathType.NORMAL);
+		_assertPathType(watchPathClassifier, "modules/gradle/bnd.bnd", WatchPathClassifier.PathType.NORMAL);
+	}
+
+	private void _assertPathType(
+		WatchPathClassifier watchPathClassifier, String relativePath, WatchPathClassifier.PathType pathType) {
+
+		Assert.assertEquals(relativePath, pathType, watchPathClassifier.classify(_basePath.resolve(relativePath)));
+	}
+
+	private WatchPathClassifier _newWatchPathClassifier() {
+		List<String> ignorePaths = Arrays.asList(
+			".gradle", "**/build", "**/node_modules", "bundles", "gradle", "modules/*/*.tmp");
+
+		List<String> fastPaths = Arrays.asList("**/*.css", "**/*.jsp", "**/templates/*.{ftl,vm}");
+
+		return new WatchPathClassifier(_basePath, ignorePaths, fastPaths);
+	}
+
+	private final Path _basePath = Paths.get("workspace").toAbsolutePath();
+
+}
\ No newline at end of file
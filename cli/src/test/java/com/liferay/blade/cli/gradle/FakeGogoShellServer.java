@@ -0,0 +1,208 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.liferay.blade.cli.gradle;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import java.net.ServerSocket;
+import java.net.Socket;
+
+import java.nio.charset.StandardCharsets;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * A Gogo shell telnet server that negotiates like the OSGi console does and
+ * answers each command with the response of a function, for testing clients
+ * without a running portal.
+ *
+ * @author Gregory Amerson
+ */
+public class FakeGogoShellServer implements AutoCloseable {
+
+	public FakeGogoShellServer(Function<String, String> commandHandler) throws IOException {
+		this(commandHandler, 0);
+	}
+
+	/**
+	 * @param commandHandler returns the response to each command
+	 * @param negotiationDelay the number of milliseconds to wait after
+	 *        accepting a connection before negotiating, to simulate a slow
+	 *        connection
+	 */
+	public FakeGogoShellServer(Function<String, String> commandHandler, long negotiationDelay) throws IOException {
+		_commandHandler = commandHandler;
+		_negotiationDelay = negotiationDelay;
+
+		_serverSocket = new ServerSocket(0);
+
+		Thread thread = new Thread(this::_accept, "fake-gogo-shell-" + getPort());
+
+		thread.setDaemon(true);
+
+		thread.start();
+	}
+
+	@Override
+	public void close() throws IOException {
+		_serverSocket.close();
+	}
+
+	/**
+	 * Returns the commands received so far, from every connection.
+	 */
+	public List<String> getCommands() {
+		return _commands;
+	}
+
+	/**
+	 * Returns the number of connections that the client has not closed yet.
+	 */
+	public int getOpenConnections() {
+		return _openConnections.get();
+	}
+
+	public int getPort() {
+		return _serverSocket.getLocalPort();
+	}
+
+	private static void _read(InputStream inputStream, int length) throws IOException {
+		for (int i = 0; i < length; i++) {
+			if (inputStream.read() == -1) {
+				throw new IOException("Connection closed during negotiation");
+			}
+		}
+	}
+
+	private static byte[] _toBytes(int... values) {
+		byte[] bytes = new byte[values.length];
+
+		for (int i = 0; i < values.length; i++) {
+			bytes[i] = (byte)values[i];
+		}
+
+		return bytes;
+	}
+
+	private static void _write(OutputStream outputStream, String s) throws IOException {
+		outputStream.write(s.getBytes(StandardCharsets.UTF_8));
+
+		outputStream.flush();
+	}
+
+	private void _accept() {
+		try {
+			while (true) {
+				Socket socket = _serverSocket.accept();
+
+				Thread thread = new Thread(() -> _serve(socket), "fake-gogo-shell-connection");
+
+				thread.setDaemon(true);
+
+				thread.start();
+			}
+		}
+		catch (IOException ioe) {
+
+			// The server socket was closed
+
+		}
+	}
+
+	private void _serve(Socket socket) {
+		_openConnections.incrementAndGet();
+
+		try (InputStream inputStream = socket.getInputStream();
+			OutputStream outputStream = socket.getOutputStream()) {
+
+			if (_negotiationDelay > 0) {
+				Thread.sleep(_negotiationDelay);
+			}
+
+			outputStream.write(_toBytes(_IAC, _DO, 1, _IAC, _DO, 3, _IAC, _WILL, 1, _IAC, _WILL, 3));
+
+			outputStream.flush();
+
+			// IAC WILL TERMINAL-TYPE
+
+			_read(inputStream, 3);
+
+			outputStream.write(_toBytes(_IAC, _SB, _TERMINAL_TYPE, 1, _IAC, _SE));
+
+			outputStream.flush();
+
+			// IAC SB TERMINAL-TYPE IS VT220 IAC SE
+
+			_read(inputStream, 11);
+
+			_write(outputStream, _PROMPT);
+
+			StringBuilder sb = new StringBuilder();
+
+			int c;
+
+			while ((c = inputStream.read()) != -1) {
+				if (c != '\n') {
+					sb.append((char)c);
+
+					continue;
+				}
+
+				String command = sb.toString();
+
+				command = command.trim();
+
+				sb.setLength(0);
+
+				_commands.add(command);
+
+				_write(outputStream, _commandHandler.apply(command) + "\n" + _PROMPT);
+			}
+		}
+		catch (InterruptedException | IOException e) {
+		}
+		finally {
+			_openConnections.decrementAndGet();
+		}
+	}
+
+	private static final int _DO = 253;
+
+	private static final int _IAC = 255;
+
+	private static final String _PROMPT = "g! ";
+
+	private static final int _SB = 250;
+
+	private static final int _SE = 240;
+
+	private static final int _TERMINAL_TYPE = 24;
+
+	private static final int _WILL = 251;
+
+	private final Function<String, String> _commandHandler;
+	private final List<String> _commands = new CopyOnWriteArrayList<>();
+	private final long _negotiationDelay;
+	private final AtomicInteger _openConnections = new AtomicInteger();
+	private final ServerSocket _serverSocket;
+
+}
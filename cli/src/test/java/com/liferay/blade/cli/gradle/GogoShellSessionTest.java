@@ -0,0 +1,171 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.liferay.blade.cli.gradle;
+
+import java.io.IOException;
+
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author Gregory Amerson
+ */
+public class GogoShellSessionTest {
+
+	@Test
+	public void testLateConnectionIsClosed() throws Exception {
+		try (FakeGogoShellServer fakeGogoShellServer = new FakeGogoShellServer(command -> "", 1500);
+			GogoShellSession gogoShellSession = new GogoShellSession(
+				"localhost", fakeGogoShellServer.getPort(), 500, 0)) {
+
+			try {
+				gogoShellSession.send("lb");
+
+				Assert.fail("Expected slow connection to time out");
+			}
+			catch (SocketTimeoutException ste) {
+			}
+
+			long deadline = System.currentTimeMillis() + 5000;
+
+			while ((fakeGogoShellServer.getOpenConnections() > 0) && (System.currentTimeMillis() < deadline)) {
+				_sleep(100);
+			}
+
+			Assert.assertEquals(0, fakeGogoShellServer.getOpenConnections());
+			Assert.assertEquals(0, fakeGogoShellServer.getCommands().size());
+		}
+	}
+
+	@Test
+	public void testSendAfterCloseFails() throws Exception {
+		GogoShellSession gogoShellSession = new GogoShellSession("localhost", 11311);
+
+		gogoShellSession.close();
+
+		try {
+			gogoShellSession.send("lb");
+
+			Assert.fail("Expected closed session to reject commands");
+		}
+		catch (IOException ioe) {
+			Assert.assertFalse(ioe instanceof SocketTimeoutException);
+		}
+	}
+
+	@Test
+	public void testSendTimesOutOnSlowCommandWithCommandTimeout() throws Exception {
+		try (FakeGogoShellServer fakeGogoShellServer = new FakeGogoShellServer(
+				command -> {
+					_sleep(5000);
+
+					return "";
+				});
+			GogoShellSession gogoShellSession = new GogoShellSession(
+				"localhost", fakeGogoShellServer.getPort(), 5000, 500)) {
+
+			long start = System.currentTimeMillis();
+
+			try {
+				gogoShellSession.send("refresh");
+
+				Assert.fail("Expected slow command to time out");
+			}
+			catch (SocketTimeoutException ste) {
+				Assert.assertTrue((System.currentTimeMillis() - start) < 5000);
+			}
+		}
+	}
+
+	@Test
+	public void testSendTimesOutOnUnresponsiveServer() throws Exception {
+		try (ServerSocket serverSocket = new ServerSocket(0);
+			GogoShellSession gogoShellSession = new GogoShellSession(
+				"localhost", serverSocket.getLocalPort(), 500, 500)) {
+
+			Thread thread = new Thread(
+				() -> {
+					try (Socket socket = serverSocket.accept()) {
+						Thread.sleep(5000);
+					}
+					catch (Exception e) {
+					}
+				});
+
+			thread.setDaemon(true);
+
+			thread.start();
+
+			long start = System.currentTimeMillis();
+
+			try {
+				gogoShellSession.send("lb");
+
+				Assert.fail("Expected unresponsive server to time out");
+			}
+			catch (SocketTimeoutException ste) {
+				Assert.assertTrue((System.currentTimeMillis() - start) < 5000);
+			}
+
+			Assert.assertFalse(gogoShellSession.isConnected());
+		}
+	}
+
+	@Test
+	public void testSendWaitsForSlowCommandWithoutCommandTimeout() throws Exception {
+		try (FakeGogoShellServer fakeGogoShellServer = new FakeGogoShellServer(
+				command -> {
+					if (command.equals("refresh")) {
+						_sleep(1500);
+					}
+
+					return command + " done";
+				});
+			GogoShellSession gogoShellSession = new GogoShellSession(
+				"localhost", fakeGogoShellServer.getPort(), 500, 0)) {
+
+			Assert.assertEquals("refresh done", gogoShellSession.send("refresh"));
+			Assert.assertTrue(gogoShellSession.isConnected());
+		}
+	}
+
+	@Test
+	public void testSessionManagerSharesSessions() throws Exception {
+		try (GogoShellSessionManager gogoShellSessionManager = new GogoShellSessionManager()) {
+			GogoShellSession gogoShellSession = gogoShellSessionManager.getSession("localhost", 11311);
+
+			Assert.assertSame(gogoShellSession, gogoShellSessionManager.getSession("localhost", 11311));
+			Assert.assertNotSame(gogoShellSession, gogoShellSessionManager.getSession("localhost", 11312));
+		}
+	}
+
+	private static void _sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		}
+		catch (InterruptedException ie) {
+			Thread currentThread = Thread.currentThread();
+
+			currentThread.interrupt();
+		}
+	}
+
+}
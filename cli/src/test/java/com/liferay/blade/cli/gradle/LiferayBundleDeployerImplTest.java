@@ -0,0 +1,196 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.liferay.blade.cli.gradle;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.jar.Attributes;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * @author Gregory Amerson
+ */
+public class LiferayBundleDeployerImplTest {
+
+	@Test
+	public void testBundleIndexFollowsInstallAndUninstall() throws Exception {
+		File jarFile = _createBundle("com.liferay.bar");
+
+		try (TestGogoShellSession testGogoShellSession = new TestGogoShellSession();
+			LiferayBundleDeployerImpl liferayBundleDeployerImpl = new LiferayBundleDeployerImpl(
+				testGogoShellSession)) {
+
+			Assert.assertEquals(-1L, liferayBundleDeployerImpl.getBundleId("com.liferay.bar"));
+
+			testGogoShellSession.response = "Bundle ID: 42";
+
+			Assert.assertEquals(42L, liferayBundleDeployerImpl.install(jarFile.toURI()));
+			Assert.assertEquals(42L, liferayBundleDeployerImpl.getBundleId("com.liferay.bar"));
+
+			testGogoShellSession.response = "";
+
+			liferayBundleDeployerImpl.uninstall(42L);
+
+			Assert.assertEquals(-1L, liferayBundleDeployerImpl.getBundleId("com.liferay.bar"));
+			Assert.assertEquals(1, testGogoShellSession.getListCount());
+		}
+	}
+
+	@Test
+	public void testBundleIndexIsListedOnce() throws Exception {
+		try (TestGogoShellSession testGogoShellSession = new TestGogoShellSession();
+			LiferayBundleDeployerImpl liferayBundleDeployerImpl = new LiferayBundleDeployerImpl(
+				testGogoShellSession)) {
+
+			Assert.assertEquals(1L, liferayBundleDeployerImpl.getBundleId("com.liferay.foo"));
+			Assert.assertEquals(-1L, liferayBundleDeployerImpl.getBundleId("com.liferay.missing"));
+			Assert.assertEquals(1L, liferayBundleDeployerImpl.getBundleId("com.liferay.foo"));
+			Assert.assertEquals(1, testGogoShellSession.getListCount());
+		}
+	}
+
+	@Test
+	public void testBundleIndexResyncsAfterError() throws Exception {
+		try (TestGogoShellSession testGogoShellSession = new TestGogoShellSession();
+			LiferayBundleDeployerImpl liferayBundleDeployerImpl = new LiferayBundleDeployerImpl(
+				testGogoShellSession)) {
+
+			Assert.assertEquals(1L, liferayBundleDeployerImpl.getBundleId("com.liferay.foo"));
+
+			testGogoShellSession.response = "gogo: IllegalArgumentException: Cannot coerce stop(String) to any of []";
+
+			liferayBundleDeployerImpl.stop(99L);
+
+			Assert.assertEquals(1L, liferayBundleDeployerImpl.getBundleId("com.liferay.foo"));
+			Assert.assertEquals(2, testGogoShellSession.getListCount());
+		}
+	}
+
+	@Test
+	public void testWaitForActiveListsOnlyPendingBundles() throws Exception {
+		try (TestGogoShellSession testGogoShellSession = new TestGogoShellSession();
+			LiferayBundleDeployerImpl liferayBundleDeployerImpl = new LiferayBundleDeployerImpl(
+				testGogoShellSession)) {
+
+			Map<Long, Long> activeTimes = liferayBundleDeployerImpl.waitForActive(Arrays.asList(1L, 2L), 250);
+
+			Assert.assertEquals(Collections.singleton(1L), activeTimes.keySet());
+			Assert.assertEquals(0, testGogoShellSession.getListCount());
+
+			List<String> grepCommands = testGogoShellSession.getGrepCommands();
+
+			Assert.assertTrue(grepCommands.toString(), grepCommands.size() > 1);
+			Assert.assertEquals("lb -s -u | grep '^ *(1|2)\\|'", grepCommands.get(0));
+			Assert.assertEquals("lb -s -u | grep '^ *(2)\\|'", grepCommands.get(1));
+		}
+	}
+
+	@Rule
+	public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private File _createBundle(String bsn) throws IOException {
+		File jarFile = temporaryFolder.newFile(bsn + ".jar");
+
+		Manifest manifest = new Manifest();
+
+		Attributes attributes = manifest.getMainAttributes();
+
+		attributes.put(Attributes.Name.MANIFEST_VERSION, "1.0");
+		attributes.putValue("Bundle-SymbolicName", bsn + ";singleton:=true");
+
+		try (JarOutputStream jarOutputStream = new JarOutputStream(new FileOutputStream(jarFile), manifest)) {
+		}
+
+		return jarFile;
+	}
+
+	private static class TestGogoShellSession extends GogoShellSession {
+
+		public TestGogoShellSession() {
+			super("localhost", 11311);
+		}
+
+		public List<String> getGrepCommands() {
+			return _grepCommands;
+		}
+
+		public int getListCount() {
+			return _listCount;
+		}
+
+		@Override
+		public synchronized String send(String command) {
+			if (command.equals("lb -s -u")) {
+				_listCount++;
+
+				return _LIST_RESPONSE;
+			}
+
+			if (command.startsWith(_GREP_PREFIX)) {
+				_grepCommands.add(command);
+
+				String regex = command.substring(_GREP_PREFIX.length(), command.length() - 1);
+
+				Pattern pattern = Pattern.compile(regex);
+
+				Stream<String> lines = Stream.of(_LIST_RESPONSE.split("\n"));
+
+				return lines.filter(
+					line -> {
+						Matcher matcher = pattern.matcher(line);
+
+						return matcher.find();
+					}
+				).collect(
+					Collectors.joining("\n")
+				);
+			}
+
+			return response;
+		}
+
+		public String response = "";
+
+		private static final String _GREP_PREFIX = "lb -s -u | grep '";
+
+		private static final String _LIST_RESPONSE =
+			"START LEVEL 20\n   ID|State      |Level|Symbolic name\n\n    0|Active     |    0|org.apache.felix\n" +
+				"    1|Active     |   10|com.liferay.foo";
+
+		private final List<String> _grepCommands = new ArrayList<>();
+		private int _listCount;
+
+	}
+
+}
@@ -0,0 +1,316 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.liferay.blade.cli.jmx;
+
+import com.liferay.blade.cli.LiferayBundleDeployer;
+import com.liferay.blade.cli.gradle.FakeGogoShellServer;
+import com.liferay.blade.cli.gradle.GogoShellSession;
+import com.liferay.blade.cli.gradle.LiferayBundleDeployerImpl;
+import com.liferay.blade.cli.jmx.JMXBundleDeployerTest.TestBundleState;
+import com.liferay.blade.cli.jmx.JMXBundleDeployerTest.TestFramework;
+import com.liferay.blade.cli.util.FileUtil;
+
+import java.io.IOException;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+
+import java.net.URI;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.jar.Attributes;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+import javax.management.remote.JMXConnectorServer;
+import javax.management.remote.JMXConnectorServerFactory;
+import javax.management.remote.JMXServiceURL;
+import javax.management.remote.MBeanServerForwarder;
+
+/**
+ * Compares the time that {@link JMXBundleDeployer} and
+ * {@link LiferayBundleDeployerImpl} take to deploy the same batch of bundles,
+ * against the MBeans of {@link JMXBundleDeployerTest} and a
+ * {@link FakeGogoShellServer}. The batch is the one a remote deploy runs for
+ * bundles that are already installed: look up the ID of each bundle, stop
+ * each bundle, update them all, and start each bundle. Every request that
+ * either server receives is delayed by the same latency, so that the timings
+ * compare the round trips of each path rather than the speed of the fakes.
+ * Connecting is not measured.
+ *
+ * <p>
+ * Run it with
+ * <code>gradlew :cli:benchmarkBundleDeployers -PbenchmarkBundles=100 -PbenchmarkLatency=5</code>.
+ * The arguments are the number of bundles, 50 by default, the latency of a
+ * round trip in milliseconds, 1 by default, and the number of measured
+ * iterations, 5 by default, which the task reads from the
+ * <code>benchmarkBundles</code>, <code>benchmarkLatency</code> and
+ * <code>benchmarkIterations</code> properties.
+ * </p>
+ *
+ * @author Gregory Amerson
+ */
+public class BundleDeployerBenchmark {
+
+	public static void main(String[] args) throws Exception {
+		int bundles = _getArgument(args, 0, 50);
+		int latency = _getArgument(args, 1, 1);
+		int iterations = _getArgument(args, 2, 5);
+
+		Path bundlesPath = Files.createTempDirectory("bundle-deployer-benchmark");
+
+		TestBundleState testBundleState = new TestBundleState();
+
+		Map<String, URI> bundleURIs = new LinkedHashMap<>();
+
+		StringBuilder sb = new StringBuilder();
+
+		sb.append("START LEVEL 20\n");
+		sb.append("   ID|State      |Level|Symbolic name\n");
+		sb.append("    0|Active     |    0|org.apache.felix.framework\n");
+
+		for (int i = 0; i < bundles; i++) {
+			long id = _FIRST_BUNDLE_ID + i;
+			String bsn = "com.liferay.benchmark" + i;
+
+			testBundleState.addBundle(id, bsn);
+
+			bundleURIs.put(bsn, _createBundle(bundlesPath, bsn));
+
+			sb.append(String.format("%5d|Active     |   10|%s\n", id, bsn));
+		}
+
+		String listResponse = sb.toString();
+
+		AtomicInteger jmxRequests = new AtomicInteger();
+
+		JMXConnectorServer jmxConnectorServer = _newJMXConnectorServer(testBundleState, latency, jmxRequests);
+
+		try (FakeGogoShellServer fakeGogoShellServer = new FakeGogoShellServer(
+				command -> {
+					_sleep(latency);
+
+					if (command.startsWith("lb")) {
+						return listResponse;
+					}
+					else if (command.startsWith("start")) {
+						return command;
+					}
+
+					return "";
+				})) {
+
+			System.out.println(
+				"Deploying " + bundles + " bundles with a latency of " + latency + " ms for each round trip");
+			System.out.println();
+			System.out.println("Iteration\tJMX (ms)\tJMX requests\tGogo (ms)\tGogo commands");
+
+			long totalGogoTime = 0;
+			long totalJMXTime = 0;
+
+			for (int i = -_WARMUP_ITERATIONS; i < iterations; i++) {
+				long jmxTime;
+
+				int jmxRequestsBefore;
+
+				try (JMXBundleDeployer jmxBundleDeployer = new JMXBundleDeployer(jmxConnectorServer.getAddress())) {
+					jmxRequestsBefore = jmxRequests.get();
+
+					jmxTime = _run(jmxBundleDeployer, bundleURIs);
+				}
+
+				int jmxRequestCount = jmxRequests.get() - jmxRequestsBefore;
+
+				long gogoTime;
+
+				List<String> commands = fakeGogoShellServer.getCommands();
+
+				int gogoCommandsBefore;
+
+				try (GogoShellSession gogoShellSession = new GogoShellSession(
+						"localhost", fakeGogoShellServer.getPort());
+					LiferayBundleDeployerImpl liferayBundleDeployerImpl = new LiferayBundleDeployerImpl(
+						gogoShellSession)) {
+
+					gogoShellSession.send("echo");
+
+					gogoCommandsBefore = commands.size();
+
+					gogoTime = _run(liferayBundleDeployerImpl, bundleURIs);
+				}
+
+				int gogoCommandCount = commands.size() - gogoCommandsBefore;
+
+				String iteration = String.valueOf(i + 1);
+
+				if (i < 0) {
+					iteration = "warmup";
+				}
+				else {
+					totalGogoTime += gogoTime;
+					totalJMXTime += jmxTime;
+				}
+
+				System.out.println(
+					iteration + "\t\t" + _toMillis(jmxTime) + "\t\t" + jmxRequestCount + "\t\t" +
+						_toMillis(gogoTime) + "\t\t" + gogoCommandCount);
+			}
+
+			if (iterations > 0) {
+				System.out.println(
+					"average\t\t" + _toMillis(totalJMXTime / iterations) + "\t\t\t\t" +
+						_toMillis(totalGogoTime / iterations));
+			}
+		}
+		finally {
+			jmxConnectorServer.stop();
+
+			FileUtil.deleteDir(bundlesPath);
+		}
+	}
+
+	private static URI _createBundle(Path bundlesPath, String bsn) throws IOException {
+		Path bundlePath = bundlesPath.resolve(bsn + ".jar");
+
+		Manifest manifest = new Manifest();
+
+		Attributes attributes = manifest.getMainAttributes();
+
+		attributes.put(Attributes.Name.MANIFEST_VERSION, "1.0");
+		attributes.putValue("Bundle-SymbolicName", bsn);
+
+		try (JarOutputStream jarOutputStream = new JarOutputStream(Files.newOutputStream(bundlePath), manifest)) {
+		}
+
+		return bundlePath.toUri();
+	}
+
+	private static int _getArgument(String[] args, int index, int defaultValue) {
+		if (args.length > index) {
+			return Integer.parseInt(args[index]);
+		}
+
+		return defaultValue;
+	}
+
+	/**
+	 * Returns a connector server for the MBeans that delays every request it
+	 * receives by the latency and counts it.
+	 */
+	private static JMXConnectorServer _newJMXConnectorServer(
+			TestBundleState testBundleState, int latency, AtomicInteger requests)
+		throws Exception {
+
+		MBeanServer mBeanServer = MBeanServerFactory.newMBeanServer();
+
+		mBeanServer.registerMBean(new TestFramework(), new ObjectName("osgi.core:type=framework,version=1.7"));
+		mBeanServer.registerMBean(testBundleState, new ObjectName("osgi.core:type=bundleState,version=1.7"));
+
+		MBeanServerForwarder mBeanServerForwarder = (MBeanServerForwarder)Proxy.newProxyInstance(
+			MBeanServerForwarder.class.getClassLoader(), new Class<?>[] {MBeanServerForwarder.class},
+			(proxy, method, methodArgs) -> {
+				String name = method.getName();
+
+				if (name.equals("getMBeanServer")) {
+					return mBeanServer;
+				}
+				else if (name.equals("setMBeanServer")) {
+					return null;
+				}
+
+				if (!name.startsWith("getClassLoader")) {
+
+					// The connector also asks for class loaders to read each request
+
+					requests.incrementAndGet();
+
+					_sleep(latency);
+				}
+
+				try {
+					return method.invoke(mBeanServer, methodArgs);
+				}
+				catch (InvocationTargetException ite) {
+					throw ite.getCause();
+				}
+			});
+
+		JMXConnectorServer jmxConnectorServer = JMXConnectorServerFactory.newJMXConnectorServer(
+			new JMXServiceURL("service:jmx:rmi://localhost"), null, mBeanServer);
+
+		jmxConnectorServer.setMBeanServerForwarder(mBeanServerForwarder);
+
+		jmxConnectorServer.start();
+
+		return jmxConnectorServer;
+	}
+
+	private static long _run(LiferayBundleDeployer liferayBundleDeployer, Map<String, URI> bundleURIs)
+		throws Exception {
+
+		long start = System.nanoTime();
+
+		Map<Long, URI> updates = new LinkedHashMap<>();
+
+		for (Map.Entry<String, URI> entry : bundleURIs.entrySet()) {
+			long id = liferayBundleDeployer.getBundleId(entry.getKey());
+
+			liferayBundleDeployer.stop(id);
+
+			updates.put(id, entry.getValue());
+		}
+
+		liferayBundleDeployer.update(updates);
+
+		for (long id : updates.keySet()) {
+			liferayBundleDeployer.start(id);
+		}
+
+		return System.nanoTime() - start;
+	}
+
+	private static void _sleep(long millis) {
+		if (millis <= 0) {
+			return;
+		}
+
+		try {
+			Thread.sleep(millis);
+		}
+		catch (InterruptedException ie) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static long _toMillis(long nanos) {
+		return nanos / 1000000;
+	}
+
+	private static final long _FIRST_BUNDLE_ID = 100;
+
+	private static final int _WARMUP_ITERATIONS = 2;
+
+}
@@ -0,0 +1,407 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.liferay.blade.cli.jmx;
+
+import java.io.File;
+
+import java.net.URI;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.Notification;
+import javax.management.NotificationBroadcasterSupport;
+import javax.management.ObjectName;
+import javax.management.openmbean.ArrayType;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.CompositeDataSupport;
+import javax.management.openmbean.CompositeType;
+import javax.management.openmbean.OpenDataException;
+import javax.management.openmbean.OpenType;
+import javax.management.openmbean.SimpleType;
+import javax.management.openmbean.TabularData;
+import javax.management.openmbean.TabularDataSupport;
+import javax.management.openmbean.TabularType;
+import javax.management.remote.JMXConnectorServer;
+import javax.management.remote.JMXConnectorServerFactory;
+import javax.management.remote.JMXServiceURL;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import org.osgi.framework.Bundle;
+import org.osgi.framework.BundleEvent;
+import org.osgi.framework.dto.BundleDTO;
+
+/**
+ * @author Gregory Amerson
+ */
+public class JMXBundleDeployerTest {
+
+	@Before
+	public void setUp() throws Exception {
+		MBeanServer mBeanServer = MBeanServerFactory.newMBeanServer();
+
+		mBeanServer.registerMBean(_framework, new ObjectName("osgi.core:type=framework,version=1.7"));
+		mBeanServer.registerMBean(_bundleState, new ObjectName("osgi.core:type=bundleState,version=1.7"));
+
+		_jmxConnectorServer = JMXConnectorServerFactory.newJMXConnectorServer(
+			new JMXServiceURL("service:jmx:rmi://localhost"), null, mBeanServer);
+
+		_jmxConnectorServer.start();
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		_jmxConnectorServer.stop();
+	}
+
+	@Test
+	public void testBatchUpdateAndRefresh() throws Exception {
+		URI fooURI = _newBundleURI("foo.jar");
+		URI barURI = _newBundleURI("bar.jar");
+
+		try (JMXBundleDeployer jmxBundleDeployer = new JMXBundleDeployer(_jmxConnectorServer.getAddress())) {
+			Map<Long, URI> updates = new LinkedHashMap<>();
+
+			updates.put(1L, fooURI);
+			updates.put(2L, barURI);
+
+			jmxBundleDeployer.update(updates);
+
+			jmxBundleDeployer.refresh(Arrays.asList(1L, 2L));
+
+			Assert.assertEquals(
+				Arrays.asList("updateBundlesFromURL [1, 2]", "refreshBundles [1, 2]"), _framework.getInvocations());
+		}
+	}
+
+	@Test
+	public void testBatchUpdateFailure() throws Exception {
+		URI fooURI = _newBundleURI("foo.jar");
+		URI barURI = _newBundleURI("bar.jar");
+		URI bazURI = _newBundleURI("baz.jar");
+
+		_framework.setBundleInError(2L);
+
+		try (JMXBundleDeployer jmxBundleDeployer = new JMXBundleDeployer(_jmxConnectorServer.getAddress())) {
+			Map<Long, URI> updates = new LinkedHashMap<>();
+
+			updates.put(1L, fooURI);
+			updates.put(2L, barURI);
+			updates.put(3L, bazURI);
+
+			try {
+				jmxBundleDeployer.update(updates);
+
+				Assert.fail("Expected the failed batch update to throw");
+			}
+			catch (IllegalStateException ise) {
+				Assert.assertEquals(
+					"Unable to update bundle 2: Invalid manifest. Bundles not updated: [2, 3]",
+					ise.getMessage());
+			}
+		}
+	}
+
+	@Test
+	public void testBundleIndexIsListedOnce() throws Exception {
+		URI bazURI = _newBundleURI("baz.jar");
+
+		try (JMXBundleDeployer jmxBundleDeployer = new JMXBundleDeployer(_jmxConnectorServer.getAddress())) {
+			Assert.assertEquals(1L, jmxBundleDeployer.getBundleId("com.liferay.foo"));
+			Assert.assertEquals(-1L, jmxBundleDeployer.getBundleId("com.liferay.baz"));
+
+			_bundleState.addBundle(3L, "com.liferay.baz");
+
+			Assert.assertEquals(3L, jmxBundleDeployer.install(bazURI));
+			Assert.assertEquals(3L, jmxBundleDeployer.getBundleId("com.liferay.baz"));
+			Assert.assertEquals(2L, jmxBundleDeployer.getBundleId("com.liferay.bar"));
+			Assert.assertEquals(1, _bundleState.getListCount());
+		}
+	}
+
+	@Test
+	public void testGetBundles() throws Exception {
+		try (JMXBundleDeployer jmxBundleDeployer = new JMXBundleDeployer(_jmxConnectorServer.getAddress())) {
+			Collection<BundleDTO> bundles = jmxBundleDeployer.getBundles();
+
+			Assert.assertEquals(2, bundles.size());
+
+			Assert.assertEquals(2L, jmxBundleDeployer.getBundleId(bundles, "com.liferay.bar"));
+			Assert.assertEquals(-1L, jmxBundleDeployer.getBundleId(bundles, "com.liferay.missing"));
+
+			BundleDTO bundle = jmxBundleDeployer.getBundle(1L);
+
+			Assert.assertEquals("com.liferay.foo", bundle.symbolicName);
+			Assert.assertEquals(Bundle.ACTIVE, bundle.state);
+		}
+	}
+
+	@Test
+	public void testInstall() throws Exception {
+		URI bazURI = _newBundleURI("baz.jar");
+
+		try (JMXBundleDeployer jmxBundleDeployer = new JMXBundleDeployer(_jmxConnectorServer.getAddress())) {
+			Assert.assertEquals(3L, jmxBundleDeployer.install(bazURI));
+
+			Assert.assertEquals(
+				Arrays.asList("installBundleFromURL " + bazURI.toASCIIString()), _framework.getInvocations());
+		}
+	}
+
+	@Test
+	public void testWaitForActive() throws Exception {
+		_bundleState.setState(2L, "RESOLVED");
+		_bundleState.setState(3L, "INSTALLED");
+
+		try (JMXBundleDeployer jmxBundleDeployer = new JMXBundleDeployer(_jmxConnectorServer.getAddress())) {
+			Thread thread = new Thread(
+				() -> {
+					try {
+						Thread.sleep(500);
+
+						_bundleState.setState(2L, "ACTIVE");
+
+						_bundleState.sendBundleEvent(2L, BundleEvent.STARTED);
+					}
+					catch (Exception e) {
+					}
+				});
+
+			thread.start();
+
+			long start = System.currentTimeMillis();
+
+			Map<Long, Long> activeTimes = jmxBundleDeployer.waitForActive(Arrays.asList(1L, 2L), 10000);
+
+			Assert.assertEquals(activeTimes.toString(), 2, activeTimes.size());
+			Assert.assertTrue((System.currentTimeMillis() - start) < 10000);
+
+			activeTimes = jmxBundleDeployer.waitForActive(Arrays.asList(1L, 3L), 500);
+
+			Assert.assertEquals(activeTimes.toString(), 1, activeTimes.size());
+		}
+	}
+
+	@Rule
+	public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	public interface TestBundleStateMBean {
+
+		public String getState(long id);
+
+		public String getSymbolicName(long id);
+
+		public String getVersion(long id);
+
+		public TabularData listBundles(String[] items) throws OpenDataException;
+
+	}
+
+	public interface TestFrameworkMBean {
+
+		public long installBundleFromURL(String location, String url);
+
+		public void refreshBundles(long[] ids);
+
+		public void startBundle(long id);
+
+		public void stopBundle(long id);
+
+		public CompositeData updateBundlesFromURL(long[] ids, String[] urls) throws OpenDataException;
+
+	}
+
+	public static class TestBundleState extends NotificationBroadcasterSupport implements TestBundleStateMBean {
+
+		public TestBundleState() {
+			_symbolicNames.put(1L, "com.liferay.foo");
+			_symbolicNames.put(2L, "com.liferay.bar");
+		}
+
+		public void addBundle(long id, String symbolicName) {
+			_symbolicNames.put(id, symbolicName);
+		}
+
+		public int getListCount() {
+			return _listCount;
+		}
+
+		@Override
+		public String getState(long id) {
+			return _states.getOrDefault(id, "ACTIVE");
+		}
+
+		@Override
+		public String getSymbolicName(long id) {
+			return _symbolicNames.get(id);
+		}
+
+		@Override
+		public String getVersion(long id) {
+			return "1.0.0";
+		}
+
+		@Override
+		public TabularData listBundles(String[] items) throws OpenDataException {
+			_listCount++;
+
+			OpenType<?>[] itemTypes = {SimpleType.LONG, SimpleType.STRING, SimpleType.STRING, SimpleType.STRING};
+
+			CompositeType compositeType = new CompositeType("Bundle", "Bundle", items, items, itemTypes);
+
+			TabularData tabularData = new TabularDataSupport(
+				new TabularType("Bundles", "Bundles", compositeType, new String[] {"Identifier"}));
+
+			for (Map.Entry<Long, String> entry : _symbolicNames.entrySet()) {
+				Object[] values = {entry.getKey(), entry.getValue(), "ACTIVE", "1.0.0"};
+
+				tabularData.put(new CompositeDataSupport(compositeType, items, values));
+			}
+
+			return tabularData;
+		}
+
+		public void sendBundleEvent(long id, int eventType) throws OpenDataException {
+			String[] itemNames = {"Identifier", "EventType"};
+			OpenType<?>[] itemTypes = {SimpleType.LONG, SimpleType.INTEGER};
+
+			CompositeType compositeType = new CompositeType(
+				"BundleEvent", "BundleEvent", itemNames, itemNames, itemTypes);
+
+			Notification notification = new Notification("org.osgi.bundle.event", this, _sequence++);
+
+			notification.setUserData(new CompositeDataSupport(compositeType, itemNames, new Object[] {id, eventType}));
+
+			sendNotification(notification);
+		}
+
+		public void setState(long id, String state) {
+			_states.put(id, state);
+		}
+
+		private int _listCount;
+		private long _sequence;
+		private final Map<Long, String> _states = new TreeMap<>();
+		private final Map<Long, String> _symbolicNames = new TreeMap<>();
+
+	}
+
+	public static class TestFramework implements TestFrameworkMBean {
+
+		public List<String> getInvocations() {
+			return _invocations;
+		}
+
+		@Override
+		public long installBundleFromURL(String location, String url) {
+			_invocations.add("installBundleFromURL " + url);
+
+			return 3L;
+		}
+
+		@Override
+		public void refreshBundles(long[] ids) {
+			_invocations.add("refreshBundles " + Arrays.toString(ids));
+		}
+
+		public void setBundleInError(long bundleInError) {
+			_bundleInError = bundleInError;
+		}
+
+		@Override
+		public void startBundle(long id) {
+			_invocations.add("startBundle " + id);
+		}
+
+		@Override
+		public void stopBundle(long id) {
+			_invocations.add("stopBundle " + id);
+		}
+
+		/**
+		 * Returns a BatchActionResult like the OSGi framework MBean does,
+		 * stopping at the bundle in error.
+		 */
+		@Override
+		public CompositeData updateBundlesFromURL(long[] ids, String[] urls) throws OpenDataException {
+			_invocations.add("updateBundlesFromURL " + Arrays.toString(ids));
+
+			List<Long> completed = new ArrayList<>();
+			List<Long> remaining = new ArrayList<>();
+
+			Long bundleInError = null;
+			String error = null;
+
+			for (long id : ids) {
+				if (bundleInError != null) {
+					remaining.add(id);
+				}
+				else if (id == _bundleInError) {
+					bundleInError = id;
+					error = "Invalid manifest";
+				}
+				else {
+					completed.add(id);
+				}
+			}
+
+			String[] itemNames = {"BundleInError", "Completed", "Error", "Remaining", "Success"};
+
+			ArrayType<Long[]> idsType = new ArrayType<>(1, SimpleType.LONG);
+
+			OpenType<?>[] itemTypes = {SimpleType.LONG, idsType, SimpleType.STRING, idsType, SimpleType.BOOLEAN};
+
+			CompositeType compositeType = new CompositeType(
+				"BatchActionResult", "BatchActionResult", itemNames, itemNames, itemTypes);
+
+			Object[] values = {
+				bundleInError, completed.toArray(new Long[0]), error, remaining.toArray(new Long[0]),
+				bundleInError == null
+			};
+
+			return new CompositeDataSupport(compositeType, itemNames, values);
+		}
+
+		private long _bundleInError = -1;
+		private final List<String> _invocations = new ArrayList<>();
+
+	}
+
+	private URI _newBundleURI(String fileName) throws Exception {
+		File file = temporaryFolder.newFile(fileName);
+
+		return file.toURI();
+	}
+
+	private final TestBundleState _bundleState = new TestBundleState();
+	private final TestFramework _framework = new TestFramework();
+	private JMXConnectorServer _jmxConnectorServer;
+
+}
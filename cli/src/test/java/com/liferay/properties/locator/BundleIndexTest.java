@@ -0,0 +1,177 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.liferay.properties.locator;
+
+import com.liferay.blade.cli.util.Pair;
+
+import java.io.File;
+import java.io.FileOutputStream;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import java.util.List;
+import java.util.Properties;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * @author Gregory Amerson
+ */
+public class BundleIndexTest {
+
+	@Test
+	public void testIndexBundle() throws Exception {
+		File bundleDir = temporaryFolder.getRoot();
+
+		Path bundlePath = bundleDir.toPath();
+
+		_createArchive(
+			bundlePath.resolve("tomcat/webapps/ROOT/WEB-INF/lib/portal-impl.jar"), "portal.properties",
+			"foo.bar=1\n#foo.commented=2\n".getBytes(StandardCharsets.UTF_8));
+		_createArchive(
+			bundlePath.resolve("osgi/modules/com.liferay.foo.web.jar"), "portlet.properties",
+			"foo.web.max.items=1".getBytes(StandardCharsets.UTF_8));
+		_createArchive(
+			bundlePath.resolve("osgi/state/com.liferay.state.jar"), "portlet.properties",
+			"foo.state=1".getBytes(StandardCharsets.UTF_8));
+		_createArchive(
+			bundlePath.resolve("work/com.liferay.work.jar"), "portlet.properties",
+			"foo.work=1".getBytes(StandardCharsets.UTF_8));
+
+		Path lpkgJarPath = bundlePath.resolve("com.liferay.bar.web.jar");
+
+		_createArchive(lpkgJarPath, "portlet.properties", "bar.web.max.items=1".getBytes(StandardCharsets.UTF_8));
+
+		_createArchive(
+			bundlePath.resolve("osgi/marketplace/Liferay Bar.lpkg"), "com.liferay.bar.web.jar",
+			Files.readAllBytes(lpkgJarPath));
+
+		Files.delete(lpkgJarPath);
+
+		BundleIndex bundleIndex = new BundleIndex(bundlePath);
+
+		Properties portalProperties = bundleIndex.getPortalProperties();
+
+		Assert.assertEquals(2, portalProperties.size());
+		Assert.assertTrue(portalProperties.containsKey("foo.commented"));
+
+		List<Pair<String, String[]>> portletProperties = bundleIndex.getPortletProperties();
+
+		Assert.assertEquals(2, portletProperties.size());
+
+		Pair<String, String[]> jarPortletProperties = portletProperties.get(0);
+
+		String jarPath = jarPortletProperties.first();
+
+		Assert.assertTrue(jarPath, jarPath.endsWith("com.liferay.foo.web.jar/portlet.properties"));
+		Assert.assertArrayEquals(new String[] {"foo.web.max.items"}, jarPortletProperties.second());
+
+		Pair<String, String[]> lpkgPortletProperties = portletProperties.get(1);
+
+		String lpkgPath = lpkgPortletProperties.first();
+
+		Assert.assertTrue(lpkgPath, lpkgPath.endsWith("Liferay Bar.lpkg/com.liferay.bar.web.jar/portlet.properties"));
+		Assert.assertArrayEquals(new String[] {"bar.web.max.items"}, lpkgPortletProperties.second());
+	}
+
+	@Test
+	public void testIndexBundleFromCache() throws Exception {
+		File bundleDir = temporaryFolder.newFolder("bundle");
+
+		Path bundlePath = bundleDir.toPath();
+
+		Path jarPath = bundlePath.resolve("osgi/modules/com.liferay.foo.web.jar");
+
+		_createArchive(jarPath, "portlet.properties", "foo.web.max.items=1".getBytes(StandardCharsets.UTF_8));
+
+		Path portalImplPath = bundlePath.resolve("tomcat/webapps/ROOT/WEB-INF/lib/portal-impl.jar");
+
+		_createArchive(
+			portalImplPath, "portal.properties", "foo.bar=1\n#foo.commented=2\n".getBytes(StandardCharsets.UTF_8));
+
+		File cacheFile = new File(temporaryFolder.getRoot(), "cache/bundle.properties");
+
+		new BundleIndex(bundlePath, new BundleIndexCache(cacheFile.toPath()));
+
+		Assert.assertTrue(cacheFile.exists());
+
+		_clearArchive(jarPath);
+		_clearArchive(portalImplPath);
+
+		BundleIndex bundleIndex = new BundleIndex(bundlePath, new BundleIndexCache(cacheFile.toPath()));
+
+		Properties portalProperties = bundleIndex.getPortalProperties();
+
+		Assert.assertEquals(2, portalProperties.size());
+		Assert.assertTrue(portalProperties.containsKey("foo.bar"));
+		Assert.assertTrue(portalProperties.containsKey("foo.commented"));
+
+		List<Pair<String, String[]>> portletProperties = bundleIndex.getPortletProperties();
+
+		Assert.assertEquals(1, portletProperties.size());
+
+		Pair<String, String[]> jarPortletProperties = portletProperties.get(0);
+
+		Assert.assertArrayEquals(new String[] {"foo.web.max.items"}, jarPortletProperties.second());
+
+		_createArchive(jarPath, "portlet.properties", "foo.web.minimum.items=1".getBytes(StandardCharsets.UTF_8));
+
+		bundleIndex = new BundleIndex(bundlePath, new BundleIndexCache(cacheFile.toPath()));
+
+		portletProperties = bundleIndex.getPortletProperties();
+
+		jarPortletProperties = portletProperties.get(0);
+
+		Assert.assertArrayEquals(new String[] {"foo.web.minimum.items"}, jarPortletProperties.second());
+	}
+
+	@Rule
+	public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	/**
+	 * Overwrites the archive with zeros but keeps its size and modification
+	 * time, so that only a cached index can still read its content.
+	 */
+	private void _clearArchive(Path path) throws Exception {
+		FileTime lastModifiedTime = Files.getLastModifiedTime(path);
+
+		Files.write(path, new byte[(int)Files.size(path)]);
+
+		Files.setLastModifiedTime(path, lastModifiedTime);
+	}
+
+	private void _createArchive(Path path, String entryName, byte[] content) throws Exception {
+		Files.createDirectories(path.getParent());
+
+		try (ZipOutputStream zipOutputStream = new ZipOutputStream(new FileOutputStream(path.toFile()))) {
+			zipOutputStream.putNextEntry(new ZipEntry(entryName));
+
+			zipOutputStream.write(content);
+
+			zipOutputStream.closeEntry();
+		}
+	}
+
+}
@@ -0,0 +1,78 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.liferay.properties.locator;
+
+import aQute.bnd.annotation.metatype.Meta;
+
+import java.io.InputStream;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author Gregory Amerson
+ */
+public class ConfigurationClassDataTest {
+
+	@Test
+	public void testConfigurationClass() throws Exception {
+		ConfigurationClassData configurationClassData = _getConfigurationClassData(FooConfiguration.class);
+
+		Assert.assertArrayEquals(
+			new String[] {"fooMaxItems", "fooName"}, configurationClassData.getConfigFields());
+		Assert.assertEquals("java/lang/Object", configurationClassData.getSuperClass());
+	}
+
+	@Test
+	public void testConfigurationClassWithoutMetatype() throws Exception {
+		ConfigurationClassData configurationClassData = _getConfigurationClassData(BarConfiguration.class);
+
+		Assert.assertEquals(0, configurationClassData.getConfigFields().length);
+		Assert.assertEquals(
+			"com/liferay/properties/locator/ConfigurationClassDataTest$FooConfiguration",
+			configurationClassData.getSuperClass());
+	}
+
+	public interface BarConfiguration extends FooConfiguration {
+
+		public String barName();
+
+	}
+
+	public interface FooConfiguration {
+
+		@Meta.AD
+		public int fooMaxItems();
+
+		@Meta.AD
+		public String fooName();
+
+		public String fooType();
+
+	}
+
+	private ConfigurationClassData _getConfigurationClassData(Class<?> clazz) throws Exception {
+		String name = clazz.getName();
+
+		name = name.substring(name.lastIndexOf('.') + 1);
+
+		try (InputStream inputStream = clazz.getResourceAsStream(name + ".class")) {
+			return new ConfigurationClassData(inputStream);
+		}
+	}
+
+}
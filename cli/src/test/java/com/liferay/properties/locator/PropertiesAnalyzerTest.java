@@ -0,0 +1,173 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.liferay.properties.locator;
+
+import com.liferay.blade.cli.util.Pair;
+
+import java.io.File;
+import java.io.FileOutputStream;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.SortedSet;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * @author Gregory Amerson
+ */
+public class PropertiesAnalyzerTest {
+
+	@Before
+	public void setUp() throws Exception {
+		Path bundlePath = temporaryFolder.getRoot().toPath();
+
+		_createArchive(
+			bundlePath.resolve("tomcat/webapps/ROOT/WEB-INF/lib/portal-impl.jar"), "portal.properties",
+			"still.here=1\n");
+		_createArchive(
+			bundlePath.resolve("osgi/modules/com.liferay.blogs.web.jar"), "portlet.properties",
+			"blogs.entry.max.items=1\n");
+
+		_propertiesAnalyzer = new PropertiesAnalyzer(new BundleIndex(bundlePath));
+
+		_oldProperties.setProperty("asset.publisher.display.templates.config", "foo");
+		_oldProperties.setProperty("blogs.entry.max.items", "10");
+		_oldProperties.setProperty("still.here", "2");
+		_oldProperties.setProperty("unknown.key", "3");
+	}
+
+	@Test
+	public void testAnalyze() throws Exception {
+		SortedSet<PropertyProblem> problems = _propertiesAnalyzer.analyze(_oldProperties);
+
+		Assert.assertEquals(problems.toString(), 3, problems.size());
+
+		List<PropertyProblem> problemsList = new ArrayList<>(problems);
+
+		PropertyProblem removedProblem = problemsList.get(0);
+
+		Assert.assertEquals("asset.publisher.display.templates.config", removedProblem.getPropertyName());
+		Assert.assertEquals(PropertyProblemType.REMOVED, removedProblem.getType());
+
+		PropertyProblem modularizedProblem = problemsList.get(1);
+
+		Assert.assertEquals(PropertyProblemType.MODULARIZED, modularizedProblem.getType());
+		Assert.assertEquals(
+			Collections.singletonList(
+				new Pair<>("osgi/modules/com.liferay.blogs.web.jar/portlet.properties", "blogs.entry.max.items")),
+			modularizedProblem.getReplacements());
+
+		PropertyProblem missingProblem = problemsList.get(2);
+
+		Assert.assertEquals("unknown.key", missingProblem.getPropertyName());
+		Assert.assertEquals(PropertyProblemType.MISSING, missingProblem.getType());
+
+		SortedSet<String> remainingProperties = _propertiesAnalyzer.getRemainingProperties(_oldProperties);
+
+		Assert.assertEquals(Collections.singleton("still.here"), remainingProperties);
+	}
+
+	@Test
+	public void testAnalyzeConcurrently() throws Exception {
+		String expected = String.valueOf(_propertiesAnalyzer.analyze(_oldProperties));
+
+		IntStream indexes = IntStream.range(0, 100);
+
+		List<String> results = indexes.parallel(
+		).mapToObj(
+			i -> String.valueOf(_propertiesAnalyzer.analyze(_oldProperties))
+		).collect(
+			Collectors.toList()
+		);
+
+		for (String result : results) {
+			Assert.assertEquals(expected, result);
+		}
+	}
+
+	@Test
+	public void testAnalyzeSyntheticBundle() throws Exception {
+		File bundleDir = temporaryFolder.newFolder("synthetic");
+
+		Path bundlePath = bundleDir.toPath();
+
+		SyntheticBundleGenerator syntheticBundleGenerator = new SyntheticBundleGenerator(100);
+
+		syntheticBundleGenerator.generate(bundlePath);
+
+		PropertiesAnalyzer propertiesAnalyzer = new PropertiesAnalyzer(new BundleIndex(bundlePath));
+
+		Properties oldProperties = syntheticBundleGenerator.getOldProperties();
+
+		Map<PropertyProblemType, List<PropertyProblem>> problemsByType = new EnumMap<>(PropertyProblemType.class);
+
+		for (PropertyProblem problem : propertiesAnalyzer.analyze(oldProperties)) {
+			List<PropertyProblem> problems = problemsByType.computeIfAbsent(problem.getType(), k -> new ArrayList<>());
+
+			problems.add(problem);
+
+			List<Pair<String, String>> replacements = problem.getReplacements();
+
+			if (replacements != null) {
+				Assert.assertEquals(problem.toString(), 1, replacements.size());
+			}
+		}
+
+		Assert.assertEquals(100, problemsByType.get(PropertyProblemType.MODULARIZED).size());
+		Assert.assertEquals(100, problemsByType.get(PropertyProblemType.OSGI).size());
+		Assert.assertEquals(10, problemsByType.get(PropertyProblemType.MISSING).size());
+
+		SortedSet<String> remainingProperties = propertiesAnalyzer.getRemainingProperties(oldProperties);
+
+		Assert.assertEquals(100, remainingProperties.size());
+	}
+
+	@Rule
+	public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private void _createArchive(Path path, String entryName, String content) throws Exception {
+		Files.createDirectories(path.getParent());
+
+		try (ZipOutputStream zipOutputStream = new ZipOutputStream(new FileOutputStream(path.toFile()))) {
+			zipOutputStream.putNextEntry(new ZipEntry(entryName));
+
+			zipOutputStream.write(content.getBytes(StandardCharsets.UTF_8));
+
+			zipOutputStream.closeEntry();
+		}
+	}
+
+	private final Properties _oldProperties = new Properties();
+	private PropertiesAnalyzer _propertiesAnalyzer;
+
+}
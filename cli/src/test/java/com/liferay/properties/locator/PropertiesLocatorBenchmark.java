@@ -0,0 +1,193 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.liferay.properties.locator;
+
+import com.liferay.blade.cli.util.FileUtil;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.Properties;
+import java.util.SortedSet;
+
+/**
+ * Measures, on a bundle from {@link SyntheticBundleGenerator}, the time that
+ * {@link BundleIndex} takes to scan the bundle, the time that
+ * {@link PropertiesAnalyzer} takes to index the keys found and to match the
+ * properties of a previous version against them, and the peak heap used by
+ * both. The bundle cache is not used, so every iteration reads every archive.
+ *
+ * <p>
+ * Run it with
+ * <code>gradlew :cli:benchmarkPropertiesLocator -PbenchmarkModules=5000</code>.
+ * The arguments are the number of modules, 1000 by default, and the number of
+ * measured iterations, 5 by default, which the task reads from the
+ * <code>benchmarkModules</code> and <code>benchmarkIterations</code>
+ * properties.
+ * </p>
+ *
+ * <p>
+ * The peak heap is the sum of the peak usage of each heap memory pool since
+ * the start of the iteration, so it is an upper bound of the actual peak.
+ * </p>
+ *
+ * @author Gregory Amerson
+ */
+public class PropertiesLocatorBenchmark {
+
+	public static void main(String[] args) throws Exception {
+		int modules = _getArgument(args, 0, 1000);
+		int iterations = _getArgument(args, 1, 5);
+
+		Path bundlePath = Files.createTempDirectory("synthetic-bundle");
+
+		try {
+			SyntheticBundleGenerator syntheticBundleGenerator = new SyntheticBundleGenerator(modules);
+
+			long start = System.nanoTime();
+
+			syntheticBundleGenerator.generate(bundlePath);
+
+			System.out.println(
+				"Generated a bundle with " + modules + " modules in " + _toMillis(System.nanoTime() - start) +
+					" ms");
+
+			Properties oldProperties = syntheticBundleGenerator.getOldProperties();
+
+			System.out.println("Analyzing " + oldProperties.size() + " properties");
+			System.out.println();
+			System.out.println("Iteration\tScan (ms)\tMatch (ms)\tPeak heap (MB)\tProblems");
+
+			long totalMatchTime = 0;
+			long totalPeakHeapUsage = 0;
+			long totalScanTime = 0;
+
+			for (int i = -_WARMUP_ITERATIONS; i < iterations; i++) {
+				Result result = _run(bundlePath, oldProperties);
+
+				String iteration = String.valueOf(i + 1);
+
+				if (i < 0) {
+					iteration = "warmup";
+				}
+				else {
+					totalMatchTime += result._matchTime;
+					totalPeakHeapUsage += result._peakHeapUsage;
+					totalScanTime += result._scanTime;
+				}
+
+				System.out.println(
+					iteration + "\t\t" + _toMillis(result._scanTime) + "\t\t" + _toMillis(result._matchTime) + "\t\t" +
+						_toMegabytes(result._peakHeapUsage) + "\t\t" + result._problems);
+			}
+
+			if (iterations > 0) {
+				System.out.println(
+					"average\t\t" + _toMillis(totalScanTime / iterations) + "\t\t" +
+						_toMillis(totalMatchTime / iterations) + "\t\t" +
+							_toMegabytes(totalPeakHeapUsage / iterations));
+			}
+		}
+		finally {
+			FileUtil.deleteDir(bundlePath);
+		}
+	}
+
+	private static int _getArgument(String[] args, int index, int defaultValue) {
+		if (args.length > index) {
+			return Integer.parseInt(args[index]);
+		}
+
+		return defaultValue;
+	}
+
+	private static long _getPeakHeapUsage() {
+		long peakHeapUsage = 0;
+
+		for (MemoryPoolMXBean memoryPoolMXBean : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (memoryPoolMXBean.getType() == MemoryType.HEAP) {
+				MemoryUsage memoryUsage = memoryPoolMXBean.getPeakUsage();
+
+				peakHeapUsage += memoryUsage.getUsed();
+			}
+		}
+
+		return peakHeapUsage;
+	}
+
+	private static void _resetPeakHeapUsage() {
+		System.gc();
+
+		for (MemoryPoolMXBean memoryPoolMXBean : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (memoryPoolMXBean.getType() == MemoryType.HEAP) {
+				memoryPoolMXBean.resetPeakUsage();
+			}
+		}
+	}
+
+	private static Result _run(Path bundlePath, Properties oldProperties) throws Exception {
+		_resetPeakHeapUsage();
+
+		long start = System.nanoTime();
+
+		BundleIndex bundleIndex = new BundleIndex(bundlePath);
+
+		long scanTime = System.nanoTime() - start;
+
+		start = System.nanoTime();
+
+		PropertiesAnalyzer propertiesAnalyzer = new PropertiesAnalyzer(bundleIndex);
+
+		SortedSet<PropertyProblem> problems = propertiesAnalyzer.analyze(oldProperties);
+
+		long matchTime = System.nanoTime() - start;
+
+		return new Result(scanTime, matchTime, _getPeakHeapUsage(), problems.size());
+	}
+
+	private static long _toMegabytes(long bytes) {
+		return bytes / (1024 * 1024);
+	}
+
+	private static long _toMillis(long nanos) {
+		return nanos / 1000000;
+	}
+
+	private static final int _WARMUP_ITERATIONS = 2;
+
+	private static class Result {
+
+		public Result(long scanTime, long matchTime, long peakHeapUsage, int problems) {
+			_scanTime = scanTime;
+			_matchTime = matchTime;
+			_peakHeapUsage = peakHeapUsage;
+			_problems = problems;
+		}
+
+		private final long _matchTime;
+		private final long _peakHeapUsage;
+		private final int _problems;
+		private final long _scanTime;
+
+	}
+
+}
@@ -22,6 +22,9 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 import java.util.SortedSet;
 
 import org.junit.Assert;
@@ -76,6 +79,64 @@ public class PropertiesLocatorTest {
 		Assert.assertEquals(problems.toString(), 658, problems.size());
 	}
 
+	@Test
+	public void testPropertiesLocatorBatch() throws Exception {
+		File outputDir = new File(_buildDir, "batchProperties");
+
+		PropertiesLocatorArgs args = new PropertiesLocatorArgs();
+
+		File originalPropertiesFile = new File("test-resources/originalProperties.properties");
+		File portalPropertiesFile = new File("test-resources/6.2-fix-pack-131/portal.properties");
+
+		args.setBundleDir(_liferayHome);
+		args.setOutputFile(outputDir);
+		args.setPropertiesFiles(Arrays.asList(originalPropertiesFile, portalPropertiesFile));
+
+		PropertiesLocator propertiesLocator = new PropertiesLocator(args);
+
+		Map<File, SortedSet<PropertyProblem>> problemsByPropertiesFile =
+			propertiesLocator.getProblemsByPropertiesFile();
+
+		Assert.assertEquals(problemsByPropertiesFile.toString(), 2, problemsByPropertiesFile.size());
+
+		SortedSet<PropertyProblem> problems = problemsByPropertiesFile.get(portalPropertiesFile);
+
+		Assert.assertEquals(problems.toString(), 658, problems.size());
+
+		Assert.assertTrue(new File(outputDir, "originalProperties.txt").exists());
+		Assert.assertTrue(new File(outputDir, "portal.txt").exists());
+
+		List<String> lines = Files.readAllLines(new File(outputDir, "summary.txt").toPath());
+
+		Assert.assertTrue(lines.contains("\t\t" + portalPropertiesFile.getPath()));
+	}
+
+	@Test
+	public void testPropertiesLocatorJSONFormat() throws Exception {
+		File outputFile = new File(_buildDir, "testProperties.json");
+
+		PropertiesLocatorArgs args = new PropertiesLocatorArgs();
+
+		args.setBundleDir(_liferayHome);
+		args.setFormat(ReportFormat.JSON);
+		args.setOutputFile(outputFile);
+		args.setPropertiesFile(new File("test-resources/6.2-fix-pack-131/portal.properties"));
+
+		PropertiesLocator propertiesLocator = new PropertiesLocator(args);
+
+		SortedSet<PropertyProblem> problems = propertiesLocator.getProblems();
+
+		Assert.assertEquals(problems.toString(), 658, problems.size());
+
+		List<String> lines = Files.readAllLines(outputFile.toPath());
+
+		Assert.assertFalse(lines.isEmpty());
+
+		for (String line : lines) {
+			Assert.assertTrue(line, line.startsWith("{\"property\":") && line.endsWith("}"));
+		}
+	}
+
 	@Test
 	public void testPropertiesLocatorOutputFile() throws Exception {
 		String version = System.getProperty("java.specification.version");
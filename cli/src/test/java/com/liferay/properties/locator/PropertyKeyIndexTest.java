@@ -0,0 +1,59 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.liferay.properties.locator;
+
+import com.liferay.blade.cli.util.Pair;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author Gregory Amerson
+ */
+public class PropertyKeyIndexTest {
+
+	@Test
+	public void testGetMatches() throws Exception {
+		List<Pair<String, String[]>> keys = Arrays.asList(
+			new Pair<>("com/liferay/blogs/BlogsConfiguration", new String[] {"entryMaxItems", "displayStyle"}),
+			new Pair<>("com.liferay.wiki.web.jar/portlet.properties", new String[] {"wiki.page.max.items"}));
+
+		PropertyKeyIndex propertyKeyIndex = new PropertyKeyIndex(keys);
+
+		List<PropertyKeyIndex.Match> matches = propertyKeyIndex.getMatches(new String[] {"max", "items", "page"});
+
+		Assert.assertEquals(2, matches.size());
+
+		PropertyKeyIndex.Match match = matches.get(0);
+
+		Assert.assertEquals("entryMaxItems", match.getKey());
+		Assert.assertEquals(2, match.getOccurrences());
+
+		match = matches.get(1);
+
+		Assert.assertEquals("wiki.page.max.items", match.getKey());
+		Assert.assertEquals(3, match.getOccurrences());
+
+		matches = propertyKeyIndex.getMatches(new String[] {"journal"});
+
+		Assert.assertTrue(matches.isEmpty());
+	}
+
+}
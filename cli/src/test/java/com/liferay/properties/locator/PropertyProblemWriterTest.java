@@ -0,0 +1,85 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.liferay.properties.locator;
+
+import com.liferay.blade.cli.util.Pair;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author Gregory Amerson
+ */
+public class PropertyProblemWriterTest {
+
+	@Test
+	public void testCSVPropertyProblemWriter() throws Exception {
+		StringWriter stringWriter = new StringWriter();
+
+		try (PropertyProblemWriter propertyProblemWriter = new CSVPropertyProblemWriter(
+				new PrintWriter(stringWriter))) {
+
+			propertyProblemWriter.write(_osgiProblem);
+			propertyProblemWriter.write(_removedProblem);
+		}
+
+		String expected =
+			"property,type,source,replacement,message\n" +
+				"foo.bar.max,osgi,com.liferay.foo.Configuration,maxItems,\"Max, \"\"per\"\" page\"\n" +
+					"foo.bar.max,osgi,com.liferay.bar.Configuration,max,\"Max, \"\"per\"\" page\"\n" +
+						"foo.baz,removed,,,No replacement\n";
+
+		String output = stringWriter.toString();
+
+		Assert.assertEquals(expected, output.replaceAll("\\r", ""));
+	}
+
+	@Test
+	public void testJSONPropertyProblemWriter() throws Exception {
+		StringWriter stringWriter = new StringWriter();
+
+		try (PropertyProblemWriter propertyProblemWriter = new JSONPropertyProblemWriter(
+				new PrintWriter(stringWriter))) {
+
+			propertyProblemWriter.write(_osgiProblem);
+			propertyProblemWriter.write(_removedProblem);
+		}
+
+		String expected =
+			"{\"property\":\"foo.bar.max\",\"type\":\"osgi\",\"message\":\"Max, \\\"per\\\" page\"," +
+				"\"replacements\":[{\"source\":\"com.liferay.foo.Configuration\",\"property\":\"maxItems\"}," +
+					"{\"source\":\"com.liferay.bar.Configuration\",\"property\":\"max\"}]}\n" +
+						"{\"property\":\"foo.baz\",\"type\":\"removed\",\"message\":\"No replacement\"}\n";
+
+		String output = stringWriter.toString();
+
+		Assert.assertEquals(expected, output.replaceAll("\\r", ""));
+	}
+
+	private final PropertyProblem _osgiProblem = new PropertyProblem(
+		"foo.bar.max", PropertyProblemType.OSGI, "Max, \"per\" page",
+		Arrays.asList(
+			new Pair<>("com.liferay.foo.Configuration", "maxItems"),
+			new Pair<>("com.liferay.bar.Configuration", "max")));
+	private final PropertyProblem _removedProblem = new PropertyProblem(
+		"foo.baz", PropertyProblemType.REMOVED, "No replacement", null);
+
+}
@@ -0,0 +1,353 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.liferay.properties.locator;
+
+import com.liferay.blade.cli.util.StringPool;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.objectweb.asm.AnnotationVisitor;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+/**
+ * Generates the layout of a Liferay bundle that {@link BundleIndex} scans,
+ * without the multi-GB download of a real one: a <code>portal-impl.jar</code>
+ * with a portal.properties file, module jars in <code>osgi/modules</code>
+ * with a portlet.properties file and a configuration interface whose methods
+ * carry the <code>Meta.AD</code> annotation, and lpkgs in
+ * <code>osgi/marketplace</code> that store some of the module jars.
+ *
+ * <p>
+ * Every module has its own portlet name, so that each property of
+ * {@link #getOldProperties()} has exactly one replacement. The bundle for a
+ * given number of modules is always the same.
+ * </p>
+ *
+ * @author Gregory Amerson
+ */
+public class SyntheticBundleGenerator {
+
+	public SyntheticBundleGenerator(int modules) {
+		if ((modules < 1) || (modules > 9999)) {
+			throw new IllegalArgumentException("The number of modules must be between 1 and 9999");
+		}
+
+		_modules = modules;
+	}
+
+	public void generate(Path bundlePath) throws IOException {
+		Properties portalProperties = new Properties();
+
+		for (int i = 0; i < _modules; i++) {
+			portalProperties.setProperty(_getPortalPropertyName(i), "true");
+		}
+
+		Path portalImplPath = bundlePath.resolve("tomcat/webapps/ROOT/WEB-INF/lib/portal-impl.jar");
+
+		Map<String, byte[]> portalImplEntries = new LinkedHashMap<>();
+
+		portalImplEntries.put("portal.properties", _toBytes(portalProperties));
+
+		_writeArchive(portalImplPath, portalImplEntries, ZipEntry.DEFLATED);
+
+		Map<String, byte[]> lpkgEntries = new LinkedHashMap<>();
+
+		int lpkgs = 0;
+
+		for (int i = 0; i < _modules; i++) {
+			String jarName = "com.liferay." + _getPortletName(i) + ".web.jar";
+
+			byte[] bytes = _toBytes(_getModuleEntries(i), ZipEntry.DEFLATED);
+
+			if ((i % _LPKG_MODULES_INTERVAL) == 0) {
+				lpkgEntries.put(jarName, bytes);
+
+				if (lpkgEntries.size() == _LPKG_SIZE) {
+					_writeLpkg(bundlePath, lpkgs++, lpkgEntries);
+
+					lpkgEntries.clear();
+				}
+			}
+			else {
+				Path jarPath = bundlePath.resolve("osgi/modules/" + jarName);
+
+				Files.createDirectories(jarPath.getParent());
+
+				Files.write(jarPath, bytes);
+			}
+		}
+
+		if (!lpkgEntries.isEmpty()) {
+			_writeLpkg(bundlePath, lpkgs, lpkgEntries);
+		}
+	}
+
+	/**
+	 * Returns properties of a previous version to analyze against the bundle:
+	 * one that has moved to the portlet.properties file and one that has moved
+	 * to the configuration interface of each module, one that remains in
+	 * portal.properties for each module, and one that was removed for every
+	 * tenth module.
+	 */
+	public Properties getOldProperties() {
+		Properties properties = new Properties();
+
+		for (int i = 0; i < _modules; i++) {
+			String portletName = _getPortletName(i);
+
+			properties.setProperty(_getPortalPropertyName(i), "false");
+			properties.setProperty(portletName + StringPool.PERIOD + _getPortletPropertyWords(i, 0), "1");
+			properties.setProperty(portletName + StringPool.PERIOD + _getConfigurationFieldWords(i, 0), "2");
+
+			if ((i % 10) == 0) {
+				properties.setProperty("legacy" + portletName + ".removed.feature.enabled", "true");
+			}
+		}
+
+		return properties;
+	}
+
+	private static String _getConfigurationFieldWords(int module, int field) {
+		return _getWords(_CONFIGURATION_WORDS, module, field);
+	}
+
+	private static Map<String, byte[]> _getModuleEntries(int module) throws IOException {
+		String portletName = _getPortletName(module);
+
+		String packageName = "com/liferay/" + portletName + "/web";
+
+		Map<String, byte[]> entries = new LinkedHashMap<>();
+
+		entries.put("META-INF/MANIFEST.MF", "Manifest-Version: 1.0\n".getBytes(StandardCharsets.UTF_8));
+
+		for (int i = 0; i < _CLASSES_PER_MODULE; i++) {
+			String className = packageName + "/internal/portlet/action/Synthetic" + i + "MVCActionCommand";
+
+			entries.put(className + ".class", _writeClass(className));
+		}
+
+		List<String> fields = new ArrayList<>();
+
+		for (int i = 0; i < _PROPERTIES_PER_MODULE; i++) {
+			fields.add(_toCamelCase(_getConfigurationFieldWords(module, i), false));
+		}
+
+		String configurationClassName =
+			packageName + "/configuration/" + _toCamelCase(portletName, true) + "WebConfiguration";
+
+		entries.put(configurationClassName + ".class", _writeConfigurationInterface(configurationClassName, fields));
+
+		Properties portletProperties = new Properties();
+
+		for (int i = 0; i < _PROPERTIES_PER_MODULE; i++) {
+			portletProperties.setProperty(portletName + StringPool.PERIOD + _getPortletPropertyWords(module, i), "1");
+		}
+
+		entries.put("portlet.properties", _toBytes(portletProperties));
+
+		return entries;
+	}
+
+	private static String _getPortalPropertyName(int module) {
+		return "portal.setting" + module + ".enabled";
+	}
+
+	private static String _getPortletName(int module) {
+		return String.format("synthetic%04d", module);
+	}
+
+	private static String _getPortletPropertyWords(int module, int property) {
+		return _getWords(_PORTLET_WORDS, module, property);
+	}
+
+	/**
+	 * Returns three different words, so that the properties of a module never
+	 * share all of their words.
+	 */
+	private static String _getWords(String[] words, int module, int index) {
+		int first = (module + index) % words.length;
+		int second = (first + 1 + (index % (words.length - 2))) % words.length;
+		int third = (second + 1 + (index / (words.length - 2))) % words.length;
+
+		if (third == first) {
+			third = (third + 1) % words.length;
+		}
+
+		return words[first] + StringPool.PERIOD + words[second] + StringPool.PERIOD + words[third];
+	}
+
+	private static byte[] _toBytes(Map<String, byte[]> entries, int method) throws IOException {
+		ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+
+		try (ZipOutputStream zipOutputStream = new ZipOutputStream(byteArrayOutputStream)) {
+			_writeEntries(zipOutputStream, entries, method);
+		}
+
+		return byteArrayOutputStream.toByteArray();
+	}
+
+	private static byte[] _toBytes(Properties properties) throws IOException {
+		ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+
+		properties.store(byteArrayOutputStream, null);
+
+		return byteArrayOutputStream.toByteArray();
+	}
+
+	private static String _toCamelCase(String words, boolean capitalize) {
+		StringBuilder sb = new StringBuilder();
+
+		for (String word : words.split("\\.")) {
+			if (capitalize) {
+				sb.append(Character.toUpperCase(word.charAt(0)));
+				sb.append(word.substring(1));
+			}
+			else {
+				sb.append(word);
+			}
+
+			capitalize = true;
+		}
+
+		return sb.toString();
+	}
+
+	private static void _writeArchive(Path path, Map<String, byte[]> entries, int method) throws IOException {
+		Files.createDirectories(path.getParent());
+
+		try (OutputStream outputStream = Files.newOutputStream(path);
+			ZipOutputStream zipOutputStream = new ZipOutputStream(outputStream)) {
+
+			_writeEntries(zipOutputStream, entries, method);
+		}
+	}
+
+	private static byte[] _writeClass(String className) {
+		ClassWriter classWriter = new ClassWriter(0);
+
+		classWriter.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC, className, null, "java/lang/Object", null);
+
+		classWriter.visitEnd();
+
+		return classWriter.toByteArray();
+	}
+
+	private static byte[] _writeConfigurationInterface(String className, List<String> fields) {
+		ClassWriter classWriter = new ClassWriter(0);
+
+		classWriter.visit(
+			Opcodes.V1_8, Opcodes.ACC_PUBLIC | Opcodes.ACC_ABSTRACT | Opcodes.ACC_INTERFACE, className, null,
+			"java/lang/Object", null);
+
+		AnnotationVisitor annotationVisitor = classWriter.visitAnnotation(_META_OCD_DESCRIPTOR, true);
+
+		annotationVisitor.visit("id", className.replace('/', '.'));
+
+		annotationVisitor.visitEnd();
+
+		for (String field : fields) {
+			MethodVisitor methodVisitor = classWriter.visitMethod(
+				Opcodes.ACC_PUBLIC | Opcodes.ACC_ABSTRACT, field, "()Ljava/lang/String;", null, null);
+
+			annotationVisitor = methodVisitor.visitAnnotation(_META_AD_DESCRIPTOR, true);
+
+			annotationVisitor.visit("deflt", field);
+
+			annotationVisitor.visitEnd();
+
+			methodVisitor.visitEnd();
+		}
+
+		classWriter.visitEnd();
+
+		return classWriter.toByteArray();
+	}
+
+	private static void _writeEntries(ZipOutputStream zipOutputStream, Map<String, byte[]> entries, int method)
+		throws IOException {
+
+		for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+			byte[] bytes = entry.getValue();
+
+			ZipEntry zipEntry = new ZipEntry(entry.getKey());
+
+			zipEntry.setMethod(method);
+
+			if (method == ZipEntry.STORED) {
+				CRC32 crc32 = new CRC32();
+
+				crc32.update(bytes);
+
+				zipEntry.setCompressedSize(bytes.length);
+				zipEntry.setCrc(crc32.getValue());
+				zipEntry.setSize(bytes.length);
+			}
+
+			zipOutputStream.putNextEntry(zipEntry);
+
+			zipOutputStream.write(bytes);
+
+			zipOutputStream.closeEntry();
+		}
+	}
+
+	private static void _writeLpkg(Path bundlePath, int lpkg, Map<String, byte[]> entries) throws IOException {
+		Path lpkgPath = bundlePath.resolve("osgi/marketplace/Liferay Synthetic " + lpkg + ".lpkg");
+
+		_writeArchive(lpkgPath, entries, ZipEntry.STORED);
+	}
+
+	private static final int _CLASSES_PER_MODULE = 20;
+
+	private static final String[] _CONFIGURATION_WORDS = {
+		"cache", "column", "container", "default", "filter", "order", "search", "style", "template", "type", "view"
+	};
+
+	private static final int _LPKG_MODULES_INTERVAL = 4;
+
+	private static final int _LPKG_SIZE = 25;
+
+	private static final String _META_AD_DESCRIPTOR = "LaQute/bnd/annotation/metatype/Meta$AD;";
+
+	private static final String _META_OCD_DESCRIPTOR = "LaQute/bnd/annotation/metatype/Meta$OCD;";
+
+	private static final String[] _PORTLET_WORDS = {
+		"abstract", "delta", "display", "enabled", "entry", "feed", "items", "length", "max", "page", "rss", "size"
+	};
+
+	private static final int _PROPERTIES_PER_MODULE = 10;
+
+	private final int _modules;
+
+}
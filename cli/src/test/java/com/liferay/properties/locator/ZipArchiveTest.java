@@ -0,0 +1,117 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.liferay.properties.locator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+
+import java.nio.charset.StandardCharsets;
+
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * @author Gregory Amerson
+ */
+public class ZipArchiveTest {
+
+	@Test
+	public void testReadNestedArchives() throws Exception {
+		byte[] jarBytes = _createJar();
+
+		File lpkgFile = temporaryFolder.newFile("Liferay Foo.lpkg");
+
+		try (ZipOutputStream zipOutputStream = new ZipOutputStream(new FileOutputStream(lpkgFile))) {
+			ZipEntry storedEntry = new ZipEntry("com.liferay.foo.stored.jar");
+
+			CRC32 crc32 = new CRC32();
+
+			crc32.update(jarBytes);
+
+			storedEntry.setCompressedSize(jarBytes.length);
+			storedEntry.setCrc(crc32.getValue());
+			storedEntry.setMethod(ZipEntry.STORED);
+			storedEntry.setSize(jarBytes.length);
+
+			zipOutputStream.putNextEntry(storedEntry);
+
+			zipOutputStream.write(jarBytes);
+
+			zipOutputStream.closeEntry();
+
+			zipOutputStream.putNextEntry(new ZipEntry("com.liferay.foo.deflated.jar"));
+
+			zipOutputStream.write(jarBytes);
+
+			zipOutputStream.closeEntry();
+		}
+
+		try (ZipArchive lpkgArchive = ZipArchive.open(lpkgFile.toPath())) {
+			List<ZipArchive.Entry> lpkgEntries = lpkgArchive.getEntries();
+
+			Assert.assertEquals(2, lpkgEntries.size());
+
+			for (ZipArchive.Entry lpkgEntry : lpkgEntries) {
+				ZipArchive jarArchive = lpkgArchive.getNestedArchive(lpkgEntry);
+
+				List<ZipArchive.Entry> jarEntries = jarArchive.getEntries();
+
+				Assert.assertEquals(lpkgEntry.getName(), 2, jarEntries.size());
+
+				ZipArchive.Entry jarEntry = jarEntries.get(1);
+
+				Assert.assertEquals("portlet.properties", jarEntry.getName());
+
+				byte[] bytes = jarArchive.getBytes(jarEntry);
+
+				Assert.assertEquals("foo.max.items=1", new String(bytes, StandardCharsets.UTF_8));
+			}
+		}
+	}
+
+	@Rule
+	public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private byte[] _createJar() throws Exception {
+		ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+
+		try (ZipOutputStream zipOutputStream = new ZipOutputStream(byteArrayOutputStream)) {
+			zipOutputStream.putNextEntry(new ZipEntry("com/liferay/foo/FooConfiguration.class"));
+
+			zipOutputStream.write(new byte[1000]);
+
+			zipOutputStream.closeEntry();
+
+			zipOutputStream.putNextEntry(new ZipEntry("portlet.properties"));
+
+			zipOutputStream.write("foo.max.items=1".getBytes(StandardCharsets.UTF_8));
+
+			zipOutputStream.closeEntry();
+		}
+
+		return byteArrayOutputStream.toByteArray();
+	}
+
+}
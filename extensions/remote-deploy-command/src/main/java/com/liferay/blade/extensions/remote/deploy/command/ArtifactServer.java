@@ -0,0 +1,125 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.liferay.blade.extensions.remote.deploy.command;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URISyntaxException;
+
+import java.nio.file.Files;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Serves the deployed files over HTTP, so that a node on another host can
+ * install them from a URL instead of from a path on this machine. Each file
+ * is only served under a random path for as long as the server is open.
+ *
+ * @author Gregory Amerson
+ */
+class ArtifactServer implements AutoCloseable {
+
+	public ArtifactServer() throws IOException {
+		_httpServer = HttpServer.create(new InetSocketAddress(0), 0);
+
+		_executorService = Executors.newCachedThreadPool(
+			runnable -> {
+				Thread thread = new Thread(runnable, "blade-artifact-server");
+
+				thread.setDaemon(true);
+
+				return thread;
+			});
+
+		_httpServer.createContext("/", this::_handle);
+		_httpServer.setExecutor(_executorService);
+
+		_httpServer.start();
+	}
+
+	@Override
+	public void close() {
+		_httpServer.stop(0);
+
+		_executorService.shutdownNow();
+	}
+
+	/**
+	 * Returns the URL of the file at an address of this machine, which must be
+	 * one that the node installing the file can connect to.
+	 */
+	public URI getURI(File file, InetAddress address) throws URISyntaxException {
+		String path = _paths.computeIfAbsent(file, key -> "/" + UUID.randomUUID() + "/" + key.getName());
+
+		_files.put(path, file);
+
+		String host = address.getHostAddress();
+
+		int index = host.indexOf('%');
+
+		if (index != -1) {
+			host = host.substring(0, index);
+		}
+
+		InetSocketAddress inetSocketAddress = _httpServer.getAddress();
+
+		return new URI("http", null, host, inetSocketAddress.getPort(), path, null, null);
+	}
+
+	private void _handle(HttpExchange httpExchange) throws IOException {
+		try {
+			URI requestURI = httpExchange.getRequestURI();
+
+			File file = _files.get(requestURI.getPath());
+
+			String requestMethod = httpExchange.getRequestMethod();
+
+			if ((file == null) || !requestMethod.equals("GET") || !file.isFile()) {
+				httpExchange.sendResponseHeaders(404, -1);
+
+				return;
+			}
+
+			httpExchange.sendResponseHeaders(200, file.length());
+
+			try (OutputStream outputStream = httpExchange.getResponseBody()) {
+				Files.copy(file.toPath(), outputStream);
+			}
+		}
+		finally {
+			httpExchange.close();
+		}
+	}
+
+	private final ExecutorService _executorService;
+	private final Map<String, File> _files = new ConcurrentHashMap<>();
+	private final HttpServer _httpServer;
+	private final Map<File, String> _paths = new ConcurrentHashMap<>();
+
+}
@@ -0,0 +1,201 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.liferay.blade.extensions.remote.deploy.command;
+
+import java.io.IOException;
+import java.io.PrintStream;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Records when each bundle of a deploy reaches each {@link Phase}, as
+ * milliseconds since the deploy started, and reports them as a table or as
+ * JSON lines.
+ *
+ * @author Gregory Amerson
+ */
+public class DeployTimeline {
+
+	public DeployTimeline(String deployer, String node, long start) {
+		_deployer = deployer;
+		_node = node;
+		_start = start;
+	}
+
+	public synchronized void append(Path historyPath) throws IOException {
+		if (_bundles.isEmpty()) {
+			return;
+		}
+
+		List<String> lines = new ArrayList<>();
+
+		for (Map.Entry<String, Map<Phase, Long>> entry : _bundles.entrySet()) {
+			StringBuilder sb = new StringBuilder();
+
+			sb.append("{\"time\":");
+			sb.append(_start);
+			sb.append(",\"deployer\":\"");
+			sb.append(_escape(_deployer));
+			sb.append("\",\"node\":\"");
+			sb.append(_escape(_node));
+			sb.append("\",\"bundle\":\"");
+			sb.append(_escape(entry.getKey()));
+			sb.append("\"");
+
+			Map<Phase, Long> phases = entry.getValue();
+
+			for (Map.Entry<Phase, Long> phase : phases.entrySet()) {
+				sb.append(",\"");
+				sb.append(_getLabel(phase.getKey()));
+				sb.append("\":");
+				sb.append(phase.getValue());
+			}
+
+			sb.append("}");
+
+			lines.add(sb.toString());
+		}
+
+		Files.createDirectories(historyPath.getParent());
+
+		Files.write(
+			historyPath, lines, StandardCharsets.UTF_8, StandardOpenOption.APPEND, StandardOpenOption.CREATE);
+	}
+
+	/**
+	 * Records the current time for the phase of the bundle.
+	 */
+	public void mark(String bsn, Phase phase) {
+		mark(bsn, phase, System.currentTimeMillis());
+	}
+
+	public synchronized void mark(String bsn, Phase phase, long time) {
+		Map<Phase, Long> phases = _bundles.computeIfAbsent(bsn, key -> new EnumMap<>(_sharedPhases));
+
+		phases.put(phase, time - _start);
+	}
+
+	/**
+	 * Records the time for the phase of every bundle in the deploy, including
+	 * bundles that are marked later, for steps like the build that apply to
+	 * the whole deploy.
+	 */
+	public synchronized void markAll(Phase phase, long time) {
+		_sharedPhases.put(phase, time - _start);
+
+		Collection<Map<Phase, Long>> values = _bundles.values();
+
+		for (Map<Phase, Long> phases : values) {
+			phases.put(phase, time - _start);
+		}
+	}
+
+	public synchronized void print(PrintStream printStream) {
+		if (_bundles.isEmpty()) {
+			return;
+		}
+
+		int width = "Bundle".length();
+
+		for (String bsn : _bundles.keySet()) {
+			width = Math.max(width, bsn.length());
+		}
+
+		String format = "%-" + width + "s";
+
+		StringBuilder sb = new StringBuilder();
+
+		sb.append(String.format(format, "Bundle"));
+
+		for (Phase phase : Phase.values()) {
+			sb.append(String.format("%9s", _getLabel(phase)));
+		}
+
+		printStream.println(sb);
+
+		for (Map.Entry<String, Map<Phase, Long>> entry : _bundles.entrySet()) {
+			sb.setLength(0);
+
+			sb.append(String.format(format, entry.getKey()));
+
+			Map<Phase, Long> phases = entry.getValue();
+
+			for (Phase phase : Phase.values()) {
+				Long time = phases.get(phase);
+
+				if (time == null) {
+					sb.append(String.format("%9s", "-"));
+				}
+				else {
+					sb.append(String.format("%9d", time));
+				}
+			}
+
+			printStream.println(sb);
+		}
+	}
+
+	private static String _escape(String value) {
+		StringBuilder sb = new StringBuilder(value.length());
+
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+
+			if ((c == '"') || (c == '\\')) {
+				sb.append('\\');
+				sb.append(c);
+			}
+			else if (c < ' ') {
+				sb.append(String.format("\\u%04x", (int)c));
+			}
+			else {
+				sb.append(c);
+			}
+		}
+
+		return sb.toString();
+	}
+
+	private static String _getLabel(Phase phase) {
+		String name = phase.name();
+
+		return name.toLowerCase();
+	}
+
+	private final Map<String, Map<Phase, Long>> _bundles = new LinkedHashMap<>();
+	private final String _deployer;
+	private final String _node;
+	private final Map<Phase, Long> _sharedPhases = new EnumMap<>(Phase.class);
+	private final long _start;
+
+	public enum Phase {
+
+		BUILD, CONNECT, DEPLOY, REFRESH, START, ACTIVE
+
+	}
+
+}
@@ -21,6 +21,9 @@ import com.beust.jcommander.Parameters;
 
 import com.liferay.blade.cli.command.BaseArgs;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * @author Gregory Amerson
  */
@@ -30,10 +33,71 @@ import com.liferay.blade.cli.command.BaseArgs;
 )
 public class RemoteDeployArgs extends BaseArgs {
 
+	public int getCommandTimeout() {
+		return _commandTimeout;
+	}
+
+	public List<String> getHosts() {
+		return _hosts;
+	}
+
+	public int getJmxPort() {
+		return _jmxPort;
+	}
+
+	public boolean isForce() {
+		return _force;
+	}
+
+	public boolean isJmx() {
+		return _jmx;
+	}
+
+	public boolean isWaitActive() {
+		return _waitActive;
+	}
+
 	public boolean isWatch() {
 		return _watch;
 	}
 
+	@Parameter(
+		description = "The maximum number of seconds to wait for a gogo shell command such as install or refresh. " +
+			"By default there is no limit.",
+		names = "--command-timeout"
+	)
+	private int _commandTimeout;
+
+	@Parameter(
+		description = "Deploys all bundles, even those that have not changed since the last deploy.", names = "--force"
+	)
+	private boolean _force;
+
+	@Parameter(
+		description = "The host:port of a gogo shell to deploy to, with an IPv6 address in brackets as in " +
+			"[::1]:11311. Repeat to deploy to several nodes at the same time. Nodes on other hosts download the " +
+				"deployed files over HTTP from this machine, so they must be able to connect back to it.",
+		names = "--host"
+	)
+	private List<String> _hosts = new ArrayList<>();
+
+	@Parameter(
+		description = "Deploys through the OSGi framework JMX MBeans instead of the gogo shell", names = "--jmx"
+	)
+	private boolean _jmx;
+
+	@Parameter(
+		description = "The JMX port to use with --jmx. If not set, local JVMs are searched for the OSGi framework.",
+		names = "--jmx-port"
+	)
+	private int _jmxPort;
+
+	@Parameter(
+		description = "Waits for started bundles to become active and reports how long each one took.",
+		names = "--wait-active"
+	)
+	private boolean _waitActive;
+
 	@Parameter(
 		description = "Watches the deployed file for changes and will automatically redeploy", names = {"-w", "--watch"}
 	)
@@ -21,28 +21,48 @@ import aQute.bnd.osgi.Domain;
 
 import com.liferay.blade.cli.BladeCLI;
 import com.liferay.blade.cli.LiferayBundleDeployer;
-import com.liferay.blade.cli.command.BaseArgs;
+import com.liferay.blade.cli.WorkspaceProvider;
 import com.liferay.blade.cli.command.BaseCommand;
+import com.liferay.blade.cli.gradle.GogoShellSessionManager;
 import com.liferay.blade.cli.gradle.GradleExec;
 import com.liferay.blade.cli.gradle.GradleTooling;
 import com.liferay.blade.cli.gradle.ProcessResult;
+import com.liferay.blade.cli.jmx.JMXBundleDeployer;
 import com.liferay.blade.cli.util.BladeUtil;
-import com.liferay.blade.cli.util.FileWatcher;
+import com.liferay.blade.cli.util.DeployLedger;
+import com.liferay.blade.cli.util.FileWatchService;
+import com.liferay.blade.extensions.remote.deploy.command.DeployTimeline.Phase;
 import com.liferay.blade.gradle.tooling.ProjectInfo;
 
 import java.io.File;
+import java.io.IOException;
 import java.io.PrintStream;
 
 import java.net.ConnectException;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.NetworkInterface;
 import java.net.URI;
 
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -67,40 +87,45 @@ public class RemoteDeployCommand extends BaseCommand<RemoteDeployArgs> {
 
 		File baseDir = deployArgs.getBase();
 
-		String host = "localhost";
-		int port = 11311;
+		long start = System.currentTimeMillis();
 
-		if (!BladeUtil.canConnect(host, port)) {
-			StringBuilder sb = new StringBuilder();
+		long commandTimeout = TimeUnit.SECONDS.toMillis(deployArgs.getCommandTimeout());
 
-			sb.append("Unable to connect to gogo shell on " + host + ":" + port);
-			sb.append(System.lineSeparator());
-			sb.append("Liferay may not be running, or the gogo shell may need to be enabled. ");
-			sb.append("Please see this link for more details: ");
-			sb.append("https://dev.liferay.com/en/develop/reference/");
-			sb.append("-/knowledge_base/7-1/using-the-felix-gogo-shell");
-			sb.append(System.lineSeparator());
+		try (GogoShellSessionManager gogoShellSessionManager = new GogoShellSessionManager(commandTimeout)) {
+			List<DeployNode> deployNodes = newDeployNodes(gogoShellSessionManager);
 
-			_addError(sb.toString());
+			if (deployNodes.isEmpty()) {
+				return;
+			}
 
-			PrintStream error = bladeCLI.error();
+			try {
+				Path workspacePath = _getWorkspacePath(baseDir);
 
-			ConnectException connectException = new ConnectException(sb.toString());
+				_deployLedger = new DeployLedger(workspacePath);
+				_historyPath = workspacePath.resolve(_HISTORY_FILE_NAME);
 
-			connectException.printStackTrace(error);
+				ProjectInfo projectInfo = GradleTooling.loadProjectInfo(baseDir.toPath());
 
-			return;
-		}
+				Map<String, Set<File>> projectOutputFiles = projectInfo.getProjectOutputFiles();
 
-		ProjectInfo projectInfo = GradleTooling.loadProjectInfo(baseDir.toPath());
+				if (deployArgs.isWatch()) {
+					_deployWatch(gradleExec, projectOutputFiles, deployNodes, start);
+				}
+				else {
+					_deploy(gradleExec, projectOutputFiles, deployNodes, start);
+				}
+			}
+			finally {
+				for (DeployNode deployNode : deployNodes) {
+					LiferayBundleDeployer client = deployNode.client;
 
-		Map<String, Set<File>> projectOutputFiles = projectInfo.getProjectOutputFiles();
+					client.close();
+				}
 
-		if (deployArgs.isWatch()) {
-			_deployWatch(gradleExec, projectOutputFiles, host, port);
-		}
-		else {
-			_deploy(gradleExec, projectOutputFiles, host, port);
+				if (_artifactServer != null) {
+					_artifactServer.close();
+				}
+			}
 		}
 	}
 
@@ -109,6 +134,218 @@ public class RemoteDeployCommand extends BaseCommand<RemoteDeployArgs> {
 		return RemoteDeployArgs.class;
 	}
 
+	/**
+	 * Returns one node for each --host, each with its own gogo shell session,
+	 * or the JMX node. A --host that is invalid or can not be reached is
+	 * reported and left out, so the other nodes are still deployed to. A node
+	 * on another host is given the address of this machine that it downloads
+	 * the deployed files from.
+	 */
+	List<DeployNode> newDeployNodes(GogoShellSessionManager gogoShellSessionManager) {
+		RemoteDeployArgs deployArgs = getArgs();
+
+		List<String> hosts = deployArgs.getHosts();
+
+		if (deployArgs.isJmx()) {
+			if (!hosts.isEmpty()) {
+				_addError("The --host option can not be used with --jmx");
+
+				return Collections.emptyList();
+			}
+
+			LiferayBundleDeployer client = _newJMXBundleDeployer();
+
+			if (client == null) {
+				return Collections.emptyList();
+			}
+
+			DeployNode deployNode = new DeployNode("jmx:" + deployArgs.getJmxPort(), client, "", null);
+
+			return Collections.singletonList(deployNode);
+		}
+
+		Set<String> targets = new LinkedHashSet<>();
+
+		for (String host : hosts) {
+			String target = _getTarget(host);
+
+			if (target == null) {
+				_addError(
+					"Invalid --host " + host + ", expected host:port, or [address]:port for an IPv6 address");
+			}
+			else {
+				targets.add(target);
+			}
+		}
+
+		if (hosts.isEmpty()) {
+			targets.add(_DEFAULT_HOST + ":" + _DEFAULT_PORT);
+		}
+
+		List<DeployNode> deployNodes = new ArrayList<>();
+
+		for (String target : targets) {
+			int index = target.lastIndexOf(':');
+
+			String host = target.substring(0, index);
+
+			if (host.startsWith("[")) {
+				host = host.substring(1, host.length() - 1);
+			}
+
+			int port = Integer.parseInt(target.substring(index + 1));
+
+			LiferayBundleDeployer client = _newBundleDeployer(gogoShellSessionManager, host, port);
+
+			if (client == null) {
+				continue;
+			}
+
+			InetAddress localAddress = null;
+
+			if (!_isLocalHost(host)) {
+				localAddress = _getLocalAddress(host, port);
+
+				if (localAddress == null) {
+					_addError("Unable to find an address of this machine that " + target + " can download from");
+
+					continue;
+				}
+			}
+
+			String prefix = "";
+
+			if (targets.size() > 1) {
+				prefix = "[" + target + "] ";
+			}
+
+			deployNodes.add(new DeployNode(target, client, prefix, localAddress));
+		}
+
+		return deployNodes;
+	}
+
+	/**
+	 * Returns the address of this machine that is used to reach the host, or
+	 * <code>null</code> if it has no route to the host. No packet is sent.
+	 */
+	private static InetAddress _getLocalAddress(String host, int port) {
+		try (DatagramSocket datagramSocket = new DatagramSocket()) {
+			datagramSocket.connect(InetAddress.getByName(host), port);
+
+			InetAddress localAddress = datagramSocket.getLocalAddress();
+
+			if (localAddress.isAnyLocalAddress()) {
+				return null;
+			}
+
+			return localAddress;
+		}
+		catch (IOException ioe) {
+			return null;
+		}
+	}
+
+	private static String _getStateName(int state) {
+		switch (state) {
+			case Bundle.ACTIVE:
+				return "ACTIVE";
+			case Bundle.INSTALLED:
+				return "INSTALLED";
+			case Bundle.RESOLVED:
+				return "RESOLVED";
+			case Bundle.STARTING:
+				return "STARTING";
+			case Bundle.STOPPING:
+				return "STOPPING";
+			case Bundle.UNINSTALLED:
+				return "UNINSTALLED";
+			default:
+				return "UNKNOWN";
+		}
+	}
+
+	/**
+	 * Returns the --host as host:port, adding the default port if it has
+	 * none, or <code>null</code> if it is not valid. An IPv6 address must be
+	 * enclosed in brackets, as in [::1]:11311.
+	 */
+	private static String _getTarget(String host) {
+		String address = host;
+		String port = null;
+
+		if (host.startsWith("[")) {
+			int index = host.indexOf(']');
+
+			if (index == -1) {
+				return null;
+			}
+
+			address = host.substring(0, index + 1);
+
+			String remainder = host.substring(index + 1);
+
+			if (remainder.startsWith(":")) {
+				port = remainder.substring(1);
+			}
+			else if (!remainder.isEmpty()) {
+				return null;
+			}
+		}
+		else {
+			int index = host.indexOf(':');
+
+			if (index != host.lastIndexOf(':')) {
+				return null;
+			}
+
+			if (index != -1) {
+				address = host.substring(0, index);
+				port = host.substring(index + 1);
+			}
+		}
+
+		if (address.isEmpty() || address.equals("[]")) {
+			return null;
+		}
+
+		if (port == null) {
+			return address + ":" + _DEFAULT_PORT;
+		}
+
+		try {
+			int portNumber = Integer.parseInt(port);
+
+			if ((portNumber < 1) || (portNumber > 65535)) {
+				return null;
+			}
+		}
+		catch (NumberFormatException nfe) {
+			return null;
+		}
+
+		return address + ":" + port;
+	}
+
+	private static boolean _isLocalHost(String host) {
+		try {
+			InetAddress address = InetAddress.getByName(host);
+
+			if (address.isAnyLocalAddress() || address.isLoopbackAddress()) {
+				return true;
+			}
+
+			if (NetworkInterface.getByInetAddress(address) != null) {
+				return true;
+			}
+
+			return false;
+		}
+		catch (IOException ioe) {
+			return false;
+		}
+	}
+
 	private void _addError(String msg) {
 		getBladeCLI().addErrors("deploy", Collections.singleton(msg));
 	}
@@ -117,11 +354,94 @@ public class RemoteDeployCommand extends BaseCommand<RemoteDeployArgs> {
 		getBladeCLI().addErrors(prefix, Collections.singleton(msg));
 	}
 
-	private void _deploy(GradleExec gradle, Map<String, Set<File>> projectOutputFiles, String host, int port)
+	/**
+	 * Checks which started bundles are ACTIVE, waiting for them with
+	 * --wait-active, and reports the time each bundle took to become ACTIVE
+	 * or the state it was left in.
+	 */
+	private void _awaitActive(DeployPlan deployPlan, Map<Long, Long> startTimes) {
+		DeployNode deployNode = deployPlan.deployNode;
+
+		LiferayBundleDeployer client = deployNode.client;
+
+		RemoteDeployArgs deployArgs = getArgs();
+
+		long timeout = 0;
+
+		if (deployArgs.isWaitActive()) {
+			timeout = _WAIT_ACTIVE_TIMEOUT;
+		}
+
+		try {
+			Map<Long, Long> activeTimes = client.waitForActive(startTimes.keySet(), timeout);
+
+			DeployTimeline deployTimeline = deployPlan.deployTimeline;
+			Map<Long, String> startBundles = deployPlan.startBundles;
+
+			for (Map.Entry<Long, Long> entry : startTimes.entrySet()) {
+				long id = entry.getKey();
+
+				String bsn = startBundles.get(id);
+
+				Long activeTime = activeTimes.get(id);
+
+				if (activeTime != null) {
+					deployTimeline.mark(bsn, Phase.ACTIVE, activeTime);
+
+					if (deployArgs.isWaitActive()) {
+						_out(
+							deployPlan,
+							"Bundle " + id + " " + bsn + " is ACTIVE after " + (activeTime - entry.getValue()) + "ms");
+					}
+				}
+				else if (deployArgs.isWaitActive()) {
+					BundleDTO bundle = client.getBundle(id);
+
+					String stateName = _getStateName(bundle.state);
+
+					deployPlan.failed++;
+
+					_deployLedger.remove(deployNode.name, bsn);
+
+					_addError(
+						deployNode.prefix + "Bundle " + id + " " + bsn + " is " + stateName +
+							" instead of ACTIVE after " + timeout + "ms");
+				}
+			}
+		}
+		catch (Exception e) {
+			_handleDeployException(
+				e, "Error: Unable to check whether bundles are active: " + startTimes.keySet(), deployPlan);
+		}
+	}
+
+	private FileTime _awaitStable(Path path) throws InterruptedException, IOException {
+		FileTime fileTime = Files.getLastModifiedTime(path);
+		long size = Files.size(path);
+
+		while (true) {
+			Thread.sleep(_STABLE_INTERVAL);
+
+			FileTime currentFileTime = Files.getLastModifiedTime(path);
+			long currentSize = Files.size(path);
+
+			if (currentFileTime.equals(fileTime) && (currentSize == size)) {
+				return currentFileTime;
+			}
+
+			fileTime = currentFileTime;
+			size = currentSize;
+		}
+	}
+
+	private void _deploy(
+			GradleExec gradle, Map<String, Set<File>> projectOutputFiles, List<DeployNode> deployNodes, long start)
 		throws Exception {
 
 		ProcessResult processResult = gradle.executeTask("assemble -x check");
 
+		long buildTime = System.currentTimeMillis();
+
 		int resultCode = processResult.getResultCode();
 
 		BladeCLI bladeCLI = getBladeCLI();
@@ -146,84 +466,325 @@ public class RemoteDeployCommand extends BaseCommand<RemoteDeployArgs> {
 
 		Stream<Set<File>> stream = values.stream();
 
-		stream.flatMap(
+		List<File> outputFiles = stream.flatMap(
 			files -> files.stream()
 		).filter(
 			File::exists
-		).forEach(
-			outputFile -> {
-				try {
-					_installOrUpdate(outputFile, host, port);
-				}
-				catch (Exception e) {
-					String message = e.getMessage();
+		).collect(
+			Collectors.toList()
+		);
 
-					Class<?> exceptionClass = e.getClass();
+		_deployAll(outputFiles, deployNodes, start, buildTime, true);
+	}
 
-					if (message == null) {
-						message = "DeployCommand._deploy threw " + exceptionClass.getSimpleName();
-					}
+	/**
+	 * Deploys the files to all nodes at the same time, each over its own
+	 * connection and with its own bundle index, so that a cluster takes as
+	 * long as its slowest node. With a single node its deploy timeline is
+	 * printed, otherwise a table with the result of every node.
+	 */
+	private void _deployAll(
+			Collection<File> files, List<DeployNode> deployNodes, long start, long buildTime, boolean connected)
+		throws Exception {
 
-					_addError(message);
+		BladeCLI bladeCLI = getBladeCLI();
 
-					PrintStream error = bladeCLI.error();
+		List<DeployPlan> deployPlans = new ArrayList<>();
 
-					e.printStackTrace(error);
+		if (deployNodes.size() == 1) {
+			DeployNode deployNode = deployNodes.get(0);
+
+			DeployTimeline deployTimeline = _newDeployTimeline(deployNode, start, buildTime, connected);
+
+			deployPlans.add(_deployFiles(files, deployNode, deployTimeline));
+		}
+		else {
+			ExecutorService executorService = Executors.newFixedThreadPool(deployNodes.size());
+
+			try {
+				List<Future<DeployPlan>> futures = new ArrayList<>();
+
+				for (DeployNode deployNode : deployNodes) {
+					DeployTimeline deployTimeline = _newDeployTimeline(deployNode, start, buildTime, connected);
+
+					futures.add(executorService.submit(() -> _deployFiles(files, deployNode, deployTimeline)));
+				}
+
+				for (Future<DeployPlan> future : futures) {
+					deployPlans.add(future.get());
 				}
 			}
-		);
+			finally {
+				executorService.shutdownNow();
+			}
+		}
+
+		try {
+			_deployLedger.save();
+		}
+		catch (IOException ioe) {
+			bladeCLI.error("Unable to save deploy ledger: " + ioe.getMessage());
+		}
+
+		RemoteDeployArgs deployArgs = getArgs();
+
+		for (DeployPlan deployPlan : deployPlans) {
+			DeployTimeline deployTimeline = deployPlan.deployTimeline;
+
+			if (!deployArgs.isQuiet() && (deployPlans.size() == 1)) {
+				deployTimeline.print(bladeCLI.out());
+			}
+
+			try {
+				deployTimeline.append(_historyPath);
+			}
+			catch (IOException ioe) {
+				bladeCLI.error("Unable to write deploy history: " + ioe.getMessage());
+			}
+		}
+
+		if (!deployArgs.isQuiet() && (deployPlans.size() > 1)) {
+			_printResults(deployPlans);
+		}
+
+		bladeCLI.trace(
+			"Deployed %d files to %d nodes in %dms", files.size(), deployNodes.size(),
+			System.currentTimeMillis() - start);
 	}
 
-	private void _deployBundle(File file, LiferayBundleDeployer client, Domain bundle, Map.Entry<String, Attrs> bsn)
+	private void _deployBundle(File file, Domain bundle, Map.Entry<String, Attrs> bsn, DeployPlan deployPlan)
 		throws Exception {
 
+		DeployNode deployNode = deployPlan.deployNode;
+
+		LiferayBundleDeployer client = deployNode.client;
+
 		Map.Entry<String, Attrs> fragmentHost = bundle.getFragmentHost();
 
-		String hostBsn = null;
+		long hostId = -1L;
 
 		if (fragmentHost != null) {
-			hostBsn = fragmentHost.getKey();
+			hostId = client.getBundleId(fragmentHost.getKey());
 		}
 
-		Collection<BundleDTO> bundles = client.getBundles();
+		long existingId = client.getBundleId(bsn.getKey());
+
+		String digest = DeployLedger.digest(file.toPath());
+
+		RemoteDeployArgs deployArgs = getArgs();
+
+		if ((existingId > 0) && !deployArgs.isForce() &&
+			_deployLedger.isDeployed(deployNode.name, bsn.getKey(), digest)) {
+
+			deployPlan.skipped++;
+
+			_out(deployPlan, "Skipped unchanged bundle " + existingId);
+
+			return;
+		}
 
-		long existingId = client.getBundleId(bundles, bsn.getKey());
+		URI uri = _getURI(file, deployNode);
 
-		long hostId = client.getBundleId(bundles, hostBsn);
+		_deployLedger.remove(deployNode.name, bsn.getKey());
 
-		URI uri = file.toURI();
+		deployPlan.digests.put(bsn.getKey(), digest);
 
 		if (existingId > 0) {
-			_reloadExistingBundle(client, fragmentHost, existingId, hostId, uri);
+			if (fragmentHost == null) {
+				client.stop(existingId);
+
+				deployPlan.startBundles.put(existingId, bsn.getKey());
+			}
+
+			deployPlan.updateBundles.put(existingId, bsn.getKey());
+			deployPlan.updates.put(existingId, uri);
 		}
 		else {
-			_installNewBundle(client, bsn, fragmentHost, hostId, uri);
+			long installedId = client.install(uri);
+
+			DeployTimeline deployTimeline = deployPlan.deployTimeline;
+
+			deployTimeline.mark(bsn.getKey(), Phase.DEPLOY);
+
+			deployPlan.deployed++;
+
+			_out(deployPlan, "Installed bundle " + installedId);
+
+			if (fragmentHost == null) {
+				if (installedId != client.getBundleId(bsn.getKey())) {
+					_out(deployPlan, "Error: Bundle IDs do not match.");
+				}
+				else if (installedId > 1) {
+					deployPlan.startBundles.put(installedId, bsn.getKey());
+				}
+				else {
+					_out(deployPlan, "Error: bundle failed to start: " + bsn);
+				}
+			}
+			else if (hostId > 0) {
+				_out(deployPlan, "Deployed fragment bundle " + installedId);
+			}
+		}
+
+		if ((fragmentHost != null) && (hostId > 0)) {
+			deployPlan.fragmentBundles.add(bsn.getKey());
+			deployPlan.refreshBundles.put(hostId, fragmentHost.getKey());
 		}
 	}
 
-	private void _deployWar(File file, LiferayBundleDeployer liferayBundleDeployer) throws Exception {
-		URI uri = file.toURI();
+	/**
+	 * Deploys all files to one node in a single pass. Bundles are stopped and
+	 * installed first, existing bundles are updated together, the hosts of
+	 * every deployed fragment are refreshed with one command, and the bundles
+	 * are started together at the end. The time each bundle reaches each
+	 * phase is recorded in the deploy timeline. A bundle is only recorded in
+	 * the deploy ledger once it is started, or once its host is refreshed for
+	 * a fragment, so that a bundle that failed is deployed again next time.
+	 */
+	private DeployPlan _deployFiles(Collection<File> files, DeployNode deployNode, DeployTimeline deployTimeline) {
+		long start = System.currentTimeMillis();
+
+		LiferayBundleDeployer client = deployNode.client;
+
+		DeployPlan deployPlan = new DeployPlan(deployNode, deployTimeline);
+
+		for (File file : files) {
+			try {
+				_installOrUpdate(file, deployPlan);
+			}
+			catch (Exception e) {
+				_handleDeployException(e, "Error: Bundle Deployment failed: " + file, deployPlan);
+			}
+		}
+
+		Map<Long, URI> updates = deployPlan.updates;
+
+		if (!updates.isEmpty()) {
+			try {
+				client.update(updates);
+
+				for (long id : updates.keySet()) {
+					_out(deployPlan, "Updated bundle " + id);
+				}
+
+				deployPlan.deployed += updates.size();
+
+				Map<Long, String> updateBundles = deployPlan.updateBundles;
+
+				for (String bsn : updateBundles.values()) {
+					deployTimeline.mark(bsn, Phase.DEPLOY);
+				}
+			}
+			catch (Exception e) {
+				Map<Long, String> updateBundles = deployPlan.updateBundles;
+
+				Map<String, String> digests = deployPlan.digests;
+
+				Collection<String> bsns = updateBundles.values();
+
+				bsns.forEach(digests::remove);
+
+				_handleDeployException(e, "Error: Bundle update failed: " + updates.values(), deployPlan);
+			}
+		}
+
+		Map<Long, String> refreshBundles = deployPlan.refreshBundles;
+
+		Set<Long> refreshIds = refreshBundles.keySet();
+
+		if (!refreshIds.isEmpty()) {
+			try {
+				client.refresh(refreshIds);
+
+				long refreshTime = System.currentTimeMillis();
+
+				for (String bsn : refreshBundles.values()) {
+					deployTimeline.mark(bsn, Phase.REFRESH, refreshTime);
+				}
+
+				for (String bsn : deployPlan.fragmentBundles) {
+					_record(deployPlan, bsn);
+				}
+
+				_out(deployPlan, "Refreshed bundles " + refreshIds);
+			}
+			catch (Exception e) {
+				_handleDeployException(e, "Error: Bundle refresh failed: " + refreshIds, deployPlan);
+			}
+		}
+
+		Map<Long, String> startBundles = deployPlan.startBundles;
+		Map<Long, Long> startTimes = new LinkedHashMap<>();
+
+		for (Map.Entry<Long, String> entry : startBundles.entrySet()) {
+			long id = entry.getKey();
+
+			try {
+				client.start(id);
+
+				long startTime = System.currentTimeMillis();
+
+				deployTimeline.mark(entry.getValue(), Phase.START, startTime);
+
+				startTimes.put(id, startTime);
+
+				_record(deployPlan, entry.getValue());
+
+				_out(deployPlan, "Started bundle " + id);
+			}
+			catch (Exception e) {
+				_handleDeployException(e, "Error: Bundle Deployment failed: " + entry.getValue(), deployPlan);
+			}
+		}
+
+		if (!startTimes.isEmpty()) {
+			_awaitActive(deployPlan, startTimes);
+		}
+
+		deployPlan.time = System.currentTimeMillis() - start;
+
+		BladeCLI bladeCLI = getBladeCLI();
+
+		Class<?> clientClass = client.getClass();
+
+		bladeCLI.trace(
+			"Deployed %d files to %s with %s in %dms", files.size(), deployNode.name, clientClass.getSimpleName(),
+			deployPlan.time);
+
+		return deployPlan;
+	}
+
+	private void _deployWar(File file, DeployPlan deployPlan) throws Exception {
+		DeployNode deployNode = deployPlan.deployNode;
+
+		LiferayBundleDeployer liferayBundleDeployer = deployNode.client;
+
+		URI uri = _getURI(file, deployNode);
 
 		long bundleId = liferayBundleDeployer.install(uri);
 
-		if (bundleId > 0) {
-			BladeCLI bladeCLI = getBladeCLI();
+		DeployTimeline deployTimeline = deployPlan.deployTimeline;
 
-			PrintStream out = bladeCLI.out();
+		deployTimeline.mark(file.getName(), Phase.DEPLOY);
 
-			out.println("Installed bundle " + bundleId);
+		if (bundleId > 0) {
+			deployPlan.deployed++;
+
+			_out(deployPlan, "Installed bundle " + bundleId);
 
 			BundleDTO bundle = liferayBundleDeployer.getBundle(bundleId);
 
 			if (bundle.state == Bundle.INSTALLED) {
 				liferayBundleDeployer.start(bundleId);
 
-				out.println("Started bundle " + bundleId);
+				deployTimeline.mark(file.getName(), Phase.START);
+
+				_out(deployPlan, "Started bundle " + bundleId);
 			}
 			else if (bundle.state == Bundle.ACTIVE) {
 				liferayBundleDeployer.update(bundleId, uri);
 
-				out.println("Updated bundle " + bundleId);
+				_out(deployPlan, "Updated bundle " + bundleId);
 			}
 		}
 		else {
@@ -232,10 +793,11 @@ public class RemoteDeployCommand extends BaseCommand<RemoteDeployArgs> {
 	}
 
 	private void _deployWatch(
-			final GradleExec gradleExec, final Map<String, Set<File>> projectOutputFiles, String host, int port)
+			final GradleExec gradleExec, final Map<String, Set<File>> projectOutputFiles, List<DeployNode> deployNodes,
+			long start)
 		throws Exception {
 
-		_deploy(gradleExec, projectOutputFiles, host, port);
+		_deploy(gradleExec, projectOutputFiles, deployNodes, start);
 
 		Collection<Set<File>> values = projectOutputFiles.values();
 
@@ -277,133 +839,323 @@ public class RemoteDeployCommand extends BaseCommand<RemoteDeployArgs> {
 
 		thread.start();
 
-		FileWatcher.Consumer<Path> consumer = new FileWatcher.Consumer<Path>() {
+		Set<Path> outputDirs = new HashSet<>();
 
-			@Override
-			public void consume(Path modified) {
-				try {
-					File file = modified.toFile();
+		for (Path outputPath : outputPaths) {
+			Path outputDir = outputPath.getParent();
+
+			if (Files.isDirectory(outputDir)) {
+				outputDirs.add(outputDir);
+			}
+			else {
+				bladeCLI.error("Unable to watch " + outputPath + " because " + outputDir + " does not exist.");
+			}
+		}
 
-					File modifiedFile = file.getAbsoluteFile();
+		Map<Path, FileTime> deployedFileTimes = new ConcurrentHashMap<>();
+
+		try (FileWatchService fileWatchService = new FileWatchService(outputDirs, false)) {
+			fileWatchService.subscribe(
+				outputPaths::contains,
+				fileEvent -> {
+					Path modified = fileEvent.getPath();
+
+					if (fileEvent.getKind() == FileWatchService.FileEvent.Kind.DELETE) {
+						return;
+					}
+
+					long modifiedStart = System.currentTimeMillis();
+
+					try {
+						FileTime fileTime = _awaitStable(modified);
+
+						if (Objects.equals(fileTime, deployedFileTimes.get(modified))) {
+							return;
+						}
+
+						File modifiedFile = modified.toFile();
 
-					if (outputPaths.contains(modifiedFile.toPath())) {
 						bladeCLI.out("installOrUpdate " + modifiedFile);
 
-						_installOrUpdate(modifiedFile, host, port);
+						_deployAll(
+							Collections.singleton(modifiedFile), deployNodes, modifiedStart, fileTime.toMillis(),
+							false);
+
+						deployedFileTimes.put(modified, fileTime);
 					}
-				}
-				catch (Exception e) {
-					String exceptionMessage = (e.getMessage() == null) ? "" : (System.lineSeparator() + e.getMessage());
+					catch (Exception e) {
+						String exceptionMessage =
+							(e.getMessage() == null) ? "" : (System.lineSeparator() + e.getMessage());
 
-					String message = "Error: Bundle Insatllation failed: " + modified + exceptionMessage;
+						String message = "Error: Bundle Insatllation failed: " + modified + exceptionMessage;
 
-					_addError(message);
+						_addError(message);
 
-					PrintStream error = bladeCLI.error();
+						PrintStream error = bladeCLI.error();
 
-					e.printStackTrace(error);
-				}
-			}
+						e.printStackTrace(error);
+					}
+				});
 
-		};
+			fileWatchService.start();
+
+			bladeCLI.out("Watching " + outputPaths.size() + " output files in " + outputDirs.size() + " directories");
+
+			fileWatchService.awaitTermination();
+		}
+	}
 
-		BaseArgs args = bladeCLI.getArgs();
+	/**
+	 * Returns the URI a node installs the file from. A node on another host
+	 * can not read the file from this machine, so it downloads it over HTTP.
+	 */
+	private URI _getURI(File file, DeployNode deployNode) throws Exception {
+		InetAddress localAddress = deployNode.localAddress;
 
-		File baseDir = args.getBase();
+		if (localAddress == null) {
+			return file.toURI();
+		}
+
+		ArtifactServer artifactServer;
+
+		synchronized (this) {
+			if (_artifactServer == null) {
+				_artifactServer = new ArtifactServer();
+			}
+
+			artifactServer = _artifactServer;
+		}
 
-		new FileWatcher(baseDir.toPath(), true, consumer);
+		return artifactServer.getURI(file, localAddress);
 	}
 
-	private void _installNewBundle(
-			LiferayBundleDeployer client, Map.Entry<String, Attrs> bsn, Map.Entry<String, Attrs> fragmentHost,
-			long hostId, URI uri)
-		throws Exception {
+	private Path _getWorkspacePath(File baseDir) {
+		BladeCLI bladeCLI = getBladeCLI();
+
+		WorkspaceProvider workspaceProvider = bladeCLI.getWorkspaceProvider(baseDir);
+
+		if (workspaceProvider != null) {
+			File workspaceDir = workspaceProvider.getWorkspaceDir(baseDir);
+
+			return workspaceDir.toPath();
+		}
+
+		return baseDir.toPath();
+	}
 
+	private void _handleDeployException(Exception e, String message, DeployPlan deployPlan) {
 		BladeCLI bladeCLI = getBladeCLI();
 
-		PrintStream out = bladeCLI.out();
+		DeployNode deployNode = deployPlan.deployNode;
 
-		long installedId = client.install(uri);
+		deployPlan.failed++;
 
-		out.println("Installed bundle " + installedId);
+		String exceptionMessage = (e.getMessage() == null) ? "" : (System.lineSeparator() + e.getMessage());
 
-		if ((fragmentHost != null) && (hostId > 0)) {
-			client.refresh(hostId);
+		_addError(deployNode.prefix + message + exceptionMessage);
+
+		PrintStream error = bladeCLI.error();
+
+		e.printStackTrace(error);
+	}
+
+	private void _installOrUpdate(File file, DeployPlan deployPlan) throws Exception {
+		file = file.getAbsoluteFile();
 
-			out.println("Deployed fragment bundle " + installedId);
+		String name = file.getName();
+
+		name = name.toLowerCase();
+
+		if (name.endsWith(".war")) {
+			_deployWar(file, deployPlan);
 		}
 		else {
-			long existingId = client.getBundleId(bsn.getKey());
+			Domain bundle = Domain.domain(file);
 
-			try {
-				if (!Objects.equals(installedId, existingId)) {
-					out.println("Error: Bundle IDs do not match.");
-				}
-				else {
-					if (existingId > 1) {
-						client.start(existingId);
+			Map.Entry<String, Attrs> bsn = bundle.getBundleSymbolicName();
 
-						out.println("Started bundle " + installedId);
-					}
-					else {
-						out.println("Error: bundle failed to start: " + bsn);
-					}
-				}
+			if (bsn != null) {
+				_deployBundle(file, bundle, bsn, deployPlan);
 			}
-			catch (Exception e) {
-				String exceptionMessage = (e.getMessage() == null) ? "" : (System.lineSeparator() + e.getMessage());
+			else {
+				getBladeCLI().error("Unable to install or update " + file.getName() + "as it is not a bundle.");
+			}
+		}
+	}
 
-				String message = "Error: Bundle Deployment failed: " + bsn + exceptionMessage;
+	private LiferayBundleDeployer _newBundleDeployer(
+		GogoShellSessionManager gogoShellSessionManager, String host, int port) {
 
-				_addError("deploy watch", message);
+		BladeCLI bladeCLI = getBladeCLI();
 
-				PrintStream error = bladeCLI.error();
+		if (!BladeUtil.canConnect(host, port)) {
+			StringBuilder sb = new StringBuilder();
 
-				e.printStackTrace(error);
-			}
+			sb.append("Unable to connect to gogo shell on " + host + ":" + port);
+			sb.append(System.lineSeparator());
+			sb.append("Liferay may not be running, or the gogo shell may need to be enabled. ");
+			sb.append("Please see this link for more details: ");
+			sb.append("https://dev.liferay.com/en/develop/reference/");
+			sb.append("-/knowledge_base/7-1/using-the-felix-gogo-shell");
+			sb.append(System.lineSeparator());
+
+			_addError(sb.toString());
+
+			PrintStream error = bladeCLI.error();
+
+			ConnectException connectException = new ConnectException(sb.toString());
+
+			connectException.printStackTrace(error);
+
+			return null;
 		}
+
+		return gogoShellSessionManager.getBundleDeployer(host, port);
 	}
 
-	private void _installOrUpdate(File file, String host, int port) throws Exception {
-		file = file.getAbsoluteFile();
+	private DeployTimeline _newDeployTimeline(DeployNode deployNode, long start, long buildTime, boolean connected) {
+		LiferayBundleDeployer client = deployNode.client;
+
+		Class<?> clientClass = client.getClass();
+
+		DeployTimeline deployTimeline = new DeployTimeline(clientClass.getSimpleName(), deployNode.name, start);
 
-		try (LiferayBundleDeployer client = LiferayBundleDeployer.newInstance(host, port)) {
-			String name = file.getName();
+		deployTimeline.markAll(Phase.BUILD, buildTime);
 
-			name = name.toLowerCase();
+		if (connected) {
+			deployTimeline.markAll(Phase.CONNECT, deployNode.connectTime);
+		}
+
+		return deployTimeline;
+	}
 
-			if (name.endsWith(".war")) {
-				_deployWar(file, client);
+	private LiferayBundleDeployer _newJMXBundleDeployer() {
+		BladeCLI bladeCLI = getBladeCLI();
+
+		RemoteDeployArgs deployArgs = getArgs();
+
+		int jmxPort = deployArgs.getJmxPort();
+
+		try {
+			if (jmxPort > 0) {
+				return new JMXBundleDeployer(jmxPort);
 			}
-			else {
-				Domain bundle = Domain.domain(file);
 
-				Map.Entry<String, Attrs> bsn = bundle.getBundleSymbolicName();
+			return new JMXBundleDeployer(message -> bladeCLI.trace("%s", message));
+		}
+		catch (Exception e) {
+			String message = "Unable to connect to the OSGi framework over JMX";
 
-				if (bsn != null) {
-					_deployBundle(file, client, bundle, bsn);
-				}
-				else {
-					getBladeCLI().error("Unable to install or update " + file.getName() + "as it is not a bundle.");
-				}
+			if (jmxPort > 0) {
+				message = message + " on port " + jmxPort;
 			}
+
+			_addError(message);
+
+			PrintStream error = bladeCLI.error();
+
+			e.printStackTrace(error);
+
+			return null;
 		}
 	}
 
-	private final void _reloadExistingBundle(
-			LiferayBundleDeployer client, Map.Entry<String, Attrs> fragmentHost, long existingId, long hostId, URI uri)
-		throws Exception {
+	private void _out(DeployPlan deployPlan, String message) {
+		BladeCLI bladeCLI = getBladeCLI();
 
-		if ((fragmentHost != null) && (hostId > 0)) {
-			client.reloadFragment(existingId, hostId, uri);
-		}
-		else {
-			client.reloadBundle(existingId, uri);
+		DeployNode deployNode = deployPlan.deployNode;
+
+		bladeCLI.out(deployNode.prefix + message);
+	}
+
+	private void _printResults(List<DeployPlan> deployPlans) {
+		int width = "Node".length();
+
+		for (DeployPlan deployPlan : deployPlans) {
+			DeployNode deployNode = deployPlan.deployNode;
+
+			width = Math.max(width, deployNode.name.length());
 		}
 
+		String format = "%-" + width + "s%10s%10s%10s%10s";
+
 		PrintStream out = getBladeCLI().out();
 
-		out.println("Updated bundle " + existingId);
+		out.println(String.format(format, "Node", "Deployed", "Skipped", "Failed", "Time"));
+
+		for (DeployPlan deployPlan : deployPlans) {
+			DeployNode deployNode = deployPlan.deployNode;
+
+			out.println(
+				String.format(
+					format, deployNode.name, deployPlan.deployed, deployPlan.skipped, deployPlan.failed,
+					deployPlan.time + "ms"));
+		}
+	}
+
+	private void _record(DeployPlan deployPlan, String bsn) {
+		Map<String, String> digests = deployPlan.digests;
+
+		String digest = digests.get(bsn);
+
+		if (digest != null) {
+			DeployNode deployNode = deployPlan.deployNode;
+
+			_deployLedger.record(deployNode.name, bsn, digest);
+		}
+	}
+
+	private static final String _DEFAULT_HOST = "localhost";
+
+	private static final int _DEFAULT_PORT = 11311;
+
+	private static final String _HISTORY_FILE_NAME = ".blade/deploy-history.jsonl";
+
+	private static final long _STABLE_INTERVAL = 200;
+
+	private static final long _WAIT_ACTIVE_TIMEOUT = 60000;
+
+	private ArtifactServer _artifactServer;
+	private DeployLedger _deployLedger;
+	private Path _historyPath;
+
+	static class DeployNode {
+
+		public DeployNode(String name, LiferayBundleDeployer client, String prefix, InetAddress localAddress) {
+			this.name = name;
+			this.client = client;
+			this.prefix = prefix;
+			this.localAddress = localAddress;
+		}
+
+		public final LiferayBundleDeployer client;
+		public final long connectTime = System.currentTimeMillis();
+		public final InetAddress localAddress;
+		public final String name;
+		public final String prefix;
+
+	}
+
+	private static class DeployPlan {
+
+		public DeployPlan(DeployNode deployNode, DeployTimeline deployTimeline) {
+			this.deployNode = deployNode;
+			this.deployTimeline = deployTimeline;
+		}
+
+		public int deployed;
+		public final DeployNode deployNode;
+		public final DeployTimeline deployTimeline;
+		public final Map<String, String> digests = new LinkedHashMap<>();
+		public int failed;
+		public final Set<String> fragmentBundles = new LinkedHashSet<>();
+		public final Map<Long, String> refreshBundles = new LinkedHashMap<>();
+		public int skipped;
+		public final Map<Long, String> startBundles = new LinkedHashMap<>();
+		public long time;
+		public final Map<Long, String> updateBundles = new LinkedHashMap<>();
+		public final Map<Long, URI> updates = new LinkedHashMap<>();
+
 	}
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,94 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.liferay.blade.extensions.remote.deploy.command;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.InputStream;
+
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.URL;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * @author Gregory Amerson
+ */
+public class ArtifactServerTest {
+
+	@Test
+	public void testServeFile() throws Exception {
+		File file = temporaryFolder.newFile("com.liferay.foo 1.0.0.jar");
+
+		Files.write(file.toPath(), "foo".getBytes(StandardCharsets.UTF_8));
+
+		try (ArtifactServer artifactServer = new ArtifactServer()) {
+			URI uri = artifactServer.getURI(file, InetAddress.getLoopbackAddress());
+
+			Assert.assertEquals("http", uri.getScheme());
+			Assert.assertTrue(uri.getPath(), uri.getPath().endsWith("/com.liferay.foo 1.0.0.jar"));
+
+			Assert.assertEquals(uri, artifactServer.getURI(file, InetAddress.getLoopbackAddress()));
+
+			HttpURLConnection httpURLConnection = (HttpURLConnection)_toURL(uri).openConnection();
+
+			Assert.assertEquals(200, httpURLConnection.getResponseCode());
+
+			Assert.assertEquals("foo", _read(httpURLConnection));
+
+			URI unknownURI = uri.resolve("bar.jar");
+
+			httpURLConnection = (HttpURLConnection)_toURL(unknownURI).openConnection();
+
+			Assert.assertEquals(404, httpURLConnection.getResponseCode());
+		}
+	}
+
+	@Rule
+	public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private static String _read(HttpURLConnection httpURLConnection) throws Exception {
+		ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+
+		try (InputStream inputStream = httpURLConnection.getInputStream()) {
+			byte[] buffer = new byte[1024];
+
+			int length = inputStream.read(buffer);
+
+			while (length != -1) {
+				byteArrayOutputStream.write(buffer, 0, length);
+
+				length = inputStream.read(buffer);
+			}
+		}
+
+		return new String(byteArrayOutputStream.toByteArray(), StandardCharsets.UTF_8);
+	}
+
+	private static URL _toURL(URI uri) throws Exception {
+		return new URL(uri.toASCIIString());
+	}
+
+}
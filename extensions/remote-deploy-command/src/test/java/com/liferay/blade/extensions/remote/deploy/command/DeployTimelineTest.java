@@ -0,0 +1,127 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.liferay.blade.extensions.remote.deploy.command;
+
+import com.liferay.blade.extensions.remote.deploy.command.DeployTimeline.Phase;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * @author Gregory Amerson
+ */
+public class DeployTimelineTest {
+
+	@Test
+	public void testAppendEscapesJsonLines() throws Exception {
+		DeployTimeline deployTimeline = new DeployTimeline("Deployer", "node \"a\"\\b", 1000);
+
+		deployTimeline.mark("com.example.new\nline", Phase.DEPLOY, 1250);
+
+		Path historyPath = temporaryFolder.getRoot().toPath().resolve("history/deploy.jsonl");
+
+		deployTimeline.append(historyPath);
+		deployTimeline.append(historyPath);
+
+		List<String> lines = Files.readAllLines(historyPath, StandardCharsets.UTF_8);
+
+		Assert.assertEquals(lines.toString(), 2, lines.size());
+
+		Assert.assertEquals(
+			"{\"time\":1000,\"deployer\":\"Deployer\",\"node\":\"node \\\"a\\\"\\\\b\"," +
+				"\"bundle\":\"com.example.new\\u000aline\",\"deploy\":250}",
+			lines.get(0));
+	}
+
+	@Test
+	public void testMarkAllAppliesToLaterBundles() throws Exception {
+		DeployTimeline deployTimeline = new DeployTimeline("Deployer", "node", 1000);
+
+		deployTimeline.mark("com.example.first", Phase.DEPLOY, 1100);
+
+		deployTimeline.markAll(Phase.BUILD, 1050);
+
+		deployTimeline.mark("com.example.second", Phase.DEPLOY, 1200);
+
+		String table = _print(deployTimeline);
+
+		String[] lines = table.split(System.lineSeparator());
+
+		Assert.assertEquals(table, 3, lines.length);
+
+		Assert.assertEquals(
+			"Bundle                build  connect   deploy  refresh    start   active", lines[0]);
+		Assert.assertEquals(
+			"com.example.first        50        -      100        -        -        -", lines[1]);
+		Assert.assertEquals(
+			"com.example.second       50        -      200        -        -        -", lines[2]);
+	}
+
+	@Test
+	public void testMarkOnlyAppliesToItsBundle() throws Exception {
+		DeployTimeline deployTimeline = new DeployTimeline("Deployer", "node", 1000);
+
+		deployTimeline.mark("com.example.fragment", Phase.DEPLOY, 1100);
+		deployTimeline.mark("com.example.host", Phase.REFRESH, 1300);
+		deployTimeline.mark("com.example.other", Phase.DEPLOY, 1400);
+
+		String table = _print(deployTimeline);
+
+		String[] lines = table.split(System.lineSeparator());
+
+		Assert.assertEquals(table, 4, lines.length);
+
+		Assert.assertEquals(
+			"com.example.fragment        -        -      100        -        -        -", lines[1]);
+		Assert.assertEquals(
+			"com.example.host            -        -        -      300        -        -", lines[2]);
+		Assert.assertEquals(
+			"com.example.other           -        -      400        -        -        -", lines[3]);
+	}
+
+	@Test
+	public void testPrintWithoutBundles() throws Exception {
+		DeployTimeline deployTimeline = new DeployTimeline("Deployer", "node", 1000);
+
+		Assert.assertEquals("", _print(deployTimeline));
+	}
+
+	@Rule
+	public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private static String _print(DeployTimeline deployTimeline) throws Exception {
+		ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+
+		try (PrintStream printStream = new PrintStream(byteArrayOutputStream, true, "UTF-8")) {
+			deployTimeline.print(printStream);
+		}
+
+		return byteArrayOutputStream.toString("UTF-8");
+	}
+
+}
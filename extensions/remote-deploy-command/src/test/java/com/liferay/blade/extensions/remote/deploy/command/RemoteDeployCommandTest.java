@@ -0,0 +1,129 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.liferay.blade.extensions.remote.deploy.command;
+
+import com.beust.jcommander.JCommander;
+
+import com.liferay.blade.cli.BladeCLI;
+import com.liferay.blade.cli.LiferayBundleDeployer;
+import com.liferay.blade.cli.gradle.FakeGogoShellServer;
+import com.liferay.blade.cli.gradle.GogoShellSessionManager;
+import com.liferay.blade.extensions.remote.deploy.command.RemoteDeployCommand.DeployNode;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import java.net.ServerSocket;
+
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author Gregory Amerson
+ */
+public class RemoteDeployCommandTest {
+
+	@Test
+	public void testNewDeployNodesRejectsUnbracketedIPv6Host() throws Exception {
+		try (FakeGogoShellServer fakeGogoShellServer = new FakeGogoShellServer(command -> _LIST_RESPONSE);
+			GogoShellSessionManager gogoShellSessionManager = new GogoShellSessionManager()) {
+
+			int port = fakeGogoShellServer.getPort();
+
+			List<DeployNode> deployNodes = _newDeployNodes(
+				gogoShellSessionManager, "--host", "[::1]:" + port, "--host", "::1");
+
+			Assert.assertEquals(1, deployNodes.size());
+
+			DeployNode deployNode = deployNodes.get(0);
+
+			Assert.assertEquals("[::1]:" + port, deployNode.name);
+
+			LiferayBundleDeployer client = deployNode.client;
+
+			Assert.assertEquals(1L, client.getBundleId("com.liferay.foo"));
+
+			String error = _error.toString("UTF-8");
+
+			Assert.assertTrue(error, error.contains("Invalid --host ::1"));
+		}
+	}
+
+	@Test
+	public void testNewDeployNodesSkipsUnreachableHost() throws Exception {
+		int downPort;
+
+		try (ServerSocket serverSocket = new ServerSocket(0)) {
+			downPort = serverSocket.getLocalPort();
+		}
+
+		try (FakeGogoShellServer fakeGogoShellServer = new FakeGogoShellServer(command -> _LIST_RESPONSE);
+			GogoShellSessionManager gogoShellSessionManager = new GogoShellSessionManager()) {
+
+			int upPort = fakeGogoShellServer.getPort();
+
+			List<DeployNode> deployNodes = _newDeployNodes(
+				gogoShellSessionManager, "--host", "localhost:" + downPort, "--host", "localhost:" + upPort);
+
+			Assert.assertEquals(1, deployNodes.size());
+
+			DeployNode deployNode = deployNodes.get(0);
+
+			Assert.assertEquals("localhost:" + upPort, deployNode.name);
+			Assert.assertEquals("[localhost:" + upPort + "] ", deployNode.prefix);
+
+			LiferayBundleDeployer client = deployNode.client;
+
+			Assert.assertEquals(1L, client.getBundleId("com.liferay.foo"));
+
+			List<String> commands = fakeGogoShellServer.getCommands();
+
+			Assert.assertTrue(commands.toString(), commands.contains("lb -s -u"));
+
+			String error = _error.toString("UTF-8");
+
+			Assert.assertTrue(error, error.contains("Unable to connect to gogo shell on localhost:" + downPort));
+		}
+	}
+
+	private List<DeployNode> _newDeployNodes(GogoShellSessionManager gogoShellSessionManager, String... args) {
+		RemoteDeployArgs remoteDeployArgs = new RemoteDeployArgs();
+
+		JCommander jCommander = new JCommander(remoteDeployArgs);
+
+		jCommander.parse(args);
+
+		RemoteDeployCommand remoteDeployCommand = new RemoteDeployCommand();
+
+		remoteDeployCommand.setArgs(remoteDeployArgs);
+		remoteDeployCommand.setBlade(
+			new BladeCLI(new PrintStream(_out), new PrintStream(_error), new ByteArrayInputStream(new byte[0])));
+
+		return remoteDeployCommand.newDeployNodes(gogoShellSessionManager);
+	}
+
+	private static final String _LIST_RESPONSE =
+		"START LEVEL 20\n   ID|State      |Level|Symbolic name\n    0|Active     |    0|org.apache.felix\n" +
+			"    1|Active     |   10|com.liferay.foo";
+
+	private final ByteArrayOutputStream _error = new ByteArrayOutputStream();
+	private final ByteArrayOutputStream _out = new ByteArrayOutputStream();
+
+}